@@ -7,6 +7,9 @@ package org.tablevert.core;
 
 import org.tablevert.core.config.PredefinedDatabaseQuery;
 
+import java.util.ArrayList;
+import java.util.List;
+
 /**
  * A database query, where the underlying {@link PredefinedDatabaseQuery} instance is extended with
  * context-specific filtering and sorting.
@@ -18,6 +21,22 @@ public class AppliedDatabaseQuery implements AppliedQuery {
      */
     public static class Builder {
         private String baseQueryName;
+        private Integer fetchSize;
+        private List<AppliedFilter> filters;
+        private List<String> sorting;
+        private Integer limit;
+        private Long offset;
+        private Integer keysetPageSize;
+        private String continuationToken;
+        private List<Object> seekValues;
+        private boolean bulkCopy;
+
+        /**
+         * Instantiates the builder.
+         */
+        public Builder() {
+            this.filters = new ArrayList<>();
+        }
 
         /**
          * Sets the {@link PredefinedDatabaseQuery} reference.
@@ -30,6 +49,128 @@ public class AppliedDatabaseQuery implements AppliedQuery {
             return this;
         }
 
+        /**
+         * Switches to streaming mode, where rows are fetched through a read-only cursor in batches
+         * of the given size instead of being buffered completely by the database driver.
+         *
+         * @param fetchSize the number of rows to fetch per round trip
+         * @return the builder
+         */
+        public Builder streamingWithFetchSize(int fetchSize) {
+            this.fetchSize = fetchSize;
+            return this;
+        }
+
+        /**
+         * Switches to bulk copy mode, where the composed query is exported through the database's bulk copy
+         * command and parsed directly into grid rows, avoiding the per-row overhead of the JDBC result set.
+         * Intended for full exports; supported for PostgreSQL only and not combinable with keyset paging.
+         * Since bulk copy does not accept statement parameters, applied filter values are inlined as escaped literals.
+         *
+         * @return the builder
+         */
+        public Builder usingBulkCopy() {
+            this.bulkCopy = true;
+            return this;
+        }
+
+        /**
+         * Adds a filter predicate, which is combined with the base query's filter and all other
+         * applied filters by {@code AND}.
+         *
+         * @param filter the filter to add
+         * @return the builder
+         */
+        public Builder withFilter(AppliedFilter filter) {
+            this.filters.add(filter);
+            return this;
+        }
+
+        /**
+         * Adds multiple filter predicates.
+         * Calls {@code withFilter} for each filter.
+         *
+         * @param filters the filters to add
+         * @return the builder
+         */
+        public Builder withFilters(List<AppliedFilter> filters) {
+            if (filters != null) {
+                for (AppliedFilter filter : filters) {
+                    withFilter(filter);
+                }
+            }
+            return this;
+        }
+
+        /**
+         * Overrides the sorting of the base query.
+         * If a column name is prefixed with a minus character ('-'), it will be ordered descendingly.
+         *
+         * @param sorting the sort columns
+         * @return the builder
+         */
+        public Builder withSorting(List<String> sorting) {
+            this.sorting = sorting == null ? null : new ArrayList<>(sorting);
+            return this;
+        }
+
+        /**
+         * Restricts the result to the given number of rows.
+         *
+         * @param limit the maximum number of rows
+         * @return the builder
+         */
+        public Builder withLimit(int limit) {
+            this.limit = limit;
+            return this;
+        }
+
+        /**
+         * Skips the given number of rows at the beginning of the result.
+         *
+         * @param offset the number of rows to skip
+         * @return the builder
+         */
+        public Builder withOffset(long offset) {
+            this.offset = offset;
+            return this;
+        }
+
+        /**
+         * Switches to keyset pagination, where a page is located by the sort key values of the
+         * previous page's last row instead of an offset.
+         * The sorting must consist of query columns and end with a column which makes the order unique.
+         *
+         * @param pageSize the maximum number of rows per page
+         * @return the builder
+         */
+        public Builder withKeysetPaging(int pageSize) {
+            this.keysetPageSize = pageSize;
+            return this;
+        }
+
+        /**
+         * Requests the keyset page following the page which returned the continuation token.
+         *
+         * @param continuationToken the token returned with the previous page
+         * @return the builder
+         */
+        public Builder continuingAfter(String continuationToken) {
+            this.continuationToken = continuationToken;
+            return this;
+        }
+
+        /**
+         * Requests the keyset page following the row with the given sort key values.
+         *
+         * @param sortKeyValues the values of the sort columns, in sorting order
+         * @return the builder
+         */
+        public Builder seekingAfter(List<Object> sortKeyValues) {
+            this.seekValues = sortKeyValues == null ? null : new ArrayList<>(sortKeyValues);
+            return this;
+        }
+
         /**
          * Builds the {@link AppliedDatabaseQuery} object.
          *
@@ -39,11 +180,29 @@ public class AppliedDatabaseQuery implements AppliedQuery {
             // TODO: Add validation
             AppliedDatabaseQuery appliedQuery = new AppliedDatabaseQuery();
             appliedQuery.baseQueryName = this.baseQueryName;
+            appliedQuery.fetchSize = this.fetchSize;
+            appliedQuery.bulkCopy = this.bulkCopy;
+            appliedQuery.filters = new ArrayList<>(this.filters);
+            appliedQuery.sorting = this.sorting == null ? null : new ArrayList<>(this.sorting);
+            appliedQuery.limit = this.limit;
+            appliedQuery.offset = this.offset;
+            appliedQuery.keysetPageSize = this.keysetPageSize;
+            appliedQuery.continuationToken = this.continuationToken;
+            appliedQuery.seekValues = this.seekValues == null ? null : new ArrayList<>(this.seekValues);
             return appliedQuery;
         }
     }
 
     private String baseQueryName;
+    private Integer fetchSize;
+    private boolean bulkCopy;
+    private List<AppliedFilter> filters;
+    private List<String> sorting;
+    private Integer limit;
+    private Long offset;
+    private Integer keysetPageSize;
+    private String continuationToken;
+    private List<Object> seekValues;
 
     private AppliedDatabaseQuery() {
     }
@@ -58,4 +217,75 @@ public class AppliedDatabaseQuery implements AppliedQuery {
         return baseQueryName;
     }
 
+    /**
+     * Gets the cursor fetch size for streaming mode.
+     *
+     * @return the fetch size, or {@code null} if the query is not read in streaming mode
+     */
+    public Integer getFetchSize() {
+        return fetchSize;
+    }
+
+    /**
+     * @return {@code true} if the query is read through the database's bulk copy command
+     */
+    public boolean isBulkCopy() {
+        return bulkCopy;
+    }
+
+    /**
+     * Gets a copy of the applied filter predicates.
+     *
+     * @return the filters
+     */
+    public List<AppliedFilter> getFilters() {
+        return new ArrayList<>(filters);
+    }
+
+    /**
+     * Gets a copy of the sorting overriding the base query's sorting.
+     *
+     * @return the sort columns, or {@code null} if the base query's sorting applies
+     */
+    public List<String> getSorting() {
+        return sorting == null ? null : new ArrayList<>(sorting);
+    }
+
+    /**
+     * @return the maximum number of rows, or {@code null} if unlimited
+     */
+    public Integer getLimit() {
+        return limit;
+    }
+
+    /**
+     * @return the number of rows to skip, or {@code null} if none
+     */
+    public Long getOffset() {
+        return offset;
+    }
+
+    /**
+     * @return the keyset page size, or {@code null} if keyset pagination is not used
+     */
+    public Integer getKeysetPageSize() {
+        return keysetPageSize;
+    }
+
+    /**
+     * @return the continuation token of the previous keyset page, or {@code null} if not set
+     */
+    public String getContinuationToken() {
+        return continuationToken;
+    }
+
+    /**
+     * Gets a copy of the sort key values to seek after.
+     *
+     * @return the sort key values, or {@code null} if not set
+     */
+    public List<Object> getSeekValues() {
+        return seekValues == null ? null : new ArrayList<>(seekValues);
+    }
+
 }
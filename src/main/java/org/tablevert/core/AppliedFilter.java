@@ -0,0 +1,57 @@
+/*
+ * Copyright 2019 conis Informationssysteme GmbH
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.tablevert.core;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A single filter predicate applied to a column of the underlying query, e.g. {@code amount >= 100}.
+ * The comparison values are passed to the database as bind parameters.
+ */
+public final class AppliedFilter {
+
+    private final String columnName;
+    private final FilterOperator operator;
+    private final List<Object> values;
+
+    /**
+     * Creates the filter.
+     *
+     * @param columnName the name by which the column is referenced in the query result
+     * @param operator the comparison operator
+     * @param values the values to compare with; none for the {@code IS [NOT] NULL} operators,
+     *               at least one for {@code IN}, exactly one otherwise
+     */
+    public AppliedFilter(String columnName, FilterOperator operator, Object... values) {
+        this.columnName = columnName;
+        this.operator = operator;
+        this.values = values == null ? new ArrayList<>() : new ArrayList<>(Arrays.asList(values));
+    }
+
+    /**
+     * @return the name of the filtered column
+     */
+    public String getColumnName() {
+        return columnName;
+    }
+
+    /**
+     * @return the comparison operator
+     */
+    public FilterOperator getOperator() {
+        return operator;
+    }
+
+    /**
+     * @return a copy of the comparison values
+     */
+    public List<Object> getValues() {
+        return new ArrayList<>(values);
+    }
+
+}
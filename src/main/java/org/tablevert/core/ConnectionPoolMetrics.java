@@ -0,0 +1,181 @@
+/*
+ * Copyright 2019 conis Informationssysteme GmbH
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.tablevert.core;
+
+/**
+ * Snapshot of the usage statistics of a database connection pool.
+ */
+public final class ConnectionPoolMetrics {
+
+    static final class Builder {
+        private final ConnectionPoolMetrics metrics;
+
+        Builder() {
+            this.metrics = new ConnectionPoolMetrics();
+        }
+
+        Builder forDatabase(String databaseName) {
+            metrics.databaseName = databaseName;
+            return this;
+        }
+
+        Builder withSizeLimits(int minSize, int maxSize) {
+            metrics.minSize = minSize;
+            metrics.maxSize = maxSize;
+            return this;
+        }
+
+        Builder withActiveCount(int activeCount) {
+            metrics.activeCount = activeCount;
+            return this;
+        }
+
+        Builder withIdleCount(int idleCount) {
+            metrics.idleCount = idleCount;
+            return this;
+        }
+
+        Builder withCreatedCount(long createdCount) {
+            metrics.createdCount = createdCount;
+            return this;
+        }
+
+        Builder withClosedCount(long closedCount) {
+            metrics.closedCount = closedCount;
+            return this;
+        }
+
+        Builder withBorrowCount(long borrowCount) {
+            metrics.borrowCount = borrowCount;
+            return this;
+        }
+
+        Builder withBorrowTimeoutCount(long borrowTimeoutCount) {
+            metrics.borrowTimeoutCount = borrowTimeoutCount;
+            return this;
+        }
+
+        Builder withValidationFailureCount(long validationFailureCount) {
+            metrics.validationFailureCount = validationFailureCount;
+            return this;
+        }
+
+        Builder withEvictedCount(long evictedCount) {
+            metrics.evictedCount = evictedCount;
+            return this;
+        }
+
+        Builder withBorrowWaitNanos(long borrowWaitNanos) {
+            metrics.borrowWaitNanos = borrowWaitNanos;
+            return this;
+        }
+
+        ConnectionPoolMetrics build() {
+            return metrics;
+        }
+    }
+
+    private String databaseName;
+    private int minSize;
+    private int maxSize;
+    private int activeCount;
+    private int idleCount;
+    private long createdCount;
+    private long closedCount;
+    private long borrowCount;
+    private long borrowTimeoutCount;
+    private long validationFailureCount;
+    private long evictedCount;
+    private long borrowWaitNanos;
+
+    private ConnectionPoolMetrics() {
+    }
+
+    /**
+     * @return the name of the pooled database
+     */
+    public String getDatabaseName() {
+        return databaseName;
+    }
+
+    /**
+     * @return the number of connections kept open while idle
+     */
+    public int getMinSize() {
+        return minSize;
+    }
+
+    /**
+     * @return the maximum number of connections borrowed at the same time
+     */
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    /**
+     * @return the number of connections currently borrowed
+     */
+    public int getActiveCount() {
+        return activeCount;
+    }
+
+    /**
+     * @return the number of open connections waiting to be borrowed
+     */
+    public int getIdleCount() {
+        return idleCount;
+    }
+
+    /**
+     * @return the total number of physical connections opened by the pool
+     */
+    public long getCreatedCount() {
+        return createdCount;
+    }
+
+    /**
+     * @return the total number of physical connections closed by the pool
+     */
+    public long getClosedCount() {
+        return closedCount;
+    }
+
+    /**
+     * @return the total number of successful borrow operations
+     */
+    public long getBorrowCount() {
+        return borrowCount;
+    }
+
+    /**
+     * @return the number of borrow operations which timed out waiting for a free connection
+     */
+    public long getBorrowTimeoutCount() {
+        return borrowTimeoutCount;
+    }
+
+    /**
+     * @return the number of idle connections discarded because they failed validation on borrow
+     */
+    public long getValidationFailureCount() {
+        return validationFailureCount;
+    }
+
+    /**
+     * @return the number of connections closed after exceeding the maximum idle time
+     */
+    public long getEvictedCount() {
+        return evictedCount;
+    }
+
+    /**
+     * @return the accumulated time in nanoseconds spent waiting for a free connection
+     */
+    public long getBorrowWaitNanos() {
+        return borrowWaitNanos;
+    }
+
+}
@@ -0,0 +1,158 @@
+/*
+ * Copyright 2019 conis Informationssysteme GmbH
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.tablevert.core;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+
+/**
+ * Applies a {@link ContentEncoding} on the fly to the bytes written into a stream.
+ * The {@link Deflater} instances, which hold native memory, are pooled and reused across outputs.
+ */
+final class ContentEncoder {
+
+    static final int MAX_POOLED_DEFLATERS = 16;
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final byte[] GZIP_HEADER = {0x1f, (byte) 0x8b, Deflater.DEFLATED, 0, 0, 0, 0, 0, 0, (byte) 0xff};
+
+    private static final BlockingQueue<Deflater> RAW_DEFLATERS = new ArrayBlockingQueue<>(MAX_POOLED_DEFLATERS);
+    private static final BlockingQueue<Deflater> ZLIB_DEFLATERS = new ArrayBlockingQueue<>(MAX_POOLED_DEFLATERS);
+
+    private ContentEncoder() {
+    }
+
+    /**
+     * Opens a stream encoding the bytes written into it.
+     * Closing the stream completes the encoded data, but leaves the target stream open;
+     * if writing the content fails, the stream is to be {@link EncodingOutputStream#abort() aborted} instead.
+     *
+     * @param target the stream to write the encoded bytes to
+     * @param encoding the encoding, either {@link ContentEncoding#GZIP} or {@link ContentEncoding#DEFLATE}
+     * @param level the deflate level from 0 to 9, or -1 for the default level
+     * @return the encoding stream
+     * @throws IOException if the gzip header cannot be written
+     */
+    static EncodingOutputStream open(OutputStream target, ContentEncoding encoding, int level) throws IOException {
+        if (level < Deflater.DEFAULT_COMPRESSION || level > Deflater.BEST_COMPRESSION) {
+            throw new IllegalArgumentException("Invalid deflate level [" + level + "]");
+        }
+        switch (encoding) {
+            case GZIP:
+                return new EncodingOutputStream(target, borrowDeflater(RAW_DEFLATERS, true, level), RAW_DEFLATERS, true);
+            case DEFLATE:
+                return new EncodingOutputStream(target, borrowDeflater(ZLIB_DEFLATERS, false, level), ZLIB_DEFLATERS, false);
+            default:
+                throw new IllegalArgumentException("No encoder defined for ContentEncoding " + encoding);
+        }
+    }
+
+    private static Deflater borrowDeflater(BlockingQueue<Deflater> pool, boolean nowrap, int level) {
+        Deflater deflater = pool.poll();
+        if (deflater == null) {
+            return new Deflater(level, nowrap);
+        }
+        deflater.setLevel(level);
+        return deflater;
+    }
+
+    private static void returnDeflater(BlockingQueue<Deflater> pool, Deflater deflater) {
+        deflater.reset();
+        if (!pool.offer(deflater)) {
+            deflater.end();
+        }
+    }
+
+    /**
+     * Deflates the written bytes, framed as gzip member or zlib stream.
+     */
+    static final class EncodingOutputStream extends DeflaterOutputStream {
+        private final BlockingQueue<Deflater> pool;
+        private final CRC32 crc;
+        private boolean finished;
+        private boolean closed;
+
+        private EncodingOutputStream(OutputStream target, Deflater deflater, BlockingQueue<Deflater> pool,
+                                     boolean gzip) throws IOException {
+            super(target, deflater, BUFFER_SIZE);
+            this.pool = pool;
+            this.crc = gzip ? new CRC32() : null;
+            if (gzip) {
+                target.write(GZIP_HEADER);
+            }
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            if (closed) {
+                throw new IOException("Encoding stream closed");
+            }
+            super.write(b, off, len);
+            if (crc != null) {
+                crc.update(b, off, len);
+            }
+        }
+
+        /**
+         * Completes the encoded data, writing the gzip trailer if framed as gzip member; further calls do nothing.
+         */
+        @Override
+        public void finish() throws IOException {
+            if (finished) {
+                return;
+            }
+            finished = true;
+            super.finish();
+            if (crc != null) {
+                writeIntLittleEndian((int) crc.getValue());
+                writeIntLittleEndian((int) def.getBytesRead());
+            }
+        }
+
+        /**
+         * Completes the encoded data and returns the deflater to the pool; the target stream is flushed, not closed.
+         */
+        @Override
+        public void close() throws IOException {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            try {
+                finish();
+                out.flush();
+            } finally {
+                returnDeflater(pool, def);
+            }
+        }
+
+        /**
+         * Returns the deflater to the pool without completing the encoded data, so that a client reading
+         * the truncated content cannot mistake it for complete content. Does nothing once the stream is closed.
+         */
+        void abort() {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            finished = true;
+            returnDeflater(pool, def);
+        }
+
+        private void writeIntLittleEndian(int value) throws IOException {
+            out.write(value & 0xff);
+            out.write((value >>> 8) & 0xff);
+            out.write((value >>> 16) & 0xff);
+            out.write((value >>> 24) & 0xff);
+        }
+    }
+
+}
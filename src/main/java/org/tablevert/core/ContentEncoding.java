@@ -0,0 +1,32 @@
+/*
+ * Copyright 2019 conis Informationssysteme GmbH
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.tablevert.core;
+
+/**
+ * Content encodings applicable when writing an {@link Output}, named as in the HTTP
+ * {@code Content-Encoding} header.
+ */
+public enum ContentEncoding {
+    IDENTITY("identity"),
+
+    GZIP("gzip"),
+
+    DEFLATE("deflate");
+
+    private final String token;
+
+    ContentEncoding(String token) {
+        this.token = token;
+    }
+
+    /**
+     * @return the token of the encoding for the {@code Content-Encoding} header
+     */
+    public String getToken() {
+        return token;
+    }
+
+}
@@ -0,0 +1,254 @@
+/*
+ * Copyright 2019 conis Informationssysteme GmbH
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.tablevert.core;
+
+import java.util.Objects;
+
+/**
+ * Dialect of CSV output, i.e. the characters separating and quoting the fields and records.
+ * The {@link #defaults() default dialect} follows RFC 4180.
+ */
+public final class CsvDialect {
+
+    static final String CRLF = "\r\n";
+
+    /**
+     * Determines which fields are enclosed in quotes. Empty fields holding {@code null} values are never quoted,
+     * and quote characters within quoted fields are doubled.
+     */
+    public enum Quoting {
+        /**
+         * Quotes fields only if they contain the delimiter, the quote character or a line break.
+         */
+        MINIMAL,
+
+        /**
+         * Quotes all fields except numbers.
+         */
+        NON_NUMERIC,
+
+        /**
+         * Quotes all fields.
+         */
+        ALL
+    }
+
+    /**
+     * Builder for {@link CsvDialect} instances.
+     */
+    public static class Builder {
+        private char delimiter;
+        private char quoteCharacter;
+        private Quoting quoting;
+        private String lineEnding;
+        private boolean byteOrderMark;
+        private boolean header;
+
+        /**
+         * Instantiates the builder.
+         */
+        public Builder() {
+            this.delimiter = ',';
+            this.quoteCharacter = '"';
+            this.quoting = Quoting.MINIMAL;
+            this.lineEnding = CRLF;
+            this.header = true;
+        }
+
+        /**
+         * Sets the character separating the fields of a record, e.g. {@code ';'} or {@code '\t'}.
+         *
+         * @param delimiter the ASCII delimiter character
+         * @return the builder
+         */
+        public Builder withDelimiter(char delimiter) {
+            this.delimiter = delimiter;
+            return this;
+        }
+
+        /**
+         * Sets the character enclosing quoted fields.
+         *
+         * @param quoteCharacter the ASCII quote character
+         * @return the builder
+         */
+        public Builder withQuoteCharacter(char quoteCharacter) {
+            this.quoteCharacter = quoteCharacter;
+            return this;
+        }
+
+        /**
+         * Sets which fields are quoted.
+         *
+         * @param quoting the quoting mode
+         * @return the builder
+         */
+        public Builder withQuoting(Quoting quoting) {
+            this.quoting = quoting;
+            return this;
+        }
+
+        /**
+         * Sets the characters terminating each record.
+         *
+         * @param lineEnding either {@code "\r\n"}, {@code "\n"} or {@code "\r"}
+         * @return the builder
+         */
+        public Builder withLineEnding(String lineEnding) {
+            this.lineEnding = lineEnding;
+            return this;
+        }
+
+        /**
+         * Starts the output with a UTF-8 byte order mark, which some spreadsheet applications require
+         * to detect the encoding.
+         *
+         * @return the builder
+         */
+        public Builder withByteOrderMark() {
+            this.byteOrderMark = true;
+            return this;
+        }
+
+        /**
+         * Omits the header record holding the column names.
+         *
+         * @return the builder
+         */
+        public Builder withoutHeader() {
+            this.header = false;
+            return this;
+        }
+
+        /**
+         * Builds the {@link CsvDialect} object.
+         *
+         * @return the built object
+         * @throws BuilderFailedException if the dialect is invalid
+         */
+        public CsvDialect build() throws BuilderFailedException {
+            validate();
+            return new CsvDialect(delimiter, quoteCharacter, quoting, lineEnding, byteOrderMark, header);
+        }
+
+        private void validate() throws BuilderFailedException {
+            String errors = "";
+            if (!isValidSeparator(delimiter)) {
+                errors += " - invalid delimiter [" + delimiter + "];";
+            }
+            if (!isValidSeparator(quoteCharacter)) {
+                errors += " - invalid quote character [" + quoteCharacter + "];";
+            }
+            if (delimiter == quoteCharacter) {
+                errors += " - delimiter and quote character must differ;";
+            }
+            if (quoting == null) {
+                errors += " - missing quoting;";
+            }
+            if (!CRLF.equals(lineEnding) && !"\n".equals(lineEnding) && !"\r".equals(lineEnding)) {
+                errors += " - invalid line ending;";
+            }
+            if (!errors.isEmpty()) {
+                throw new BuilderFailedException("Builder validation failed with errors: " + errors);
+            }
+        }
+
+        private static boolean isValidSeparator(char c) {
+            return c < 0x80 && c != '\r' && c != '\n';
+        }
+    }
+
+    private static final CsvDialect DEFAULTS = new CsvDialect(',', '"', Quoting.MINIMAL, CRLF, false, true);
+
+    private final char delimiter;
+    private final char quoteCharacter;
+    private final Quoting quoting;
+    private final String lineEnding;
+    private final boolean byteOrderMark;
+    private final boolean header;
+
+    private CsvDialect(char delimiter, char quoteCharacter, Quoting quoting, String lineEnding,
+                       boolean byteOrderMark, boolean header) {
+        this.delimiter = delimiter;
+        this.quoteCharacter = quoteCharacter;
+        this.quoting = quoting;
+        this.lineEnding = lineEnding;
+        this.byteOrderMark = byteOrderMark;
+        this.header = header;
+    }
+
+    /**
+     * Gets the dialect of RFC 4180: comma-separated fields, quoted with double quotes where necessary,
+     * CRLF line endings, a header record and no byte order mark.
+     *
+     * @return the default dialect
+     */
+    public static CsvDialect defaults() {
+        return DEFAULTS;
+    }
+
+    /**
+     * @return the character separating the fields of a record
+     */
+    public char getDelimiter() {
+        return delimiter;
+    }
+
+    /**
+     * @return the character enclosing quoted fields
+     */
+    public char getQuoteCharacter() {
+        return quoteCharacter;
+    }
+
+    /**
+     * @return the quoting mode
+     */
+    public Quoting getQuoting() {
+        return quoting;
+    }
+
+    /**
+     * @return the characters terminating each record
+     */
+    public String getLineEnding() {
+        return lineEnding;
+    }
+
+    /**
+     * @return {@code true} if the output starts with a UTF-8 byte order mark
+     */
+    public boolean hasByteOrderMark() {
+        return byteOrderMark;
+    }
+
+    /**
+     * @return {@code true} if the output starts with a header record holding the column names
+     */
+    public boolean hasHeader() {
+        return header;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (obj == null || !CsvDialect.class.equals(obj.getClass())) {
+            return false;
+        }
+        CsvDialect dialect = (CsvDialect) obj;
+        return dialect.delimiter == this.delimiter
+                && dialect.quoteCharacter == this.quoteCharacter
+                && dialect.quoting == this.quoting
+                && dialect.lineEnding.equals(this.lineEnding)
+                && dialect.byteOrderMark == this.byteOrderMark
+                && dialect.header == this.header;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(delimiter, quoteCharacter, quoting, lineEnding, byteOrderMark, header);
+    }
+
+}
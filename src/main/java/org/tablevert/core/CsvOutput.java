@@ -0,0 +1,69 @@
+/*
+ * Copyright 2019 conis Informationssysteme GmbH
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.tablevert.core;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * CSV output, which writes the records directly into the stream passed to {@link #writeContent(OutputStream)}.
+ * The records are encoded into a UTF-8 buffer of fixed size, so that memory consumption does not
+ * depend on the size of the table and the first bytes are written right away.
+ */
+public final class CsvOutput implements Output {
+
+    private final CsvWriter csvWriter;
+    private final String continuationToken;
+
+    CsvOutput(CsvWriter csvWriter, String continuationToken) {
+        this.csvWriter = csvWriter;
+        this.continuationToken = continuationToken;
+    }
+
+    @Override
+    public OutputFormat getFormat() {
+        return OutputFormat.CSV;
+    }
+
+    @Override
+    public void writeContent(OutputStream outputStream) throws OutputGeneratorException {
+        try {
+            Utf8OutputBuffer buffer = new Utf8OutputBuffer().writingTo(outputStream);
+            csvWriter.writeTable(buffer);
+            buffer.flush();
+        } catch (IOException e) {
+            throw new OutputGeneratorException("Failed to write content to output stream", e);
+        }
+    }
+
+    @Override
+    public String getContinuationToken() {
+        return continuationToken;
+    }
+
+    /**
+     * Renders the complete table as string, e.g. for logging; {@link #writeContent(OutputStream)} is
+     * the way to deliver the output.
+     *
+     * @return the CSV records
+     */
+    @Override
+    public String toString() {
+        ByteArrayOutputStream content = new ByteArrayOutputStream();
+        try {
+            Utf8OutputBuffer buffer = new Utf8OutputBuffer().writingTo(content);
+            csvWriter.writeTable(buffer);
+            buffer.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to render CSV table in memory", e);
+        }
+        return new String(content.toByteArray(), StandardCharsets.UTF_8);
+    }
+
+}
@@ -0,0 +1,36 @@
+/*
+ * Copyright 2019 conis Informationssysteme GmbH
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.tablevert.core;
+
+/**
+ * {@link OutputGenerator} implementation for CSV files in the dialect set by the {@link OutputOptions}.
+ * The records are not generated up front; the {@link CsvOutput} writes them straight from the grid
+ * once its content is requested.
+ */
+final class CsvOutputGenerator implements OutputGenerator {
+
+    private final OutputOptions outputOptions;
+
+    CsvOutputGenerator() {
+        this(OutputOptions.defaults());
+    }
+
+    CsvOutputGenerator(OutputOptions outputOptions) {
+        this.outputOptions = outputOptions;
+    }
+
+    /**
+     * Processes the output generation.
+     *
+     * @param dataGrid the data to handle
+     * @return the generated output
+     */
+    @Override
+    public Output process(final DataGrid dataGrid) throws OutputGeneratorException {
+        return new CsvOutput(new CsvWriter(dataGrid, outputOptions.getCsvDialect()), dataGrid.getContinuationToken());
+    }
+
+}
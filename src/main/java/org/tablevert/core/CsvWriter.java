@@ -0,0 +1,170 @@
+/*
+ * Copyright 2019 conis Informationssysteme GmbH
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.tablevert.core;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * Writes a {@link DataGrid} as CSV directly from its column vectors into a {@link Utf8OutputBuffer}.
+ * Plain text values are copied into the buffer as they are, after a scan for characters requiring quotes;
+ * the fields of dictionary-encoded columns are encoded once per distinct value and then copied as bytes.
+ * Numbers and dates are rendered locale-independently through {@link TextValues}.
+ * The writer holds no state besides the grid and the dialect, so the table can be written any number of times.
+ */
+final class CsvWriter {
+
+    private static final byte[] BYTE_ORDER_MARK = {(byte) 0xef, (byte) 0xbb, (byte) 0xbf};
+
+    private final DataGrid dataGrid;
+    private final CsvDialect dialect;
+    private final List<DataGridColumn> columns;
+    private final DataGridColumnVector[] vectors;
+    private final String[] quoteReplacements;
+    private final String delimiter;
+    private final String quote;
+
+    CsvWriter(DataGrid dataGrid, CsvDialect dialect) {
+        this.dataGrid = dataGrid;
+        this.dialect = dialect;
+        this.columns = dataGrid.allColumns();
+        this.vectors = new DataGridColumnVector[columns.size()];
+        for (int colIndex = 0; colIndex < vectors.length; colIndex++) {
+            vectors[colIndex] = dataGrid.getColumnVector(colIndex);
+        }
+        this.delimiter = String.valueOf(dialect.getDelimiter());
+        this.quote = String.valueOf(dialect.getQuoteCharacter());
+        this.quoteReplacements = new String[128];
+        quoteReplacements[dialect.getQuoteCharacter()] = quote + quote;
+    }
+
+    /**
+     * Writes the complete table, starting with the byte order mark and the header record if set by the dialect.
+     *
+     * @param buffer the buffer to write to
+     * @throws IOException if the buffered bytes cannot be written
+     */
+    void writeTable(Utf8OutputBuffer buffer) throws IOException {
+        if (dialect.hasByteOrderMark()) {
+            buffer.appendBytes(BYTE_ORDER_MARK);
+        }
+        if (dialect.hasHeader()) {
+            writeHeader(buffer);
+        }
+        byte[][][] encodedDictionaries = new byte[vectors.length][][];
+        int rowCount = (int) dataGrid.getRowCount();
+        for (int rowIndex = 0; rowIndex < rowCount; rowIndex++) {
+            for (int colIndex = 0; colIndex < vectors.length; colIndex++) {
+                if (colIndex > 0) {
+                    buffer.appendAscii(delimiter);
+                }
+                DataGridColumnVector vector = vectors[colIndex];
+                if (vector == null || vector.isNull(rowIndex)) {
+                    continue;
+                }
+                if (vector instanceof DataGridColumnVector.DictionaryVector) {
+                    buffer.appendBytes(encodedDictionaryValue(encodedDictionaries, colIndex, rowIndex));
+                } else {
+                    writeValue(buffer, vector, rowIndex);
+                }
+            }
+            buffer.appendAscii(dialect.getLineEnding());
+        }
+    }
+
+    private void writeHeader(Utf8OutputBuffer buffer) throws IOException {
+        for (int colIndex = 0; colIndex < columns.size(); colIndex++) {
+            if (colIndex > 0) {
+                buffer.appendAscii(delimiter);
+            }
+            DataGridColumn column = columns.get(colIndex);
+            if (column != null) {
+                writeText(buffer, column.getName());
+            }
+        }
+        buffer.appendAscii(dialect.getLineEnding());
+    }
+
+    private byte[] encodedDictionaryValue(byte[][][] encodedDictionaries, int colIndex, int rowIndex) {
+        DataGridColumnVector.DictionaryVector vector = (DataGridColumnVector.DictionaryVector) vectors[colIndex];
+        int code = vector.getCode(rowIndex);
+        byte[][] encodedValues = encodedDictionaries[colIndex];
+        if (encodedValues == null) {
+            encodedValues = new byte[vector.getDictionarySize()][];
+            encodedDictionaries[colIndex] = encodedValues;
+        }
+        if (encodedValues[code] == null) {
+            String value = vector.getDictionaryValue(code);
+            encodedValues[code] = (requiresQuotes(value) ? quoted(value) : value).getBytes(StandardCharsets.UTF_8);
+        }
+        return encodedValues[code];
+    }
+
+    /**
+     * Writes a value, taking primitives directly from the vector without boxing them.
+     */
+    private void writeValue(Utf8OutputBuffer buffer, DataGridColumnVector vector, int rowIndex) throws IOException {
+        boolean quoted = dialect.getQuoting() == CsvDialect.Quoting.ALL;
+        if (vector instanceof DataGridColumnVector.IntVector) {
+            appendQuoteIf(buffer, quoted);
+            buffer.append(((DataGridColumnVector.IntVector) vector).getInt(rowIndex));
+            appendQuoteIf(buffer, quoted);
+        } else if (vector instanceof DataGridColumnVector.LongVector) {
+            appendQuoteIf(buffer, quoted);
+            buffer.append(((DataGridColumnVector.LongVector) vector).getLong(rowIndex));
+            appendQuoteIf(buffer, quoted);
+        } else if (vector instanceof DataGridColumnVector.DoubleVector) {
+            appendQuoteIf(buffer, quoted);
+            TextValues.appendDouble(buffer, ((DataGridColumnVector.DoubleVector) vector).getDouble(rowIndex));
+            appendQuoteIf(buffer, quoted);
+        } else {
+            Object value = vector.getValue(rowIndex);
+            if (TextValues.isNumber(value)) {
+                appendQuoteIf(buffer, quoted);
+                TextValues.appendNumber(buffer, (Number) value);
+                appendQuoteIf(buffer, quoted);
+            } else {
+                writeText(buffer, TextValues.toText(value));
+            }
+        }
+    }
+
+    private void writeText(Utf8OutputBuffer buffer, String text) throws IOException {
+        if (requiresQuotes(text)) {
+            buffer.appendAscii(quote).appendEscaped(text, quoteReplacements).appendAscii(quote);
+        } else {
+            buffer.append(text, 0, text.length());
+        }
+    }
+
+    private void appendQuoteIf(Utf8OutputBuffer buffer, boolean quoted) throws IOException {
+        if (quoted) {
+            buffer.appendAscii(quote);
+        }
+    }
+
+    private boolean requiresQuotes(String text) {
+        if (dialect.getQuoting() != CsvDialect.Quoting.MINIMAL) {
+            return true;
+        }
+        char delimiterChar = dialect.getDelimiter();
+        char quoteChar = dialect.getQuoteCharacter();
+        int length = text.length();
+        for (int i = 0; i < length; i++) {
+            char c = text.charAt(i);
+            if (c == delimiterChar || c == quoteChar || c == '\n' || c == '\r') {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private String quoted(String text) {
+        return quote + text.replace(quote, quote + quote) + quote;
+    }
+
+}
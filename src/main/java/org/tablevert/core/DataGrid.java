@@ -6,6 +6,7 @@
 package org.tablevert.core;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.Hashtable;
 import java.util.List;
 import java.util.Map;
@@ -13,18 +14,30 @@ import java.util.stream.Collectors;
 
 /**
  * Representation of table data within the tablevert core.
+ * The values are stored column by column in a {@link DataGridColumnVector} per defined column;
+ * rows are provided as read-only views on the vectors.
+ * Besides adding complete {@link DataGridRow} objects, the builder accepts the values of a row column by column,
+ * storing primitives without boxing them, which lets readers fill the vectors without per-row objects.
+ * As long as the rows are numbered consecutively, which is the case for query results, the row ids are
+ * implicit and not stored; otherwise the ids are kept along with a hash index ensuring their uniqueness.
  */
 final class DataGrid {
 
     static final class Builder {
 
         private Map<Integer, DataGridColumn> columns;
-        private List<DataGridRow> rows;
+        private DataGridColumnVector[] vectors;
+        private int dictionaryLimit;
+        private int rowCount;
+        private long firstRowNumber;
+        private List<String> rowIds;
+        private Map<String, Integer> rowIndexById;
         private boolean dataSectionIsBegun;
+        private String continuationToken;
 
         Builder() {
             this.columns = new Hashtable<>();
-            this.rows = new ArrayList<>();
+            this.dictionaryLimit = DataGridColumnVector.DEFAULT_DICTIONARY_LIMIT;
             dataSectionIsBegun = false;
         }
 
@@ -34,30 +47,188 @@ final class DataGrid {
             return this;
         }
 
+        /**
+         * Sets the maximum number of distinct values up to which string columns are dictionary-encoded.
+         * Columns exceeding the limit fall back to plain storage.
+         *
+         * @param dictionaryLimit the maximum dictionary size, or 0 to disable dictionary encoding
+         */
+        Builder withDictionaryLimit(int dictionaryLimit) throws DataGridException {
+            ensureDataSectionIsNotBegun();
+            this.dictionaryLimit = dictionaryLimit;
+            return this;
+        }
+
         Builder andData() throws DataGridException {
             if (columns.isEmpty()) {
                 throw new DataGridException("Data section must not be started with without columns defined.");
             }
             dataSectionIsBegun = true;
+            initVectors();
             return this;
         }
 
+        /**
+         * Adds the values of the row to the column vectors.
+         * Values in columns which have not been defined are ignored.
+         */
         Builder withRow(DataGridRow row) throws DataGridException {
             ensureDataSectionIsBegun();
-            ensureUniqueRowId(row.getId(), rows.size());
-            rows.add(row);
+            registerRowId(row.isNumbered(), row.getNumber(), row.getId());
+            for (int colIndex = 0; colIndex < vectors.length; colIndex++) {
+                appendValue(colIndex, row.getValue(colIndex));
+            }
+            rowCount++;
+            return this;
+        }
+
+        /**
+         * Appends a value to the row being added column by column, which is completed by {@link #endRow(long)}
+         * or {@link #endRow(String)}. A value must be appended to each defined column, in any order;
+         * values in columns which have not been defined are ignored.
+         */
+        Builder appendValue(int colIndex, Object value) {
+            DataGridColumnVector vector = vectorAt(colIndex);
+            if (vector != null && !vector.appendValue(value)) {
+                replaceByObjectVector(colIndex).appendValue(value);
+            }
+            return this;
+        }
+
+        Builder appendNull(int colIndex) {
+            DataGridColumnVector vector = vectorAt(colIndex);
+            if (vector != null) {
+                vector.appendValue(null);
+            }
+            return this;
+        }
+
+        Builder appendInt(int colIndex, int value) {
+            DataGridColumnVector vector = vectorAt(colIndex);
+            if (vector != null && !vector.appendInt(value)) {
+                replaceByObjectVector(colIndex).appendValue(value);
+            }
+            return this;
+        }
+
+        Builder appendLong(int colIndex, long value) {
+            DataGridColumnVector vector = vectorAt(colIndex);
+            if (vector != null && !vector.appendLong(value)) {
+                replaceByObjectVector(colIndex).appendValue(value);
+            }
+            return this;
+        }
+
+        Builder appendDouble(int colIndex, double value) {
+            DataGridColumnVector vector = vectorAt(colIndex);
+            if (vector != null && !vector.appendDouble(value)) {
+                replaceByObjectVector(colIndex).appendValue(value);
+            }
+            return this;
+        }
+
+        /**
+         * Appends the values of a row of another grid with the same columns, copying primitives without boxing.
+         */
+        Builder appendValuesOf(DataGrid dataGrid, int rowIndex) {
+            for (int colIndex = 0; colIndex < vectors.length; colIndex++) {
+                DataGridColumnVector source = dataGrid.getColumnVector(colIndex);
+                if (source == null || source.isNull(rowIndex)) {
+                    appendNull(colIndex);
+                } else if (source instanceof DataGridColumnVector.DictionaryVector) {
+                    appendValue(colIndex, source.getValue(rowIndex));
+                } else if (source instanceof DataGridColumnVector.IntVector) {
+                    appendInt(colIndex, ((DataGridColumnVector.IntVector) source).getInt(rowIndex));
+                } else if (source instanceof DataGridColumnVector.LongVector) {
+                    appendLong(colIndex, ((DataGridColumnVector.LongVector) source).getLong(rowIndex));
+                } else if (source instanceof DataGridColumnVector.DoubleVector) {
+                    appendDouble(colIndex, ((DataGridColumnVector.DoubleVector) source).getDouble(rowIndex));
+                } else {
+                    appendValue(colIndex, source.getValue(rowIndex));
+                }
+            }
+            return this;
+        }
+
+        /**
+         * Completes the row whose values have been appended, identifying it by its number.
+         * If the row cannot be registered, the builder is left with incomplete values and must not be used further.
+         */
+        Builder endRow(long rowNumber) throws DataGridException {
+            ensureDataSectionIsBegun();
+            registerRowId(true, rowNumber, null);
+            rowCount++;
+            return this;
+        }
+
+        /**
+         * Completes the row whose values have been appended, identifying it by an id.
+         * If the row cannot be registered, the builder is left with incomplete values and must not be used further.
+         */
+        Builder endRow(String rowId) throws DataGridException {
+            ensureDataSectionIsBegun();
+            registerRowId(false, 0, rowId);
+            rowCount++;
+            return this;
+        }
+
+        /**
+         * Gets a value appended so far, including those of the row being added.
+         *
+         * @param rowIndex the row index
+         * @param colIndex the column index
+         * @return the value, or {@code null} if there is none
+         */
+        Object getValue(int rowIndex, int colIndex) {
+            DataGridColumnVector vector = vectorAt(colIndex);
+            return vector == null ? null : vector.getValue(rowIndex);
+        }
+
+        /**
+         * @return the number of completed rows
+         */
+        int getRowCount() {
+            return rowCount;
+        }
+
+        Builder withContinuationToken(String continuationToken) {
+            this.continuationToken = continuationToken;
             return this;
         }
 
         DataGrid build() throws DataGridException {
             validate();
-            return new DataGrid(columns, rows);
+            if (vectors == null) {
+                initVectors();
+            }
+            DataGrid dataGrid = new DataGrid(columns, vectors, rowCount);
+            dataGrid.firstRowNumber = firstRowNumber;
+            dataGrid.rowIds = rowIds;
+            dataGrid.rowIndexById = rowIndexById;
+            dataGrid.continuationToken = continuationToken;
+            return dataGrid;
         }
 
         List<DataGridColumn> definedColumns() {
             return columns.values().stream().map(DataGridColumn::clone).collect(Collectors.toList());
         }
 
+        private void initVectors() {
+            int maxColIndex = columns.keySet().stream().mapToInt(index -> index).max().orElse(-1);
+            vectors = new DataGridColumnVector[maxColIndex + 1];
+            columns.values().forEach(column ->
+                    vectors[column.getIndex()] = DataGridColumnVector.forJavaClass(column.getJavaClassName(), dictionaryLimit));
+        }
+
+        private DataGridColumnVector vectorAt(int colIndex) {
+            return colIndex < vectors.length ? vectors[colIndex] : null;
+        }
+
+        private DataGridColumnVector replaceByObjectVector(int colIndex) {
+            vectors[colIndex] = vectors[colIndex].toObjectVector();
+            return vectors[colIndex];
+        }
+
         private void ensureDataSectionIsBegun() throws DataGridException {
             if (!dataSectionIsBegun) {
                 throw new DataGridException("Cannot add rows before the data section is begun.");
@@ -70,12 +241,47 @@ final class DataGrid {
             }
         }
 
-        private void ensureUniqueRowId(String id, long index) throws DataGridException {
+        /**
+         * Keeps the row ids implicit while the rows are numbered consecutively, and switches to explicit ids
+         * with a hash index otherwise.
+         */
+        private void registerRowId(boolean numbered, long number, String rowId) throws DataGridException {
+            if (rowIds == null) {
+                if (rowCount == 0 && (numbered || isCanonicalNumber(rowId))) {
+                    firstRowNumber = numbered ? number : Long.parseLong(rowId);
+                    return;
+                }
+                if (rowCount > 0 && (numbered ? number == firstRowNumber + rowCount
+                        : String.valueOf(firstRowNumber + rowCount).equals(rowId))) {
+                    return;
+                }
+                switchToExplicitRowIds();
+            }
+            String id = numbered ? String.valueOf(number) : rowId;
             if (id == null || id.isEmpty()) {
-                throw new DataGridException("Row id must not be empty for row no. " + index);
+                throw new DataGridException("Row id must not be empty for row no. " + rowCount);
+            }
+            if (rowIndexById.putIfAbsent(id, rowCount) != null) {
+                throw new DataGridException(String.format("Duplicate Id [%s] assigned to row no. %d", id, rowCount));
+            }
+            rowIds.add(id);
+        }
+
+        private boolean isCanonicalNumber(String id) {
+            try {
+                return id != null && String.valueOf(Long.parseLong(id)).equals(id);
+            } catch (NumberFormatException e) {
+                return false;
             }
-            if (rows.stream().filter(row -> id.equals(row.getId())).count() > 0) {
-                throw new DataGridException(String.format("Duplicate Id [%s] assigned to row no. %d", id, index));
+        }
+
+        private void switchToExplicitRowIds() {
+            rowIds = new ArrayList<>();
+            rowIndexById = new HashMap<>();
+            for (int i = 0; i < rowCount; i++) {
+                String id = String.valueOf(firstRowNumber + i);
+                rowIds.add(id);
+                rowIndexById.put(id, i);
             }
         }
 
@@ -93,11 +299,17 @@ final class DataGrid {
     }
 
     private Map<Integer, DataGridColumn> columns;
-    private List<DataGridRow> rows;
+    private DataGridColumnVector[] vectors;
+    private int rowCount;
+    private long firstRowNumber;
+    private List<String> rowIds;
+    private Map<String, Integer> rowIndexById;
+    private String continuationToken;
 
-    private DataGrid(Map<Integer, DataGridColumn> columns, List<DataGridRow> rows) {
+    private DataGrid(Map<Integer, DataGridColumn> columns, DataGridColumnVector[] vectors, int rowCount) {
         this.columns = columns;
-        this.rows = rows;
+        this.vectors = vectors;
+        this.rowCount = rowCount;
     }
 
     List<DataGridColumn> definedColumns() {
@@ -116,8 +328,87 @@ final class DataGrid {
         return allCols;
     }
 
+    /**
+     * Gets a read-only view on a row.
+     *
+     * @param rowIndex the row index
+     * @return the row view, or {@code null} if the row does not exist
+     */
     DataGridRow getRow(int rowIndex) {
-        return (rowIndex < 0 || rowIndex >= rows.size()) ? null : rows.get(rowIndex);
+        return (rowIndex < 0 || rowIndex >= rowCount) ? null : new DataGridRow(this, rowIndex);
+    }
+
+    /**
+     * @return {@code true} if the row ids are the consecutive row numbers, which are not stored
+     */
+    boolean hasNumberedRows() {
+        return rowIds == null;
+    }
+
+    /**
+     * Gets the number of a row, which is its id if the grid {@link #hasNumberedRows() has numbered rows}.
+     *
+     * @param rowIndex the row index
+     * @return the row number
+     */
+    long getRowNumber(int rowIndex) {
+        return firstRowNumber + rowIndex;
+    }
+
+    String getRowId(int rowIndex) {
+        return rowIds == null ? String.valueOf(firstRowNumber + rowIndex) : rowIds.get(rowIndex);
+    }
+
+    /**
+     * Finds a row by its id.
+     *
+     * @param rowId the row id
+     * @return the row index, or -1 if there is no row with the id
+     */
+    int findRowIndex(String rowId) {
+        if (rowId == null) {
+            return -1;
+        }
+        if (rowIds != null) {
+            return rowIndexById.getOrDefault(rowId, -1);
+        }
+        try {
+            long rowIndex = Long.parseLong(rowId) - firstRowNumber;
+            return (rowIndex >= 0 && rowIndex < rowCount && getRowId((int) rowIndex).equals(rowId)) ? (int) rowIndex : -1;
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * Gets a single value without creating a row view.
+     *
+     * @param rowIndex the row index
+     * @param colIndex the column index
+     * @return the value, or {@code null} if there is none
+     */
+    Object getValue(int rowIndex, int colIndex) {
+        if (colIndex < 0 || colIndex >= vectors.length || vectors[colIndex] == null) {
+            return null;
+        }
+        return vectors[colIndex].getValue(rowIndex);
+    }
+
+    List<Integer> getColumnIndicesOfValues(int rowIndex) {
+        List<Integer> indices = new ArrayList<>();
+        for (int colIndex = 0; colIndex < vectors.length; colIndex++) {
+            if (vectors[colIndex] != null && !vectors[colIndex].isNull(rowIndex)) {
+                indices.add(colIndex);
+            }
+        }
+        return indices;
+    }
+
+    /**
+     * @return the vector holding the column's values, or {@code null} if the column is not defined
+     */
+    DataGridColumnVector getColumnVector(int colIndex) {
+        return (colIndex < 0 || colIndex >= vectors.length) ? null : vectors[colIndex];
     }
 
     int getDefinedColumnCount() {
@@ -125,7 +416,14 @@ final class DataGrid {
     }
 
     long getRowCount() {
-        return rows.size();
+        return rowCount;
+    }
+
+    /**
+     * @return the token to request the next keyset page, or {@code null} if there is none
+     */
+    String getContinuationToken() {
+        return continuationToken;
     }
 
 }
@@ -0,0 +1,53 @@
+/*
+ * Copyright 2019 conis Informationssysteme GmbH
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.tablevert.core;
+
+import java.util.List;
+
+/**
+ * {@link DataGridRowConsumer} implementation collecting the streamed rows into a {@link DataGrid}.
+ */
+final class DataGridCollector implements DataGridRowConsumer {
+
+    private final DataGrid.Builder dataGridBuilder;
+    private DataGrid dataGrid;
+
+    DataGridCollector() {
+        this.dataGridBuilder = new DataGrid.Builder();
+    }
+
+    @Override
+    public void startGrid(List<DataGridColumn> columns) throws TablevertCoreException {
+        for (DataGridColumn column : columns) {
+            dataGridBuilder.withColumn(column);
+        }
+        dataGridBuilder.andData();
+    }
+
+    @Override
+    public DataGrid.Builder getRowBuilder() {
+        return dataGridBuilder;
+    }
+
+    @Override
+    public void acceptRows() {
+    }
+
+    @Override
+    public void acceptContinuationToken(String continuationToken) {
+        dataGridBuilder.withContinuationToken(continuationToken);
+    }
+
+    @Override
+    public void endGrid() throws TablevertCoreException {
+        dataGrid = dataGridBuilder.build();
+    }
+
+    DataGrid getDataGrid() {
+        return dataGrid;
+    }
+
+}
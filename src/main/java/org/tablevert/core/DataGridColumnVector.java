@@ -0,0 +1,512 @@
+/*
+ * Copyright 2019 conis Informationssysteme GmbH
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.tablevert.core;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Columnar storage of the values of a single {@link DataGridColumn}.
+ * Values are kept in chunks of fixed size, so that growing the vector never copies the stored values
+ * beyond the first chunk. Integer, long and double columns are stored as primitives with a separate
+ * null bitmap. String columns are dictionary-encoded as long as their number of distinct values stays
+ * within a limit; all other columns hold object references.
+ * While appending, the vectors count their non-null values and, where possible, their distinct values,
+ * as cardinality statistics for the output generators.
+ */
+abstract class DataGridColumnVector {
+
+    static final int CHUNK_SHIFT = 12;
+    static final int CHUNK_SIZE = 1 << CHUNK_SHIFT;
+    static final int CHUNK_MASK = CHUNK_SIZE - 1;
+
+    static final int DEFAULT_DICTIONARY_LIMIT = 4096;
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    private int size;
+    private int capacity;
+    private int nonNullCount;
+
+    /**
+     * Creates the vector matching the Java class of the column, using the default dictionary limit.
+     *
+     * @param javaClassName the Java class name of the column values
+     * @return the empty vector
+     */
+    static DataGridColumnVector forJavaClass(String javaClassName) {
+        return forJavaClass(javaClassName, DEFAULT_DICTIONARY_LIMIT);
+    }
+
+    /**
+     * Creates the vector matching the Java class of the column.
+     *
+     * @param javaClassName the Java class name of the column values
+     * @param dictionaryLimit the maximum number of distinct values of a dictionary-encoded string column,
+     *                        or 0 to store strings unencoded
+     * @return the empty vector
+     */
+    static DataGridColumnVector forJavaClass(String javaClassName, int dictionaryLimit) {
+        if (javaClassName == null) {
+            return new ObjectVector();
+        }
+        switch (javaClassName) {
+            case "java.lang.String":
+                return dictionaryLimit > 0 ? new DictionaryVector(dictionaryLimit) : new ObjectVector();
+            case "java.lang.Integer":
+                return new IntVector();
+            case "java.lang.Long":
+                return new LongVector();
+            case "java.lang.Double":
+                return new DoubleVector();
+            default:
+                return new ObjectVector();
+        }
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * Appends a value.
+     *
+     * @param value the value to append, or {@code null}
+     * @return {@code false} if the value cannot be stored in this vector, in which case nothing is appended
+     */
+    final boolean appendValue(Object value) {
+        if (value != null && !accepts(value)) {
+            return false;
+        }
+        ensureCapacity();
+        store(size, value);
+        size++;
+        if (value != null) {
+            nonNullCount++;
+        }
+        return true;
+    }
+
+    /**
+     * Appends an int value, without boxing it if the vector stores ints.
+     *
+     * @param value the value to append
+     * @return {@code false} if the value cannot be stored in this vector, in which case nothing is appended
+     */
+    boolean appendInt(int value) {
+        return appendValue(value);
+    }
+
+    /**
+     * Appends a long value, without boxing it if the vector stores longs.
+     *
+     * @param value the value to append
+     * @return {@code false} if the value cannot be stored in this vector, in which case nothing is appended
+     */
+    boolean appendLong(long value) {
+        return appendValue(value);
+    }
+
+    /**
+     * Appends a double value, without boxing it if the vector stores doubles.
+     *
+     * @param value the value to append
+     * @return {@code false} if the value cannot be stored in this vector, in which case nothing is appended
+     */
+    boolean appendDouble(double value) {
+        return appendValue(value);
+    }
+
+    /**
+     * Appends a row for a non-null primitive value, which the caller stores at the returned index.
+     */
+    final int appendPrimitiveRow() {
+        ensureCapacity();
+        nonNullCount++;
+        return size++;
+    }
+
+    private void ensureCapacity() {
+        if (size == capacity) {
+            if (capacity < CHUNK_SIZE) {
+                capacity = Math.min(Math.max(INITIAL_CAPACITY, capacity * 2), CHUNK_SIZE);
+                resizeFirstChunk(capacity);
+            } else {
+                addChunk();
+                capacity += CHUNK_SIZE;
+            }
+        }
+    }
+
+    /**
+     * Gets the value at a row, boxed if the vector stores primitives.
+     *
+     * @param rowIndex the row index
+     * @return the value, or {@code null} if the row has no value or does not exist
+     */
+    final Object getValue(int rowIndex) {
+        if (rowIndex < 0 || rowIndex >= size || isNull(rowIndex)) {
+            return null;
+        }
+        return load(rowIndex);
+    }
+
+    abstract boolean isNull(int rowIndex);
+
+    int getNonNullCount() {
+        return nonNullCount;
+    }
+
+    /**
+     * Estimates the number of distinct non-null values.
+     *
+     * @return the exact or estimated count, or -1 if the vector does not track its distinct values
+     */
+    long estimateDistinctCount() {
+        return -1;
+    }
+
+    /**
+     * Copies the values into a vector holding object references, which accepts values of any type.
+     *
+     * @return the new vector
+     */
+    final DataGridColumnVector toObjectVector() {
+        ObjectVector objectVector = new ObjectVector();
+        for (int i = 0; i < size; i++) {
+            objectVector.appendValue(getValue(i));
+        }
+        objectVector.sampledDistinctCount = estimateDistinctCount();
+        objectVector.sampledNonNullCount = nonNullCount;
+        return objectVector;
+    }
+
+    abstract boolean accepts(Object value);
+
+    abstract void resizeFirstChunk(int newLength);
+
+    abstract void addChunk();
+
+    abstract void store(int rowIndex, Object value);
+
+    abstract Object load(int rowIndex);
+
+    /**
+     * Base of the vectors storing primitive values, tracking {@code null} values in a bitmap.
+     */
+    private abstract static class PrimitiveVector extends DataGridColumnVector {
+        private final List<long[]> nullChunks = new ArrayList<>();
+
+        @Override
+        boolean isNull(int rowIndex) {
+            long[] nulls = nullChunks.get(rowIndex >>> CHUNK_SHIFT);
+            int offset = rowIndex & CHUNK_MASK;
+            return (nulls[offset >>> 6] & (1L << offset)) != 0;
+        }
+
+        @Override
+        void resizeFirstChunk(int newLength) {
+            int bitmapLength = (newLength + 63) >>> 6;
+            if (nullChunks.isEmpty()) {
+                nullChunks.add(new long[bitmapLength]);
+            } else {
+                nullChunks.set(0, Arrays.copyOf(nullChunks.get(0), bitmapLength));
+            }
+            resizeFirstValueChunk(newLength);
+        }
+
+        @Override
+        void addChunk() {
+            nullChunks.add(new long[CHUNK_SIZE >>> 6]);
+            addValueChunk();
+        }
+
+        @Override
+        void store(int rowIndex, Object value) {
+            if (value == null) {
+                int offset = rowIndex & CHUNK_MASK;
+                nullChunks.get(rowIndex >>> CHUNK_SHIFT)[offset >>> 6] |= 1L << offset;
+            } else {
+                storePrimitive(rowIndex, value);
+            }
+        }
+
+        abstract void resizeFirstValueChunk(int newLength);
+
+        abstract void addValueChunk();
+
+        abstract void storePrimitive(int rowIndex, Object value);
+    }
+
+    static class IntVector extends PrimitiveVector {
+        private final List<int[]> chunks = new ArrayList<>();
+
+        final int getInt(int rowIndex) {
+            return chunks.get(rowIndex >>> CHUNK_SHIFT)[rowIndex & CHUNK_MASK];
+        }
+
+        @Override
+        boolean appendInt(int value) {
+            storeInt(appendPrimitiveRow(), value);
+            return true;
+        }
+
+        @Override
+        boolean accepts(Object value) {
+            return value instanceof Integer;
+        }
+
+        @Override
+        void resizeFirstValueChunk(int newLength) {
+            if (chunks.isEmpty()) {
+                chunks.add(new int[newLength]);
+            } else {
+                chunks.set(0, Arrays.copyOf(chunks.get(0), newLength));
+            }
+        }
+
+        @Override
+        void addValueChunk() {
+            chunks.add(new int[CHUNK_SIZE]);
+        }
+
+        @Override
+        void storePrimitive(int rowIndex, Object value) {
+            storeInt(rowIndex, (Integer) value);
+        }
+
+        final void storeInt(int rowIndex, int value) {
+            chunks.get(rowIndex >>> CHUNK_SHIFT)[rowIndex & CHUNK_MASK] = value;
+        }
+
+        @Override
+        Object load(int rowIndex) {
+            return getInt(rowIndex);
+        }
+    }
+
+    /**
+     * Stores strings as codes into a dictionary of the distinct values, which holds each distinct value once.
+     * Once the dictionary is full, new distinct values are rejected, so that the column falls back to
+     * plain object storage.
+     */
+    static final class DictionaryVector extends IntVector {
+        private final int dictionaryLimit;
+        private final Map<String, Integer> codeMap;
+        private final List<String> dictionary;
+        private int pendingCode;
+
+        private DictionaryVector(int dictionaryLimit) {
+            this.dictionaryLimit = dictionaryLimit;
+            this.codeMap = new HashMap<>();
+            this.dictionary = new ArrayList<>();
+        }
+
+        /**
+         * @return the dictionary code of the row's value; undefined if the value is {@code null}
+         */
+        int getCode(int rowIndex) {
+            return getInt(rowIndex);
+        }
+
+        int getDictionarySize() {
+            return dictionary.size();
+        }
+
+        String getDictionaryValue(int code) {
+            return dictionary.get(code);
+        }
+
+        @Override
+        long estimateDistinctCount() {
+            return dictionary.size();
+        }
+
+        @Override
+        boolean appendInt(int value) {
+            return false;
+        }
+
+        @Override
+        boolean accepts(Object value) {
+            if (!(value instanceof String)) {
+                return false;
+            }
+            Integer code = codeMap.get(value);
+            if (code == null) {
+                if (dictionary.size() >= dictionaryLimit) {
+                    return false;
+                }
+                code = dictionary.size();
+                codeMap.put((String) value, code);
+                dictionary.add((String) value);
+            }
+            pendingCode = code;
+            return true;
+        }
+
+        @Override
+        void storePrimitive(int rowIndex, Object value) {
+            storeInt(rowIndex, pendingCode);
+        }
+
+        @Override
+        Object load(int rowIndex) {
+            return dictionary.get(getInt(rowIndex));
+        }
+    }
+
+    static final class LongVector extends PrimitiveVector {
+        private final List<long[]> chunks = new ArrayList<>();
+
+        long getLong(int rowIndex) {
+            return chunks.get(rowIndex >>> CHUNK_SHIFT)[rowIndex & CHUNK_MASK];
+        }
+
+        @Override
+        boolean appendLong(long value) {
+            storeLong(appendPrimitiveRow(), value);
+            return true;
+        }
+
+        @Override
+        boolean accepts(Object value) {
+            return value instanceof Long;
+        }
+
+        @Override
+        void resizeFirstValueChunk(int newLength) {
+            if (chunks.isEmpty()) {
+                chunks.add(new long[newLength]);
+            } else {
+                chunks.set(0, Arrays.copyOf(chunks.get(0), newLength));
+            }
+        }
+
+        @Override
+        void addValueChunk() {
+            chunks.add(new long[CHUNK_SIZE]);
+        }
+
+        @Override
+        void storePrimitive(int rowIndex, Object value) {
+            storeLong(rowIndex, (Long) value);
+        }
+
+        private void storeLong(int rowIndex, long value) {
+            chunks.get(rowIndex >>> CHUNK_SHIFT)[rowIndex & CHUNK_MASK] = value;
+        }
+
+        @Override
+        Object load(int rowIndex) {
+            return getLong(rowIndex);
+        }
+    }
+
+    static final class DoubleVector extends PrimitiveVector {
+        private final List<double[]> chunks = new ArrayList<>();
+
+        double getDouble(int rowIndex) {
+            return chunks.get(rowIndex >>> CHUNK_SHIFT)[rowIndex & CHUNK_MASK];
+        }
+
+        @Override
+        boolean appendDouble(double value) {
+            storeDouble(appendPrimitiveRow(), value);
+            return true;
+        }
+
+        @Override
+        boolean accepts(Object value) {
+            return value instanceof Double;
+        }
+
+        @Override
+        void resizeFirstValueChunk(int newLength) {
+            if (chunks.isEmpty()) {
+                chunks.add(new double[newLength]);
+            } else {
+                chunks.set(0, Arrays.copyOf(chunks.get(0), newLength));
+            }
+        }
+
+        @Override
+        void addValueChunk() {
+            chunks.add(new double[CHUNK_SIZE]);
+        }
+
+        @Override
+        void storePrimitive(int rowIndex, Object value) {
+            storeDouble(rowIndex, (Double) value);
+        }
+
+        private void storeDouble(int rowIndex, double value) {
+            chunks.get(rowIndex >>> CHUNK_SHIFT)[rowIndex & CHUNK_MASK] = value;
+        }
+
+        @Override
+        Object load(int rowIndex) {
+            return getDouble(rowIndex);
+        }
+    }
+
+    /**
+     * Stores object references. If the vector replaces a vector tracking its distinct values, e.g. a dictionary
+     * which has run full, it extrapolates the distinct count from the values observed until the replacement,
+     * assuming that new distinct values keep arriving at the same rate.
+     */
+    static final class ObjectVector extends DataGridColumnVector {
+        private final List<Object[]> chunks = new ArrayList<>();
+        private long sampledDistinctCount = -1;
+        private int sampledNonNullCount;
+
+        @Override
+        long estimateDistinctCount() {
+            if (sampledDistinctCount < 0 || sampledNonNullCount == 0) {
+                return -1;
+            }
+            return Math.min(getNonNullCount(), sampledDistinctCount * getNonNullCount() / sampledNonNullCount);
+        }
+
+        @Override
+        boolean isNull(int rowIndex) {
+            return load(rowIndex) == null;
+        }
+
+        @Override
+        boolean accepts(Object value) {
+            return true;
+        }
+
+        @Override
+        void resizeFirstChunk(int newLength) {
+            if (chunks.isEmpty()) {
+                chunks.add(new Object[newLength]);
+            } else {
+                chunks.set(0, Arrays.copyOf(chunks.get(0), newLength));
+            }
+        }
+
+        @Override
+        void addChunk() {
+            chunks.add(new Object[CHUNK_SIZE]);
+        }
+
+        @Override
+        void store(int rowIndex, Object value) {
+            chunks.get(rowIndex >>> CHUNK_SHIFT)[rowIndex & CHUNK_MASK] = value;
+        }
+
+        @Override
+        Object load(int rowIndex) {
+            return chunks.get(rowIndex >>> CHUNK_SHIFT)[rowIndex & CHUNK_MASK];
+        }
+    }
+
+}
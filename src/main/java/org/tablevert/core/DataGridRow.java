@@ -5,47 +5,152 @@
 
 package org.tablevert.core;
 
-import java.util.*;
-import java.util.stream.Collectors;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 
 /**
  * A single row within a {@link DataGrid} object.
+ * Rows read from a data source hold their values in an array indexed by column, with {@code null}
+ * marking missing values. Rows provided by a built {@link DataGrid} are read-only views on its column vectors.
+ * A row is identified either by a string id or by a row number, which avoids creating id strings for
+ * the densely numbered rows of a query result.
  */
 final class DataGridRow {
 
+    private static final int DEFAULT_CAPACITY = 8;
+
     private final String id;
-    private final Map<Integer, Object> valueMap;
+    private final long number;
+    private Object[] values;
+    private final DataGrid dataGrid;
+    private final int rowIndex;
 
     DataGridRow(String id) {
+        this(id, DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Creates an empty row.
+     *
+     * @param id the row id
+     * @param columnCount the expected number of columns, used as initial capacity
+     */
+    DataGridRow(String id, int columnCount) {
+        this(id, 0, new Object[columnCount]);
+    }
+
+    /**
+     * Creates an empty row identified by its number.
+     *
+     * @param number the row number
+     * @param columnCount the expected number of columns, used as initial capacity
+     */
+    DataGridRow(long number, int columnCount) {
+        this(null, number, new Object[columnCount]);
+    }
+
+    /**
+     * Creates a read-only view on a row of the grid.
+     *
+     * @param dataGrid the grid holding the values
+     * @param rowIndex the index of the row within the grid
+     */
+    DataGridRow(DataGrid dataGrid, int rowIndex) {
+        this.id = null;
+        this.number = 0;
+        this.values = null;
+        this.dataGrid = dataGrid;
+        this.rowIndex = rowIndex;
+    }
+
+    private DataGridRow(String id, long number, Object[] values) {
         this.id = id;
-        this.valueMap = new Hashtable<>();
+        this.number = number;
+        this.values = values;
+        this.dataGrid = null;
+        this.rowIndex = -1;
+    }
+
+    /**
+     * Creates a row with another id, sharing the values with this row.
+     *
+     * @param newId the id of the new row
+     * @return the new row
+     */
+    DataGridRow withId(String newId) {
+        ensureIsNotView();
+        return new DataGridRow(newId, 0, values);
+    }
+
+    /**
+     * Creates a row with another number, sharing the values with this row.
+     *
+     * @param newNumber the number of the new row
+     * @return the new row
+     */
+    DataGridRow withNumber(long newNumber) {
+        ensureIsNotView();
+        return new DataGridRow(null, newNumber, values);
     }
 
-    void addReplaceValue(Integer colIndex, Object value) {
-        if (colIndex == null || value == null) {
+    void addReplaceValue(int colIndex, Object value) {
+        ensureIsNotView();
+        if (value == null || colIndex < 0) {
             return;
         }
-        if (valueMap.containsKey(colIndex)) {
-            valueMap.replace(colIndex, value);
-        } else {
-            valueMap.put(colIndex, value);
+        if (colIndex >= values.length) {
+            values = Arrays.copyOf(values, Math.max(colIndex + 1, values.length * 2));
         }
+        values[colIndex] = value;
     }
 
     String getId() {
-        return id;
+        if (dataGrid != null) {
+            return dataGrid.getRowId(rowIndex);
+        }
+        return id != null ? id : String.valueOf(number);
+    }
+
+    /**
+     * @return {@code true} if the row is identified by its number rather than a string id
+     */
+    boolean isNumbered() {
+        return dataGrid == null && id == null;
+    }
+
+    long getNumber() {
+        return number;
     }
 
     List<Integer> getColumnIndicesOfValues() {
-        return new ArrayList<>(valueMap.keySet());
+        if (dataGrid != null) {
+            return dataGrid.getColumnIndicesOfValues(rowIndex);
+        }
+        List<Integer> indices = new ArrayList<>();
+        for (int i = 0; i < values.length; i++) {
+            if (values[i] != null) {
+                indices.add(i);
+            }
+        }
+        return indices;
     }
 
     Object getValue(int colIndex) {
-        if (!valueMap.containsKey(colIndex)) {
+        if (dataGrid != null) {
+            return dataGrid.getValue(rowIndex, colIndex);
+        }
+        if (colIndex < 0 || colIndex >= values.length) {
             return null;
         }
         // TODO: Ensure read-only on the value
-        return valueMap.get(colIndex);
+        return values[colIndex];
+    }
+
+    private void ensureIsNotView() {
+        if (dataGrid != null) {
+            throw new UnsupportedOperationException("Cannot change a row view of a data grid");
+        }
     }
 
 }
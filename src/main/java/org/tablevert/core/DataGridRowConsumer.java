@@ -0,0 +1,59 @@
+/*
+ * Copyright 2019 conis Informationssysteme GmbH
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.tablevert.core;
+
+import java.util.List;
+
+/**
+ * Receiver of table data streamed by a {@link DatabaseReader} in row batches.
+ * The reader appends the values of each batch column by column to the consumer's row builder,
+ * so that no intermediate row objects are created.
+ */
+interface DataGridRowConsumer {
+
+    /**
+     * Called once before the first row batch.
+     *
+     * @param columns the columns of the streamed data
+     * @throws TablevertCoreException if the consumer fails to handle the columns
+     */
+    void startGrid(List<DataGridColumn> columns) throws TablevertCoreException;
+
+    /**
+     * Gets the builder to append the rows of the next batch to.
+     * Called after {@link #startGrid(List)} and after each {@link #acceptRows()}; the builder has the columns
+     * passed to {@code startGrid} and its data section begun.
+     *
+     * @return the row builder
+     */
+    DataGrid.Builder getRowBuilder();
+
+    /**
+     * Called for each batch of rows, in the order they were fetched, once the batch has been appended
+     * to the row builder.
+     *
+     * @throws TablevertCoreException if the consumer fails to handle the rows
+     */
+    void acceptRows() throws TablevertCoreException;
+
+    /**
+     * Called after the last row batch if the reader returned a page of the result, which can be
+     * continued by passing the token to the next query.
+     *
+     * @param continuationToken the token locating the next page
+     * @throws TablevertCoreException if the consumer fails to handle the token
+     */
+    default void acceptContinuationToken(String continuationToken) throws TablevertCoreException {
+    }
+
+    /**
+     * Called once after the last row batch.
+     *
+     * @throws TablevertCoreException if the consumer fails to complete
+     */
+    void endGrid() throws TablevertCoreException;
+
+}
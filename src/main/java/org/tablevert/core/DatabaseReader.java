@@ -20,4 +20,12 @@ interface DatabaseReader {
 
     DataGrid read() throws TablevertCoreException;
 
+    /**
+     * Reads the data and hands it over to the consumer in row batches, without collecting it in a {@link DataGrid}.
+     *
+     * @param consumer the receiver of the rows
+     * @throws TablevertCoreException if reading or consuming the data fails
+     */
+    void stream(DataGridRowConsumer consumer) throws TablevertCoreException;
+
 }
@@ -9,22 +9,65 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.tablevert.core.config.*;
 
+import java.util.ArrayList;
+import java.util.List;
+
 /**
  * Implementation of the {@link org.tablevert.core.Tableverter} interface for database sources.
  */
-public final class DatabaseTableverter implements Tableverter {
+public final class DatabaseTableverter implements Tableverter, AutoCloseable {
 
     private final Logger logger = LoggerFactory.getLogger(DatabaseTableverter.class);
 
     private TablevertConfig tablevertConfig;
+    private final JdbcConnectionPoolRegistry connectionPools;
+    private final XlsxTemplateCache xlsxTemplates;
 
     DatabaseTableverter(TablevertConfig config) {
         this.tablevertConfig = config;
+        this.connectionPools = new JdbcConnectionPoolRegistry();
+        this.xlsxTemplates = new XlsxTemplateCache();
         logger.info("Set up DatabaseTableverter");
     }
 
     /**
-     * Retrieves source table data from a database and converts it to the requested format.
+     * Opens the minimum number of pooled connections for each configured database.
+     * Databases not listed by the configuration are connected on first use.
+     */
+    void warmUpConnectionPools() {
+        List<DataSource> dataSources = tablevertConfig.getDataSources();
+        if (dataSources == null || dataSources.isEmpty()) {
+            return;
+        }
+        List<Database> databases = new ArrayList<>();
+        for (DataSource dataSource : dataSources) {
+            if (Database.class.equals(dataSource.getClass())) {
+                databases.add((Database) dataSource);
+            }
+        }
+        connectionPools.warmUp(databases);
+    }
+
+    /**
+     * Gets the usage statistics of the connection pools held for the configured databases.
+     *
+     * @return the metrics snapshots, one per database accessed so far
+     */
+    public List<ConnectionPoolMetrics> getConnectionPoolMetrics() {
+        return connectionPools.metrics();
+    }
+
+    /**
+     * Closes all pooled database connections.
+     */
+    @Override
+    public void close() {
+        connectionPools.close();
+    }
+
+    /**
+     * Retrieves source table data from a database and converts it to the requested format,
+     * applying the default output options.
      *
      * @param appliedQuery database query with additional filtering and sorting
      * @param outputFormat format expected for the tableversion's output
@@ -32,18 +75,36 @@ public final class DatabaseTableverter implements Tableverter {
      */
     @Override
     public Output tablevert(AppliedQuery appliedQuery, OutputFormat outputFormat) throws TablevertCoreException {
-        DataGrid dataGrid = retrieveDataFor(appliedQuery);
-        return generateOutput(dataGrid, outputFormat);
+        return tablevert(appliedQuery, outputFormat, OutputOptions.defaults());
     }
 
-    private DataGrid retrieveDataFor(AppliedQuery appliedQuery) throws TablevertCoreException {
+    /**
+     * Retrieves source table data from a database and converts it to the requested format.
+     *
+     * If the output generator is set up for streaming, the rows are handed over to it while they are read
+     * instead of being collected in a {@link DataGrid} first.
+     *
+     * @param appliedQuery database query with additional filtering and sorting
+     * @param outputFormat format expected for the tableversion's output
+     * @param outputOptions options controlling the output generation
+     * @return the converted table
+     */
+    @Override
+    public Output tablevert(AppliedQuery appliedQuery, OutputFormat outputFormat, OutputOptions outputOptions)
+            throws TablevertCoreException {
+        OutputGenerator outputGenerator = selectGeneratorFor(outputFormat, outputOptions, appliedQuery.getBaseQueryName());
         DatabaseReader databaseReader = prepareReaderFor(appliedQuery);
-        return databaseReader.read();
-    }
-
-    private Output generateOutput(DataGrid dataGrid, OutputFormat outputFormat) throws TablevertCoreException {
-        OutputGenerator outputGenerator = selectGeneratorFor(outputFormat);
-        return outputGenerator.process(dataGrid);
+        StreamingOutputConsumer streamingConsumer = outputGenerator.createStreamingConsumer();
+        if (streamingConsumer == null) {
+            return outputGenerator.process(databaseReader.read());
+        }
+        try {
+            databaseReader.stream(streamingConsumer);
+            return streamingConsumer.getOutput();
+        } catch (TablevertCoreException | RuntimeException e) {
+            streamingConsumer.release();
+            throw e;
+        }
     }
 
     private DatabaseReader prepareReaderFor(AppliedQuery appliedQuery) throws BuilderFailedException {
@@ -52,29 +113,35 @@ public final class DatabaseTableverter implements Tableverter {
             throw new BuilderFailedException("Data source is not a Database object; actual class name is ["
                     + database.getClass().getSimpleName() + "]");
         }
-        DatabaseReader.Builder readerBuilder = selectReaderBuilderFor(((Database)database).getDbType());
+        DatabaseReader.Builder readerBuilder = selectReaderBuilderFor((Database) database);
         return readerBuilder
                 .usingConfig(tablevertConfig)
                 .forAppliedQuery(appliedQuery)
                 .build();
     }
 
-    private DatabaseReader.Builder selectReaderBuilderFor(DatabaseType dbType) throws BuilderFailedException {
-        switch (dbType) {
+    private DatabaseReader.Builder selectReaderBuilderFor(Database database) throws BuilderFailedException {
+        switch (database.getDbType()) {
             case POSTGRESQL:
-                return new JdbcDatabaseReader.Builder();
+                return new JdbcDatabaseReader.Builder()
+                        .usingConnectionPool(connectionPools.poolFor(database));
             default:
                 throw new BuilderFailedException("No DatabaseReader.Builder implementation found for database type ["
-                        + dbType.name() + "]");
+                        + database.getDbType().name() + "]");
         }
     }
 
-    private OutputGenerator selectGeneratorFor(OutputFormat outputFormat) {
+    private OutputGenerator selectGeneratorFor(OutputFormat outputFormat, OutputOptions outputOptions, String queryName) {
         switch (outputFormat) {
             case HTML:
-                return new HtmlOutputGenerator();
+                return new HtmlOutputGenerator(outputOptions);
             case XLSX:
-                return new XlsxOutputGenerator();
+                return new XlsxOutputGenerator(outputOptions, xlsxTemplates, queryName);
+            case CSV:
+                return new CsvOutputGenerator(outputOptions);
+            case JSON:
+            case NDJSON:
+                return new JsonOutputGenerator(outputFormat, outputOptions);
             default:
                 throw new IllegalArgumentException("No OutputGenerator defined for OutputFormat " + outputFormat);
         }
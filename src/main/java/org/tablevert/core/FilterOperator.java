@@ -0,0 +1,48 @@
+/*
+ * Copyright 2019 conis Informationssysteme GmbH
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.tablevert.core;
+
+/**
+ * Comparison operators available for an {@link AppliedFilter}.
+ */
+public enum FilterOperator {
+    EQUAL("=", 1),
+    NOT_EQUAL("<>", 1),
+    LESS("<", 1),
+    LESS_OR_EQUAL("<=", 1),
+    GREATER(">", 1),
+    GREATER_OR_EQUAL(">=", 1),
+    LIKE("LIKE", 1),
+    IN("IN", -1),
+    IS_NULL("IS NULL", 0),
+    IS_NOT_NULL("IS NOT NULL", 0);
+
+    private final String sqlOperator;
+    private final int valueCount;
+
+    FilterOperator(String sqlOperator, int valueCount) {
+        this.sqlOperator = sqlOperator;
+        this.valueCount = valueCount;
+    }
+
+    /**
+     * @return the SQL representation of the operator
+     */
+    public String getSqlOperator() {
+        return sqlOperator;
+    }
+
+    /**
+     * Checks whether the operator can be applied to the given number of comparison values.
+     *
+     * @param count the number of values
+     * @return {@code true} if the count is valid
+     */
+    public boolean acceptsValueCount(int count) {
+        return valueCount < 0 ? count > 0 : count == valueCount;
+    }
+
+}
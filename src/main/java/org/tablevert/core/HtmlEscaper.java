@@ -0,0 +1,42 @@
+/*
+ * Copyright 2019 conis Informationssysteme GmbH
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.tablevert.core;
+
+import java.io.IOException;
+
+/**
+ * Table-driven HTML escaping while encoding into a {@link Utf8OutputBuffer}.
+ * Each character is looked up in the replacement table as part of the UTF-8 encoding loop, so that escaping
+ * takes no extra pass over the text, does not allocate and does not copy the text once more.
+ * The replacements cover element content as well as quoted attribute values.
+ */
+final class HtmlEscaper {
+
+    private static final String[] REPLACEMENTS = new String[128];
+
+    static {
+        REPLACEMENTS['&'] = "&amp;";
+        REPLACEMENTS['<'] = "&lt;";
+        REPLACEMENTS['>'] = "&gt;";
+        REPLACEMENTS['"'] = "&quot;";
+        REPLACEMENTS['\''] = "&#39;";
+    }
+
+    private HtmlEscaper() {
+    }
+
+    /**
+     * Appends text escaped for HTML.
+     *
+     * @param buffer the buffer to append to
+     * @param text the text to escape
+     * @throws IOException if the buffered bytes cannot be written
+     */
+    static void appendEscaped(Utf8OutputBuffer buffer, CharSequence text) throws IOException {
+        buffer.appendEscaped(text, REPLACEMENTS);
+    }
+
+}
@@ -5,169 +5,113 @@
 
 package org.tablevert.core;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.nio.charset.StandardCharsets;
-import java.util.ArrayList;
-import java.util.List;
 
+/**
+ * HTML output, which writes the table directly into the stream passed to {@link #writeContent(OutputStream)}.
+ * The markup is encoded row by row into a UTF-8 buffer of fixed size, so that memory consumption does not
+ * depend on the size of the table and the first bytes are written right away.
+ * For incremental rendering, e.g. on scrolling, the table can also be delivered in fragments: a skeleton
+ * with the column definitions and headers, and numbered {@code <tbody>} chunks, each written on its own
+ * from its range of rows.
+ */
 public final class HtmlOutput implements Output {
 
-    static final class Builder {
-        private final StringBuilder table;
-        private List<Column> columns;
-        private List<DataRow> rows;
-
-        Builder() {
-            table = new StringBuilder();
-        }
-
-        Builder withColumns(List<Column> colsToAdd) {
-            this.columns = colsToAdd;
-            return this;
-        }
-
-        Builder withRows(List<DataRow> rowsToAdd) {
-            this.rows = rowsToAdd;
-            return this;
-        }
-
-        HtmlOutput fullTable() throws BuilderFailedException {
-            validate();
-            startTable();
-            writeColumns();
-            writeBody();
-            endTable();
-            return new HtmlOutput(table.toString());
-        }
-
-        private void validate() throws BuilderFailedException {
-            StringBuilder errors = new StringBuilder();
-            if (columns == null) {
-                errors.append(" - columns not specified;");
-            }
-            else if (columns.isEmpty()) {
-                errors.append(" - columns empty;");
-            }
-            if (errors.length() > 0) {
-                throw new BuilderFailedException("Builder validation failed with errors: " + errors.toString());
-            }
-        }
-
-        private void startTable() {
-            table.append("<table>");
-        }
-
-        private void writeColumns() {
-            table.append("<colgroup>");
-            table.append("<col class=\"tv-col-id\" style=\"visibility:collapse\">").append("</col>");
-            columns.forEach(this::addColumnDefinition);
-            table.append("</colgroup>");
-            table.append("<thead><tr>");
-            table.append("<th>row-id</th>");
-            columns.forEach(this::addColumnHeader);
-            table.append("</tr></thead>");
-        }
-
-        private void writeBody() {
-            table.append("<tbody>");
-            rows.forEach(this::addDataRow);
-            table.append("</tbody>");
-        }
-
-        private void addColumnDefinition(Column column) {
-            table.append("<col>");
-            table.append("</col>");
-        }
-
-        private void addColumnHeader(Column column) {
-            table.append("<th>");
-            table.append(column.header);
-            table.append("</th>");
-        }
-
-        private void addDataRow(DataRow dataRow) {
-            table.append("<tr>");
-            if (dataRow != null) {
-                table.append(String.format("<td>%s</td>", dataRow.id));
-                dataRow.values.forEach(this::addDataCell);
-            }
-            table.append("</tr>");
-        }
-
-        private void addDataCell(String value) {
-            table.append("<td>");
-            if (value != null) {
-                table.append(value);
-            }
-            table.append("</td>");
-        }
-
-        private void endTable() {
-            table.append("</table>");
-        }
-
+    /**
+     * Writes a part of the table.
+     */
+    private interface Part {
+        void writeTo(Utf8OutputBuffer buffer) throws IOException;
     }
 
-    static final class Column {
-        private final String id;
-        private final String header;
-        private final HtmlOutputCssClass cssClass;
-
-        Column(String id, String header) {
-            this(id, header, HtmlOutputCssClass.TV_NONE);
-        }
+    private final HtmlTableWriter tableWriter;
+    private final String continuationToken;
 
-        Column(String id, String header, HtmlOutputCssClass cssClass) {
-            this.id = id;
-            this.header = header;
-            this.cssClass = cssClass;
-        }
+    HtmlOutput(HtmlTableWriter tableWriter, String continuationToken) {
+        this.tableWriter = tableWriter;
+        this.continuationToken = continuationToken;
     }
 
-    static final class DataRow {
-        private final String id;
-        private final HtmlOutputCssClass cssClass;
-        private List<String> values;
-
-        DataRow(String id) {
-            this(id, HtmlOutputCssClass.TV_NONE);
-        }
-
-        DataRow(String id, HtmlOutputCssClass cssClass) {
-            this.id = id;
-            this.cssClass = cssClass;
-            this.values = new ArrayList<>();
-        }
+    @Override
+    public OutputFormat getFormat() {
+        return OutputFormat.HTML;
+    }
 
-        void addValue(String value) {
-            values.add(value);
-        }
+    @Override
+    public void writeContent(OutputStream outputStream) throws OutputGeneratorException {
+        write(outputStream, tableWriter::writeTable);
     }
 
-    private String content;
+    /**
+     * Writes the table without body, i.e. its column definitions and headers, into which the chunks are inserted.
+     *
+     * @param outputStream the target stream
+     * @throws OutputGeneratorException if writing fails
+     */
+    public void writeSkeleton(OutputStream outputStream) throws OutputGeneratorException {
+        write(outputStream, tableWriter::writeSkeleton);
+    }
 
-    private HtmlOutput(String content) {
-        this.content = content;
+    /**
+     * Gets the number of body chunks, which is determined by the chunk size of the {@link OutputOptions}.
+     *
+     * @return the number of chunks; 1 if no chunk size has been set
+     */
+    public int getChunkCount() {
+        return tableWriter.getChunkCount();
     }
 
-    @Override
-    public OutputFormat getFormat() {
-        return OutputFormat.HTML;
+    /**
+     * Writes a single body chunk as {@code <tbody data-tv-chunk="n">} element.
+     *
+     * @param chunkIndex the number of the chunk, starting with 0
+     * @param outputStream the target stream
+     * @throws OutputGeneratorException if the chunk does not exist or writing fails
+     */
+    public void writeChunk(int chunkIndex, OutputStream outputStream) throws OutputGeneratorException {
+        if (chunkIndex < 0 || chunkIndex >= tableWriter.getChunkCount()) {
+            throw new OutputGeneratorException("HTML chunk [" + chunkIndex + "] out of range; chunk count is ["
+                    + tableWriter.getChunkCount() + "]");
+        }
+        write(outputStream, buffer -> tableWriter.writeChunk(buffer, chunkIndex));
     }
 
-    @Override
-    public void writeContent(OutputStream outputStream) throws OutputGeneratorException {
+    private void write(OutputStream outputStream, Part part) throws OutputGeneratorException {
         try {
-            outputStream.write(content.getBytes(StandardCharsets.UTF_8));
+            Utf8OutputBuffer buffer = new Utf8OutputBuffer().writingTo(outputStream);
+            part.writeTo(buffer);
+            buffer.flush();
         } catch (IOException e) {
-            throw new OutputGeneratorException("Failed to write content to output stream");
+            throw new OutputGeneratorException("Failed to write content to output stream", e);
         }
     }
 
+    @Override
+    public String getContinuationToken() {
+        return continuationToken;
+    }
+
+    /**
+     * Renders the complete table as string, e.g. for logging; {@link #writeContent(OutputStream)} is
+     * the way to deliver the output.
+     *
+     * @return the table markup
+     */
     @Override
     public String toString() {
-        return content;
+        ByteArrayOutputStream content = new ByteArrayOutputStream();
+        try {
+            Utf8OutputBuffer buffer = new Utf8OutputBuffer().writingTo(content);
+            tableWriter.writeTable(buffer);
+            buffer.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to render HTML table in memory", e);
+        }
+        return new String(content.toByteArray(), StandardCharsets.UTF_8);
     }
 
 }
@@ -0,0 +1,161 @@
+/*
+ * Copyright 2019 conis Informationssysteme GmbH
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.tablevert.core;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Writes a {@link DataGrid} as HTML table directly from its column vectors into a {@link Utf8OutputBuffer},
+ * without converting the values into intermediate rows or building the markup as a string.
+ * Column names, row ids and text values are escaped through the {@link HtmlEscaper}.
+ * The writer holds no state besides the grid, so the table can be written any number of times.
+ * If a chunk size is set, the body is split into numbered {@code <tbody>} chunks, each of which can be written
+ * on its own from its range of rows, along with a skeleton table holding the column definitions and headers.
+ */
+final class HtmlTableWriter {
+
+    private final DataGrid dataGrid;
+    private final List<DataGridColumn> columns;
+    private final DataGridColumnVector[] vectors;
+    private final int chunkSize;
+
+    HtmlTableWriter(DataGrid dataGrid) {
+        this(dataGrid, 0);
+    }
+
+    /**
+     * Creates the writer.
+     *
+     * @param dataGrid the data to write
+     * @param chunkSize the number of rows per {@code <tbody>} chunk, or 0 to write the body as a whole
+     */
+    HtmlTableWriter(DataGrid dataGrid, int chunkSize) {
+        this.dataGrid = dataGrid;
+        this.chunkSize = chunkSize;
+        this.columns = dataGrid.allColumns();
+        this.vectors = new DataGridColumnVector[columns.size()];
+        for (int colIndex = 0; colIndex < vectors.length; colIndex++) {
+            vectors[colIndex] = dataGrid.getColumnVector(colIndex);
+        }
+    }
+
+    /**
+     * Writes the complete table.
+     *
+     * @param buffer the buffer to write to
+     * @throws IOException if the buffered bytes cannot be written
+     */
+    void writeTable(Utf8OutputBuffer buffer) throws IOException {
+        buffer.appendAscii("<table>");
+        writeColumns(buffer);
+        if (chunkSize == 0) {
+            buffer.appendAscii("<tbody>");
+            writeRows(buffer, 0, (int) dataGrid.getRowCount());
+            buffer.appendAscii("</tbody>");
+        } else {
+            for (int chunkIndex = 0; chunkIndex < getChunkCount(); chunkIndex++) {
+                writeChunk(buffer, chunkIndex);
+            }
+        }
+        buffer.appendAscii("</table>");
+    }
+
+    /**
+     * Writes the table without body, into which the chunks are inserted.
+     *
+     * @param buffer the buffer to write to
+     * @throws IOException if the buffered bytes cannot be written
+     */
+    void writeSkeleton(Utf8OutputBuffer buffer) throws IOException {
+        buffer.appendAscii("<table>");
+        writeColumns(buffer);
+        buffer.appendAscii("</table>");
+    }
+
+    /**
+     * @return the number of body chunks; 1 if the body is not split
+     */
+    int getChunkCount() {
+        if (chunkSize == 0) {
+            return 1;
+        }
+        return (int) ((dataGrid.getRowCount() + chunkSize - 1) / chunkSize);
+    }
+
+    /**
+     * Writes a body chunk as {@code <tbody>} element numbered by a {@code data-tv-chunk} attribute.
+     *
+     * @param buffer the buffer to write to
+     * @param chunkIndex the number of the chunk, starting with 0
+     * @throws IOException if the buffered bytes cannot be written
+     */
+    void writeChunk(Utf8OutputBuffer buffer, int chunkIndex) throws IOException {
+        int rowCount = (int) dataGrid.getRowCount();
+        int fromRowIndex = chunkSize == 0 ? 0 : Math.min(chunkIndex * chunkSize, rowCount);
+        int toRowIndex = chunkSize == 0 ? rowCount : Math.min(fromRowIndex + chunkSize, rowCount);
+        buffer.appendAscii("<tbody data-tv-chunk=\"").append(chunkIndex).appendAscii("\">");
+        writeRows(buffer, fromRowIndex, toRowIndex);
+        buffer.appendAscii("</tbody>");
+    }
+
+    private void writeColumns(Utf8OutputBuffer buffer) throws IOException {
+        buffer.appendAscii("<colgroup>");
+        buffer.appendAscii("<col class=\"tv-col-id\" style=\"visibility:collapse\"></col>");
+        for (int colIndex = 0; colIndex < columns.size(); colIndex++) {
+            buffer.appendAscii("<col></col>");
+        }
+        buffer.appendAscii("</colgroup>");
+        buffer.appendAscii("<thead><tr>");
+        buffer.appendAscii("<th>row-id</th>");
+        for (DataGridColumn column : columns) {
+            buffer.appendAscii("<th>");
+            if (column != null) {
+                HtmlEscaper.appendEscaped(buffer, column.getName());
+            }
+            buffer.appendAscii("</th>");
+        }
+        buffer.appendAscii("</tr></thead>");
+    }
+
+    private void writeRows(Utf8OutputBuffer buffer, int fromRowIndex, int toRowIndex) throws IOException {
+        for (int rowIndex = fromRowIndex; rowIndex < toRowIndex; rowIndex++) {
+            buffer.appendAscii("<tr><td>");
+            if (dataGrid.hasNumberedRows()) {
+                buffer.append(dataGrid.getRowNumber(rowIndex));
+            } else {
+                HtmlEscaper.appendEscaped(buffer, dataGrid.getRowId(rowIndex));
+            }
+            buffer.appendAscii("</td>");
+            for (DataGridColumnVector vector : vectors) {
+                buffer.appendAscii("<td>");
+                if (vector != null && !vector.isNull(rowIndex)) {
+                    writeValue(buffer, vector, rowIndex);
+                }
+                buffer.appendAscii("</td>");
+            }
+            buffer.appendAscii("</tr>");
+        }
+    }
+
+    /**
+     * Writes a value as text, taking primitives directly from the vector without boxing them.
+     */
+    private void writeValue(Utf8OutputBuffer buffer, DataGridColumnVector vector, int rowIndex) throws IOException {
+        if (vector instanceof DataGridColumnVector.DictionaryVector) {
+            DataGridColumnVector.DictionaryVector dictionaryVector = (DataGridColumnVector.DictionaryVector) vector;
+            HtmlEscaper.appendEscaped(buffer, dictionaryVector.getDictionaryValue(dictionaryVector.getCode(rowIndex)));
+        } else if (vector instanceof DataGridColumnVector.IntVector) {
+            buffer.append(((DataGridColumnVector.IntVector) vector).getInt(rowIndex));
+        } else if (vector instanceof DataGridColumnVector.LongVector) {
+            buffer.append(((DataGridColumnVector.LongVector) vector).getLong(rowIndex));
+        } else {
+            // TODO: Add appropriate formatting
+            HtmlEscaper.appendEscaped(buffer, vector.getValue(rowIndex).toString());
+        }
+    }
+
+}
@@ -0,0 +1,238 @@
+/*
+ * Copyright 2019 conis Informationssysteme GmbH
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.tablevert.core;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Reads the values of a single result set column into the column vector of a {@link DataGrid.Builder}.
+ * The extractor is chosen once per column from the Java class reported by the result set metadata,
+ * so that the fetch loop uses the matching typed getter without branching per cell,
+ * and int, long and double values are stored without being boxed.
+ */
+abstract class JdbcColumnExtractor {
+
+    final int resultSetIndex;
+    final int colIndex;
+
+    private JdbcColumnExtractor(int colIndex) {
+        this.resultSetIndex = colIndex + 1;
+        this.colIndex = colIndex;
+    }
+
+    /**
+     * Selects the extractor for a column.
+     * Columns of driver-specific classes, like PostgreSQL's {@code json}, are read as text.
+     *
+     * @param colIndex the zero-based column index
+     * @param javaClassName the Java class name reported by the result set metadata
+     * @return the extractor
+     */
+    static JdbcColumnExtractor forColumn(int colIndex, String javaClassName) {
+        if (javaClassName == null || !javaClassName.startsWith("java")) {
+            return new TextExtractor(colIndex);
+        }
+        switch (javaClassName) {
+            case "java.lang.String":
+                return new TextExtractor(colIndex);
+            case "java.lang.Integer":
+                return new IntExtractor(colIndex);
+            case "java.lang.Long":
+                return new LongExtractor(colIndex);
+            case "java.lang.Short":
+                return new ShortExtractor(colIndex);
+            case "java.lang.Double":
+                return new DoubleExtractor(colIndex);
+            case "java.lang.Float":
+                return new FloatExtractor(colIndex);
+            case "java.lang.Boolean":
+                return new BooleanExtractor(colIndex);
+            case "java.math.BigDecimal":
+                return new BigDecimalExtractor(colIndex);
+            case "java.sql.Date":
+                return new DateExtractor(colIndex);
+            case "java.sql.Time":
+                return new TimeExtractor(colIndex);
+            case "java.sql.Timestamp":
+                return new TimestampExtractor(colIndex);
+            default:
+                return new ObjectExtractor(colIndex);
+        }
+    }
+
+    /**
+     * Appends the column value of the current result set row to the builder.
+     *
+     * @param resultSet the result set positioned on the row
+     * @param builder the builder of the grid to fill
+     * @throws SQLException if the value cannot be read
+     */
+    abstract void extract(ResultSet resultSet, DataGrid.Builder builder) throws SQLException;
+
+    private static final class TextExtractor extends JdbcColumnExtractor {
+        private TextExtractor(int colIndex) {
+            super(colIndex);
+        }
+
+        @Override
+        void extract(ResultSet resultSet, DataGrid.Builder builder) throws SQLException {
+            builder.appendValue(colIndex, resultSet.getString(resultSetIndex));
+        }
+    }
+
+    private static final class IntExtractor extends JdbcColumnExtractor {
+        private IntExtractor(int colIndex) {
+            super(colIndex);
+        }
+
+        @Override
+        void extract(ResultSet resultSet, DataGrid.Builder builder) throws SQLException {
+            int value = resultSet.getInt(resultSetIndex);
+            if (resultSet.wasNull()) {
+                builder.appendNull(colIndex);
+            } else {
+                builder.appendInt(colIndex, value);
+            }
+        }
+    }
+
+    private static final class LongExtractor extends JdbcColumnExtractor {
+        private LongExtractor(int colIndex) {
+            super(colIndex);
+        }
+
+        @Override
+        void extract(ResultSet resultSet, DataGrid.Builder builder) throws SQLException {
+            long value = resultSet.getLong(resultSetIndex);
+            if (resultSet.wasNull()) {
+                builder.appendNull(colIndex);
+            } else {
+                builder.appendLong(colIndex, value);
+            }
+        }
+    }
+
+    private static final class ShortExtractor extends JdbcColumnExtractor {
+        private ShortExtractor(int colIndex) {
+            super(colIndex);
+        }
+
+        @Override
+        void extract(ResultSet resultSet, DataGrid.Builder builder) throws SQLException {
+            short value = resultSet.getShort(resultSetIndex);
+            if (resultSet.wasNull()) {
+                builder.appendNull(colIndex);
+            } else {
+                builder.appendValue(colIndex, value);
+            }
+        }
+    }
+
+    private static final class DoubleExtractor extends JdbcColumnExtractor {
+        private DoubleExtractor(int colIndex) {
+            super(colIndex);
+        }
+
+        @Override
+        void extract(ResultSet resultSet, DataGrid.Builder builder) throws SQLException {
+            double value = resultSet.getDouble(resultSetIndex);
+            if (resultSet.wasNull()) {
+                builder.appendNull(colIndex);
+            } else {
+                builder.appendDouble(colIndex, value);
+            }
+        }
+    }
+
+    private static final class FloatExtractor extends JdbcColumnExtractor {
+        private FloatExtractor(int colIndex) {
+            super(colIndex);
+        }
+
+        @Override
+        void extract(ResultSet resultSet, DataGrid.Builder builder) throws SQLException {
+            float value = resultSet.getFloat(resultSetIndex);
+            if (resultSet.wasNull()) {
+                builder.appendNull(colIndex);
+            } else {
+                builder.appendValue(colIndex, value);
+            }
+        }
+    }
+
+    private static final class BooleanExtractor extends JdbcColumnExtractor {
+        private BooleanExtractor(int colIndex) {
+            super(colIndex);
+        }
+
+        @Override
+        void extract(ResultSet resultSet, DataGrid.Builder builder) throws SQLException {
+            boolean value = resultSet.getBoolean(resultSetIndex);
+            if (resultSet.wasNull()) {
+                builder.appendNull(colIndex);
+            } else {
+                builder.appendValue(colIndex, value);
+            }
+        }
+    }
+
+    private static final class BigDecimalExtractor extends JdbcColumnExtractor {
+        private BigDecimalExtractor(int colIndex) {
+            super(colIndex);
+        }
+
+        @Override
+        void extract(ResultSet resultSet, DataGrid.Builder builder) throws SQLException {
+            builder.appendValue(colIndex, resultSet.getBigDecimal(resultSetIndex));
+        }
+    }
+
+    private static final class DateExtractor extends JdbcColumnExtractor {
+        private DateExtractor(int colIndex) {
+            super(colIndex);
+        }
+
+        @Override
+        void extract(ResultSet resultSet, DataGrid.Builder builder) throws SQLException {
+            builder.appendValue(colIndex, resultSet.getDate(resultSetIndex));
+        }
+    }
+
+    private static final class TimeExtractor extends JdbcColumnExtractor {
+        private TimeExtractor(int colIndex) {
+            super(colIndex);
+        }
+
+        @Override
+        void extract(ResultSet resultSet, DataGrid.Builder builder) throws SQLException {
+            builder.appendValue(colIndex, resultSet.getTime(resultSetIndex));
+        }
+    }
+
+    private static final class TimestampExtractor extends JdbcColumnExtractor {
+        private TimestampExtractor(int colIndex) {
+            super(colIndex);
+        }
+
+        @Override
+        void extract(ResultSet resultSet, DataGrid.Builder builder) throws SQLException {
+            builder.appendValue(colIndex, resultSet.getTimestamp(resultSetIndex));
+        }
+    }
+
+    private static final class ObjectExtractor extends JdbcColumnExtractor {
+        private ObjectExtractor(int colIndex) {
+            super(colIndex);
+        }
+
+        @Override
+        void extract(ResultSet resultSet, DataGrid.Builder builder) throws SQLException {
+            builder.appendValue(colIndex, resultSet.getObject(resultSetIndex));
+        }
+    }
+
+}
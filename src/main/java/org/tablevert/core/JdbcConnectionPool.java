@@ -0,0 +1,414 @@
+/*
+ * Copyright 2019 conis Informationssysteme GmbH
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.tablevert.core;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.tablevert.core.config.Database;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Pool of JDBC connections to a single {@link Database}.
+ */
+final class JdbcConnectionPool {
+
+    static final class Builder {
+        private static final long DEFAULT_BORROW_TIMEOUT_MILLIS = 30000;
+        private static final int DEFAULT_VALIDATION_TIMEOUT_SECONDS = 5;
+
+        private Database database;
+        private Integer minSize;
+        private Integer maxSize;
+        private Integer maxIdleSeconds;
+        private long borrowTimeoutMillis;
+        private int validationTimeoutSeconds;
+
+        Builder() {
+            this.borrowTimeoutMillis = DEFAULT_BORROW_TIMEOUT_MILLIS;
+            this.validationTimeoutSeconds = DEFAULT_VALIDATION_TIMEOUT_SECONDS;
+        }
+
+        Builder forDatabase(Database database) {
+            this.database = database;
+            return this;
+        }
+
+        /**
+         * Overrides the pool size configured for the database.
+         */
+        Builder withSize(int minSize, int maxSize) {
+            this.minSize = minSize;
+            this.maxSize = maxSize;
+            return this;
+        }
+
+        /**
+         * Overrides the maximum idle time configured for the database.
+         */
+        Builder withMaxIdleSeconds(int maxIdleSeconds) {
+            this.maxIdleSeconds = maxIdleSeconds;
+            return this;
+        }
+
+        Builder withBorrowTimeoutMillis(long borrowTimeoutMillis) {
+            this.borrowTimeoutMillis = borrowTimeoutMillis;
+            return this;
+        }
+
+        Builder withValidationTimeoutSeconds(int validationTimeoutSeconds) {
+            this.validationTimeoutSeconds = validationTimeoutSeconds;
+            return this;
+        }
+
+        JdbcConnectionPool build() throws BuilderFailedException {
+            initFromDatabase();
+            validate();
+            String userName = database.getDefaultUserName();
+            JdbcConnectionPool pool = new JdbcConnectionPool(maxSize);
+            pool.databaseName = database.getName();
+            pool.connectionString = assembleConnectionString();
+            pool.userName = userName;
+            pool.userSecret = database.getUserSecret(userName);
+            pool.minSize = minSize;
+            pool.maxSize = maxSize;
+            pool.maxIdleMillis = TimeUnit.SECONDS.toMillis(maxIdleSeconds);
+            pool.borrowTimeoutMillis = borrowTimeoutMillis;
+            pool.validationTimeoutSeconds = validationTimeoutSeconds;
+            return pool;
+        }
+
+        private void initFromDatabase() {
+            if (database == null) {
+                return;
+            }
+            if (minSize == null) {
+                minSize = database.getConnectionPoolMinSize();
+            }
+            if (maxSize == null) {
+                maxSize = database.getConnectionPoolMaxSize();
+            }
+            if (maxIdleSeconds == null) {
+                maxIdleSeconds = database.getConnectionMaxIdleSeconds();
+            }
+        }
+
+        private String assembleConnectionString() {
+            return "jdbc:"
+                    + database.getDbType().getName() + "://"
+                    + database.getHost() + ":"
+                    + database.getPort() + "/"
+                    + database.getName();
+        }
+
+        private void validate() throws BuilderFailedException {
+            String errors = "";
+            if (database == null) {
+                errors += " - database not specified;";
+            } else {
+                String userName = database.getDefaultUserName();
+                if (userName == null || database.getUserSecret(userName) == null) {
+                    errors += " - user not configured for database [" + database.getName() + "];";
+                }
+                if (minSize < 0 || maxSize < 1 || minSize > maxSize) {
+                    errors += " - invalid pool size [" + minSize + ", " + maxSize + "];";
+                }
+                if (maxIdleSeconds < 0) {
+                    errors += " - negative max idle time;";
+                }
+            }
+            if (borrowTimeoutMillis < 0) {
+                errors += " - negative borrow timeout;";
+            }
+            if (validationTimeoutSeconds < 0) {
+                errors += " - negative validation timeout;";
+            }
+            if (!errors.isEmpty()) {
+                throw new BuilderFailedException("Builder validation failed with errors: " + errors);
+            }
+        }
+    }
+
+    /**
+     * A connection borrowed from the pool; closing the lease hands the connection back.
+     */
+    final class Lease implements AutoCloseable {
+        private final IdleConnection pooledConnection;
+        private boolean released;
+
+        private Lease(IdleConnection pooledConnection) {
+            this.pooledConnection = pooledConnection;
+            this.released = false;
+        }
+
+        Connection getConnection() {
+            if (released) {
+                throw new IllegalStateException("Connection lease has already been released");
+            }
+            return pooledConnection.connection;
+        }
+
+        /**
+         * Marks the connection as broken, so that it is closed instead of being handed back to the pool.
+         */
+        void invalidate() {
+            pooledConnection.broken = true;
+        }
+
+        @Override
+        public void close() {
+            if (!released) {
+                released = true;
+                release(pooledConnection);
+            }
+        }
+    }
+
+    private static final class IdleConnection {
+        private final Connection connection;
+        private long idleSinceMillis;
+        private boolean broken;
+
+        private IdleConnection(Connection connection) {
+            this.connection = connection;
+            this.idleSinceMillis = System.currentTimeMillis();
+            this.broken = false;
+        }
+    }
+
+    private final Logger logger = LoggerFactory.getLogger(JdbcConnectionPool.class);
+
+    private final ConcurrentLinkedDeque<IdleConnection> idleConnections;
+    private final Semaphore borrowPermits;
+    private final AtomicLong createdCount;
+    private final AtomicLong closedCount;
+    private final AtomicLong borrowCount;
+    private final AtomicLong borrowTimeoutCount;
+    private final AtomicLong validationFailureCount;
+    private final AtomicLong evictedCount;
+    private final AtomicLong borrowWaitNanos;
+
+    private String databaseName;
+    private String connectionString;
+    private String userName;
+    private String userSecret;
+    private int minSize;
+    private int maxSize;
+    private long maxIdleMillis;
+    private long borrowTimeoutMillis;
+    private int validationTimeoutSeconds;
+    private volatile boolean closed;
+
+    private JdbcConnectionPool(int maxSize) {
+        this.idleConnections = new ConcurrentLinkedDeque<>();
+        this.borrowPermits = new Semaphore(maxSize, true);
+        this.createdCount = new AtomicLong();
+        this.closedCount = new AtomicLong();
+        this.borrowCount = new AtomicLong();
+        this.borrowTimeoutCount = new AtomicLong();
+        this.validationFailureCount = new AtomicLong();
+        this.evictedCount = new AtomicLong();
+        this.borrowWaitNanos = new AtomicLong();
+        this.closed = false;
+    }
+
+    String getDatabaseName() {
+        return databaseName;
+    }
+
+    /**
+     * @return the maximum number of connections borrowed at the same time
+     */
+    int getMaxSize() {
+        return maxSize;
+    }
+
+    /**
+     * Opens connections until the configured minimum pool size is reached.
+     *
+     * @throws DatabaseReaderException if a connection cannot be opened
+     */
+    void warmUp() throws DatabaseReaderException {
+        while (!closed && idleConnections.size() + activeCount() < minSize) {
+            idleConnections.offerFirst(new IdleConnection(openConnection()));
+        }
+        logger.debug("Warmed up connection pool for database [{}] with {} idle connections",
+                databaseName, idleConnections.size());
+    }
+
+    /**
+     * Borrows a validated connection from the pool, opening a new one if no idle connection is available.
+     * Waits for a connection to be returned if the maximum pool size is reached.
+     *
+     * @return the lease wrapping the borrowed connection
+     * @throws DatabaseReaderException if no connection becomes available in time or none can be opened
+     */
+    Lease borrowConnection() throws DatabaseReaderException {
+        ensureNotClosed();
+        acquirePermit();
+        try {
+            IdleConnection pooledConnection;
+            while ((pooledConnection = idleConnections.pollFirst()) != null) {
+                if (isValid(pooledConnection.connection)) {
+                    break;
+                }
+                validationFailureCount.incrementAndGet();
+                closeQuietly(pooledConnection.connection);
+            }
+            if (pooledConnection == null) {
+                pooledConnection = new IdleConnection(openConnection());
+            }
+            borrowCount.incrementAndGet();
+            return new Lease(pooledConnection);
+        } catch (DatabaseReaderException | RuntimeException e) {
+            borrowPermits.release();
+            throw e;
+        }
+    }
+
+    /**
+     * Closes idle connections which exceeded the maximum idle time, keeping at least the minimum pool size.
+     */
+    void evictIdleConnections() {
+        long idleLimit = System.currentTimeMillis() - maxIdleMillis;
+        while (idleConnections.size() > minSize) {
+            IdleConnection oldest = idleConnections.pollLast();
+            if (oldest == null) {
+                return;
+            }
+            if (oldest.idleSinceMillis > idleLimit) {
+                idleConnections.offerLast(oldest);
+                return;
+            }
+            evictedCount.incrementAndGet();
+            closeQuietly(oldest.connection);
+        }
+    }
+
+    ConnectionPoolMetrics metrics() {
+        return new ConnectionPoolMetrics.Builder()
+                .forDatabase(databaseName)
+                .withSizeLimits(minSize, maxSize)
+                .withActiveCount(activeCount())
+                .withIdleCount(idleConnections.size())
+                .withCreatedCount(createdCount.get())
+                .withClosedCount(closedCount.get())
+                .withBorrowCount(borrowCount.get())
+                .withBorrowTimeoutCount(borrowTimeoutCount.get())
+                .withValidationFailureCount(validationFailureCount.get())
+                .withEvictedCount(evictedCount.get())
+                .withBorrowWaitNanos(borrowWaitNanos.get())
+                .build();
+    }
+
+    /**
+     * Closes all idle connections and prevents further borrowing.
+     * Connections still borrowed are closed on return.
+     */
+    void close() {
+        closed = true;
+        IdleConnection pooledConnection;
+        while ((pooledConnection = idleConnections.pollFirst()) != null) {
+            closeQuietly(pooledConnection.connection);
+        }
+    }
+
+    private void release(IdleConnection pooledConnection) {
+        try {
+            if (closed || maxIdleMillis == 0 || pooledConnection.broken || !resetState(pooledConnection.connection)) {
+                closeQuietly(pooledConnection.connection);
+            } else {
+                pooledConnection.idleSinceMillis = System.currentTimeMillis();
+                idleConnections.offerFirst(pooledConnection);
+            }
+        } finally {
+            borrowPermits.release();
+        }
+    }
+
+    private boolean resetState(Connection connection) {
+        try {
+            if (connection.isClosed()) {
+                return false;
+            }
+            if (!connection.getAutoCommit()) {
+                connection.rollback();
+                connection.setAutoCommit(true);
+            }
+            if (connection.isReadOnly()) {
+                connection.setReadOnly(false);
+            }
+            connection.clearWarnings();
+            return true;
+        } catch (SQLException e) {
+            logger.debug("Discarding connection to database [{}] after failed state reset", databaseName, e);
+            return false;
+        }
+    }
+
+    private void acquirePermit() throws DatabaseReaderException {
+        long start = System.nanoTime();
+        try {
+            if (!borrowPermits.tryAcquire(borrowTimeoutMillis, TimeUnit.MILLISECONDS)) {
+                borrowTimeoutCount.incrementAndGet();
+                throw new DatabaseReaderException("Timed out waiting for a pooled connection to database ["
+                        + databaseName + "]");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new DatabaseReaderException("Interrupted while waiting for a pooled connection to database ["
+                    + databaseName + "]");
+        } finally {
+            borrowWaitNanos.addAndGet(System.nanoTime() - start);
+        }
+    }
+
+    private boolean isValid(Connection connection) {
+        try {
+            return connection.isValid(validationTimeoutSeconds);
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    private Connection openConnection() throws DatabaseReaderException {
+        try {
+            Connection connection = DriverManager.getConnection(connectionString, userName, userSecret);
+            createdCount.incrementAndGet();
+            return connection;
+        } catch (SQLException e) {
+            throw new DatabaseReaderException("Failed to open connection for connection string: "
+                    + connectionString);
+        }
+    }
+
+    private void closeQuietly(Connection connection) {
+        try {
+            connection.close();
+        } catch (SQLException e) {
+            logger.debug("Failed to close connection to database [{}]", databaseName, e);
+        } finally {
+            closedCount.incrementAndGet();
+        }
+    }
+
+    private int activeCount() {
+        return maxSize - borrowPermits.availablePermits();
+    }
+
+    private void ensureNotClosed() throws DatabaseReaderException {
+        if (closed) {
+            throw new DatabaseReaderException("Connection pool for database [" + databaseName + "] is closed");
+        }
+    }
+
+}
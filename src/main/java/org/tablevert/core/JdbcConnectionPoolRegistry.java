@@ -0,0 +1,115 @@
+/*
+ * Copyright 2019 conis Informationssysteme GmbH
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.tablevert.core;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.tablevert.core.config.Database;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Registry of the {@link JdbcConnectionPool} instances, one per configured {@link Database}.
+ */
+final class JdbcConnectionPoolRegistry {
+
+    private static final long EVICTION_INTERVAL_SECONDS = 30;
+
+    private final Logger logger = LoggerFactory.getLogger(JdbcConnectionPoolRegistry.class);
+
+    private final Map<String, JdbcConnectionPool> poolMap;
+    private ScheduledExecutorService evictionExecutor;
+
+    JdbcConnectionPoolRegistry() {
+        this.poolMap = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Gets the pool for the database, creating it on first access.
+     *
+     * @param database the database to connect to
+     * @return the connection pool
+     * @throws BuilderFailedException if the pool cannot be created for the database
+     */
+    JdbcConnectionPool poolFor(Database database) throws BuilderFailedException {
+        JdbcConnectionPool pool = poolMap.get(database.getName());
+        if (pool != null) {
+            return pool;
+        }
+        synchronized (poolMap) {
+            pool = poolMap.get(database.getName());
+            if (pool == null) {
+                pool = new JdbcConnectionPool.Builder()
+                        .forDatabase(database)
+                        .build();
+                poolMap.put(database.getName(), pool);
+                ensureEvictionScheduled();
+            }
+            return pool;
+        }
+    }
+
+    /**
+     * Creates the pools for the databases and opens their minimum number of connections.
+     * Failures are logged only, leaving it to the first borrow operation to retry.
+     *
+     * @param databases the databases to prepare
+     */
+    void warmUp(List<Database> databases) {
+        for (Database database : databases) {
+            try {
+                poolFor(database).warmUp();
+            } catch (TablevertCoreException e) {
+                logger.warn("Failed to warm up connection pool for database [" + database.getName() + "]", e);
+            }
+        }
+    }
+
+    List<ConnectionPoolMetrics> metrics() {
+        List<ConnectionPoolMetrics> metrics = new ArrayList<>();
+        poolMap.values().forEach(pool -> metrics.add(pool.metrics()));
+        return metrics;
+    }
+
+    void close() {
+        synchronized (poolMap) {
+            if (evictionExecutor != null) {
+                evictionExecutor.shutdownNow();
+                evictionExecutor = null;
+            }
+            poolMap.values().forEach(JdbcConnectionPool::close);
+            poolMap.clear();
+        }
+    }
+
+    private void ensureEvictionScheduled() {
+        if (evictionExecutor != null) {
+            return;
+        }
+        evictionExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "tablevert-pool-eviction");
+            thread.setDaemon(true);
+            return thread;
+        });
+        evictionExecutor.scheduleWithFixedDelay(this::evictIdleConnections,
+                EVICTION_INTERVAL_SECONDS, EVICTION_INTERVAL_SECONDS, TimeUnit.SECONDS);
+    }
+
+    private void evictIdleConnections() {
+        try {
+            poolMap.values().forEach(JdbcConnectionPool::evictIdleConnections);
+        } catch (RuntimeException e) {
+            logger.warn("Failed to evict idle connections", e);
+        }
+    }
+
+}
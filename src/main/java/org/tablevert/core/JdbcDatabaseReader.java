@@ -9,8 +9,14 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.tablevert.core.config.*;
 
+import java.io.IOException;
 import java.sql.*;
 import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * {@link DatabaseReader} implementation for JDBC database access.
@@ -23,6 +29,8 @@ class JdbcDatabaseReader implements DatabaseReader {
         private PredefinedDatabaseQuery predefinedDatabaseQuery;
         private AppliedQuery appliedQuery;
         private TablevertConfig tablevertConfig;
+        private JdbcConnectionPool connectionPool;
+        private Integer fetchSize;
 
         @Override
         public Builder usingConfig(TablevertConfig tablevertConfig) {
@@ -36,20 +44,53 @@ class JdbcDatabaseReader implements DatabaseReader {
             return this;
         }
 
+        /**
+         * Sets the pool to borrow connections from.
+         * If no pool is set, the reader opens a fresh connection for each read.
+         *
+         * @param connectionPool the pool for the database accessed by the applied query
+         * @return the builder
+         */
+        Builder usingConnectionPool(JdbcConnectionPool connectionPool) {
+            this.connectionPool = connectionPool;
+            return this;
+        }
+
         @Override
         public JdbcDatabaseReader build() throws BuilderFailedException {
             initDatabaseAndQuery();
             validate();
             dbReader = new JdbcDatabaseReader();
             dbReader.databaseType = database.getDbType();
-            dbReader.connectionString = assembleConnectionString();
+            dbReader.connectionPool = connectionPool != null ? connectionPool : createUnpooledConnectionPool();
             dbReader.predefinedDatabaseQuery = predefinedDatabaseQuery;
-            dbReader.appliedQuery = appliedQuery;
-            dbReader.userName = database.getDefaultUserName();
-            dbReader.userSecret = database.getUserSecret(dbReader.userName);
+            dbReader.appliedDatabaseQuery = AppliedDatabaseQuery.class.equals(appliedQuery.getClass())
+                    ? (AppliedDatabaseQuery) appliedQuery : null;
+            dbReader.queryStatement = composeQueryStatement();
+            dbReader.fetchSize = fetchSize;
+            dbReader.firstRowIndex = initFirstRowIndex();
             return dbReader;
         }
 
+        private long initFirstRowIndex() {
+            if (!AppliedDatabaseQuery.class.equals(appliedQuery.getClass())) {
+                return 0;
+            }
+            Long offset = ((AppliedDatabaseQuery) appliedQuery).getOffset();
+            return offset == null ? 0 : offset;
+        }
+
+        private JdbcQueryStatement composeQueryStatement() throws BuilderFailedException {
+            JdbcQueryStatement.Builder builder = new JdbcQueryStatement.Builder()
+                    .ofDatabaseType(database.getDbType())
+                    .forPredefinedQuery(predefinedDatabaseQuery)
+                    .applying(dbReader.appliedDatabaseQuery);
+            if (dbReader.isBulkCopy()) {
+                builder.forBulkCopy();
+            }
+            return builder.build();
+        }
+
         private void initDatabaseAndQuery() throws BuilderFailedException {
             if (tablevertConfig != null && appliedQuery != null) {
                 DataSource dataSource = tablevertConfig.getDataSourceForQuery(appliedQuery.getBaseQueryName());
@@ -65,14 +106,17 @@ class JdbcDatabaseReader implements DatabaseReader {
                 }
                 this.predefinedDatabaseQuery = (PredefinedDatabaseQuery) predefinedQuery;
             }
+            if (appliedQuery != null && AppliedDatabaseQuery.class.equals(appliedQuery.getClass())) {
+                this.fetchSize = ((AppliedDatabaseQuery) appliedQuery).getFetchSize();
+            }
         }
 
-        private String assembleConnectionString() {
-            return "jdbc:"
-                    + database.getDbType().getName() + "://"
-                    + database.getHost() + ":"
-                    + database.getPort() + "/"
-                    + database.getName();
+        private JdbcConnectionPool createUnpooledConnectionPool() throws BuilderFailedException {
+            return new JdbcConnectionPool.Builder()
+                    .forDatabase(database)
+                    .withSize(0, database.getConnectionPoolMaxSize())
+                    .withMaxIdleSeconds(0)
+                    .build();
         }
 
         private void validate() throws BuilderFailedException {
@@ -95,6 +139,13 @@ class JdbcDatabaseReader implements DatabaseReader {
             if (predefinedDatabaseQuery == null) {
                 errors += " - base query for applied query not configured;";
             }
+            if (fetchSize != null && fetchSize < 1) {
+                errors += " - fetch size must be positive;";
+            }
+            if (connectionPool != null && database != null
+                    && !database.getName().equals(connectionPool.getDatabaseName())) {
+                errors += " - connection pool does not belong to database [" + database.getName() + "];";
+            }
             String userName = database == null ? null : database.getDefaultUserName();
             if (userName == null || userName.isEmpty()) {
                 errors += " - user not specified;";
@@ -118,148 +169,529 @@ class JdbcDatabaseReader implements DatabaseReader {
         }
     }
 
+    private static final int DEFAULT_BATCH_SIZE = 1000;
+
     private final Logger logger = LoggerFactory.getLogger(JdbcDatabaseReader.class);
 
     private DatabaseType databaseType;
-    private String connectionString;
-    private String userName;
-    private String userSecret;
+    private JdbcConnectionPool connectionPool;
     private PredefinedDatabaseQuery predefinedDatabaseQuery;
-    private AppliedQuery appliedQuery;
+    private AppliedDatabaseQuery appliedDatabaseQuery;
+    private JdbcQueryStatement queryStatement;
+    private Integer fetchSize;
+    private long firstRowIndex;
 
     private JdbcDatabaseReader() {
     }
 
     @Override
     public DataGrid read() throws TablevertCoreException {
-        try (Connection connection = openConnection()) {
-            Statement statement = connection.createStatement();
-            ResultSet resultSet = statement.executeQuery(composeQueryStatement());
+        DataGridCollector collector = new DataGridCollector();
+        stream(collector);
+        return collector.getDataGrid();
+    }
 
-            ResultSetMetaData metaData = resultSet.getMetaData();
+    /**
+     * Reads the data and hands it over to the consumer in row batches.
+     * In streaming mode, the rows are fetched within a read-only transaction through a forward-only cursor,
+     * so that the driver never holds more than one batch of rows.
+     * Partitioned queries are read concurrently and handed over partition by partition in the order of their ranges.
+     * In bulk copy mode, the rows are parsed from the output of the database's bulk copy command.
+     *
+     * @param consumer the receiver of the rows
+     * @throws TablevertCoreException if reading or consuming the data fails
+     */
+    @Override
+    public void stream(DataGridRowConsumer consumer) throws TablevertCoreException {
+        if (isPartitioned()) {
+            streamPartitioned(consumer);
+        } else {
+            streamSingle(consumer);
+        }
+    }
 
-            DataGrid.Builder dataGridBuilder = new DataGrid.Builder();
-            int columnCount = extractColumns(dataGridBuilder, metaData);
-            dataGridBuilder.andData();
-            extractRows(dataGridBuilder, resultSet, columnCount);
+    private void streamSingle(DataGridRowConsumer consumer) throws TablevertCoreException {
+        RowBatcher batcher = new RowBatcher(consumer);
+        try (JdbcConnectionPool.Lease lease = connectionPool.borrowConnection()) {
+            Connection connection = lease.getConnection();
+            beginReadTransaction(connection);
+            logger.debug("Prepared query statement: " + queryStatement);
+            readRows(connection, queryStatement, firstRowIndex, batcher);
+            endReadTransaction(connection);
+        } catch (SQLException e) {
+            throw new DatabaseReaderException(e);
+        }
+        batcher.flush();
+        if (queryStatement.isKeysetPaging() && batcher.rowCount == queryStatement.getKeysetPageSize()) {
+            consumer.acceptContinuationToken(createContinuationToken(batcher.lastRowValues, batcher.columns));
+        }
+        consumer.endGrid();
+    }
 
-            return dataGridBuilder.build();
-        } catch (SQLException | DataGridException e) {
+    /**
+     * Executes the statement and appends the extracted rows to the receiver's row builder, either from the JDBC
+     * result set or, in bulk copy mode, from the parsed output of the database's bulk copy command.
+     */
+    private void readRows(Connection connection, JdbcQueryStatement jdbcQueryStatement, long firstIndex,
+                          RowReceiver receiver) throws SQLException, TablevertCoreException {
+        if (isBulkCopy()) {
+            copyRows(connection, jdbcQueryStatement, firstIndex, receiver);
+            return;
+        }
+        try (PreparedStatement statement = prepareStatement(connection, jdbcQueryStatement);
+             ResultSet resultSet = statement.executeQuery()) {
+            JdbcResultSetExtractor extractor = new JdbcResultSetExtractor(resultSet.getMetaData());
+            List<DataGridColumn> columns = extractor.getColumns();
+            receiver.startRows(columns);
+            int rowIdColIndex = findRowIdColumnIndex(columns);
+            long rowNumber = firstIndex;
+            while (resultSet.next()) {
+                DataGrid.Builder builder = receiver.rowBuilder();
+                extractor.extractRow(resultSet, builder);
+                receiver.endRow(rowNumber, identifyRow(builder, rowIdColIndex, rowNumber));
+                rowNumber++;
+            }
+        }
+    }
+
+    private void copyRows(Connection connection, JdbcQueryStatement jdbcQueryStatement, long firstIndex,
+                          RowReceiver receiver) throws SQLException, TablevertCoreException {
+        logger.debug("Bulk copy statement: " + jdbcQueryStatement.getBulkCopySql());
+        try (PgCopyReader copyReader = PgCopyReader.open(connection, jdbcQueryStatement)) {
+            List<DataGridColumn> columns = copyReader.getColumns();
+            receiver.startRows(columns);
+            int rowIdColIndex = findRowIdColumnIndex(columns);
+            for (long rowNumber = firstIndex; copyReader.nextRow(rowNumber, receiver.rowBuilder()); rowNumber++) {
+                receiver.endRow(rowNumber, identifyRow(receiver.rowBuilder(), rowIdColIndex, rowNumber));
+            }
+        } catch (IOException e) {
             throw new DatabaseReaderException(e);
         }
     }
 
-    private String composeQueryStatement() {
-        // TODO: Integrate applied filtering and sorting
-        List<DatabaseQueryColumn> columnsToSelect = predefinedDatabaseQuery.getColumnsToSelect();
+    private int findRowIdColumnIndex(List<DataGridColumn> columns) throws DatabaseReaderException {
+        String rowIdColumn = predefinedDatabaseQuery.getRowIdColumn();
+        if (rowIdColumn == null) {
+            return -1;
+        }
+        return columns.stream()
+                .filter(column -> column.getName().equalsIgnoreCase(rowIdColumn))
+                .findFirst()
+                .orElseThrow(() -> new DatabaseReaderException("Row id column [" + rowIdColumn + "] missing in result"))
+                .getIndex();
+    }
 
-        String queryStatement = String.format(databaseType.getSelectStatementTemplate(),
-                prepareColumns(columnsToSelect),
-                prepareSource(predefinedDatabaseQuery.getFromClause()),
-                prepareFilter(predefinedDatabaseQuery.getWhereClause()),
-                prepareSorting(predefinedDatabaseQuery.getSorting()));
+    /**
+     * Gets the value of the row id column of the row being appended to the builder, if the query defines one.
+     *
+     * @return the row id, or {@code null} if the row is identified by its number
+     */
+    private String identifyRow(DataGrid.Builder builder, int rowIdColIndex, long rowNumber)
+            throws DatabaseReaderException {
+        if (rowIdColIndex < 0) {
+            return null;
+        }
+        Object rowId = builder.getValue(builder.getRowCount(), rowIdColIndex);
+        if (rowId == null) {
+            throw new DatabaseReaderException("Row id column [" + predefinedDatabaseQuery.getRowIdColumn()
+                    + "] is NULL in row no. " + rowNumber);
+        }
+        return rowId.toString();
+    }
 
-        logger.debug("Prepared query statement: " + queryStatement);
-        return queryStatement;
+    private boolean isStreaming() {
+        return fetchSize != null;
     }
 
-    private String prepareColumns(List<DatabaseQueryColumn> columnsToSelect) {
-        List<String> columns = new ArrayList<>();
-        columnsToSelect.forEach(column ->
-                columns.add((column.getFormula() == null ? "" : (column.getFormula() + " AS ")) + column.getName()));
-        return String.join(",", columns);
+    private boolean isBulkCopy() {
+        return appliedDatabaseQuery != null && appliedDatabaseQuery.isBulkCopy();
     }
 
-    private String prepareSource(String from) {
-        return from;
+    private boolean isPartitioned() {
+        return predefinedDatabaseQuery.getPartitionCount() > 1
+                && isSortedByPartitionColumn()
+                && (appliedDatabaseQuery == null
+                    || (appliedDatabaseQuery.getLimit() == null
+                        && appliedDatabaseQuery.getOffset() == null
+                        && appliedDatabaseQuery.getKeysetPageSize() == null));
     }
 
-    private String prepareFilter(String baseClause) {
-        if (baseClause == null || baseClause.trim().isEmpty()) {
-            return "";
+    /**
+     * Checks whether the partitions, which are ranges of the partition column, can be concatenated in the
+     * query's sort order. Other sort orders would require merging the partitions in Java, whose ordering of
+     * text values does not necessarily agree with the database collation, so such queries are not partitioned.
+     */
+    private boolean isSortedByPartitionColumn() {
+        List<String> sorting = effectiveSorting();
+        if (sorting == null || sorting.isEmpty()) {
+            return true;
         }
-        return " WHERE " + baseClause;
+        String partitionColumn = predefinedDatabaseQuery.getPartitionColumn();
+        return partitionColumn.equals(sorting.get(0)) || ("-" + partitionColumn).equals(sorting.get(0));
+    }
+
+    private boolean isSortedDescendingByPartitionColumn() {
+        List<String> sorting = effectiveSorting();
+        return sorting != null && !sorting.isEmpty()
+                && ("-" + predefinedDatabaseQuery.getPartitionColumn()).equals(sorting.get(0));
     }
 
-    private String prepareSorting(List<String> sortColumns) {
-        if (sortColumns == null || sortColumns.isEmpty()) {
-            return "";
+    private void beginReadTransaction(Connection connection) throws SQLException {
+        if (isStreaming()) {
+            connection.setAutoCommit(false);
+            connection.setReadOnly(true);
         }
-        StringBuilder sorting = new StringBuilder();
-        for (String column : sortColumns) {
-            String sortedColumn = checkAddSortDirection(column);
-            sorting.append((!sortedColumn.isEmpty() && (sorting.length() > 0)) ? "," : "").append(sortedColumn);
+    }
+
+    private void endReadTransaction(Connection connection) throws SQLException {
+        if (isStreaming()) {
+            connection.commit();
         }
-        if (sorting.length() == 0) {
-            return "";
+    }
+
+    private PreparedStatement prepareStatement(Connection connection, JdbcQueryStatement jdbcQueryStatement)
+            throws SQLException {
+        PreparedStatement statement = jdbcQueryStatement.prepare(connection);
+        if (isStreaming()) {
+            statement.setFetchSize(fetchSize);
         }
-        return " ORDER BY " + sorting;
+        return statement;
     }
 
-    private String checkAddSortDirection(String column) {
-        if (column == null) {
-            return "";
+    private String createContinuationToken(Object[] lastRowValues, List<DataGridColumn> columns)
+            throws DatabaseReaderException {
+        List<String> sorting = queryStatement.getKeysetSorting();
+        List<Object> sortKeyValues = new ArrayList<>();
+        for (String sortColumn : sorting) {
+            String columnName = sortColumn.startsWith("-") ? sortColumn.substring(1) : sortColumn;
+            DataGridColumn column = columns.stream()
+                    .filter(col -> col.getName().equalsIgnoreCase(columnName))
+                    .findFirst()
+                    .orElseThrow(() -> new DatabaseReaderException(
+                            "Keyset sort column [" + columnName + "] missing in result"));
+            sortKeyValues.add(lastRowValues[column.getIndex()]);
         }
-        if (column.startsWith("-")) {
-            return column.substring(1) + " DESC";
+        try {
+            return new KeysetContinuationToken(sorting, sortKeyValues).encode();
+        } catch (IllegalArgumentException e) {
+            throw new DatabaseReaderException("Failed to create continuation token: " + e.getMessage());
         }
-        return column;
     }
 
+    private void streamPartitioned(DataGridRowConsumer consumer) throws TablevertCoreException {
+        List<JdbcQueryStatement.PartitionRange> ranges = determinePartitionRanges();
+        if (ranges.size() < 2) {
+            streamSingle(consumer);
+            return;
+        }
+        if (isSortedDescendingByPartitionColumn()) {
+            Collections.reverse(ranges);
+        }
+        RowBatcher batcher = new RowBatcher(consumer);
+        readPartitions(ranges, new PartitionConcatenator(batcher));
+        batcher.flush();
+        consumer.endGrid();
+    }
 
-    private int extractColumns(DataGrid.Builder dataGridBuilder, ResultSetMetaData metaData) throws SQLException, DataGridException {
-        for (int i = 1; i <= metaData.getColumnCount(); i++) {
-            DataGridColumn column = new DataGridColumn(i - 1, metaData.getColumnName(i), metaData.getColumnClassName(i));
-            dataGridBuilder.withColumn(column);
+    /**
+     * Splits the value range of the partition column into equally wide ranges.
+     * The last range also covers {@code NULL} values, which keeps concatenated partitions in PostgreSQL's
+     * default {@code NULLS LAST} (ascending) or {@code NULLS FIRST} (descending) order.
+     */
+    private List<JdbcQueryStatement.PartitionRange> determinePartitionRanges() throws TablevertCoreException {
+        JdbcQueryStatement boundsStatement = createStatementBuilder()
+                .selectingPartitionBounds()
+                .build();
+        Object minValue;
+        Object maxValue;
+        try (JdbcConnectionPool.Lease lease = connectionPool.borrowConnection();
+             PreparedStatement statement = boundsStatement.prepare(lease.getConnection());
+             ResultSet resultSet = statement.executeQuery()) {
+            resultSet.next();
+            minValue = resultSet.getObject(1);
+            maxValue = resultSet.getObject(2);
+        } catch (SQLException e) {
+            throw new DatabaseReaderException(e);
+        }
+        List<JdbcQueryStatement.PartitionRange> ranges = new ArrayList<>();
+        if (minValue == null || maxValue == null) {
+            return ranges;
+        }
+        if (!isIntegral(minValue) || !isIntegral(maxValue)) {
+            throw new DatabaseReaderException("Partition column [" + predefinedDatabaseQuery.getPartitionColumn()
+                    + "] must have an integral type; actual class: [" + minValue.getClass().getSimpleName() + "]");
         }
+        long lowerBound = ((Number) minValue).longValue();
+        long upperBound = ((Number) maxValue).longValue();
+        long width;
+        try {
+            width = Math.subtractExact(upperBound, lowerBound) / predefinedDatabaseQuery.getPartitionCount() + 1;
+        } catch (ArithmeticException e) {
+            return ranges;
+        }
+        Long rangeStart = null;
+        for (long bound = lowerBound + width; bound <= upperBound && bound > lowerBound; bound += width) {
+            ranges.add(new JdbcQueryStatement.PartitionRange(rangeStart, bound, false));
+            rangeStart = bound;
+        }
+        ranges.add(new JdbcQueryStatement.PartitionRange(rangeStart, null, true));
+        return ranges;
+    }
 
-        return metaData.getColumnCount();
+    private boolean isIntegral(Object value) {
+        return value instanceof Long || value instanceof Integer || value instanceof Short
+                || value instanceof java.math.BigInteger
+                || (value instanceof java.math.BigDecimal && ((java.math.BigDecimal) value).scale() <= 0);
     }
 
-    private long extractRows(DataGrid.Builder dataGridBuilder, ResultSet resultSet, int columnCount) throws SQLException, DataGridException {
-        List<JdbcValueConversionType> conversionTypes = getConversionTypes(dataGridBuilder.definedColumns());
-        long rowCount = 0;
-        while (resultSet.next()) {
-            dataGridBuilder.withRow(extractSingleRow(rowCount, resultSet, columnCount, conversionTypes));
-            rowCount++;
+    /**
+     * Reads the partitions concurrently and hands their rows over to the receiver in the order of the ranges.
+     * The first partition is read on the calling thread straight into the receiver; each further partition
+     * is read on the shared partition reader executor and buffered in a grid of its own only until all
+     * partitions before it have been handed over, and released afterwards.
+     * Since every partition read holds a connection until it is complete, no more partitions are read at the
+     * same time than the connection pool provides connections; the remaining partitions are read as the
+     * partitions before them are handed over.
+     */
+    private void readPartitions(List<JdbcQueryStatement.PartitionRange> ranges, RowReceiver receiver)
+            throws TablevertCoreException {
+        List<JdbcQueryStatement> statements = new ArrayList<>();
+        for (JdbcQueryStatement.PartitionRange range : ranges) {
+            JdbcQueryStatement.Builder builder = createStatementBuilder().withinPartition(range);
+            if (isBulkCopy()) {
+                builder.forBulkCopy();
+            }
+            statements.add(builder.build());
+        }
+        int concurrentReadCount = Math.min(connectionPool.getMaxSize() - 1, statements.size() - 1);
+        List<Future<DataGrid>> futures = new ArrayList<>();
+        try {
+            for (int i = 1; i <= concurrentReadCount; i++) {
+                futures.add(submitPartitionRead(statements.get(i)));
+            }
+            readPartition(statements.get(0), receiver);
+            for (int i = 1; i < statements.size(); i++) {
+                if (concurrentReadCount == 0) {
+                    readPartition(statements.get(i), receiver);
+                    continue;
+                }
+                DataGrid partition = futures.get(i - 1).get();
+                futures.set(i - 1, null);
+                if (i + concurrentReadCount < statements.size()) {
+                    futures.add(submitPartitionRead(statements.get(i + concurrentReadCount)));
+                }
+                for (int rowIndex = 0; rowIndex < partition.getRowCount(); rowIndex++) {
+                    receiver.rowBuilder().appendValuesOf(partition, rowIndex);
+                    receiver.endRow(rowIndex, partition.hasNumberedRows() ? null : partition.getRowId(rowIndex));
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new DatabaseReaderException("Interrupted while reading partitions");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof TablevertCoreException) {
+                throw (TablevertCoreException) cause;
+            }
+            throw new DatabaseReaderException(cause instanceof Exception ? (Exception) cause : e);
+        } finally {
+            for (Future<DataGrid> future : futures) {
+                if (future != null) {
+                    future.cancel(true);
+                }
+            }
         }
-        return rowCount;
     }
 
-    private DataGridRow extractSingleRow(long rowIndex, ResultSet resultSet, int columnCount,
-                                         List<JdbcValueConversionType> conversionTypes) throws SQLException {
-        DataGridRow row = new DataGridRow(String.valueOf(rowIndex));
-        for (int i = 0; i < columnCount; i++) {
-            Object value = getSingleValue(resultSet, i + 1, conversionTypes.get(i));
-            if (value != null) {
-                row.addReplaceValue(i, value);
-            }
+    private Future<DataGrid> submitPartitionRead(JdbcQueryStatement statement) {
+        return PartitionReaderHolder.EXECUTOR.submit(() -> {
+            PartitionResult result = new PartitionResult();
+            readPartition(statement, result);
+            return result.builder.build();
+        });
+    }
+
+    private void readPartition(JdbcQueryStatement partitionStatement, RowReceiver receiver)
+            throws TablevertCoreException {
+        logger.debug("Prepared partition statement: " + partitionStatement);
+        try (JdbcConnectionPool.Lease lease = connectionPool.borrowConnection()) {
+            Connection connection = lease.getConnection();
+            beginReadTransaction(connection);
+            readRows(connection, partitionStatement, 0, receiver);
+            endReadTransaction(connection);
+        } catch (SQLException e) {
+            throw new DatabaseReaderException(e);
         }
-        return row;
     }
 
-    private Object getSingleValue(ResultSet resultSet, int index, JdbcValueConversionType conversionType) throws SQLException {
-        if (conversionType == null || JdbcValueConversionType.STRING.equals(conversionType)) {
-            return resultSet.getString(index);
+    private List<String> effectiveSorting() {
+        if (appliedDatabaseQuery != null && appliedDatabaseQuery.getSorting() != null) {
+            return appliedDatabaseQuery.getSorting();
         }
-        return resultSet.getObject(index);
+        return predefinedDatabaseQuery.getSorting();
     }
 
-    private List<JdbcValueConversionType> getConversionTypes(List<DataGridColumn> columns) {
-        List<JdbcValueConversionType> conversionTypes = new ArrayList<>();
-        columns.stream()
-                .sorted(Comparator.comparingInt(DataGridColumn::getIndex))
-                .forEach(col -> conversionTypes.add(col.getJavaClassName().startsWith("java")
-                        ? JdbcValueConversionType.OBJECT : JdbcValueConversionType.STRING));
-        return conversionTypes;
+    private JdbcQueryStatement.Builder createStatementBuilder() {
+        return new JdbcQueryStatement.Builder()
+                .ofDatabaseType(databaseType)
+                .forPredefinedQuery(predefinedDatabaseQuery)
+                .applying(appliedDatabaseQuery);
     }
 
-    private Connection openConnection() throws DatabaseReaderException {
-        try {
-            return DriverManager.getConnection(connectionString, userName, userSecret);
-        } catch (SQLException e) {
-            throw new DatabaseReaderException("Failed to open connection for connection string: "
-                    + connectionString);
+    /**
+     * Holds the executor reading further partitions, shared by all readers and created on first use.
+     * Its threads are daemon threads, which end when idle for a minute.
+     */
+    private static final class PartitionReaderHolder {
+        private static final AtomicInteger THREAD_COUNT = new AtomicInteger();
+        private static final ExecutorService EXECUTOR = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "tablevert-partition-reader-" + THREAD_COUNT.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Receiver of the rows read by a single statement, which are appended to its row builder value by value.
+     */
+    private interface RowReceiver {
+        void startRows(List<DataGridColumn> columns) throws TablevertCoreException;
+
+        /**
+         * @return the builder to append the values of the next row to
+         */
+        DataGrid.Builder rowBuilder();
+
+        /**
+         * Completes the row appended to the row builder.
+         *
+         * @param rowNumber the number of the row within the statement's result
+         * @param rowId the id of the row, or {@code null} if the row is identified by its number
+         */
+        void endRow(long rowNumber, String rowId) throws TablevertCoreException;
+    }
+
+    /**
+     * Buffers the rows of a partition until the partitions before it have been handed over.
+     */
+    private static final class PartitionResult implements RowReceiver {
+        private final DataGrid.Builder builder = new DataGrid.Builder();
+
+        @Override
+        public void startRows(List<DataGridColumn> columns) throws TablevertCoreException {
+            for (DataGridColumn column : columns) {
+                builder.withColumn(column);
+            }
+            builder.andData();
+        }
+
+        @Override
+        public DataGrid.Builder rowBuilder() {
+            return builder;
+        }
+
+        @Override
+        public void endRow(long rowNumber, String rowId) throws TablevertCoreException {
+            if (rowId == null) {
+                builder.endRow(rowNumber);
+            } else {
+                builder.endRow(rowId);
+            }
+        }
+    }
+
+    /**
+     * Passes the rows of the consecutive partitions on as a single result, numbering the rows across partitions.
+     */
+    private static final class PartitionConcatenator implements RowReceiver {
+        private final RowReceiver receiver;
+        private long rowNumber;
+
+        private PartitionConcatenator(RowReceiver receiver) {
+            this.receiver = receiver;
+        }
+
+        @Override
+        public void startRows(List<DataGridColumn> columns) throws TablevertCoreException {
+            receiver.startRows(columns);
+        }
+
+        @Override
+        public DataGrid.Builder rowBuilder() {
+            return receiver.rowBuilder();
+        }
+
+        @Override
+        public void endRow(long partitionRowNumber, String rowId) throws TablevertCoreException {
+            receiver.endRow(rowNumber++, rowId);
+        }
+    }
+
+    /**
+     * Appends the rows to the row builder of a {@link DataGridRowConsumer} and hands them over in batches
+     * of the fetch size, or of the default batch size if not streaming.
+     * The values of the last row handed over are kept for the keyset continuation token.
+     */
+    private final class RowBatcher implements RowReceiver {
+        private final DataGridRowConsumer consumer;
+        private final int batchSize;
+        private List<DataGridColumn> columns;
+        private DataGrid.Builder builder;
+        private int batchStart;
+        private Object[] lastRowValues;
+        private long rowCount;
+
+        private RowBatcher(DataGridRowConsumer consumer) {
+            this.consumer = consumer;
+            this.batchSize = isStreaming() ? fetchSize : DEFAULT_BATCH_SIZE;
+        }
+
+        @Override
+        public void startRows(List<DataGridColumn> columns) throws TablevertCoreException {
+            this.columns = columns;
+            consumer.startGrid(columns);
+            startBatch();
+        }
+
+        @Override
+        public DataGrid.Builder rowBuilder() {
+            return builder;
+        }
+
+        @Override
+        public void endRow(long rowNumber, String rowId) throws TablevertCoreException {
+            if (rowId == null) {
+                builder.endRow(rowNumber);
+            } else {
+                builder.endRow(rowId);
+            }
+            rowCount++;
+            if (builder.getRowCount() - batchStart >= batchSize) {
+                endBatch();
+            }
+        }
+
+        private void flush() throws TablevertCoreException {
+            if (builder != null && builder.getRowCount() > batchStart) {
+                endBatch();
+            }
+        }
+
+        private void startBatch() {
+            builder = consumer.getRowBuilder();
+            batchStart = builder.getRowCount();
+        }
+
+        private void endBatch() throws TablevertCoreException {
+            if (queryStatement.isKeysetPaging()) {
+                int lastRowIndex = builder.getRowCount() - 1;
+                lastRowValues = new Object[columns.size()];
+                for (DataGridColumn column : columns) {
+                    lastRowValues[column.getIndex()] = builder.getValue(lastRowIndex, column.getIndex());
+                }
+            }
+            consumer.acceptRows();
+            startBatch();
         }
     }
 
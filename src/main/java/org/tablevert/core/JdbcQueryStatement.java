@@ -0,0 +1,620 @@
+/*
+ * Copyright 2019 conis Informationssysteme GmbH
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.tablevert.core;
+
+import org.tablevert.core.config.DatabaseQueryColumn;
+import org.tablevert.core.config.DatabaseType;
+import org.tablevert.core.config.PredefinedDatabaseQuery;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A parameterized SQL select statement composed from a {@link PredefinedDatabaseQuery} and the
+ * filtering, sorting and paging of an {@link AppliedDatabaseQuery}.
+ */
+final class JdbcQueryStatement {
+
+    /**
+     * Collects the statement parameters, or renders them as SQL literals where parameters are not supported.
+     */
+    private static final class ParameterBinder {
+        private final boolean inlining;
+        private final List<Object> parameters;
+
+        private ParameterBinder(boolean inlining) {
+            this.inlining = inlining;
+            this.parameters = new ArrayList<>();
+        }
+
+        private String bind(Object value) {
+            if (inlining) {
+                return toSqlLiteral(value);
+            }
+            parameters.add(value);
+            return "?";
+        }
+
+        private String bindAll(List<Object> values) {
+            List<String> placeholders = new ArrayList<>();
+            for (Object value : values) {
+                placeholders.add(bind(value));
+            }
+            return String.join(",", placeholders);
+        }
+    }
+
+    /**
+     * A range of values of the partition column, used to split a query into partitions.
+     */
+    static final class PartitionRange {
+        private final Long lowerBound;
+        private final Long upperBound;
+        private final boolean includingNulls;
+
+        /**
+         * Creates the range.
+         *
+         * @param lowerBound the inclusive lower bound, or {@code null} if open
+         * @param upperBound the exclusive upper bound, or {@code null} if open
+         * @param includingNulls whether the range also covers {@code NULL} values
+         */
+        PartitionRange(Long lowerBound, Long upperBound, boolean includingNulls) {
+            this.lowerBound = lowerBound;
+            this.upperBound = upperBound;
+            this.includingNulls = includingNulls;
+        }
+    }
+
+    static final class Builder {
+        private DatabaseType databaseType;
+        private PredefinedDatabaseQuery predefinedQuery;
+        private AppliedDatabaseQuery appliedQuery;
+        private Map<String, DatabaseQueryColumn> columnMap;
+        private List<Object> seekValues;
+        private boolean selectingPartitionBounds;
+        private PartitionRange partitionRange;
+        private boolean forBulkCopy;
+
+        Builder ofDatabaseType(DatabaseType databaseType) {
+            this.databaseType = databaseType;
+            return this;
+        }
+
+        Builder forPredefinedQuery(PredefinedDatabaseQuery predefinedQuery) {
+            this.predefinedQuery = predefinedQuery;
+            return this;
+        }
+
+        /**
+         * Sets the applied query whose filtering, sorting and paging is integrated into the statement.
+         * Optional; if not set, the predefined query is used as is.
+         */
+        Builder applying(AppliedDatabaseQuery appliedQuery) {
+            this.appliedQuery = appliedQuery;
+            return this;
+        }
+
+        /**
+         * Turns the statement into a query for the minimum and maximum value of the partition column,
+         * applying the filters but neither sorting nor paging.
+         */
+        Builder selectingPartitionBounds() {
+            this.selectingPartitionBounds = true;
+            return this;
+        }
+
+        /**
+         * Restricts the statement to a range of the partition column.
+         */
+        Builder withinPartition(PartitionRange partitionRange) {
+            this.partitionRange = partitionRange;
+            return this;
+        }
+
+        /**
+         * Additionally composes the statement as bulk export with all parameters inlined as literals,
+         * since the database's bulk copy command does not accept parameters.
+         */
+        Builder forBulkCopy() {
+            this.forBulkCopy = true;
+            return this;
+        }
+
+        JdbcQueryStatement build() throws BuilderFailedException {
+            initColumnMap();
+            validate();
+            ParameterBinder binder = new ParameterBinder(false);
+            JdbcQueryStatement statement = new JdbcQueryStatement(composeSql(binder), binder.parameters);
+            if (isKeysetPaging()) {
+                statement.keysetSorting = effectiveSorting();
+                statement.keysetPageSize = appliedQuery.getKeysetPageSize();
+            }
+            if (forBulkCopy) {
+                statement.bulkCopySql = composeBulkCopySql();
+            }
+            return statement;
+        }
+
+        private String composeSql(ParameterBinder binder) {
+            return String.format(databaseType.getSelectStatementTemplate(),
+                    selectingPartitionBounds ? preparePartitionBoundsColumns() : prepareColumns(),
+                    predefinedQuery.getFromClause(),
+                    prepareFilter(binder),
+                    selectingPartitionBounds ? "" : prepareSorting() + preparePaging(binder));
+        }
+
+        private String composeBulkCopySql() throws BuilderFailedException {
+            String selectSql;
+            try {
+                selectSql = composeSql(new ParameterBinder(true));
+            } catch (IllegalArgumentException e) {
+                throw new BuilderFailedException("Builder validation failed with errors: - " + e.getMessage() + ";");
+            }
+            int terminatorIndex = selectSql.lastIndexOf(';');
+            return String.format(databaseType.getBulkCopyStatementTemplate(),
+                    terminatorIndex < 0 ? selectSql : selectSql.substring(0, terminatorIndex).trim());
+        }
+
+        private void initColumnMap() {
+            columnMap = new HashMap<>();
+            if (predefinedQuery != null) {
+                predefinedQuery.getColumnsToSelect().forEach(column -> columnMap.put(column.getName(), column));
+            }
+        }
+
+        private String prepareColumns() {
+            List<String> columns = new ArrayList<>();
+            predefinedQuery.getColumnsToSelect().forEach(column ->
+                    columns.add((column.getFormula() == null ? "" : (column.getFormula() + " AS ")) + column.getName()));
+            return String.join(",", columns);
+        }
+
+        private String preparePartitionBoundsColumns() {
+            String column = columnReference(predefinedQuery.getPartitionColumn());
+            return "MIN(" + column + "),MAX(" + column + ")";
+        }
+
+        private String prepareFilter(ParameterBinder binder) {
+            List<String> predicates = new ArrayList<>();
+            String baseClause = predefinedQuery.getWhereClause();
+            if (baseClause != null && !baseClause.trim().isEmpty()) {
+                boolean isCombined = !appliedFilters().isEmpty() || seekValues != null || partitionRange != null;
+                predicates.add(isCombined ? "(" + baseClause + ")" : baseClause);
+            }
+            for (AppliedFilter filter : appliedFilters()) {
+                predicates.add(composePredicate(filter, binder));
+            }
+            if (seekValues != null) {
+                predicates.add(composeSeekPredicate(binder));
+            }
+            if (partitionRange != null) {
+                predicates.add(composePartitionPredicate(binder));
+            }
+            if (predicates.isEmpty()) {
+                return "";
+            }
+            return " WHERE " + String.join(" AND ", predicates);
+        }
+
+        private String composePredicate(AppliedFilter filter, ParameterBinder binder) {
+            String column = columnReference(filter.getColumnName());
+            FilterOperator operator = filter.getOperator();
+            List<Object> values = filter.getValues();
+            switch (operator) {
+                case IS_NULL:
+                case IS_NOT_NULL:
+                    return column + " " + operator.getSqlOperator();
+                case IN:
+                    return column + " IN (" + binder.bindAll(values) + ")";
+                default:
+                    return column + " " + operator.getSqlOperator() + " " + binder.bind(values.get(0));
+            }
+        }
+
+        /**
+         * Composes the predicate selecting the rows sorted after the seek values.
+         * {@code NULL} sort keys are placed as in PostgreSQL's default order, i.e. after all values in ascending
+         * ({@code NULLS LAST}) and before all values in descending ({@code NULLS FIRST}) order.
+         * If all sort columns share the same direction and no seek value is {@code NULL}, a row value comparison
+         * is used, which the database can answer from a matching index; otherwise the comparison is expanded.
+         */
+        private String composeSeekPredicate(ParameterBinder binder) {
+            List<String> sorting = effectiveSorting();
+            List<String> columns = new ArrayList<>();
+            List<Boolean> descending = new ArrayList<>();
+            for (String sortColumn : sorting) {
+                descending.add(sortColumn.startsWith("-"));
+                columns.add(columnReference(stripSortDirection(sortColumn)));
+            }
+            if (!descending.contains(!descending.get(0)) && !seekValues.contains(null)) {
+                return composeRowValueSeekPredicate(columns, descending.get(0), binder);
+            }
+            List<String> alternatives = new ArrayList<>();
+            for (int i = 0; i < columns.size(); i++) {
+                if (seekValues.get(i) == null && !descending.get(i)) {
+                    continue;
+                }
+                List<String> conditions = new ArrayList<>();
+                for (int j = 0; j < i; j++) {
+                    Object seekValue = seekValues.get(j);
+                    conditions.add(columns.get(j) + (seekValue == null ? " IS NULL" : " = " + binder.bind(seekValue)));
+                }
+                conditions.add(composeSortedAfterCondition(columns.get(i), descending.get(i), seekValues.get(i), binder));
+                alternatives.add(conditions.size() == 1
+                        ? conditions.get(0) : "(" + String.join(" AND ", conditions) + ")");
+            }
+            if (alternatives.isEmpty()) {
+                return "FALSE";
+            }
+            return alternatives.size() == 1 ? alternatives.get(0) : "(" + String.join(" OR ", alternatives) + ")";
+        }
+
+        /**
+         * Composes the row value comparison for sort columns of the same direction and non-null seek values.
+         * The comparison yields {@code NULL} as soon as it reaches a {@code NULL} sort key, which excludes the
+         * row as required in descending order; in ascending order, such rows are added explicitly.
+         */
+        private String composeRowValueSeekPredicate(List<String> columns, boolean descending, ParameterBinder binder) {
+            String comparison = descending ? " < " : " > ";
+            String rowValueComparison = columns.size() == 1
+                    ? columns.get(0) + comparison + binder.bind(seekValues.get(0))
+                    : "(" + String.join(",", columns) + ")" + comparison + "(" + binder.bindAll(seekValues) + ")";
+            if (descending) {
+                return rowValueComparison;
+            }
+            List<String> alternatives = new ArrayList<>();
+            alternatives.add(rowValueComparison);
+            for (int i = 0; i < columns.size(); i++) {
+                List<String> conditions = new ArrayList<>();
+                for (int j = 0; j < i; j++) {
+                    conditions.add(columns.get(j) + " = " + binder.bind(seekValues.get(j)));
+                }
+                conditions.add(columns.get(i) + " IS NULL");
+                alternatives.add(conditions.size() == 1 ? conditions.get(0) : "(" + String.join(" AND ", conditions) + ")");
+            }
+            return "(" + String.join(" OR ", alternatives) + ")";
+        }
+
+        /**
+         * Composes the condition for a sort column's value to be sorted after the seek value.
+         * Must not be called for a {@code NULL} seek value in ascending order, after which no value is sorted.
+         */
+        private String composeSortedAfterCondition(String column, boolean descending, Object seekValue,
+                                                   ParameterBinder binder) {
+            if (seekValue == null) {
+                return column + " IS NOT NULL";
+            }
+            if (descending) {
+                return column + " < " + binder.bind(seekValue);
+            }
+            return "(" + column + " > " + binder.bind(seekValue) + " OR " + column + " IS NULL)";
+        }
+
+        private String composePartitionPredicate(ParameterBinder binder) {
+            String column = columnReference(predefinedQuery.getPartitionColumn());
+            List<String> conditions = new ArrayList<>();
+            if (partitionRange.lowerBound != null) {
+                conditions.add(column + " >= " + binder.bind(partitionRange.lowerBound));
+            }
+            if (partitionRange.upperBound != null) {
+                conditions.add(column + " < " + binder.bind(partitionRange.upperBound));
+            }
+            String range = conditions.isEmpty() ? column + " IS NOT NULL" : String.join(" AND ", conditions);
+            if (partitionRange.includingNulls) {
+                return "(" + range + " OR " + column + " IS NULL)";
+            }
+            return "(" + range + ")";
+        }
+
+        private String columnReference(String columnName) {
+            DatabaseQueryColumn column = columnMap.get(columnName);
+            return column.getFormula() == null ? column.getName() : "(" + column.getFormula() + ")";
+        }
+
+        private String prepareSorting() {
+            List<String> sortColumns = effectiveSorting();
+            if (sortColumns == null || sortColumns.isEmpty()) {
+                return "";
+            }
+            StringBuilder sorting = new StringBuilder();
+            for (String column : sortColumns) {
+                String sortedColumn = checkAddSortDirection(column);
+                sorting.append((!sortedColumn.isEmpty() && (sorting.length() > 0)) ? "," : "").append(sortedColumn);
+            }
+            if (sorting.length() == 0) {
+                return "";
+            }
+            return " ORDER BY " + sorting;
+        }
+
+        private String checkAddSortDirection(String column) {
+            if (column == null) {
+                return "";
+            }
+            if (column.startsWith("-")) {
+                return column.substring(1) + " DESC";
+            }
+            return column;
+        }
+
+        private String preparePaging(ParameterBinder binder) {
+            if (appliedQuery == null) {
+                return "";
+            }
+            if (isKeysetPaging()) {
+                return " " + databaseType.getLimitKeyword() + " " + binder.bind(appliedQuery.getKeysetPageSize());
+            }
+            String paging = "";
+            if (appliedQuery.getLimit() != null) {
+                paging += " " + databaseType.getLimitKeyword() + " " + binder.bind(appliedQuery.getLimit());
+            }
+            if (appliedQuery.getOffset() != null) {
+                paging += " " + databaseType.getOffsetKeyword() + " " + binder.bind(appliedQuery.getOffset());
+            }
+            return paging;
+        }
+
+        private boolean isKeysetPaging() {
+            return appliedQuery != null && appliedQuery.getKeysetPageSize() != null;
+        }
+
+        private String stripSortDirection(String column) {
+            return column != null && column.startsWith("-") ? column.substring(1) : column;
+        }
+
+        private List<AppliedFilter> appliedFilters() {
+            return appliedQuery == null ? new ArrayList<>() : appliedQuery.getFilters();
+        }
+
+        private List<String> effectiveSorting() {
+            if (appliedQuery != null && appliedQuery.getSorting() != null) {
+                return appliedQuery.getSorting();
+            }
+            return predefinedQuery.getSorting();
+        }
+
+        private void validate() throws BuilderFailedException {
+            String errors = "";
+            if (databaseType == null) {
+                errors += " - database type not specified;";
+            }
+            if (predefinedQuery == null) {
+                errors += " - predefined query not specified;";
+            } else {
+                if (appliedQuery != null) {
+                    errors += detectAppliedQueryErrors();
+                }
+                if ((selectingPartitionBounds || partitionRange != null) && predefinedQuery.getPartitionColumn() == null) {
+                    errors += " - predefined query is not partitioned;";
+                }
+            }
+            if (forBulkCopy) {
+                if (databaseType != null && databaseType.getBulkCopyStatementTemplate() == null) {
+                    errors += " - bulk copy not supported for database type [" + databaseType.getName() + "];";
+                }
+                if (isKeysetPaging()) {
+                    errors += " - bulk copy cannot be combined with keyset paging;";
+                }
+            }
+            if (!errors.isEmpty()) {
+                throw new BuilderFailedException("Builder validation failed with errors: " + errors);
+            }
+        }
+
+        private String detectAppliedQueryErrors() {
+            String errors = "";
+            for (AppliedFilter filter : appliedQuery.getFilters()) {
+                errors += detectFilterErrors(filter);
+            }
+            List<String> sorting = appliedQuery.getSorting();
+            if (sorting != null) {
+                for (String column : sorting) {
+                    String columnName = stripSortDirection(column);
+                    if (!columnMap.containsKey(columnName)) {
+                        errors += " - unknown sort column [" + columnName + "];";
+                    }
+                }
+            }
+            if (appliedQuery.getLimit() != null && appliedQuery.getLimit() < 0) {
+                errors += " - negative limit;";
+            }
+            if (appliedQuery.getOffset() != null && appliedQuery.getOffset() < 0) {
+                errors += " - negative offset;";
+            }
+            if (isKeysetPaging()) {
+                errors += detectKeysetErrors();
+            } else if (appliedQuery.getContinuationToken() != null || appliedQuery.getSeekValues() != null) {
+                errors += " - seek position given without keyset paging;";
+            }
+            return errors;
+        }
+
+        private String detectKeysetErrors() {
+            String errors = "";
+            if (appliedQuery.getKeysetPageSize() < 1) {
+                errors += " - keyset page size must be positive;";
+            }
+            if (appliedQuery.getLimit() != null || appliedQuery.getOffset() != null) {
+                errors += " - keyset paging cannot be combined with limit or offset;";
+            }
+            List<String> sorting = effectiveSorting();
+            if (sorting == null || sorting.isEmpty()) {
+                return errors + " - keyset paging requires sorting;";
+            }
+            for (String column : sorting) {
+                if (!columnMap.containsKey(stripSortDirection(column))) {
+                    errors += " - keyset sort column [" + stripSortDirection(column) + "] is not a query column;";
+                }
+            }
+            String token = appliedQuery.getContinuationToken();
+            if (token != null && appliedQuery.getSeekValues() != null) {
+                errors += " - continuation token and seek values must not both be given;";
+            } else if (token != null) {
+                try {
+                    KeysetContinuationToken continuation = KeysetContinuationToken.decode(token);
+                    if (!sorting.equals(continuation.getSorting())) {
+                        errors += " - continuation token does not match the query sorting;";
+                    }
+                    seekValues = continuation.getValues();
+                } catch (IllegalArgumentException e) {
+                    errors += " - invalid continuation token;";
+                }
+            } else if (appliedQuery.getSeekValues() != null) {
+                seekValues = appliedQuery.getSeekValues();
+                if (seekValues.size() != sorting.size()) {
+                    errors += " - seek values must match the sort columns;";
+                }
+            }
+            return errors;
+        }
+
+        private String detectFilterErrors(AppliedFilter filter) {
+            if (filter == null) {
+                return " - filter is null;";
+            }
+            String errors = "";
+            if (!columnMap.containsKey(filter.getColumnName())) {
+                errors += " - unknown filter column [" + filter.getColumnName() + "];";
+            }
+            if (filter.getOperator() == null) {
+                errors += " - filter operator not specified for column [" + filter.getColumnName() + "];";
+            } else if (!filter.getOperator().acceptsValueCount(filter.getValues().size())) {
+                errors += " - invalid number of values for filter operator [" + filter.getOperator().name()
+                        + "] on column [" + filter.getColumnName() + "];";
+            }
+            return errors;
+        }
+    }
+
+    private final String sql;
+    private final List<Object> parameters;
+    private List<String> keysetSorting;
+    private Integer keysetPageSize;
+    private String bulkCopySql;
+
+    private JdbcQueryStatement(String sql, List<Object> parameters) {
+        this.sql = sql;
+        this.parameters = parameters;
+    }
+
+    String getSql() {
+        return sql;
+    }
+
+    List<Object> getParameters() {
+        return new ArrayList<>(parameters);
+    }
+
+    boolean isKeysetPaging() {
+        return keysetPageSize != null;
+    }
+
+    /**
+     * @return the sort columns defining the keyset, or {@code null} if keyset paging is not used
+     */
+    List<String> getKeysetSorting() {
+        return keysetSorting == null ? null : new ArrayList<>(keysetSorting);
+    }
+
+    Integer getKeysetPageSize() {
+        return keysetPageSize;
+    }
+
+    /**
+     * @return the bulk export statement with inlined parameters, or {@code null} if not composed for bulk copy
+     */
+    String getBulkCopySql() {
+        return bulkCopySql;
+    }
+
+    /**
+     * Creates a forward-only, read-only prepared statement with all parameters bound.
+     *
+     * @param connection the connection to prepare the statement on
+     * @return the prepared statement
+     * @throws SQLException if preparing the statement fails
+     */
+    PreparedStatement prepare(Connection connection) throws SQLException {
+        PreparedStatement statement = connection.prepareStatement(sql,
+                ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+        try {
+            for (int i = 0; i < parameters.size(); i++) {
+                statement.setObject(i + 1, parameters.get(i));
+            }
+        } catch (SQLException e) {
+            statement.close();
+            throw e;
+        }
+        return statement;
+    }
+
+    @Override
+    public String toString() {
+        return sql;
+    }
+
+    /**
+     * Renders a parameter value as SQL literal.
+     * Strings are written as escape string constants, so that the result does not depend on the
+     * database's treatment of backslashes in standard string constants.
+     *
+     * @throws IllegalArgumentException if the value type has no literal representation
+     */
+    private static String toSqlLiteral(Object value) {
+        if (value == null) {
+            return "NULL";
+        }
+        if (value instanceof String) {
+            return "E'" + ((String) value).replace("\\", "\\\\").replace("'", "''") + "'";
+        }
+        if (value instanceof Integer || value instanceof Long || value instanceof Short || value instanceof Byte
+                || value instanceof BigInteger || value instanceof BigDecimal) {
+            String number = value instanceof BigDecimal ? ((BigDecimal) value).toPlainString() : value.toString();
+            return number.startsWith("-") ? "(" + number + ")" : number;
+        }
+        if (value instanceof Double || value instanceof Float) {
+            double number = ((Number) value).doubleValue();
+            if (Double.isNaN(number) || Double.isInfinite(number)) {
+                return "'" + value + "'";
+            }
+            return number < 0 ? "(" + value + ")" : value.toString();
+        }
+        if (value instanceof Boolean) {
+            return (Boolean) value ? "TRUE" : "FALSE";
+        }
+        if (value instanceof Date || value instanceof LocalDate) {
+            return "DATE '" + value + "'";
+        }
+        if (value instanceof Time || value instanceof LocalTime) {
+            return "TIME '" + value + "'";
+        }
+        if (value instanceof Timestamp || value instanceof LocalDateTime) {
+            return "TIMESTAMP '" + value + "'";
+        }
+        if (value instanceof OffsetDateTime) {
+            return "TIMESTAMPTZ '" + value + "'";
+        }
+        throw new IllegalArgumentException("value of type [" + value.getClass().getName()
+                + "] cannot be inlined into a bulk copy statement");
+    }
+
+}
@@ -0,0 +1,52 @@
+/*
+ * Copyright 2019 conis Informationssysteme GmbH
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.tablevert.core;
+
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Appends the rows of a JDBC {@link ResultSet} to the column vectors of a {@link DataGrid.Builder}.
+ */
+final class JdbcResultSetExtractor {
+
+    private final List<DataGridColumn> columns;
+    private final JdbcColumnExtractor[] columnExtractors;
+
+    JdbcResultSetExtractor(ResultSetMetaData metaData) throws SQLException {
+        this.columns = new ArrayList<>();
+        this.columnExtractors = new JdbcColumnExtractor[metaData.getColumnCount()];
+        for (int i = 1; i <= metaData.getColumnCount(); i++) {
+            DataGridColumn column = new DataGridColumn(i - 1, metaData.getColumnName(i), metaData.getColumnClassName(i));
+            columns.add(column);
+            columnExtractors[i - 1] = JdbcColumnExtractor.forColumn(i - 1, column.getJavaClassName());
+        }
+    }
+
+    List<DataGridColumn> getColumns() {
+        List<DataGridColumn> clones = new ArrayList<>();
+        columns.forEach(column -> clones.add(column.clone()));
+        return clones;
+    }
+
+    /**
+     * Appends the values of the current row of the result set to the builder, leaving it to the caller
+     * to complete the row.
+     *
+     * @param resultSet the result set positioned on the row
+     * @param builder the builder of the grid to fill
+     * @throws SQLException if a value cannot be read
+     */
+    void extractRow(ResultSet resultSet, DataGrid.Builder builder) throws SQLException {
+        for (JdbcColumnExtractor columnExtractor : columnExtractors) {
+            columnExtractor.extract(resultSet, builder);
+        }
+    }
+
+}
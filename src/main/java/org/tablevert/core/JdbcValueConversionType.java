@@ -1,11 +0,0 @@
-/*
- * Copyright 2019 conis Informationssysteme GmbH
- * SPDX-License-Identifier: Apache-2.0
- */
-
-package org.tablevert.core;
-
-public enum JdbcValueConversionType {
-    OBJECT,
-    STRING
-}
@@ -0,0 +1,23 @@
+/*
+ * Copyright 2019 conis Informationssysteme GmbH
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.tablevert.core;
+
+/**
+ * Layouts of JSON output. NDJSON output always consists of one row object per line.
+ */
+public enum JsonLayout {
+    /**
+     * An array holding an object per row, with the column names as keys,
+     * e.g. {@code [{"id":1,"name":"a"},{"id":2,"name":"b"}]}.
+     */
+    ROWS,
+
+    /**
+     * An object holding the column names once and an array of values per row,
+     * e.g. {@code {"columns":["id","name"],"data":[[1,"a"],[2,"b"]]}}.
+     */
+    COLUMNAR
+}
@@ -0,0 +1,80 @@
+/*
+ * Copyright 2019 conis Informationssysteme GmbH
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.tablevert.core;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * JSON or NDJSON output, which writes the rows directly into the stream passed to
+ * {@link #writeContent(OutputStream)}. The JSON text is encoded into a UTF-8 buffer of fixed size while it is
+ * generated, so that memory consumption does not depend on the size of the table and the first bytes are
+ * written before the last rows have been converted.
+ */
+public final class JsonOutput implements Output {
+
+    private final JsonWriter jsonWriter;
+    private final OutputFormat format;
+    private final String continuationToken;
+
+    JsonOutput(JsonWriter jsonWriter, OutputFormat format, String continuationToken) {
+        this.jsonWriter = jsonWriter;
+        this.format = format;
+        this.continuationToken = continuationToken;
+    }
+
+    @Override
+    public OutputFormat getFormat() {
+        return format;
+    }
+
+    @Override
+    public void writeContent(OutputStream outputStream) throws OutputGeneratorException {
+        try {
+            Utf8OutputBuffer buffer = new Utf8OutputBuffer().writingTo(outputStream);
+            write(buffer);
+            buffer.flush();
+        } catch (IOException e) {
+            throw new OutputGeneratorException("Failed to write content to output stream", e);
+        }
+    }
+
+    @Override
+    public String getContinuationToken() {
+        return continuationToken;
+    }
+
+    /**
+     * Renders the complete output as string, e.g. for logging; {@link #writeContent(OutputStream)} is
+     * the way to deliver the output.
+     *
+     * @return the JSON text
+     */
+    @Override
+    public String toString() {
+        ByteArrayOutputStream content = new ByteArrayOutputStream();
+        try {
+            Utf8OutputBuffer buffer = new Utf8OutputBuffer().writingTo(content);
+            write(buffer);
+            buffer.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to render JSON in memory", e);
+        }
+        return new String(content.toByteArray(), StandardCharsets.UTF_8);
+    }
+
+    private void write(Utf8OutputBuffer buffer) throws IOException {
+        if (format == OutputFormat.NDJSON) {
+            jsonWriter.writeLines(buffer);
+        } else {
+            jsonWriter.writeDocument(buffer);
+        }
+    }
+
+}
@@ -0,0 +1,39 @@
+/*
+ * Copyright 2019 conis Informationssysteme GmbH
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.tablevert.core;
+
+/**
+ * {@link OutputGenerator} implementation for JSON, in the layout set by the {@link OutputOptions}, and NDJSON.
+ * The JSON text is not generated up front; the {@link JsonOutput} writes it straight from the grid
+ * once its content is requested.
+ */
+final class JsonOutputGenerator implements OutputGenerator {
+
+    private final OutputFormat format;
+    private final OutputOptions outputOptions;
+
+    JsonOutputGenerator(OutputFormat format) {
+        this(format, OutputOptions.defaults());
+    }
+
+    JsonOutputGenerator(OutputFormat format, OutputOptions outputOptions) {
+        this.format = format;
+        this.outputOptions = outputOptions;
+    }
+
+    /**
+     * Processes the output generation.
+     *
+     * @param dataGrid the data to handle
+     * @return the generated output
+     */
+    @Override
+    public Output process(final DataGrid dataGrid) throws OutputGeneratorException {
+        return new JsonOutput(new JsonWriter(dataGrid, outputOptions.getJsonLayout()), format,
+                dataGrid.getContinuationToken());
+    }
+
+}
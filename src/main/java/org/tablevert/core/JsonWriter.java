@@ -0,0 +1,260 @@
+/*
+ * Copyright 2019 conis Informationssysteme GmbH
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.tablevert.core;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Writes a {@link DataGrid} as JSON or NDJSON directly from its column vectors into a {@link Utf8OutputBuffer},
+ * without building a tree of JSON nodes.
+ * Values of numeric and boolean columns, as given by {@link DataGridColumn#getJavaClassName()}, are written as
+ * native JSON numbers and booleans; all other values are written as strings, dates in ISO 8601 notation.
+ * Non-finite floating-point numbers, which JSON cannot represent, are written as strings, e.g. {@code "NaN"}.
+ * The column names, i.e. the keys of the row objects, and the values of dictionary-encoded columns are encoded
+ * once and then copied as bytes.
+ * The writer holds no state besides the grid, so the output can be written any number of times.
+ */
+final class JsonWriter {
+
+    /**
+     * The JSON type of a column's values.
+     */
+    private enum ValueKind {
+        NUMBER,
+
+        BOOLEAN,
+
+        STRING
+    }
+
+    private static final String[] REPLACEMENTS = new String[128];
+
+    static {
+        for (char c = 0; c < 0x20; c++) {
+            REPLACEMENTS[c] = String.format("\\u%04x", (int) c);
+        }
+        REPLACEMENTS['\b'] = "\\b";
+        REPLACEMENTS['\f'] = "\\f";
+        REPLACEMENTS['\n'] = "\\n";
+        REPLACEMENTS['\r'] = "\\r";
+        REPLACEMENTS['\t'] = "\\t";
+        REPLACEMENTS['"'] = "\\\"";
+        REPLACEMENTS['\\'] = "\\\\";
+    }
+
+    private final DataGrid dataGrid;
+    private final JsonLayout layout;
+    private final DataGridColumnVector[] vectors;
+    private final ValueKind[] valueKinds;
+    private final byte[][] encodedNames;
+
+    JsonWriter(DataGrid dataGrid, JsonLayout layout) {
+        this.dataGrid = dataGrid;
+        this.layout = layout;
+        List<DataGridColumn> columns = new ArrayList<>();
+        List<DataGridColumnVector> columnVectors = new ArrayList<>();
+        List<DataGridColumn> allColumns = dataGrid.allColumns();
+        for (int colIndex = 0; colIndex < allColumns.size(); colIndex++) {
+            if (allColumns.get(colIndex) != null) {
+                columns.add(allColumns.get(colIndex));
+                columnVectors.add(dataGrid.getColumnVector(colIndex));
+            }
+        }
+        this.vectors = columnVectors.toArray(new DataGridColumnVector[0]);
+        this.valueKinds = new ValueKind[columns.size()];
+        this.encodedNames = new byte[columns.size()][];
+        for (int i = 0; i < columns.size(); i++) {
+            valueKinds[i] = valueKindOf(columns.get(i).getJavaClassName());
+            encodedNames[i] = encodeString(columns.get(i).getName());
+        }
+    }
+
+    /**
+     * Writes the grid as a single JSON document in the writer's layout.
+     *
+     * @param buffer the buffer to write to
+     * @throws IOException if the buffered bytes cannot be written
+     */
+    void writeDocument(Utf8OutputBuffer buffer) throws IOException {
+        byte[][][] encodedDictionaries = new byte[vectors.length][][];
+        int rowCount = (int) dataGrid.getRowCount();
+        if (layout == JsonLayout.COLUMNAR) {
+            buffer.appendAscii("{\"columns\":[");
+            for (int i = 0; i < encodedNames.length; i++) {
+                if (i > 0) {
+                    buffer.appendAscii(",");
+                }
+                buffer.appendBytes(encodedNames[i]);
+            }
+            buffer.appendAscii("],\"data\":[");
+            for (int rowIndex = 0; rowIndex < rowCount; rowIndex++) {
+                if (rowIndex > 0) {
+                    buffer.appendAscii(",");
+                }
+                writeRowArray(buffer, rowIndex, encodedDictionaries);
+            }
+            buffer.appendAscii("]}");
+        } else {
+            buffer.appendAscii("[");
+            for (int rowIndex = 0; rowIndex < rowCount; rowIndex++) {
+                if (rowIndex > 0) {
+                    buffer.appendAscii(",");
+                }
+                writeRowObject(buffer, rowIndex, encodedDictionaries);
+            }
+            buffer.appendAscii("]");
+        }
+    }
+
+    /**
+     * Writes the grid as NDJSON, i.e. a row object per line.
+     *
+     * @param buffer the buffer to write to
+     * @throws IOException if the buffered bytes cannot be written
+     */
+    void writeLines(Utf8OutputBuffer buffer) throws IOException {
+        byte[][][] encodedDictionaries = new byte[vectors.length][][];
+        int rowCount = (int) dataGrid.getRowCount();
+        for (int rowIndex = 0; rowIndex < rowCount; rowIndex++) {
+            writeRowObject(buffer, rowIndex, encodedDictionaries);
+            buffer.appendAscii("\n");
+        }
+    }
+
+    private void writeRowObject(Utf8OutputBuffer buffer, int rowIndex, byte[][][] encodedDictionaries)
+            throws IOException {
+        buffer.appendAscii("{");
+        for (int i = 0; i < vectors.length; i++) {
+            if (i > 0) {
+                buffer.appendAscii(",");
+            }
+            buffer.appendBytes(encodedNames[i]).appendAscii(":");
+            writeValue(buffer, i, rowIndex, encodedDictionaries);
+        }
+        buffer.appendAscii("}");
+    }
+
+    private void writeRowArray(Utf8OutputBuffer buffer, int rowIndex, byte[][][] encodedDictionaries)
+            throws IOException {
+        buffer.appendAscii("[");
+        for (int i = 0; i < vectors.length; i++) {
+            if (i > 0) {
+                buffer.appendAscii(",");
+            }
+            writeValue(buffer, i, rowIndex, encodedDictionaries);
+        }
+        buffer.appendAscii("]");
+    }
+
+    /**
+     * Writes a value, taking primitives directly from the vector without boxing them.
+     */
+    private void writeValue(Utf8OutputBuffer buffer, int columnPosition, int rowIndex, byte[][][] encodedDictionaries)
+            throws IOException {
+        DataGridColumnVector vector = vectors[columnPosition];
+        if (vector.isNull(rowIndex)) {
+            buffer.appendAscii("null");
+        } else if (vector instanceof DataGridColumnVector.DictionaryVector) {
+            buffer.appendBytes(encodedDictionaryValue(encodedDictionaries, columnPosition, rowIndex));
+        } else if (vector instanceof DataGridColumnVector.IntVector) {
+            buffer.append(((DataGridColumnVector.IntVector) vector).getInt(rowIndex));
+        } else if (vector instanceof DataGridColumnVector.LongVector) {
+            buffer.append(((DataGridColumnVector.LongVector) vector).getLong(rowIndex));
+        } else if (vector instanceof DataGridColumnVector.DoubleVector) {
+            writeDouble(buffer, ((DataGridColumnVector.DoubleVector) vector).getDouble(rowIndex));
+        } else {
+            writeObject(buffer, valueKinds[columnPosition], vector.getValue(rowIndex));
+        }
+    }
+
+    private void writeObject(Utf8OutputBuffer buffer, ValueKind valueKind, Object value) throws IOException {
+        if (valueKind == ValueKind.NUMBER && value instanceof Number) {
+            if (value instanceof Float) {
+                writeFloat(buffer, (Float) value);
+            } else if (value instanceof Double) {
+                writeDouble(buffer, (Double) value);
+            } else {
+                TextValues.appendNumber(buffer, (Number) value);
+            }
+        } else if (valueKind == ValueKind.BOOLEAN && value instanceof Boolean) {
+            buffer.appendAscii((Boolean) value ? "true" : "false");
+        } else {
+            writeString(buffer, TextValues.toText(value));
+        }
+    }
+
+    private void writeDouble(Utf8OutputBuffer buffer, double number) throws IOException {
+        if (Double.isNaN(number) || Double.isInfinite(number)) {
+            buffer.appendAscii("\"").appendAscii(Double.toString(number)).appendAscii("\"");
+        } else {
+            TextValues.appendDouble(buffer, number);
+        }
+    }
+
+    private void writeFloat(Utf8OutputBuffer buffer, float number) throws IOException {
+        if (Float.isNaN(number) || Float.isInfinite(number)) {
+            buffer.appendAscii("\"").appendAscii(Float.toString(number)).appendAscii("\"");
+        } else {
+            TextValues.appendFloat(buffer, number);
+        }
+    }
+
+    private byte[] encodedDictionaryValue(byte[][][] encodedDictionaries, int columnPosition, int rowIndex) {
+        DataGridColumnVector.DictionaryVector vector = (DataGridColumnVector.DictionaryVector) vectors[columnPosition];
+        int code = vector.getCode(rowIndex);
+        byte[][] encodedValues = encodedDictionaries[columnPosition];
+        if (encodedValues == null) {
+            encodedValues = new byte[vector.getDictionarySize()][];
+            encodedDictionaries[columnPosition] = encodedValues;
+        }
+        if (encodedValues[code] == null) {
+            encodedValues[code] = encodeString(vector.getDictionaryValue(code));
+        }
+        return encodedValues[code];
+    }
+
+    private static void writeString(Utf8OutputBuffer buffer, String text) throws IOException {
+        buffer.appendAscii("\"").appendEscaped(text, REPLACEMENTS).appendAscii("\"");
+    }
+
+    private static byte[] encodeString(String text) {
+        ByteArrayOutputStream encoded = new ByteArrayOutputStream(text.length() + 2);
+        try {
+            Utf8OutputBuffer buffer = new Utf8OutputBuffer(text.length() * 3 + 16).writingTo(encoded);
+            writeString(buffer, text);
+            buffer.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to encode JSON string in memory", e);
+        }
+        return encoded.toByteArray();
+    }
+
+    private static ValueKind valueKindOf(String javaClassName) {
+        if (javaClassName == null) {
+            return ValueKind.STRING;
+        }
+        switch (javaClassName) {
+            case "java.lang.Byte":
+            case "java.lang.Short":
+            case "java.lang.Integer":
+            case "java.lang.Long":
+            case "java.lang.Float":
+            case "java.lang.Double":
+            case "java.math.BigInteger":
+            case "java.math.BigDecimal":
+                return ValueKind.NUMBER;
+            case "java.lang.Boolean":
+                return ValueKind.BOOLEAN;
+            default:
+                return ValueKind.STRING;
+        }
+    }
+
+}
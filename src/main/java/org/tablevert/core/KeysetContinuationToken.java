@@ -0,0 +1,190 @@
+/*
+ * Copyright 2019 conis Informationssysteme GmbH
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.tablevert.core;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+
+/**
+ * Opaque token holding the sort key values of the last row of a keyset page.
+ * The token also records the sort columns, so that it cannot be applied to a differently sorted query.
+ * Sort key values may be {@code null}.
+ */
+final class KeysetContinuationToken {
+
+    private static final byte FORMAT_VERSION = 1;
+
+    private static final byte TYPE_NULL = '0';
+    private static final byte TYPE_STRING = 'S';
+    private static final byte TYPE_INTEGER = 'I';
+    private static final byte TYPE_LONG = 'L';
+    private static final byte TYPE_SHORT = 'H';
+    private static final byte TYPE_DOUBLE = 'F';
+    private static final byte TYPE_FLOAT = 'f';
+    private static final byte TYPE_BIGDECIMAL = 'N';
+    private static final byte TYPE_BOOLEAN = 'B';
+    private static final byte TYPE_DATE = 'd';
+    private static final byte TYPE_TIME = 't';
+    private static final byte TYPE_TIMESTAMP = 'T';
+
+    private final List<String> sorting;
+    private final List<Object> values;
+
+    KeysetContinuationToken(List<String> sorting, List<Object> values) {
+        this.sorting = new ArrayList<>(sorting);
+        this.values = new ArrayList<>(values);
+    }
+
+    List<String> getSorting() {
+        return new ArrayList<>(sorting);
+    }
+
+    List<Object> getValues() {
+        return new ArrayList<>(values);
+    }
+
+    /**
+     * Encodes the token as URL-safe string.
+     *
+     * @return the encoded token
+     * @throws IllegalArgumentException if a sort key value is of an unsupported type
+     */
+    String encode() {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream output = new DataOutputStream(bytes)) {
+            output.writeByte(FORMAT_VERSION);
+            output.writeShort(sorting.size());
+            for (String column : sorting) {
+                output.writeUTF(column);
+            }
+            for (Object value : values) {
+                writeValue(output, value);
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("Writing to a byte array must not fail", e);
+        }
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes.toByteArray());
+    }
+
+    /**
+     * Decodes a token created by {@link #encode()}.
+     *
+     * @param token the encoded token
+     * @return the decoded token
+     * @throws IllegalArgumentException if the token is malformed
+     */
+    static KeysetContinuationToken decode(String token) {
+        try (DataInputStream input = new DataInputStream(
+                new ByteArrayInputStream(Base64.getUrlDecoder().decode(token)))) {
+            if (input.readByte() != FORMAT_VERSION) {
+                throw new IllegalArgumentException("Unsupported continuation token version");
+            }
+            int columnCount = input.readShort();
+            List<String> sorting = new ArrayList<>();
+            for (int i = 0; i < columnCount; i++) {
+                sorting.add(input.readUTF());
+            }
+            List<Object> values = new ArrayList<>();
+            for (int i = 0; i < columnCount; i++) {
+                values.add(readValue(input));
+            }
+            if (input.available() > 0) {
+                throw new IllegalArgumentException("Unexpected trailing data in continuation token");
+            }
+            return new KeysetContinuationToken(sorting, values);
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Malformed continuation token", e);
+        }
+    }
+
+    private static void writeValue(DataOutputStream output, Object value) throws IOException {
+        if (value == null) {
+            output.writeByte(TYPE_NULL);
+            return;
+        }
+        Class<?> valueClass = value.getClass();
+        if (String.class.equals(valueClass)) {
+            output.writeByte(TYPE_STRING);
+            output.writeUTF((String) value);
+        } else if (Integer.class.equals(valueClass)) {
+            output.writeByte(TYPE_INTEGER);
+            output.writeInt((Integer) value);
+        } else if (Long.class.equals(valueClass)) {
+            output.writeByte(TYPE_LONG);
+            output.writeLong((Long) value);
+        } else if (Short.class.equals(valueClass)) {
+            output.writeByte(TYPE_SHORT);
+            output.writeShort((Short) value);
+        } else if (Double.class.equals(valueClass)) {
+            output.writeByte(TYPE_DOUBLE);
+            output.writeDouble((Double) value);
+        } else if (Float.class.equals(valueClass)) {
+            output.writeByte(TYPE_FLOAT);
+            output.writeFloat((Float) value);
+        } else if (BigDecimal.class.equals(valueClass)) {
+            output.writeByte(TYPE_BIGDECIMAL);
+            output.writeUTF(value.toString());
+        } else if (Boolean.class.equals(valueClass)) {
+            output.writeByte(TYPE_BOOLEAN);
+            output.writeBoolean((Boolean) value);
+        } else if (Date.class.equals(valueClass)) {
+            output.writeByte(TYPE_DATE);
+            output.writeUTF(value.toString());
+        } else if (Time.class.equals(valueClass)) {
+            output.writeByte(TYPE_TIME);
+            output.writeUTF(value.toString());
+        } else if (Timestamp.class.equals(valueClass)) {
+            output.writeByte(TYPE_TIMESTAMP);
+            output.writeUTF(value.toString());
+        } else {
+            throw new IllegalArgumentException("Unsupported sort key type for keyset pagination: "
+                    + valueClass.getName());
+        }
+    }
+
+    private static Object readValue(DataInputStream input) throws IOException {
+        byte type = input.readByte();
+        switch (type) {
+            case TYPE_NULL:
+                return null;
+            case TYPE_STRING:
+                return input.readUTF();
+            case TYPE_INTEGER:
+                return input.readInt();
+            case TYPE_LONG:
+                return input.readLong();
+            case TYPE_SHORT:
+                return input.readShort();
+            case TYPE_DOUBLE:
+                return input.readDouble();
+            case TYPE_FLOAT:
+                return input.readFloat();
+            case TYPE_BIGDECIMAL:
+                return new BigDecimal(input.readUTF());
+            case TYPE_BOOLEAN:
+                return input.readBoolean();
+            case TYPE_DATE:
+                return Date.valueOf(input.readUTF());
+            case TYPE_TIME:
+                return Time.valueOf(input.readUTF());
+            case TYPE_TIMESTAMP:
+                return Timestamp.valueOf(input.readUTF());
+            default:
+                throw new IllegalArgumentException("Unknown value type in continuation token");
+        }
+    }
+
+}
@@ -0,0 +1,499 @@
+/*
+ * Copyright 2019 conis Informationssysteme GmbH
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.tablevert.core;
+
+import org.apache.poi.ss.usermodel.BuiltinFormats;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * XLSX writer generating the package parts of a workbook directly as UTF-8 markup into a {@link ParallelZipWriter},
+ * without building the POI object model.
+ * Produces the same sheets, cells, number formats, column widths and frozen header rows as the POI-based
+ * generation of {@link XlsxOutputGenerator}, including the choice of inline or shared strings per column.
+ * The data-independent parts are taken from an {@link XlsxWorkbookTemplate}, which may be shared between writers.
+ */
+final class NativeXlsxWriter implements XlsxOutput.Renderer {
+
+    private static final String XML_DECLARATION = "<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?>\n";
+    private static final String NS_MAIN = "http://schemas.openxmlformats.org/spreadsheetml/2006/main";
+    private static final String NS_RELATIONSHIPS = "http://schemas.openxmlformats.org/officeDocument/2006/relationships";
+    private static final String NS_PACKAGE_RELATIONSHIPS = "http://schemas.openxmlformats.org/package/2006/relationships";
+    private static final String CONTENT_TYPE_PREFIX = "application/vnd.openxmlformats-officedocument.spreadsheetml.";
+
+    private static final int STYLE_HEADER = XlsxWorkbookTemplate.STYLE_HEADER;
+    private static final int FIRST_CUSTOM_FORMAT_ID = 164;
+
+    private final DataGrid dataGrid;
+    private final XlsxWorkbookTemplate template;
+    private final List<DataGridColumn> columns;
+    private final DataGridColumnVector[] vectors;
+    private final boolean[] inlineStrings;
+    private final int maxDataRowsPerSheet;
+    private final int compressionLevel;
+    private final XlsxColumnWidthEstimator widthEstimator;
+    private final Map<String, Integer> styleIndexByFormat;
+    private final Map<String, Integer> styleIndexByColumnType;
+    private final Map<String, Integer> sharedStringIndices;
+    private final List<String> sharedStrings;
+    private final int[][] dictionarySharedStringIndices;
+    private long sharedStringCount;
+
+    /**
+     * Prepares the writer for a grid, using a template of its own.
+     *
+     * @param dataGrid the data to write
+     * @param outputOptions the output options, providing the column width and compression settings
+     * @param maxDataRowsPerSheet the number of data rows after which a new sheet is started
+     */
+    NativeXlsxWriter(DataGrid dataGrid, OutputOptions outputOptions, int maxDataRowsPerSheet) {
+        this(dataGrid, new XlsxWorkbookTemplate(dataGrid.definedColumns()), outputOptions, maxDataRowsPerSheet);
+    }
+
+    /**
+     * Prepares the writer for a grid.
+     *
+     * @param dataGrid the data to write
+     * @param template the template prepared for the grid's columns
+     * @param outputOptions the output options, providing the column width and compression settings
+     * @param maxDataRowsPerSheet the number of data rows after which a new sheet is started
+     */
+    NativeXlsxWriter(DataGrid dataGrid, XlsxWorkbookTemplate template, OutputOptions outputOptions,
+                     int maxDataRowsPerSheet) {
+        this.dataGrid = dataGrid;
+        this.template = template;
+        this.columns = template.getColumns();
+        this.maxDataRowsPerSheet = maxDataRowsPerSheet;
+        this.compressionLevel = outputOptions.getXlsxCompressionLevel();
+        this.widthEstimator = new XlsxColumnWidthEstimator(
+                outputOptions.getXlsxColumnWidthSampleInterval(), outputOptions.getXlsxMaxColumnWidth());
+        this.styleIndexByFormat = new LinkedHashMap<>(template.getStyleIndexByFormat());
+        this.styleIndexByColumnType = new HashMap<>(template.getStyleIndexByColumnType());
+        this.sharedStringIndices = new HashMap<>();
+        this.sharedStrings = new ArrayList<>(template.getHeaderStrings());
+        for (int i = 0; i < sharedStrings.size(); i++) {
+            sharedStringIndices.put(sharedStrings.get(i), i);
+        }
+        this.vectors = new DataGridColumnVector[columns.size()];
+        this.inlineStrings = new boolean[columns.size()];
+        this.dictionarySharedStringIndices = new int[columns.size()][];
+        for (int i = 0; i < columns.size(); i++) {
+            DataGridColumn column = columns.get(i);
+            vectors[i] = dataGrid.getColumnVector(column.getIndex());
+            inlineStrings[i] = XlsxStringStrategy.forColumn(vectors[i]) == XlsxStringStrategy.INLINE;
+            if (vectors[i] instanceof DataGridColumnVector.DictionaryVector && !inlineStrings[i]) {
+                dictionarySharedStringIndices[i] = new int[((DataGridColumnVector.DictionaryVector) vectors[i]).getDictionarySize()];
+                Arrays.fill(dictionarySharedStringIndices[i], -1);
+            }
+        }
+        estimateColumnWidths();
+    }
+
+    /**
+     * Writes the workbook as a ZIP package.
+     * The stream is not closed, so that the caller can continue to use it.
+     *
+     * @param outputStream the target stream
+     * @throws IOException if writing fails
+     */
+    @Override
+    public void render(OutputStream outputStream) throws IOException {
+        ParallelZipWriter zip = new ParallelZipWriter(outputStream, compressionLevel, ParallelZipWriter.defaultPool());
+        Utf8OutputBuffer buffer = new Utf8OutputBuffer();
+        int sheetCount = countSheets();
+
+        if (sheetCount == 1) {
+            writeEntry(zip, "[Content_Types].xml", template.getSingleSheetContentTypes());
+        } else {
+            startEntry(zip, buffer, "[Content_Types].xml");
+            writeContentTypes(buffer, sheetCount);
+            endEntry(zip, buffer);
+        }
+
+        writeEntry(zip, "_rels/.rels", template.getPackageRelationships());
+
+        if (sheetCount == 1) {
+            writeEntry(zip, "xl/workbook.xml", template.getSingleSheetWorkbook());
+            writeEntry(zip, "xl/_rels/workbook.xml.rels", template.getSingleSheetWorkbookRelationships());
+        } else {
+            startEntry(zip, buffer, "xl/workbook.xml");
+            writeWorkbook(buffer, sheetCount);
+            endEntry(zip, buffer);
+
+            startEntry(zip, buffer, "xl/_rels/workbook.xml.rels");
+            writeWorkbookRelationships(buffer, sheetCount);
+            endEntry(zip, buffer);
+        }
+
+        for (int sheetIndex = 0; sheetIndex < sheetCount; sheetIndex++) {
+            startEntry(zip, buffer, "xl/worksheets/sheet" + (sheetIndex + 1) + ".xml");
+            writeSheet(buffer, sheetIndex);
+            endEntry(zip, buffer);
+        }
+
+        startEntry(zip, buffer, "xl/sharedStrings.xml");
+        writeSharedStrings(buffer);
+        endEntry(zip, buffer);
+
+        if (styleIndexByFormat.size() == template.getStyleIndexByFormat().size()) {
+            writeEntry(zip, "xl/styles.xml", template.getStyles());
+        } else {
+            startEntry(zip, buffer, "xl/styles.xml");
+            writeStyles(buffer, styleIndexByFormat);
+            endEntry(zip, buffer);
+        }
+
+        zip.finish();
+    }
+
+    private int countSheets() {
+        long rowCount = dataGrid.getRowCount();
+        return (int) Math.max(1, (rowCount + maxDataRowsPerSheet - 1) / maxDataRowsPerSheet);
+    }
+
+    private void startEntry(ParallelZipWriter zip, Utf8OutputBuffer buffer, String name) throws IOException {
+        buffer.writingTo(zip.startEntry(name));
+    }
+
+    private void endEntry(ParallelZipWriter zip, Utf8OutputBuffer buffer) throws IOException {
+        buffer.flush();
+        zip.closeEntry();
+    }
+
+    private void writeEntry(ParallelZipWriter zip, String name, byte[] content) throws IOException {
+        zip.startEntry(name).write(content);
+        zip.closeEntry();
+    }
+
+    private void estimateColumnWidths() {
+        for (int i = 0; i < columns.size(); i++) {
+            int colIndex = columns.get(i).getIndex();
+            widthEstimator.observeText(colIndex, columns.get(i).getName());
+            if (vectors[i] instanceof DataGridColumnVector.DictionaryVector) {
+                widthEstimator.observeDictionary(colIndex, (DataGridColumnVector.DictionaryVector) vectors[i]);
+            }
+        }
+        for (int rowIndex = 0; rowIndex < dataGrid.getRowCount(); rowIndex++) {
+            if (!widthEstimator.samples(rowIndex)) {
+                continue;
+            }
+            for (int i = 0; i < vectors.length; i++) {
+                if (!(vectors[i] instanceof DataGridColumnVector.DictionaryVector) && !vectors[i].isNull(rowIndex)) {
+                    widthEstimator.observe(columns.get(i).getIndex(), vectors[i].getValue(rowIndex));
+                }
+            }
+        }
+    }
+
+    private int styleIndexFor(String javaClassName) {
+        return XlsxWorkbookTemplate.styleIndexFor(javaClassName, styleIndexByFormat, styleIndexByColumnType);
+    }
+
+    private int textStyleIndex() {
+        return styleIndexFor(String.class.getName());
+    }
+
+    private int sharedStringIndexOf(String value) {
+        sharedStringCount++;
+        Integer index = sharedStringIndices.get(value);
+        if (index == null) {
+            index = sharedStrings.size();
+            sharedStringIndices.put(value, index);
+            sharedStrings.add(value);
+        }
+        return index;
+    }
+
+    static void writeContentTypes(Utf8OutputBuffer buffer, int sheetCount) throws IOException {
+        buffer.appendAscii(XML_DECLARATION)
+                .appendAscii("<Types xmlns=\"http://schemas.openxmlformats.org/package/2006/content-types\">")
+                .appendAscii("<Default Extension=\"rels\" ContentType=\"application/vnd.openxmlformats-package.relationships+xml\"/>")
+                .appendAscii("<Default Extension=\"xml\" ContentType=\"application/xml\"/>")
+                .appendAscii("<Override PartName=\"/xl/workbook.xml\" ContentType=\"")
+                .appendAscii(CONTENT_TYPE_PREFIX).appendAscii("sheet.main+xml\"/>");
+        for (int sheetIndex = 0; sheetIndex < sheetCount; sheetIndex++) {
+            buffer.appendAscii("<Override PartName=\"/xl/worksheets/sheet").append(sheetIndex + 1)
+                    .appendAscii(".xml\" ContentType=\"").appendAscii(CONTENT_TYPE_PREFIX).appendAscii("worksheet+xml\"/>");
+        }
+        buffer.appendAscii("<Override PartName=\"/xl/sharedStrings.xml\" ContentType=\"")
+                .appendAscii(CONTENT_TYPE_PREFIX).appendAscii("sharedStrings+xml\"/>")
+                .appendAscii("<Override PartName=\"/xl/styles.xml\" ContentType=\"")
+                .appendAscii(CONTENT_TYPE_PREFIX).appendAscii("styles+xml\"/>")
+                .appendAscii("</Types>");
+    }
+
+    static void writePackageRelationships(Utf8OutputBuffer buffer) throws IOException {
+        buffer.appendAscii(XML_DECLARATION)
+                .appendAscii("<Relationships xmlns=\"").appendAscii(NS_PACKAGE_RELATIONSHIPS).appendAscii("\">")
+                .appendAscii("<Relationship Id=\"rId1\" Type=\"").appendAscii(NS_RELATIONSHIPS)
+                .appendAscii("/officeDocument\" Target=\"xl/workbook.xml\"/>")
+                .appendAscii("</Relationships>");
+    }
+
+    static void writeWorkbook(Utf8OutputBuffer buffer, int sheetCount) throws IOException {
+        buffer.appendAscii(XML_DECLARATION)
+                .appendAscii("<workbook xmlns=\"").appendAscii(NS_MAIN)
+                .appendAscii("\" xmlns:r=\"").appendAscii(NS_RELATIONSHIPS).appendAscii("\">")
+                .appendAscii("<bookViews><workbookView activeTab=\"0\"/></bookViews><sheets>");
+        for (int sheetIndex = 0; sheetIndex < sheetCount; sheetIndex++) {
+            buffer.appendAscii("<sheet name=\"").appendAscii(sheetIndex == 0 ? "Data" : "Data (" + (sheetIndex + 1) + ")")
+                    .appendAscii("\" sheetId=\"").append(sheetIndex + 1)
+                    .appendAscii("\" r:id=\"rId").append(sheetIndex + 1).appendAscii("\"/>");
+        }
+        buffer.appendAscii("</sheets></workbook>");
+    }
+
+    static void writeWorkbookRelationships(Utf8OutputBuffer buffer, int sheetCount) throws IOException {
+        buffer.appendAscii(XML_DECLARATION)
+                .appendAscii("<Relationships xmlns=\"").appendAscii(NS_PACKAGE_RELATIONSHIPS).appendAscii("\">");
+        for (int sheetIndex = 0; sheetIndex < sheetCount; sheetIndex++) {
+            buffer.appendAscii("<Relationship Id=\"rId").append(sheetIndex + 1)
+                    .appendAscii("\" Type=\"").appendAscii(NS_RELATIONSHIPS)
+                    .appendAscii("/worksheet\" Target=\"worksheets/sheet").append(sheetIndex + 1).appendAscii(".xml\"/>");
+        }
+        buffer.appendAscii("<Relationship Id=\"rId").append(sheetCount + 1)
+                .appendAscii("\" Type=\"").appendAscii(NS_RELATIONSHIPS)
+                .appendAscii("/sharedStrings\" Target=\"sharedStrings.xml\"/>")
+                .appendAscii("<Relationship Id=\"rId").append(sheetCount + 2)
+                .appendAscii("\" Type=\"").appendAscii(NS_RELATIONSHIPS)
+                .appendAscii("/styles\" Target=\"styles.xml\"/>")
+                .appendAscii("</Relationships>");
+    }
+
+    private void writeSheet(Utf8OutputBuffer buffer, int sheetIndex) throws IOException {
+        buffer.appendAscii(XML_DECLARATION)
+                .appendAscii("<worksheet xmlns=\"").appendAscii(NS_MAIN)
+                .appendAscii("\" xmlns:r=\"").appendAscii(NS_RELATIONSHIPS).appendAscii("\">")
+                .appendAscii("<sheetViews><sheetView workbookViewId=\"0\"")
+                .appendAscii(sheetIndex == 0 ? " tabSelected=\"1\">" : ">")
+                .appendAscii("<pane ySplit=\"1\" topLeftCell=\"A2\" activePane=\"bottomLeft\" state=\"frozen\"/>")
+                .appendAscii("<selection pane=\"bottomLeft\"/></sheetView></sheetViews>")
+                .appendAscii("<sheetFormatPr defaultRowHeight=\"15\"/>");
+        writeColumnWidths(buffer);
+        buffer.appendAscii("<sheetData>");
+        buffer.appendBytes(template.getHeaderRow());
+        sharedStringCount += columns.size();
+        int firstRowIndex = sheetIndex * maxDataRowsPerSheet;
+        int endRowIndex = (int) Math.min(firstRowIndex + maxDataRowsPerSheet, dataGrid.getRowCount());
+        for (int rowIndex = firstRowIndex; rowIndex < endRowIndex; rowIndex++) {
+            writeDataRow(buffer, rowIndex, rowIndex - firstRowIndex + 2);
+        }
+        buffer.appendAscii("</sheetData>")
+                .appendAscii("<pageMargins left=\"0.7\" right=\"0.7\" top=\"0.75\" bottom=\"0.75\" header=\"0.3\" footer=\"0.3\"/>")
+                .appendAscii("</worksheet>");
+    }
+
+    private void writeColumnWidths(Utf8OutputBuffer buffer) throws IOException {
+        boolean started = false;
+        for (int colIndex = 0; colIndex < widthEstimator.getColumnCount(); colIndex++) {
+            int width = widthEstimator.getColumnWidth(colIndex);
+            if (width == 0) {
+                continue;
+            }
+            if (!started) {
+                buffer.appendAscii("<cols>");
+                started = true;
+            }
+            buffer.appendAscii("<col min=\"").append(colIndex + 1).appendAscii("\" max=\"").append(colIndex + 1)
+                    .appendAscii("\" width=\"").append(width).appendAscii("\" customWidth=\"1\"/>");
+        }
+        if (started) {
+            buffer.appendAscii("</cols>");
+        }
+    }
+
+    static void writeHeaderRow(Utf8OutputBuffer buffer, String[] columnLetters, int[] headerStringIndices)
+            throws IOException {
+        buffer.appendAscii("<row r=\"1\">");
+        for (int i = 0; i < columnLetters.length; i++) {
+            buffer.appendAscii("<c r=\"").appendAscii(columnLetters[i]).appendAscii("1\" s=\"").append(STYLE_HEADER)
+                    .appendAscii("\" t=\"s\"><v>").append(headerStringIndices[i]).appendAscii("</v></c>");
+        }
+        buffer.appendAscii("</row>");
+    }
+
+    private void writeDataRow(Utf8OutputBuffer buffer, int rowIndex, int rowNumber) throws IOException {
+        buffer.appendAscii("<row r=\"").append(rowNumber).appendAscii("\">");
+        for (int i = 0; i < vectors.length; i++) {
+            DataGridColumnVector vector = vectors[i];
+            if (vector.isNull(rowIndex)) {
+                continue;
+            }
+            if (vector instanceof DataGridColumnVector.DictionaryVector && inlineStrings[i]) {
+                writeInlineStringCell(buffer, i, rowNumber, template.getColumnStyle(i),
+                        ((DataGridColumnVector.DictionaryVector) vector).getDictionaryValue(
+                                ((DataGridColumnVector.DictionaryVector) vector).getCode(rowIndex)));
+            } else if (vector instanceof DataGridColumnVector.DictionaryVector) {
+                int code = ((DataGridColumnVector.DictionaryVector) vector).getCode(rowIndex);
+                int[] indices = dictionarySharedStringIndices[i];
+                if (indices[code] < 0) {
+                    indices[code] = sharedStringIndexOf(((DataGridColumnVector.DictionaryVector) vector).getDictionaryValue(code));
+                } else {
+                    sharedStringCount++;
+                }
+                writeSharedStringCell(buffer, i, rowNumber, template.getColumnStyle(i), indices[code]);
+            } else if (vector instanceof DataGridColumnVector.IntVector) {
+                startCell(buffer, i, rowNumber, template.getColumnStyle(i));
+                buffer.appendAscii("><v>").append(((DataGridColumnVector.IntVector) vector).getInt(rowIndex))
+                        .appendAscii("</v></c>");
+            } else if (vector instanceof DataGridColumnVector.LongVector) {
+                startCell(buffer, i, rowNumber, template.getColumnStyle(i));
+                buffer.appendAscii("><v>").append(((DataGridColumnVector.LongVector) vector).getLong(rowIndex))
+                        .appendAscii("</v></c>");
+            } else {
+                writeValueCell(buffer, i, rowNumber, vector.getValue(rowIndex));
+            }
+        }
+        buffer.appendAscii("</row>");
+    }
+
+    private void writeValueCell(Utf8OutputBuffer buffer, int columnPosition, int rowNumber, Object value)
+            throws IOException {
+        if (value instanceof Boolean) {
+            startCell(buffer, columnPosition, rowNumber, styleIndexForValue(columnPosition, value));
+            buffer.appendAscii(" t=\"b\"><v>").appendAscii((Boolean) value ? "1" : "0").appendAscii("</v></c>");
+            return;
+        }
+        if (value instanceof String && inlineStrings[columnPosition]) {
+            writeInlineStringCell(buffer, columnPosition, rowNumber, textStyleIndex(), (String) value);
+            return;
+        }
+        double number = value instanceof String ? Double.NaN : XlsxCellValues.toNumber(value);
+        if (Double.isNaN(number)) {
+            writeSharedStringCell(buffer, columnPosition, rowNumber, textStyleIndex(), sharedStringIndexOf(value.toString()));
+            return;
+        }
+        startCell(buffer, columnPosition, rowNumber, styleIndexForValue(columnPosition, value));
+        buffer.appendAscii("><v>");
+        if (number == (long) number && Math.abs(number) < 1e15) {
+            buffer.append((long) number);
+        } else {
+            buffer.appendAscii(Double.toString(number));
+        }
+        buffer.appendAscii("</v></c>");
+    }
+
+    private int styleIndexForValue(int columnPosition, Object value) {
+        String valueClassName = value.getClass().getName();
+        return valueClassName.equals(columns.get(columnPosition).getJavaClassName())
+                ? template.getColumnStyle(columnPosition)
+                : styleIndexFor(valueClassName);
+    }
+
+    private void writeSharedStringCell(Utf8OutputBuffer buffer, int columnPosition, int rowNumber, int styleIndex,
+                                       int sharedStringIndex) throws IOException {
+        startCell(buffer, columnPosition, rowNumber, styleIndex);
+        buffer.appendAscii(" t=\"s\"><v>").append(sharedStringIndex).appendAscii("</v></c>");
+    }
+
+    private void writeInlineStringCell(Utf8OutputBuffer buffer, int columnPosition, int rowNumber, int styleIndex,
+                                       String value) throws IOException {
+        startCell(buffer, columnPosition, rowNumber, styleIndex);
+        buffer.appendAscii(needsSpacePreserved(value) ? " t=\"inlineStr\"><is><t xml:space=\"preserve\">" : " t=\"inlineStr\"><is><t>");
+        appendEscapedText(buffer, value);
+        buffer.appendAscii("</t></is></c>");
+    }
+
+    private void startCell(Utf8OutputBuffer buffer, int columnPosition, int rowNumber, int styleIndex)
+            throws IOException {
+        buffer.appendAscii("<c r=\"").appendAscii(template.getColumnLetters(columnPosition)).append(rowNumber)
+                .appendAscii("\" s=\"").append(styleIndex).appendAscii("\"");
+    }
+
+    private void writeSharedStrings(Utf8OutputBuffer buffer) throws IOException {
+        buffer.appendAscii(XML_DECLARATION)
+                .appendAscii("<sst xmlns=\"").appendAscii(NS_MAIN)
+                .appendAscii("\" count=\"").append(sharedStringCount)
+                .appendAscii("\" uniqueCount=\"").append(sharedStrings.size()).appendAscii("\">");
+        for (String value : sharedStrings) {
+            buffer.appendAscii(needsSpacePreserved(value) ? "<si><t xml:space=\"preserve\">" : "<si><t>");
+            appendEscapedText(buffer, value);
+            buffer.appendAscii("</t></si>");
+        }
+        buffer.appendAscii("</sst>");
+    }
+
+    static void writeStyles(Utf8OutputBuffer buffer, Map<String, Integer> styleIndexByFormat) throws IOException {
+        buffer.appendAscii(XML_DECLARATION)
+                .appendAscii("<styleSheet xmlns=\"").appendAscii(NS_MAIN).appendAscii("\">");
+        Map<String, Integer> formatIds = new LinkedHashMap<>();
+        for (String format : styleIndexByFormat.keySet()) {
+            int builtinId = BuiltinFormats.getBuiltinFormat(format);
+            formatIds.put(format, builtinId >= 0 ? builtinId : FIRST_CUSTOM_FORMAT_ID + formatIds.size());
+        }
+        StringBuilder customFormats = new StringBuilder();
+        int customFormatCount = 0;
+        for (Map.Entry<String, Integer> formatId : formatIds.entrySet()) {
+            if (formatId.getValue() >= FIRST_CUSTOM_FORMAT_ID) {
+                customFormats.append("<numFmt numFmtId=\"").append(formatId.getValue())
+                        .append("\" formatCode=\"").append(formatId.getKey()).append("\"/>");
+                customFormatCount++;
+            }
+        }
+        if (customFormatCount > 0) {
+            buffer.appendAscii("<numFmts count=\"").append(customFormatCount).appendAscii("\">")
+                    .append(customFormats).appendAscii("</numFmts>");
+        }
+        buffer.appendAscii("<fonts count=\"2\">")
+                .appendAscii("<font><sz val=\"11\"/><color theme=\"1\"/><name val=\"Calibri\"/><family val=\"2\"/><scheme val=\"minor\"/></font>")
+                .appendAscii("<font><b/><sz val=\"11\"/><color theme=\"1\"/><name val=\"Calibri\"/><family val=\"2\"/><scheme val=\"minor\"/></font>")
+                .appendAscii("</fonts>")
+                .appendAscii("<fills count=\"2\"><fill><patternFill patternType=\"none\"/></fill>")
+                .appendAscii("<fill><patternFill patternType=\"gray125\"/></fill></fills>")
+                .appendAscii("<borders count=\"1\"><border><left/><right/><top/><bottom/><diagonal/></border></borders>")
+                .appendAscii("<cellStyleXfs count=\"1\"><xf numFmtId=\"0\" fontId=\"0\" fillId=\"0\" borderId=\"0\"/></cellStyleXfs>")
+                .appendAscii("<cellXfs count=\"").append(STYLE_HEADER + 1 + styleIndexByFormat.size()).appendAscii("\">")
+                .appendAscii("<xf numFmtId=\"0\" fontId=\"0\" fillId=\"0\" borderId=\"0\" xfId=\"0\"/>")
+                .appendAscii("<xf numFmtId=\"0\" fontId=\"1\" fillId=\"0\" borderId=\"0\" xfId=\"0\" applyFont=\"1\"/>");
+        for (String format : styleIndexByFormat.keySet()) {
+            buffer.appendAscii("<xf numFmtId=\"").append(formatIds.get(format))
+                    .appendAscii("\" fontId=\"0\" fillId=\"0\" borderId=\"0\" xfId=\"0\" applyNumberFormat=\"1\"/>");
+        }
+        buffer.appendAscii("</cellXfs>")
+                .appendAscii("<cellStyles count=\"1\"><cellStyle name=\"Normal\" xfId=\"0\" builtinId=\"0\"/></cellStyles>")
+                .appendAscii("</styleSheet>");
+    }
+
+    private static boolean needsSpacePreserved(String value) {
+        return !value.isEmpty()
+                && (Character.isWhitespace(value.charAt(0)) || Character.isWhitespace(value.charAt(value.length() - 1)));
+    }
+
+    /**
+     * Appends text escaped for XML element content.
+     * Control characters, which XML does not allow, are encoded as {@code _xHHHH_} like Excel does.
+     */
+    private static void appendEscapedText(Utf8OutputBuffer buffer, String value) throws IOException {
+        int start = 0;
+        int length = value.length();
+        for (int i = 0; i < length; i++) {
+            char c = value.charAt(i);
+            String replacement;
+            if (c == '&') {
+                replacement = "&amp;";
+            } else if (c == '<') {
+                replacement = "&lt;";
+            } else if (c == '>') {
+                replacement = "&gt;";
+            } else if ((c < 0x20 && c != '\t' && c != '\n' && c != '\r') || c == 0xFFFE || c == 0xFFFF) {
+                replacement = String.format("_x%04X_", (int) c);
+            } else {
+                continue;
+            }
+            buffer.append(value, start, i).appendAscii(replacement);
+            start = i + 1;
+        }
+        buffer.append(value, start, length);
+    }
+
+}
@@ -5,7 +5,9 @@
 
 package org.tablevert.core;
 
+import java.io.IOException;
 import java.io.OutputStream;
+import java.util.zip.Deflater;
 
 /**
  * Container for the output data provided by the {@link Tableverter}
@@ -16,4 +18,69 @@ public interface Output {
 
     void writeContent(OutputStream outputStream) throws OutputGeneratorException;
 
+    /**
+     * Gets the encoding applied by {@link #writeContent(OutputStream, ContentEncoding, int)} if an encoding
+     * is requested, e.g. to set the response headers before writing the content.
+     * Formats which are compressed already are written unencoded.
+     *
+     * @param requestedEncoding the encoding requested by the caller
+     * @return the encoding which is applied
+     */
+    default ContentEncoding getContentEncodingFor(ContentEncoding requestedEncoding) {
+        return requestedEncoding;
+    }
+
+    /**
+     * Writes the content with the encoding applied on the fly at the default deflate level.
+     *
+     * @param outputStream the target stream, which is not closed
+     * @param requestedEncoding the encoding requested by the caller
+     * @return the encoding which has been applied, see {@link #getContentEncodingFor(ContentEncoding)}
+     * @throws OutputGeneratorException if writing fails
+     */
+    default ContentEncoding writeContent(OutputStream outputStream, ContentEncoding requestedEncoding)
+            throws OutputGeneratorException {
+        return writeContent(outputStream, requestedEncoding, Deflater.DEFAULT_COMPRESSION);
+    }
+
+    /**
+     * Writes the content with the encoding applied on the fly, without buffering the unencoded content.
+     *
+     * @param outputStream the target stream, which is not closed
+     * @param requestedEncoding the encoding requested by the caller
+     * @param level the deflate level from 0 to 9, or -1 for the default level
+     * @return the encoding which has been applied, see {@link #getContentEncodingFor(ContentEncoding)}
+     * @throws OutputGeneratorException if writing fails
+     */
+    default ContentEncoding writeContent(OutputStream outputStream, ContentEncoding requestedEncoding, int level)
+            throws OutputGeneratorException {
+        ContentEncoding encoding = getContentEncodingFor(requestedEncoding);
+        if (encoding == ContentEncoding.IDENTITY) {
+            writeContent(outputStream);
+            return encoding;
+        }
+        ContentEncoder.EncodingOutputStream encodingStream = null;
+        try {
+            encodingStream = ContentEncoder.open(outputStream, encoding, level);
+            writeContent(encodingStream);
+            encodingStream.close();
+        } catch (IOException e) {
+            throw new OutputGeneratorException("Failed to write " + encoding.getToken() + " encoded content", e);
+        } finally {
+            if (encodingStream != null) {
+                encodingStream.abort();
+            }
+        }
+        return encoding;
+    }
+
+    /**
+     * Gets the token to pass with the next query when the output contains a keyset page.
+     *
+     * @return the continuation token, or {@code null} if there is no further page
+     */
+    default String getContinuationToken() {
+        return null;
+    }
+
 }
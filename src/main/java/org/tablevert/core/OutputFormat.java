@@ -9,11 +9,12 @@ package org.tablevert.core;
  * Available output formats of the {@link Tableverter}.
  */
 public enum OutputFormat {
-    HTML, XLSX;
+    HTML, XLSX, CSV, JSON, NDJSON;
 
     public boolean isDownloadable() {
         switch (this) {
             case XLSX:
+            case CSV:
                 return true;
             default:
                 return false;
@@ -18,4 +18,13 @@ interface OutputGenerator {
      */
     Output process(DataGrid dataGrid) throws OutputGeneratorException;
 
+    /**
+     * Creates a consumer generating the output directly from streamed rows, if the generator is set up for it.
+     *
+     * @return the consumer, or {@code null} if the output is generated from a complete {@link DataGrid}
+     */
+    default StreamingOutputConsumer createStreamingConsumer() {
+        return null;
+    }
+
 }
@@ -0,0 +1,314 @@
+/*
+ * Copyright 2019 conis Informationssysteme GmbH
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.tablevert.core;
+
+import java.util.Objects;
+import java.util.zip.Deflater;
+
+/**
+ * Options controlling how the {@link Tableverter} generates its output.
+ */
+public final class OutputOptions {
+
+    static final int DEFAULT_XLSX_STREAMING_THRESHOLD = 100000;
+
+    /**
+     * Builder for {@link OutputOptions} instances.
+     */
+    public static class Builder {
+        private boolean xlsxStreaming;
+        private boolean nativeXlsxWriter;
+        private int xlsxStreamingThreshold;
+        private int xlsxColumnWidthSampleInterval;
+        private int xlsxMaxColumnWidth;
+        private int xlsxCompressionLevel;
+        private int htmlChunkSize;
+        private CsvDialect csvDialect;
+        private JsonLayout jsonLayout;
+
+        /**
+         * Instantiates the builder.
+         */
+        public Builder() {
+            this.xlsxStreamingThreshold = DEFAULT_XLSX_STREAMING_THRESHOLD;
+            this.xlsxColumnWidthSampleInterval = 1;
+            this.xlsxMaxColumnWidth = XlsxColumnWidthEstimator.DEFAULT_MAX_WIDTH;
+            this.xlsxCompressionLevel = Deflater.DEFAULT_COMPRESSION;
+            this.csvDialect = CsvDialect.defaults();
+            this.jsonLayout = JsonLayout.ROWS;
+        }
+
+        /**
+         * Switches XLSX generation to streaming mode regardless of the number of rows.
+         * In streaming mode, the rows are written into the workbook while they are read, keeping only a sliding
+         * window of rows in memory and flushing older rows to a temporary file, so that memory consumption
+         * does not depend on the number of rows.
+         *
+         * @return the builder
+         */
+        public Builder streamingXlsx() {
+            this.xlsxStreaming = true;
+            return this;
+        }
+
+        /**
+         * Writes XLSX files through the native writer, which generates the package parts directly as markup
+         * instead of building the POI object model. Applies to all XLSX output generated from a complete grid;
+         * if streaming is requested explicitly, the streamed rows are still written through POI's streaming workbook.
+         *
+         * @return the builder
+         */
+        public Builder usingNativeXlsxWriter() {
+            this.nativeXlsxWriter = true;
+            return this;
+        }
+
+        /**
+         * Sets the number of rows above which XLSX generation switches to streaming mode automatically.
+         * Rows read from a database are buffered up to this number only, and are then written in streaming mode.
+         *
+         * @param rowCount the maximum number of rows generated in memory
+         * @return the builder
+         */
+        public Builder withXlsxStreamingThreshold(int rowCount) {
+            this.xlsxStreamingThreshold = rowCount;
+            return this;
+        }
+
+        /**
+         * Estimates the XLSX column widths from a sample of the rows instead of all rows.
+         *
+         * @param rowInterval the distance of the sampled rows, e.g. 10 to observe every tenth row
+         * @return the builder
+         */
+        public Builder samplingXlsxColumnWidths(int rowInterval) {
+            this.xlsxColumnWidthSampleInterval = rowInterval;
+            return this;
+        }
+
+        /**
+         * Limits the width of the XLSX columns.
+         *
+         * @param characters the maximum column width in characters
+         * @return the builder
+         */
+        public Builder withXlsxMaxColumnWidth(int characters) {
+            this.xlsxMaxColumnWidth = characters;
+            return this;
+        }
+
+        /**
+         * Sets the deflate level of XLSX files written through the native writer, which compresses the parts
+         * of the file in parallel. Level 0 stores the parts without compression, trading size for speed.
+         *
+         * @param level the level from 0 (store only) to 9 (best compression), or -1 for the default level
+         * @return the builder
+         */
+        public Builder withXlsxCompressionLevel(int level) {
+            this.xlsxCompressionLevel = level;
+            return this;
+        }
+
+        /**
+         * Splits the body of HTML tables into numbered {@code <tbody>} chunks, which can also be written one by one
+         * through {@link HtmlOutput#writeChunk(int, java.io.OutputStream)}, e.g. as they scroll into view.
+         *
+         * @param rowCount the number of rows per chunk
+         * @return the builder
+         */
+        public Builder chunkingHtml(int rowCount) {
+            this.htmlChunkSize = rowCount;
+            return this;
+        }
+
+        /**
+         * Sets the dialect of CSV output, e.g. the delimiter and quoting of the fields.
+         *
+         * @param csvDialect the dialect
+         * @return the builder
+         */
+        public Builder withCsvDialect(CsvDialect csvDialect) {
+            this.csvDialect = csvDialect;
+            return this;
+        }
+
+        /**
+         * Sets the layout of JSON output, i.e. an array of row objects or the columnar layout.
+         *
+         * @param jsonLayout the layout
+         * @return the builder
+         */
+        public Builder withJsonLayout(JsonLayout jsonLayout) {
+            this.jsonLayout = jsonLayout;
+            return this;
+        }
+
+        /**
+         * Builds the {@link OutputOptions} object.
+         *
+         * @return the built object
+         * @throws BuilderFailedException if the options are invalid
+         */
+        public OutputOptions build() throws BuilderFailedException {
+            validate();
+            OutputOptions outputOptions = new OutputOptions();
+            outputOptions.xlsxStreaming = this.xlsxStreaming;
+            outputOptions.nativeXlsxWriter = this.nativeXlsxWriter;
+            outputOptions.xlsxStreamingThreshold = this.xlsxStreamingThreshold;
+            outputOptions.xlsxColumnWidthSampleInterval = this.xlsxColumnWidthSampleInterval;
+            outputOptions.xlsxMaxColumnWidth = this.xlsxMaxColumnWidth;
+            outputOptions.xlsxCompressionLevel = this.xlsxCompressionLevel;
+            outputOptions.htmlChunkSize = this.htmlChunkSize;
+            outputOptions.csvDialect = this.csvDialect;
+            outputOptions.jsonLayout = this.jsonLayout;
+            return outputOptions;
+        }
+
+        private void validate() throws BuilderFailedException {
+            String errors = "";
+            if (xlsxStreamingThreshold < 0) {
+                errors += " - invalid XLSX streaming threshold [" + xlsxStreamingThreshold + "];";
+            }
+            if (xlsxColumnWidthSampleInterval < 1) {
+                errors += " - invalid XLSX column width sample interval [" + xlsxColumnWidthSampleInterval + "];";
+            }
+            if (xlsxMaxColumnWidth < 1) {
+                errors += " - invalid XLSX maximum column width [" + xlsxMaxColumnWidth + "];";
+            }
+            if (xlsxCompressionLevel < Deflater.DEFAULT_COMPRESSION || xlsxCompressionLevel > Deflater.BEST_COMPRESSION) {
+                errors += " - invalid XLSX compression level [" + xlsxCompressionLevel + "];";
+            }
+            if (htmlChunkSize < 0) {
+                errors += " - invalid HTML chunk size [" + htmlChunkSize + "];";
+            }
+            if (csvDialect == null) {
+                errors += " - missing CSV dialect;";
+            }
+            if (jsonLayout == null) {
+                errors += " - missing JSON layout;";
+            }
+            if (!errors.isEmpty()) {
+                throw new BuilderFailedException("Builder validation failed with errors: " + errors);
+            }
+        }
+    }
+
+    private boolean xlsxStreaming;
+    private boolean nativeXlsxWriter;
+    private int xlsxStreamingThreshold;
+    private int xlsxColumnWidthSampleInterval;
+    private int xlsxMaxColumnWidth;
+    private int xlsxCompressionLevel;
+    private int htmlChunkSize;
+    private CsvDialect csvDialect;
+    private JsonLayout jsonLayout;
+
+    private OutputOptions() {
+    }
+
+    /**
+     * Gets the options applied if none are specified.
+     *
+     * @return the default options
+     */
+    public static OutputOptions defaults() {
+        OutputOptions outputOptions = new OutputOptions();
+        outputOptions.xlsxStreamingThreshold = DEFAULT_XLSX_STREAMING_THRESHOLD;
+        outputOptions.xlsxColumnWidthSampleInterval = 1;
+        outputOptions.xlsxMaxColumnWidth = XlsxColumnWidthEstimator.DEFAULT_MAX_WIDTH;
+        outputOptions.xlsxCompressionLevel = Deflater.DEFAULT_COMPRESSION;
+        outputOptions.csvDialect = CsvDialect.defaults();
+        outputOptions.jsonLayout = JsonLayout.ROWS;
+        return outputOptions;
+    }
+
+    /**
+     * @return {@code true} if XLSX output is generated in streaming mode regardless of the number of rows
+     */
+    public boolean isXlsxStreaming() {
+        return xlsxStreaming;
+    }
+
+    /**
+     * @return {@code true} if XLSX output is written through the native writer instead of POI
+     */
+    public boolean isNativeXlsxWriter() {
+        return nativeXlsxWriter;
+    }
+
+    /**
+     * @return the number of rows above which XLSX output is generated in streaming mode
+     */
+    public int getXlsxStreamingThreshold() {
+        return xlsxStreamingThreshold;
+    }
+
+    /**
+     * @return the distance of the rows sampled for estimating XLSX column widths
+     */
+    public int getXlsxColumnWidthSampleInterval() {
+        return xlsxColumnWidthSampleInterval;
+    }
+
+    /**
+     * @return the maximum XLSX column width in characters
+     */
+    public int getXlsxMaxColumnWidth() {
+        return xlsxMaxColumnWidth;
+    }
+
+    /**
+     * @return the deflate level of XLSX files written through the native writer
+     */
+    public int getXlsxCompressionLevel() {
+        return xlsxCompressionLevel;
+    }
+
+    /**
+     * @return the number of rows per HTML body chunk, or 0 if the body is not split
+     */
+    public int getHtmlChunkSize() {
+        return htmlChunkSize;
+    }
+
+    /**
+     * @return the dialect of CSV output
+     */
+    public CsvDialect getCsvDialect() {
+        return csvDialect;
+    }
+
+    /**
+     * @return the layout of JSON output
+     */
+    public JsonLayout getJsonLayout() {
+        return jsonLayout;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (obj == null || !OutputOptions.class.equals(obj.getClass())) {
+            return false;
+        }
+        OutputOptions outputOptions = (OutputOptions) obj;
+        return outputOptions.xlsxStreaming == this.xlsxStreaming
+                && outputOptions.nativeXlsxWriter == this.nativeXlsxWriter
+                && outputOptions.xlsxStreamingThreshold == this.xlsxStreamingThreshold
+                && outputOptions.xlsxColumnWidthSampleInterval == this.xlsxColumnWidthSampleInterval
+                && outputOptions.xlsxMaxColumnWidth == this.xlsxMaxColumnWidth
+                && outputOptions.xlsxCompressionLevel == this.xlsxCompressionLevel
+                && outputOptions.htmlChunkSize == this.htmlChunkSize
+                && Objects.equals(outputOptions.csvDialect, this.csvDialect)
+                && outputOptions.jsonLayout == this.jsonLayout;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(xlsxStreaming, nativeXlsxWriter, xlsxStreamingThreshold, xlsxColumnWidthSampleInterval,
+                xlsxMaxColumnWidth, xlsxCompressionLevel, htmlChunkSize, csvDialect, jsonLayout);
+    }
+
+}
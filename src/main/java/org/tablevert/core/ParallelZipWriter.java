@@ -0,0 +1,444 @@
+/*
+ * Copyright 2019 conis Informationssysteme GmbH
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.tablevert.core;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * ZIP writer deflating large entries in parallel, in the style of pigz.
+ * The data of an entry is cut into blocks, which are deflated independently on a fork-join pool, each primed
+ * with the last 32 KiB of the preceding block as dictionary. All blocks but the last end with a sync flush,
+ * so that their concatenation forms a single valid deflate stream.
+ * Entries are written with data descriptors, so that neither the data nor the compressed blocks of an entry
+ * need to be held completely in memory. ZIP64 records are added where sizes or offsets require them.
+ * The {@link Deflater} instances, which hold native memory, are pooled per level and reused across blocks
+ * and archives; deflaters beyond the pool's capacity are ended.
+ */
+final class ParallelZipWriter {
+
+    static final int BLOCK_SIZE = 128 * 1024;
+    static final int MAX_POOLED_DEFLATERS = 16;
+
+    private static final int DICTIONARY_SIZE = 32 * 1024;
+    private static final long ZIP64_LIMIT = 0xFFFFFFFFL;
+    private static final int ZIP64_ENTRY_LIMIT = 0xFFFF;
+    private static final int FLAGS = 0x0808;
+    private static final int METHOD_DEFLATED = 8;
+    private static final int VERSION_DEFAULT = 20;
+    private static final int VERSION_ZIP64 = 45;
+
+    // Raw deflaters pooled per level, as a level change is only applied with an extra deflate call
+    private static final List<BlockingQueue<Deflater>> DEFLATERS = new ArrayList<>();
+
+    static {
+        for (int level = Deflater.DEFAULT_COMPRESSION; level <= Deflater.BEST_COMPRESSION; level++) {
+            DEFLATERS.add(new ArrayBlockingQueue<>(MAX_POOLED_DEFLATERS));
+        }
+    }
+
+    private final OutputStream target;
+    private final int level;
+    private final ForkJoinPool pool;
+    private final int maxPendingBlocks;
+    private final int dosTime;
+    private final int dosDate;
+    private final List<EntryRecord> entries;
+    private final byte[] headerBuffer;
+    private long written;
+    private EntryOutputStream currentEntry;
+
+    /**
+     * Creates the writer.
+     *
+     * @param target the stream to write the archive to, which is not closed by the writer
+     * @param level the deflate level from 0 (store only) to 9, or -1 for the default level
+     * @param pool the pool to deflate the blocks on; with a parallelism of 1, blocks are deflated on the calling thread
+     */
+    ParallelZipWriter(OutputStream target, int level, ForkJoinPool pool) {
+        this.target = target;
+        this.level = level;
+        this.pool = pool;
+        this.maxPendingBlocks = pool.getParallelism() > 1 ? 2 * pool.getParallelism() : 0;
+        LocalDateTime now = LocalDateTime.now();
+        this.dosTime = (now.getHour() << 11) | (now.getMinute() << 5) | (now.getSecond() >> 1);
+        this.dosDate = ((Math.max(now.getYear(), 1980) - 1980) << 9) | (now.getMonthValue() << 5) | now.getDayOfMonth();
+        this.entries = new ArrayList<>();
+        this.headerBuffer = new byte[64];
+    }
+
+    /**
+     * Gets the pool dedicated to deflating the blocks of archives, with a parallelism of the number of processors.
+     * The pool is created on first use; its threads are daemon threads.
+     *
+     * @return the shared deflating pool
+     */
+    static ForkJoinPool defaultPool() {
+        return DefaultPoolHolder.POOL;
+    }
+
+    /**
+     * Starts a new entry, closing the current one.
+     *
+     * @param name the entry name
+     * @return the stream to write the uncompressed entry data to, valid until the next entry is started
+     * @throws IOException if writing fails
+     */
+    OutputStream startEntry(String name) throws IOException {
+        closeEntry();
+        EntryRecord entry = new EntryRecord(name.getBytes(StandardCharsets.UTF_8), written);
+        entries.add(entry);
+        writeLocalHeader(entry);
+        currentEntry = new EntryOutputStream(entry);
+        return currentEntry;
+    }
+
+    /**
+     * Completes the current entry, if any.
+     *
+     * @throws IOException if writing fails
+     */
+    void closeEntry() throws IOException {
+        if (currentEntry != null) {
+            currentEntry.complete();
+            writeDataDescriptor(currentEntry.entry);
+            currentEntry = null;
+        }
+    }
+
+    /**
+     * Completes the archive by writing the central directory. The target stream is flushed, but not closed.
+     *
+     * @throws IOException if writing fails
+     */
+    void finish() throws IOException {
+        closeEntry();
+        long centralDirectoryOffset = written;
+        for (EntryRecord entry : entries) {
+            writeCentralDirectoryHeader(entry);
+        }
+        long centralDirectorySize = written - centralDirectoryOffset;
+        if (centralDirectoryOffset >= ZIP64_LIMIT || entries.size() >= ZIP64_ENTRY_LIMIT) {
+            writeZip64EndRecords(centralDirectoryOffset, centralDirectorySize);
+        }
+        int position = 0;
+        position = putInt(position, 0x06054b50);
+        position = putShort(position, 0);
+        position = putShort(position, 0);
+        position = putShort(position, Math.min(entries.size(), ZIP64_ENTRY_LIMIT));
+        position = putShort(position, Math.min(entries.size(), ZIP64_ENTRY_LIMIT));
+        position = putInt(position, (int) Math.min(centralDirectorySize, ZIP64_LIMIT));
+        position = putInt(position, (int) Math.min(centralDirectoryOffset, ZIP64_LIMIT));
+        position = putShort(position, 0);
+        writeHeader(position);
+        target.flush();
+    }
+
+    private void writeLocalHeader(EntryRecord entry) throws IOException {
+        int position = 0;
+        position = putInt(position, 0x04034b50);
+        position = putShort(position, VERSION_DEFAULT);
+        position = putShort(position, FLAGS);
+        position = putShort(position, METHOD_DEFLATED);
+        position = putShort(position, dosTime);
+        position = putShort(position, dosDate);
+        position = putInt(position, 0);
+        position = putInt(position, 0);
+        position = putInt(position, 0);
+        position = putShort(position, entry.name.length);
+        position = putShort(position, 0);
+        writeHeader(position);
+        writeBytes(entry.name, 0, entry.name.length);
+    }
+
+    private void writeDataDescriptor(EntryRecord entry) throws IOException {
+        int position = 0;
+        position = putInt(position, 0x08074b50);
+        position = putInt(position, (int) entry.crc);
+        if (entry.needsZip64Sizes()) {
+            position = putLong(position, entry.compressedSize);
+            position = putLong(position, entry.size);
+        } else {
+            position = putInt(position, (int) entry.compressedSize);
+            position = putInt(position, (int) entry.size);
+        }
+        writeHeader(position);
+    }
+
+    private void writeCentralDirectoryHeader(EntryRecord entry) throws IOException {
+        boolean zip64Sizes = entry.needsZip64Sizes();
+        boolean zip64Offset = entry.offset >= ZIP64_LIMIT;
+        int extraLength = (zip64Sizes ? 16 : 0) + (zip64Offset ? 8 : 0);
+        int version = extraLength > 0 ? VERSION_ZIP64 : VERSION_DEFAULT;
+        int position = 0;
+        position = putInt(position, 0x02014b50);
+        position = putShort(position, version);
+        position = putShort(position, version);
+        position = putShort(position, FLAGS);
+        position = putShort(position, METHOD_DEFLATED);
+        position = putShort(position, dosTime);
+        position = putShort(position, dosDate);
+        position = putInt(position, (int) entry.crc);
+        position = putInt(position, (int) (zip64Sizes ? ZIP64_LIMIT : entry.compressedSize));
+        position = putInt(position, (int) (zip64Sizes ? ZIP64_LIMIT : entry.size));
+        position = putShort(position, entry.name.length);
+        position = putShort(position, extraLength > 0 ? extraLength + 4 : 0);
+        position = putShort(position, 0);
+        position = putShort(position, 0);
+        position = putShort(position, 0);
+        position = putInt(position, 0);
+        position = putInt(position, (int) (zip64Offset ? ZIP64_LIMIT : entry.offset));
+        writeHeader(position);
+        writeBytes(entry.name, 0, entry.name.length);
+        if (extraLength > 0) {
+            position = 0;
+            position = putShort(position, 0x0001);
+            position = putShort(position, extraLength);
+            if (zip64Sizes) {
+                position = putLong(position, entry.size);
+                position = putLong(position, entry.compressedSize);
+            }
+            if (zip64Offset) {
+                position = putLong(position, entry.offset);
+            }
+            writeHeader(position);
+        }
+    }
+
+    private void writeZip64EndRecords(long centralDirectoryOffset, long centralDirectorySize) throws IOException {
+        long recordOffset = written;
+        int position = 0;
+        position = putInt(position, 0x06064b50);
+        position = putLong(position, 44);
+        position = putShort(position, VERSION_ZIP64);
+        position = putShort(position, VERSION_ZIP64);
+        position = putInt(position, 0);
+        position = putInt(position, 0);
+        position = putLong(position, entries.size());
+        position = putLong(position, entries.size());
+        position = putLong(position, centralDirectorySize);
+        position = putLong(position, centralDirectoryOffset);
+        writeHeader(position);
+        position = 0;
+        position = putInt(position, 0x07064b50);
+        position = putInt(position, 0);
+        position = putLong(position, recordOffset);
+        position = putInt(position, 1);
+        writeHeader(position);
+    }
+
+    private int putShort(int position, int value) {
+        headerBuffer[position] = (byte) value;
+        headerBuffer[position + 1] = (byte) (value >>> 8);
+        return position + 2;
+    }
+
+    private int putInt(int position, int value) {
+        putShort(position, value);
+        putShort(position + 2, value >>> 16);
+        return position + 4;
+    }
+
+    private int putLong(int position, long value) {
+        putInt(position, (int) value);
+        putInt(position + 4, (int) (value >>> 32));
+        return position + 8;
+    }
+
+    private void writeHeader(int length) throws IOException {
+        writeBytes(headerBuffer, 0, length);
+    }
+
+    private void writeBytes(byte[] bytes, int offset, int length) throws IOException {
+        target.write(bytes, offset, length);
+        written += length;
+    }
+
+    /**
+     * Deflates a block of an entry.
+     *
+     * @param data the block data
+     * @param length the number of bytes of the block
+     * @param dictionary the end of the preceding block, or {@code null} for the first block
+     * @param last {@code true} to end the deflate stream after the block
+     * @param level the deflate level
+     * @return the deflated block, exactly sized
+     */
+    static byte[] deflateBlock(byte[] data, int length, byte[] dictionary, boolean last, int level) {
+        BlockingQueue<Deflater> deflaters = DEFLATERS.get(level + 1);
+        Deflater deflater = deflaters.poll();
+        if (deflater == null) {
+            deflater = new Deflater(level, true);
+        }
+        try {
+            return deflateBlock(deflater, data, length, dictionary, last);
+        } finally {
+            deflater.reset();
+            if (!deflaters.offer(deflater)) {
+                deflater.end();
+            }
+        }
+    }
+
+    private static byte[] deflateBlock(Deflater deflater, byte[] data, int length, byte[] dictionary, boolean last) {
+        if (dictionary != null) {
+            deflater.setDictionary(dictionary);
+        }
+        deflater.setInput(data, 0, length);
+        if (last) {
+            deflater.finish();
+        }
+        byte[] output = new byte[length + (length >> 3) + 64];
+        int outputLength = 0;
+        while (true) {
+            int count = deflater.deflate(output, outputLength, output.length - outputLength,
+                    last ? Deflater.NO_FLUSH : Deflater.SYNC_FLUSH);
+            outputLength += count;
+            if (last ? deflater.finished() : deflater.needsInput() && outputLength < output.length) {
+                break;
+            }
+            if (outputLength == output.length) {
+                output = Arrays.copyOf(output, output.length * 2);
+            }
+        }
+        return Arrays.copyOf(output, outputLength);
+    }
+
+    /**
+     * Holder of the default pool, which is only created once an archive is written with it.
+     */
+    private static final class DefaultPoolHolder {
+        private static final ForkJoinPool POOL = new ForkJoinPool(Runtime.getRuntime().availableProcessors(),
+                pool -> {
+                    ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+                    thread.setName("tablevert-zip-deflater-" + thread.getPoolIndex());
+                    thread.setDaemon(true);
+                    return thread;
+                }, null, false);
+    }
+
+    /**
+     * Size and checksum data of a written entry, as needed for the data descriptor and central directory.
+     */
+    private static final class EntryRecord {
+        private final byte[] name;
+        private final long offset;
+        private long crc;
+        private long size;
+        private long compressedSize;
+
+        private EntryRecord(byte[] name, long offset) {
+            this.name = name;
+            this.offset = offset;
+        }
+
+        private boolean needsZip64Sizes() {
+            return size >= ZIP64_LIMIT || compressedSize >= ZIP64_LIMIT;
+        }
+    }
+
+    /**
+     * Collects the data of an entry into blocks and writes the deflated blocks in order.
+     * Up to twice the pool's parallelism of blocks are deflated at the same time.
+     */
+    private final class EntryOutputStream extends OutputStream {
+        private final EntryRecord entry;
+        private final CRC32 crc;
+        private final Deque<CompletableFuture<byte[]>> pendingBlocks;
+        private byte[] block;
+        private int blockLength;
+        private byte[] dictionary;
+
+        private EntryOutputStream(EntryRecord entry) {
+            this.entry = entry;
+            this.crc = new CRC32();
+            this.pendingBlocks = new ArrayDeque<>();
+            this.block = new byte[BLOCK_SIZE];
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            if (blockLength == BLOCK_SIZE) {
+                submitBlock(false);
+            }
+            block[blockLength++] = (byte) b;
+        }
+
+        @Override
+        public void write(byte[] bytes, int offset, int length) throws IOException {
+            while (length > 0) {
+                if (blockLength == BLOCK_SIZE) {
+                    submitBlock(false);
+                }
+                int count = Math.min(length, BLOCK_SIZE - blockLength);
+                System.arraycopy(bytes, offset, block, blockLength, count);
+                blockLength += count;
+                offset += count;
+                length -= count;
+            }
+        }
+
+        private void complete() throws IOException {
+            submitBlock(true);
+            while (!pendingBlocks.isEmpty()) {
+                writeBlock(pendingBlocks.removeFirst());
+            }
+            entry.crc = crc.getValue();
+        }
+
+        private void submitBlock(boolean last) throws IOException {
+            byte[] data = block;
+            int length = blockLength;
+            byte[] blockDictionary = dictionary;
+            crc.update(data, 0, length);
+            entry.size += length;
+            if (!last) {
+                dictionary = Arrays.copyOfRange(data, length - DICTIONARY_SIZE, length);
+                block = new byte[BLOCK_SIZE];
+                blockLength = 0;
+            }
+            if (maxPendingBlocks == 0 || (last && pendingBlocks.isEmpty())) {
+                writeBlock(CompletableFuture.completedFuture(deflateBlock(data, length, blockDictionary, last, level)));
+                return;
+            }
+            pendingBlocks.addLast(CompletableFuture.supplyAsync(
+                    () -> deflateBlock(data, length, blockDictionary, last, level), pool));
+            while (pendingBlocks.size() > maxPendingBlocks) {
+                writeBlock(pendingBlocks.removeFirst());
+            }
+        }
+
+        private void writeBlock(CompletableFuture<byte[]> pendingBlock) throws IOException {
+            byte[] deflated;
+            try {
+                deflated = pendingBlock.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted while deflating ZIP entry", e);
+            } catch (ExecutionException e) {
+                throw new IOException("Failed to deflate ZIP entry", e.getCause());
+            }
+            writeBytes(deflated, 0, deflated.length);
+            entry.compressedSize += deflated.length;
+        }
+    }
+
+}
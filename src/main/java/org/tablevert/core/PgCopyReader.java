@@ -0,0 +1,347 @@
+/*
+ * Copyright 2019 conis Informationssysteme GmbH
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.tablevert.core;
+
+import org.postgresql.PGConnection;
+import org.postgresql.PGStatement;
+import org.postgresql.copy.PGCopyInputStream;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.OffsetDateTime;
+import java.time.OffsetTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeFormatterBuilder;
+import java.time.temporal.ChronoField;
+import java.time.temporal.TemporalAccessor;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads the CSV output of a PostgreSQL {@code COPY ... TO STDOUT} command into the column vectors of a
+ * {@link DataGrid.Builder}.
+ * The column types are determined once from the statement's metadata, and each column's text values are
+ * parsed straight into the column vector, as the Java class the JDBC driver would have returned;
+ * integers are parsed from the read characters without creating a string.
+ * PostgreSQL's special values are mapped as the driver maps them: {@code NaN} and {@code ±Infinity} of floating
+ * point and numeric columns to the respective double, and {@code ±infinity} of date and timestamp columns to
+ * {@link PGStatement#DATE_POSITIVE_INFINITY} and {@link PGStatement#DATE_NEGATIVE_INFINITY}.
+ * Any other value which cannot be parsed, e.g. a date before Christ, fails the read.
+ */
+final class PgCopyReader implements AutoCloseable {
+
+    private static final int BUFFER_SIZE = 65536;
+
+    private static final DateTimeFormatter TIME_FORMATTER = new DateTimeFormatterBuilder()
+            .appendPattern("HH:mm:ss")
+            .optionalStart()
+            .appendFraction(ChronoField.NANO_OF_SECOND, 0, 9, true)
+            .optionalEnd()
+            .optionalStart()
+            .appendOffset("+HH:mm", "+00")
+            .optionalEnd()
+            .toFormatter();
+
+    private static final DateTimeFormatter TIMESTAMP_FORMATTER = new DateTimeFormatterBuilder()
+            .appendPattern("yyyy-MM-dd HH:mm:ss")
+            .optionalStart()
+            .appendFraction(ChronoField.NANO_OF_SECOND, 0, 9, true)
+            .optionalEnd()
+            .optionalStart()
+            .appendOffset("+HH:mm", "+00")
+            .optionalEnd()
+            .toFormatter();
+
+    private final Reader reader;
+    private final List<DataGridColumn> columns;
+    private final FieldParser[] parsers;
+    private final char[] buffer;
+    private final StringBuilder field;
+    private int position;
+    private int limit;
+
+    /**
+     * Creates the reader.
+     *
+     * @param reader the CSV output of the copy command
+     * @param columns the columns of the copied query
+     */
+    PgCopyReader(Reader reader, List<DataGridColumn> columns) {
+        this.reader = reader;
+        this.columns = columns;
+        this.parsers = new FieldParser[columns.size()];
+        for (int i = 0; i < parsers.length; i++) {
+            parsers[i] = selectParser(columns.get(i).getJavaClassName());
+        }
+        this.buffer = new char[BUFFER_SIZE];
+        this.field = new StringBuilder();
+    }
+
+    /**
+     * Starts the bulk copy of the statement on the connection.
+     *
+     * @param connection the connection to a PostgreSQL database
+     * @param statement the statement composed for bulk copy
+     * @return the reader of the copied rows
+     * @throws SQLException if describing the statement or starting the copy fails
+     */
+    static PgCopyReader open(Connection connection, JdbcQueryStatement statement) throws SQLException {
+        List<DataGridColumn> columns;
+        try (PreparedStatement preparedStatement = statement.prepare(connection)) {
+            ResultSetMetaData metaData = preparedStatement.getMetaData();
+            columns = new JdbcResultSetExtractor(metaData).getColumns();
+        }
+        PGCopyInputStream copyStream = new PGCopyInputStream(connection.unwrap(PGConnection.class),
+                statement.getBulkCopySql());
+        return new PgCopyReader(new InputStreamReader(copyStream, StandardCharsets.UTF_8), columns);
+    }
+
+    List<DataGridColumn> getColumns() {
+        List<DataGridColumn> clones = new ArrayList<>();
+        columns.forEach(column -> clones.add(column.clone()));
+        return clones;
+    }
+
+    /**
+     * Reads the next row and appends its values to the builder, leaving it to the caller to complete the row.
+     * In the CSV format, an unquoted empty value denotes {@code NULL}, whereas an empty string is quoted.
+     *
+     * @param rowNumber the number of the row, for error messages
+     * @param builder the builder of the grid to fill
+     * @return {@code false} at the end of the copied data
+     * @throws IOException if reading fails or the data is malformed
+     * @throws DatabaseReaderException if a value cannot be parsed into the column's type
+     */
+    boolean nextRow(long rowNumber, DataGrid.Builder builder) throws IOException, DatabaseReaderException {
+        if (position >= limit && !fillBuffer()) {
+            return false;
+        }
+        int colIndex = 0;
+        int delimiter;
+        do {
+            field.setLength(0);
+            int c = read();
+            boolean quoted = c == '"';
+            if (quoted) {
+                c = readQuotedField();
+            } else {
+                while (c != ',' && c != '\n' && c != '\r' && c != -1) {
+                    field.append((char) c);
+                    c = read();
+                }
+            }
+            if (colIndex >= columns.size()) {
+                throw new IOException("Copied row no. " + rowNumber + " has more values than columns");
+            }
+            if (quoted || field.length() > 0) {
+                parseField(rowNumber, colIndex, builder);
+            } else {
+                builder.appendNull(colIndex);
+            }
+            colIndex++;
+            delimiter = c;
+        } while (delimiter == ',');
+        if (delimiter == '\r' && (position < limit || fillBuffer()) && buffer[position] == '\n') {
+            position++;
+        }
+        if (colIndex != columns.size()) {
+            throw new IOException("Copied row no. " + rowNumber + " has fewer values than columns");
+        }
+        return true;
+    }
+
+    private void parseField(long rowNumber, int colIndex, DataGrid.Builder builder) throws DatabaseReaderException {
+        try {
+            parsers[colIndex].parse(field, builder, colIndex);
+        } catch (RuntimeException e) {
+            throw new DatabaseReaderException("Invalid value [" + field + "] in column ["
+                    + columns.get(colIndex).getName() + "] of copied row no. " + rowNumber + ": " + e.getMessage());
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    private int readQuotedField() throws IOException {
+        while (true) {
+            int c = read();
+            if (c == -1) {
+                throw new IOException("Unterminated quoted value in copied data");
+            }
+            if (c == '"') {
+                c = read();
+                if (c != '"') {
+                    return c;
+                }
+            }
+            field.append((char) c);
+        }
+    }
+
+    private int read() throws IOException {
+        if (position >= limit && !fillBuffer()) {
+            return -1;
+        }
+        return buffer[position++];
+    }
+
+    private boolean fillBuffer() throws IOException {
+        int count = reader.read(buffer, 0, buffer.length);
+        position = 0;
+        limit = Math.max(count, 0);
+        return count > 0;
+    }
+
+    /**
+     * Parses the text of a non-null field and appends the value to the column's vector.
+     * Throws a runtime exception if the text is not a valid value of the column's type.
+     */
+    private interface FieldParser {
+        void parse(CharSequence text, DataGrid.Builder builder, int colIndex);
+    }
+
+    private static FieldParser selectParser(String javaClassName) {
+        if (javaClassName == null) {
+            return (text, builder, colIndex) -> builder.appendValue(colIndex, text.toString());
+        }
+        switch (javaClassName) {
+            case "java.lang.Integer":
+                return (text, builder, colIndex) -> builder.appendInt(colIndex, Math.toIntExact(parseLong(text)));
+            case "java.lang.Long":
+                return (text, builder, colIndex) -> builder.appendLong(colIndex, parseLong(text));
+            case "java.lang.Short":
+                return (text, builder, colIndex) -> builder.appendValue(colIndex, Short.valueOf(text.toString()));
+            case "java.lang.Double":
+                return (text, builder, colIndex) -> builder.appendDouble(colIndex, parseDouble(text.toString()));
+            case "java.lang.Float":
+                return (text, builder, colIndex) -> builder.appendValue(colIndex, (float) parseDouble(text.toString()));
+            case "java.math.BigDecimal":
+                return (text, builder, colIndex) -> builder.appendValue(colIndex, parseNumeric(text.toString()));
+            case "java.lang.Boolean":
+                return (text, builder, colIndex) -> builder.appendValue(colIndex, parseBoolean(text.toString()));
+            case "java.sql.Date":
+                return (text, builder, colIndex) -> builder.appendValue(colIndex, parseDate(text.toString()));
+            case "java.sql.Time":
+                return (text, builder, colIndex) -> builder.appendValue(colIndex, parseTime(text.toString()));
+            case "java.sql.Timestamp":
+                return (text, builder, colIndex) -> builder.appendValue(colIndex, parseTimestamp(text.toString()));
+            default:
+                return (text, builder, colIndex) -> builder.appendValue(colIndex, text.toString());
+        }
+    }
+
+    /**
+     * Parses a decimal integer from the characters, without creating a string.
+     */
+    private static long parseLong(CharSequence text) {
+        int length = text.length();
+        boolean negative = length > 0 && text.charAt(0) == '-';
+        int start = negative ? 1 : 0;
+        if (start == length) {
+            throw new NumberFormatException("not an integer");
+        }
+        long value = 0;
+        for (int i = start; i < length; i++) {
+            int digit = text.charAt(i) - '0';
+            if (digit < 0 || digit > 9) {
+                throw new NumberFormatException("not an integer");
+            }
+            value = Math.addExact(Math.multiplyExact(value, 10), negative ? -digit : digit);
+        }
+        return value;
+    }
+
+    private static double parseDouble(String text) {
+        switch (text) {
+            case "NaN":
+                return Double.NaN;
+            case "Infinity":
+                return Double.POSITIVE_INFINITY;
+            case "-Infinity":
+                return Double.NEGATIVE_INFINITY;
+            default:
+                return Double.parseDouble(text);
+        }
+    }
+
+    /**
+     * Parses a numeric value; the special values, which a big decimal cannot hold, are returned as doubles.
+     */
+    private static Number parseNumeric(String text) {
+        switch (text) {
+            case "NaN":
+            case "Infinity":
+            case "-Infinity":
+                return parseDouble(text);
+            default:
+                return new BigDecimal(text);
+        }
+    }
+
+    private static Boolean parseBoolean(String text) {
+        switch (text) {
+            case "t":
+                return Boolean.TRUE;
+            case "f":
+                return Boolean.FALSE;
+            default:
+                throw new IllegalArgumentException("not a boolean");
+        }
+    }
+
+    private static Date parseDate(String text) {
+        switch (text) {
+            case "infinity":
+                return new Date(PGStatement.DATE_POSITIVE_INFINITY);
+            case "-infinity":
+                return new Date(PGStatement.DATE_NEGATIVE_INFINITY);
+            default:
+                return Date.valueOf(LocalDate.parse(text));
+        }
+    }
+
+    /**
+     * Parses a time; a time with time zone is taken as the instant of that time on 1970-01-01.
+     */
+    private static Time parseTime(String text) {
+        TemporalAccessor parsed = TIME_FORMATTER.parseBest(text, OffsetTime::from, LocalTime::from);
+        if (parsed instanceof OffsetTime) {
+            return new Time(((OffsetTime) parsed).atDate(LocalDate.of(1970, 1, 1)).toInstant().toEpochMilli());
+        }
+        return Time.valueOf((LocalTime) parsed);
+    }
+
+    private static Timestamp parseTimestamp(String text) {
+        switch (text) {
+            case "infinity":
+                return new Timestamp(PGStatement.DATE_POSITIVE_INFINITY);
+            case "-infinity":
+                return new Timestamp(PGStatement.DATE_NEGATIVE_INFINITY);
+            default:
+                TemporalAccessor parsed = TIMESTAMP_FORMATTER.parseBest(text, OffsetDateTime::from, LocalDateTime::from);
+                if (parsed instanceof OffsetDateTime) {
+                    return Timestamp.from(((OffsetDateTime) parsed).toInstant());
+                }
+                return Timestamp.valueOf((LocalDateTime) parsed);
+        }
+    }
+
+}
@@ -0,0 +1,29 @@
+/*
+ * Copyright 2019 conis Informationssysteme GmbH
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.tablevert.core;
+
+/**
+ * {@link DataGridRowConsumer} generating an {@link Output} directly from the streamed rows,
+ * without collecting them in a {@link DataGrid}.
+ */
+interface StreamingOutputConsumer extends DataGridRowConsumer {
+
+    /**
+     * Gets the output generated from the streamed rows.
+     *
+     * @return the generated output
+     * @throws OutputGeneratorException if the output cannot be completed
+     */
+    Output getOutput() throws OutputGeneratorException;
+
+    /**
+     * Releases the resources held while generating, e.g. temporary files.
+     * Called if streaming has failed; once the output has been retrieved, the resources belong to the output.
+     */
+    default void release() {
+    }
+
+}
@@ -22,4 +22,25 @@ public interface Tableverter {
      */
     Output tablevert(AppliedQuery appliedQuery, OutputFormat outputFormat) throws TablevertCoreException;
 
+    /**
+     * Retrieves source table data and converts it to the requested format, applying the given output options.
+     * Implementations not supporting output options only accept the {@link OutputOptions#defaults() defaults},
+     * for which the conversion is delegated to {@link #tablevert(AppliedQuery, OutputFormat)}.
+     *
+     * @param appliedQuery query with context-related filtering and sorting
+     * @param outputFormat format expected for the tableversion's output
+     * @param outputOptions options controlling the output generation
+     * @return the converted table
+     * @throws TablevertCoreException exception related to Tablevert core functionality
+     * @throws UnsupportedOperationException if the implementation does not support other than the default options
+     */
+    default Output tablevert(AppliedQuery appliedQuery, OutputFormat outputFormat, OutputOptions outputOptions)
+            throws TablevertCoreException {
+        if (!OutputOptions.defaults().equals(outputOptions)) {
+            throw new UnsupportedOperationException("Output options not supported by ["
+                    + getClass().getSimpleName() + "]");
+        }
+        return tablevert(appliedQuery, outputFormat);
+    }
+
 }
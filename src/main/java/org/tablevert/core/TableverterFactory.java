@@ -14,12 +14,15 @@ public class TableverterFactory {
 
     /**
      * Creates a {@link DatabaseTableverter} object for the specified configuration.
+     * The connection pools of the configured databases are warmed up before the instance is returned.
      *
      * @param config the configuration to apply
      * @return the Tableverter instance
      */
     public Tableverter createDatabaseTableverterFor(TablevertConfig config) {
-        return new DatabaseTableverter(config);
+        DatabaseTableverter tableverter = new DatabaseTableverter(config);
+        tableverter.warmUpConnectionPools();
+        return tableverter;
     }
 
 }
@@ -0,0 +1,137 @@
+/*
+ * Copyright 2019 conis Informationssysteme GmbH
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.tablevert.core;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.Date;
+
+/**
+ * Locale-independent text representation of grid values, shared by the text-based writers so that they
+ * render numbers and dates alike: numbers in plain decimal notation with a dot as decimal separator,
+ * dates and times in ISO 8601 notation.
+ */
+final class TextValues {
+
+    private static final double MAX_EXACT_WHOLE_NUMBER = 1e15;
+
+    private TextValues() {
+    }
+
+    /**
+     * Checks whether a value is written as number.
+     *
+     * @param value the value, not {@code null}
+     * @return {@code true} for numbers
+     */
+    static boolean isNumber(Object value) {
+        return value instanceof Number;
+    }
+
+    /**
+     * Appends a number. Whole floating-point numbers are written without fraction, and big decimals without exponent.
+     *
+     * @param buffer the buffer to write to
+     * @param number the number
+     * @throws IOException if the buffered bytes cannot be written
+     */
+    static void appendNumber(Utf8OutputBuffer buffer, Number number) throws IOException {
+        if (number instanceof Integer || number instanceof Long || number instanceof Short || number instanceof Byte) {
+            buffer.append(number.longValue());
+        } else if (number instanceof Float) {
+            appendFloat(buffer, number.floatValue());
+        } else if (number instanceof Double) {
+            appendDouble(buffer, number.doubleValue());
+        } else if (number instanceof BigDecimal) {
+            buffer.appendAscii(((BigDecimal) number).toPlainString());
+        } else {
+            buffer.appendAscii(number.toString());
+        }
+    }
+
+    /**
+     * Appends a floating-point number in plain decimal notation, whole numbers without fraction.
+     * Non-finite numbers, which have no decimal notation, are written as {@code NaN}, {@code Infinity}
+     * or {@code -Infinity}.
+     *
+     * @param buffer the buffer to write to
+     * @param number the number
+     * @throws IOException if the buffered bytes cannot be written
+     */
+    static void appendDouble(Utf8OutputBuffer buffer, double number) throws IOException {
+        if (number == (long) number && Math.abs(number) < MAX_EXACT_WHOLE_NUMBER) {
+            buffer.append((long) number);
+        } else if (Double.isNaN(number) || Double.isInfinite(number)) {
+            buffer.appendAscii(Double.toString(number));
+        } else {
+            buffer.appendAscii(BigDecimal.valueOf(number).stripTrailingZeros().toPlainString());
+        }
+    }
+
+    /**
+     * Appends a single-precision floating-point number in plain decimal notation, whole numbers without fraction.
+     * The digits are those of the float itself, which widening it to a double would extend by spurious digits,
+     * e.g. {@code 0.10000000149011612} for {@code 0.1f}.
+     * Non-finite numbers are written as {@code NaN}, {@code Infinity} or {@code -Infinity}.
+     *
+     * @param buffer the buffer to write to
+     * @param number the number
+     * @throws IOException if the buffered bytes cannot be written
+     */
+    static void appendFloat(Utf8OutputBuffer buffer, float number) throws IOException {
+        if (Float.isNaN(number) || Float.isInfinite(number)) {
+            buffer.appendAscii(Float.toString(number));
+        } else {
+            buffer.appendAscii(new BigDecimal(Float.toString(number)).stripTrailingZeros().toPlainString());
+        }
+    }
+
+    /**
+     * Converts a value other than a number into text, using ISO 8601 notation for dates and times.
+     * Dates without time zone are rendered in the default time zone, as in XLSX output.
+     *
+     * @param value the value, not {@code null}
+     * @return the text
+     */
+    static String toText(Object value) {
+        if (value instanceof String) {
+            return (String) value;
+        }
+        if (value instanceof java.sql.Date) {
+            return DateTimeFormatter.ISO_LOCAL_DATE.format(((java.sql.Date) value).toLocalDate());
+        }
+        if (value instanceof java.sql.Time) {
+            return DateTimeFormatter.ISO_LOCAL_TIME.format(((java.sql.Time) value).toLocalTime());
+        }
+        if (value instanceof java.sql.Timestamp) {
+            return DateTimeFormatter.ISO_LOCAL_DATE_TIME.format(((java.sql.Timestamp) value).toLocalDateTime());
+        }
+        if (value instanceof Date) {
+            return DateTimeFormatter.ISO_LOCAL_DATE_TIME.format(
+                    LocalDateTime.ofInstant(((Date) value).toInstant(), ZoneId.systemDefault()));
+        }
+        if (value instanceof LocalDate) {
+            return DateTimeFormatter.ISO_LOCAL_DATE.format((LocalDate) value);
+        }
+        if (value instanceof LocalTime) {
+            return DateTimeFormatter.ISO_LOCAL_TIME.format((LocalTime) value);
+        }
+        if (value instanceof LocalDateTime) {
+            return DateTimeFormatter.ISO_LOCAL_DATE_TIME.format((LocalDateTime) value);
+        }
+        if (value instanceof OffsetDateTime) {
+            return DateTimeFormatter.ISO_OFFSET_DATE_TIME.format((OffsetDateTime) value);
+        }
+        return value.toString();
+    }
+
+}
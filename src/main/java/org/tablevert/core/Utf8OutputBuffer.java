@@ -0,0 +1,243 @@
+/*
+ * Copyright 2019 conis Informationssysteme GmbH
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.tablevert.core;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Reusable byte buffer encoding text as UTF-8 on the fly, for writers which generate markup directly as bytes.
+ * The buffer is written to the target stream whenever it is full and on {@link #flush()};
+ * it can be reused for another target after flushing.
+ */
+final class Utf8OutputBuffer {
+
+    static final int DEFAULT_CAPACITY = 64 * 1024;
+
+    private final byte[] buffer;
+    private OutputStream target;
+    private int position;
+
+    Utf8OutputBuffer() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    Utf8OutputBuffer(int capacity) {
+        this.buffer = new byte[Math.max(capacity, 16)];
+    }
+
+    /**
+     * Sets the stream to write the buffered bytes to.
+     *
+     * @param target the target stream
+     * @return the buffer
+     */
+    Utf8OutputBuffer writingTo(OutputStream target) {
+        this.target = target;
+        this.position = 0;
+        return this;
+    }
+
+    /**
+     * Appends text consisting of ASCII characters only, e.g. markup, without encoding checks.
+     *
+     * @param ascii the ASCII text
+     * @return the buffer
+     * @throws IOException if the buffered bytes cannot be written
+     */
+    Utf8OutputBuffer appendAscii(String ascii) throws IOException {
+        int length = ascii.length();
+        for (int i = 0; i < length; i++) {
+            if (position == buffer.length) {
+                drain();
+            }
+            buffer[position++] = (byte) ascii.charAt(i);
+        }
+        return this;
+    }
+
+    /**
+     * Appends bytes which are already encoded, e.g. pre-rendered markup.
+     *
+     * @param bytes the UTF-8 encoded bytes
+     * @return the buffer
+     * @throws IOException if the buffered bytes cannot be written
+     */
+    Utf8OutputBuffer appendBytes(byte[] bytes) throws IOException {
+        if (bytes.length > buffer.length - position) {
+            drain();
+            if (bytes.length > buffer.length) {
+                target.write(bytes);
+                return this;
+            }
+        }
+        System.arraycopy(bytes, 0, buffer, position, bytes.length);
+        position += bytes.length;
+        return this;
+    }
+
+    /**
+     * Appends a single character.
+     * Surrogates are expected to be appended through {@link #append(CharSequence, int, int)}
+     * and are replaced by '?' if appended alone.
+     *
+     * @param c the character
+     * @return the buffer
+     * @throws IOException if the buffered bytes cannot be written
+     */
+    Utf8OutputBuffer append(char c) throws IOException {
+        if (buffer.length - position < 3) {
+            drain();
+        }
+        if (c < 0x80) {
+            buffer[position++] = (byte) c;
+        } else if (c < 0x800) {
+            buffer[position++] = (byte) (0xC0 | (c >> 6));
+            buffer[position++] = (byte) (0x80 | (c & 0x3F));
+        } else if (Character.isSurrogate(c)) {
+            buffer[position++] = '?';
+        } else {
+            buffer[position++] = (byte) (0xE0 | (c >> 12));
+            buffer[position++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+            buffer[position++] = (byte) (0x80 | (c & 0x3F));
+        }
+        return this;
+    }
+
+    /**
+     * Appends text, encoding it as UTF-8.
+     *
+     * @param text the text
+     * @return the buffer
+     * @throws IOException if the buffered bytes cannot be written
+     */
+    Utf8OutputBuffer append(CharSequence text) throws IOException {
+        return append(text, 0, text.length());
+    }
+
+    /**
+     * Appends a part of a text, encoding it as UTF-8.
+     *
+     * @param text the text
+     * @param start the index of the first character to append
+     * @param end the index after the last character to append
+     * @return the buffer
+     * @throws IOException if the buffered bytes cannot be written
+     */
+    Utf8OutputBuffer append(CharSequence text, int start, int end) throws IOException {
+        for (int i = start; i < end; i++) {
+            char c = text.charAt(i);
+            if (c < 0x80) {
+                if (position == buffer.length) {
+                    drain();
+                }
+                buffer[position++] = (byte) c;
+            } else if (Character.isHighSurrogate(c) && i + 1 < end && Character.isLowSurrogate(text.charAt(i + 1))) {
+                appendCodePoint(Character.toCodePoint(c, text.charAt(++i)));
+            } else {
+                append(c);
+            }
+        }
+        return this;
+    }
+
+    /**
+     * Appends text, encoding it as UTF-8 and replacing ASCII characters as given by a table, in a single pass.
+     *
+     * @param text the text
+     * @param asciiReplacements the replacements indexed by character, with 128 entries; {@code null} entries
+     *                          keep the character
+     * @return the buffer
+     * @throws IOException if the buffered bytes cannot be written
+     */
+    Utf8OutputBuffer appendEscaped(CharSequence text, String[] asciiReplacements) throws IOException {
+        int end = text.length();
+        for (int i = 0; i < end; i++) {
+            char c = text.charAt(i);
+            if (c < 0x80) {
+                String replacement = asciiReplacements[c];
+                if (replacement != null) {
+                    appendAscii(replacement);
+                    continue;
+                }
+                if (position == buffer.length) {
+                    drain();
+                }
+                buffer[position++] = (byte) c;
+            } else if (Character.isHighSurrogate(c) && i + 1 < end && Character.isLowSurrogate(text.charAt(i + 1))) {
+                appendCodePoint(Character.toCodePoint(c, text.charAt(++i)));
+            } else {
+                append(c);
+            }
+        }
+        return this;
+    }
+
+    /**
+     * Appends the decimal representation of a number.
+     *
+     * @param value the number
+     * @return the buffer
+     * @throws IOException if the buffered bytes cannot be written
+     */
+    Utf8OutputBuffer append(long value) throws IOException {
+        if (buffer.length - position < 20) {
+            drain();
+        }
+        if (value == Long.MIN_VALUE) {
+            return appendAscii(Long.toString(value));
+        }
+        if (value < 0) {
+            buffer[position++] = '-';
+            value = -value;
+        }
+        int end = position + digitCount(value);
+        int index = end;
+        do {
+            buffer[--index] = (byte) ('0' + (value % 10));
+            value /= 10;
+        } while (value > 0);
+        position = end;
+        return this;
+    }
+
+    /**
+     * Writes the buffered bytes to the target stream and flushes it.
+     *
+     * @throws IOException if the bytes cannot be written
+     */
+    void flush() throws IOException {
+        drain();
+        target.flush();
+    }
+
+    private void appendCodePoint(int codePoint) throws IOException {
+        if (buffer.length - position < 4) {
+            drain();
+        }
+        buffer[position++] = (byte) (0xF0 | (codePoint >> 18));
+        buffer[position++] = (byte) (0x80 | ((codePoint >> 12) & 0x3F));
+        buffer[position++] = (byte) (0x80 | ((codePoint >> 6) & 0x3F));
+        buffer[position++] = (byte) (0x80 | (codePoint & 0x3F));
+    }
+
+    private void drain() throws IOException {
+        if (position > 0) {
+            target.write(buffer, 0, position);
+            position = 0;
+        }
+    }
+
+    private static int digitCount(long value) {
+        int digits = 1;
+        while (value >= 10) {
+            value /= 10;
+            digits++;
+        }
+        return digits;
+    }
+
+}
@@ -0,0 +1,122 @@
+/*
+ * Copyright 2019 conis Informationssysteme GmbH
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.tablevert.core;
+
+import org.apache.poi.ss.usermodel.DateUtil;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.util.Date;
+
+/**
+ * Conversion of grid values into XLSX cell values and number formats, shared by the XLSX writers
+ * so that they produce equivalent cells.
+ */
+final class XlsxCellValues {
+
+    static final String FORMAT_GENERAL = "General";
+    static final String FORMAT_INTEGER = "0";
+    static final String FORMAT_DATE = "yyyy-mm-dd";
+    static final String FORMAT_TIME = "hh:mm:ss";
+    static final String FORMAT_TIMESTAMP = "yyyy-mm-dd hh:mm:ss";
+
+    private static final long NANOS_PER_DAY = 86400L * 1000000000L;
+    private static final int MAX_EXACT_DIGITS = 15;
+
+    private XlsxCellValues() {
+    }
+
+    /**
+     * Gets the number format of the cells of a column.
+     *
+     * @param javaClassName the Java class name of the column values
+     * @return the number format
+     */
+    static String numberFormatFor(String javaClassName) {
+        if (javaClassName == null) {
+            return FORMAT_GENERAL;
+        }
+        switch (javaClassName) {
+            case "java.lang.Byte":
+            case "java.lang.Short":
+            case "java.lang.Integer":
+            case "java.lang.Long":
+            case "java.math.BigInteger":
+                return FORMAT_INTEGER;
+            case "java.sql.Date":
+            case "java.time.LocalDate":
+                return FORMAT_DATE;
+            case "java.sql.Time":
+            case "java.time.LocalTime":
+                return FORMAT_TIME;
+            case "java.sql.Timestamp":
+            case "java.util.Date":
+            case "java.time.LocalDateTime":
+            case "java.time.OffsetDateTime":
+                return FORMAT_TIMESTAMP;
+            default:
+                return FORMAT_GENERAL;
+        }
+    }
+
+    /**
+     * Converts a value into the number of a native numeric or date cell.
+     * Dates and times are converted into Excel's serial date numbers; dates with offset are shown in the
+     * default time zone, like dates without time zone.
+     * Big decimals and big integers with more significant digits than Excel keeps, i.e. 15, are written as
+     * strings, so that no digits are lost.
+     *
+     * @param value the value, not {@code null}
+     * @return the number, or {@code NaN} if the value has to be written as a string, which applies to
+     * strings, non-finite numbers, numbers exceeding 15 significant digits, dates before 1900 and values
+     * of other types
+     */
+    static double toNumber(Object value) {
+        if (value instanceof BigDecimal || value instanceof BigInteger) {
+            BigDecimal decimal = value instanceof BigDecimal ? (BigDecimal) value : new BigDecimal((BigInteger) value);
+            return decimal.stripTrailingZeros().precision() > MAX_EXACT_DIGITS ? Double.NaN : decimal.doubleValue();
+        }
+        if (value instanceof Number) {
+            double number = ((Number) value).doubleValue();
+            return Double.isInfinite(number) ? Double.NaN : number;
+        }
+        if (value instanceof LocalTime) {
+            return ((LocalTime) value).toNanoOfDay() / (double) NANOS_PER_DAY;
+        }
+        if (value instanceof java.sql.Time) {
+            return ((java.sql.Time) value).toLocalTime().toNanoOfDay() / (double) NANOS_PER_DAY;
+        }
+        Date date = toDate(value);
+        if (date == null) {
+            return Double.NaN;
+        }
+        double excelDate = DateUtil.getExcelDate(date);
+        return excelDate < 0 ? Double.NaN : excelDate;
+    }
+
+    private static Date toDate(Object value) {
+        if (value instanceof Date) {
+            return (Date) value;
+        }
+        if (value instanceof LocalDate) {
+            return java.sql.Date.valueOf((LocalDate) value);
+        }
+        if (value instanceof LocalDateTime) {
+            return Timestamp.valueOf((LocalDateTime) value);
+        }
+        if (value instanceof OffsetDateTime) {
+            return Timestamp.valueOf(((OffsetDateTime) value).atZoneSameInstant(ZoneId.systemDefault()).toLocalDateTime());
+        }
+        return null;
+    }
+
+}
@@ -0,0 +1,159 @@
+/*
+ * Copyright 2019 conis Informationssysteme GmbH
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.tablevert.core;
+
+import org.apache.poi.ss.usermodel.Sheet;
+
+import java.util.Arrays;
+
+/**
+ * Estimates XLSX column widths from the number of characters of the written values, replacing the
+ * measurement of every cell through font metrics.
+ * Values are observed while the cells are written, optionally for a sample of the rows only;
+ * the widths are then applied in a single pass over the columns.
+ */
+final class XlsxColumnWidthEstimator {
+
+    static final int DEFAULT_MAX_WIDTH = 80;
+
+    private static final int DATE_WIDTH = 10;
+    private static final int TIMESTAMP_WIDTH = 19;
+    private static final int DOUBLE_WIDTH = 11;
+    private static final int PADDING = 2;
+    private static final int EXCEL_MAX_WIDTH = 255;
+
+    private final int sampleInterval;
+    private final int maxWidth;
+    private int[] widths;
+
+    /**
+     * Creates the estimator.
+     *
+     * @param sampleInterval the distance of the sampled rows; 1 observes every row
+     * @param maxWidth the maximum column width in characters
+     */
+    XlsxColumnWidthEstimator(int sampleInterval, int maxWidth) {
+        this.sampleInterval = Math.max(1, sampleInterval);
+        this.maxWidth = Math.min(maxWidth, EXCEL_MAX_WIDTH);
+        this.widths = new int[16];
+    }
+
+    /**
+     * @param rowIndex the index of a data row
+     * @return {@code true} if the values of the row are to be observed
+     */
+    boolean samples(int rowIndex) {
+        return rowIndex % sampleInterval == 0;
+    }
+
+    /**
+     * Observes a written value.
+     *
+     * @param colIndex the column index of the cell
+     * @param value the cell value, not {@code null}
+     */
+    void observe(int colIndex, Object value) {
+        observeWidth(colIndex, estimateWidth(value));
+    }
+
+    /**
+     * Observes the width of a written text, e.g. of a column header.
+     *
+     * @param colIndex the column index of the cell
+     * @param text the cell text
+     */
+    void observeText(int colIndex, String text) {
+        observeWidth(colIndex, text.length());
+    }
+
+    /**
+     * Observes all values of a dictionary-encoded column at once, since each distinct value is written at least once.
+     *
+     * @param colIndex the column index
+     * @param vector the dictionary vector of the column
+     */
+    void observeDictionary(int colIndex, DataGridColumnVector.DictionaryVector vector) {
+        for (int code = 0; code < vector.getDictionarySize(); code++) {
+            observeWidth(colIndex, vector.getDictionaryValue(code).length());
+        }
+    }
+
+    /**
+     * Sets the widths of all observed columns.
+     *
+     * @param sheet the sheet to set the column widths on
+     */
+    void applyTo(Sheet sheet) {
+        for (int i = 0; i < widths.length; i++) {
+            if (widths[i] > 0) {
+                sheet.setColumnWidth(i, getColumnWidth(i) * 256);
+            }
+        }
+    }
+
+    /**
+     * @param colIndex the column index
+     * @return the width to set for the column in characters, including padding and limited to the maximum width,
+     * or 0 if no value of the column has been observed
+     */
+    int getColumnWidth(int colIndex) {
+        int width = getWidth(colIndex);
+        return width > 0 ? Math.min(width + PADDING, maxWidth) : 0;
+    }
+
+    /**
+     * @return the number of columns which may have an observed width
+     */
+    int getColumnCount() {
+        return widths.length;
+    }
+
+    int getWidth(int colIndex) {
+        return colIndex < widths.length ? widths[colIndex] : 0;
+    }
+
+    private void observeWidth(int colIndex, int width) {
+        if (colIndex >= widths.length) {
+            widths = Arrays.copyOf(widths, Math.max(colIndex + 1, widths.length * 2));
+        }
+        if (width > widths[colIndex]) {
+            widths[colIndex] = width;
+        }
+    }
+
+    private static int estimateWidth(Object value) {
+        if (value instanceof String) {
+            return ((String) value).length();
+        }
+        if (value instanceof Integer || value instanceof Long || value instanceof Short) {
+            return countDigits(((Number) value).longValue());
+        }
+        if (value instanceof Double || value instanceof Float) {
+            return DOUBLE_WIDTH;
+        }
+        if (value instanceof java.sql.Timestamp) {
+            return TIMESTAMP_WIDTH;
+        }
+        if (value instanceof java.util.Date) {
+            return DATE_WIDTH;
+        }
+        return value.toString().length();
+    }
+
+    private static int countDigits(long value) {
+        if (value == Long.MIN_VALUE) {
+            return 20;
+        }
+        int digits = value < 0 ? 2 : 1;
+        long remainder = Math.abs(value);
+        while (remainder >= 10) {
+            remainder /= 10;
+            digits++;
+        }
+        return digits;
+    }
+
+}
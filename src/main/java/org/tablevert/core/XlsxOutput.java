@@ -5,15 +5,54 @@
 
 package org.tablevert.core;
 
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+
+import java.io.FilterOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
 
+/**
+ * Deferred XLSX output, which renders the generated workbook directly into the stream passed to
+ * {@link #writeContent(OutputStream)} without buffering the file.
+ * The content can be written once; afterwards the workbook and its temporary files are released.
+ */
 public final class XlsxOutput implements Output {
 
-    private byte[] content;
+    /**
+     * Renders the XLSX file of an output.
+     */
+    interface Renderer {
+
+        /**
+         * Writes the complete file.
+         *
+         * @param outputStream the target stream, which must not be closed
+         * @throws IOException if writing fails
+         */
+        void render(OutputStream outputStream) throws IOException;
+
+        /**
+         * Releases the resources held for rendering.
+         */
+        default void release() {
+        }
+    }
+
+    private Renderer renderer;
+    private String continuationToken;
+
+    XlsxOutput(Workbook workbook) {
+        this(workbook, null);
+    }
 
-    XlsxOutput(byte[] content) {
-        this.content = content;
+    XlsxOutput(Workbook workbook, String continuationToken) {
+        this(new WorkbookRenderer(workbook), continuationToken);
+    }
+
+    XlsxOutput(Renderer renderer, String continuationToken) {
+        this.renderer = renderer;
+        this.continuationToken = continuationToken;
     }
 
     @Override
@@ -21,12 +60,82 @@ public final class XlsxOutput implements Output {
         return OutputFormat.XLSX;
     }
 
+    /**
+     * XLSX files are ZIP packages, which are compressed already, so no further encoding is applied.
+     *
+     * @param requestedEncoding the encoding requested by the caller
+     * @return {@link ContentEncoding#IDENTITY}
+     */
+    @Override
+    public ContentEncoding getContentEncodingFor(ContentEncoding requestedEncoding) {
+        return ContentEncoding.IDENTITY;
+    }
+
     @Override
-    public void writeContent(OutputStream outputStream) throws OutputGeneratorException {
+    public synchronized void writeContent(OutputStream outputStream) throws OutputGeneratorException {
+        if (renderer == null) {
+            throw new OutputGeneratorException("XLSX content has already been written");
+        }
         try {
-            outputStream.write(content);
+            renderer.render(outputStream);
+            outputStream.flush();
         } catch (IOException e) {
-            throw new OutputGeneratorException("Failed to write content to output stream");
+            throw new OutputGeneratorException("Failed to write content to output stream", e);
+        } finally {
+            renderer.release();
+            renderer = null;
+        }
+    }
+
+    @Override
+    public String getContinuationToken() {
+        return continuationToken;
+    }
+
+    /**
+     * Renders a POI workbook.
+     */
+    private static final class WorkbookRenderer implements Renderer {
+        private final Workbook workbook;
+
+        private WorkbookRenderer(Workbook workbook) {
+            this.workbook = workbook;
+        }
+
+        @Override
+        public void render(OutputStream outputStream) throws IOException {
+            workbook.write(new NonClosingOutputStream(outputStream));
+        }
+
+        @Override
+        public void release() {
+            if (workbook instanceof SXSSFWorkbook) {
+                ((SXSSFWorkbook) workbook).dispose();
+            }
+            try {
+                workbook.close();
+            } catch (IOException e) {
+                // Nothing left to release
+            }
+        }
+    }
+
+    /**
+     * Keeps the workbook from closing the caller's stream once the file is complete.
+     */
+    private static final class NonClosingOutputStream extends FilterOutputStream {
+        private NonClosingOutputStream(OutputStream outputStream) {
+            super(outputStream);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+        }
+
+        @Override
+        public void close() throws IOException {
+            flush();
         }
     }
 
@@ -5,132 +5,483 @@
 
 package org.tablevert.core;
 
+import org.apache.poi.ooxml.POIXMLDocumentPart;
+import org.apache.poi.ooxml.POIXMLRelation;
+import org.apache.poi.ss.SpreadsheetVersion;
+import org.apache.poi.ss.usermodel.*;
+import org.apache.poi.xssf.model.SharedStringsTable;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
 import org.apache.poi.xssf.usermodel.*;
+import org.openxmlformats.schemas.spreadsheetml.x2006.main.CTCell;
+import org.openxmlformats.schemas.spreadsheetml.x2006.main.STCellType;
 
-import java.io.ByteArrayOutputStream;
-import java.io.IOException;
-import java.sql.Date;
-import java.util.Hashtable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
 /**
  * {@link OutputGenerator} implementation for XLSX files.
+ * Small grids are generated as in-memory workbooks. Above the streaming threshold of the {@link OutputOptions},
+ * or if streaming is requested explicitly, the workbook is generated in streaming mode, where only a sliding
+ * window of rows is kept in memory and older rows are flushed to a temporary file.
+ * Rows beyond the capacity of a sheet continue on further sheets named "Data (2)", "Data (3)" and so on,
+ * each starting with the column headers.
+ * Text columns whose values are mostly unique are written as inline strings instead of shared strings,
+ * see {@link XlsxStringStrategy}; streaming workbooks always use inline strings.
+ * Alternatively, grids can be written through the {@link NativeXlsxWriter}, which bypasses the POI object model
+ * and takes the data-independent parts of the file from a template, cached per query if a cache is provided.
  */
 final class XlsxOutputGenerator implements OutputGenerator {
 
+    static final int STREAMING_ROW_WINDOW = 1000;
+
+    /**
+     * The number of data rows fitting on a sheet besides the column header row.
+     */
+    static final int MAX_DATA_ROWS_PER_SHEET = SpreadsheetVersion.EXCEL2007.getLastRowIndex();
+
+    /**
+     * Creates and caches the body cell styles, one per combination of column type and number format,
+     * so that all cells of the same kind share a single style.
+     */
+    private static final class CellStyleRegistry {
+        private final Workbook workbook;
+        private final Font bodyFont;
+        private final Map<String, CellStyle> stylesByColumnType;
+        private final Map<String, CellStyle> stylesByFormat;
+
+        private CellStyleRegistry(Workbook workbook) {
+            this.workbook = workbook;
+            this.bodyFont = workbook.createFont();
+            this.bodyFont.setBold(false);
+            this.stylesByColumnType = new HashMap<>();
+            this.stylesByFormat = new HashMap<>();
+        }
+
+        private CellStyle styleFor(String javaClassName) {
+            String format = XlsxCellValues.numberFormatFor(javaClassName);
+            return stylesByColumnType.computeIfAbsent(javaClassName + "|" + format,
+                    key -> stylesByFormat.computeIfAbsent(format, this::createStyle));
+        }
+
+        private CellStyle textStyle() {
+            return styleFor(String.class.getName());
+        }
+
+        private CellStyle createStyle(String format) {
+            CellStyle cellStyle = workbook.createCellStyle();
+            cellStyle.setFont(bodyFont);
+            cellStyle.setDataFormat(workbook.createDataFormat().getFormat(format));
+            return cellStyle;
+        }
+    }
+
+    /**
+     * Shared strings table which also counts the cell references set directly, without a lookup in the table,
+     * so that the table's reference count stays correct.
+     */
+    private static final class ReferenceCountingSharedStringsTable extends SharedStringsTable {
+        private void addReference() {
+            count++;
+        }
+    }
+
+    /**
+     * Factory providing a {@link ReferenceCountingSharedStringsTable} as shared strings table of a new workbook.
+     */
+    private static final class ReferenceCountingXssfFactory extends XSSFFactory {
+        @Override
+        public POIXMLDocumentPart newDocumentPart(POIXMLRelation descriptor) {
+            if (descriptor == XSSFRelation.SHARED_STRINGS) {
+                return new ReferenceCountingSharedStringsTable();
+            }
+            return super.newDocumentPart(descriptor);
+        }
+    }
+
     private final class XlsxWorkInProgress {
-        private final Integer CELLSTYLE_COLHEADER = 1;
-        private final Integer CELLSTYLE_BODY = 2;
+        private final Workbook workbook;
+        private final CellStyle headerCellStyle;
+        private final CellStyleRegistry cellStyleRegistry;
+        private final List<Sheet> sheets;
+        private final XlsxColumnWidthEstimator widthEstimator;
+        private Sheet sheet;
+        private List<DataGridColumn> headerColumns;
+        private int nextRowIndex;
+        private int dataRowCount;
 
-        private final XSSFWorkbook workbook;
-        private final Map<Integer, XSSFCellStyle> cellStyleMap;
-        private final XSSFSheet sheet;
-        private int maxColIndex;
+        private XlsxWorkInProgress(boolean streaming) {
+            if (streaming) {
+                SXSSFWorkbook streamingWorkbook = new SXSSFWorkbook(STREAMING_ROW_WINDOW);
+                streamingWorkbook.setCompressTempFiles(true);
+                this.workbook = streamingWorkbook;
+            } else {
+                this.workbook = new XSSFWorkbook(new ReferenceCountingXssfFactory());
+            }
+            this.sheets = new ArrayList<>();
+            this.sheet = createSheet();
+            this.widthEstimator = new XlsxColumnWidthEstimator(
+                    outputOptions.getXlsxColumnWidthSampleInterval(), outputOptions.getXlsxMaxColumnWidth());
+            this.headerCellStyle = createHeaderCellStyle();
+            this.cellStyleRegistry = new CellStyleRegistry(workbook);
+        }
 
-        private XlsxWorkInProgress() {
-            this.workbook = new XSSFWorkbook();
-            this.sheet = workbook.createSheet("Data");
-            this.maxColIndex = -1;
-            this.cellStyleMap = new Hashtable<>();
-            initCellStyles();
+        private CellStyle createHeaderCellStyle() {
+            CellStyle cellStyle = workbook.createCellStyle();
+            Font headerFont = workbook.createFont();
+            headerFont.setBold(true);
+            cellStyle.setFont(headerFont);
+            return cellStyle;
         }
 
-        private void initCellStyles() {
-            // TODO: Integrate proper cell styling including number and date formats for body cells
-            XSSFCellStyle headerCellStyle = workbook.createCellStyle();
-            headerCellStyle.setFont(workbook.createFont());
-            headerCellStyle.getFont().setBold(true);
-            cellStyleMap.put(CELLSTYLE_COLHEADER, headerCellStyle);
+        private CellStyle[] resolveBodyCellStyles(List<DataGridColumn> columns) {
+            CellStyle[] cellStyles = new CellStyle[columns.size()];
+            for (int i = 0; i < columns.size(); i++) {
+                cellStyles[i] = cellStyleRegistry.styleFor(columns.get(i).getJavaClassName());
+            }
+            return cellStyles;
+        }
 
-            XSSFCellStyle bodyCellStyle = workbook.createCellStyle();
-            bodyCellStyle.setFont(workbook.createFont());
-            bodyCellStyle.getFont().setBold(false);
-            cellStyleMap.put(CELLSTYLE_BODY, bodyCellStyle);
+        private Sheet createSheet() {
+            Sheet newSheet = workbook.createSheet(sheets.isEmpty() ? "Data" : "Data (" + (sheets.size() + 1) + ")");
+            sheets.add(newSheet);
+            return newSheet;
         }
 
         private void addColumnHeaders(final List<DataGridColumn> columns) {
-            XSSFRow row = sheet.createRow(0);
+            headerColumns = new ArrayList<>(columns);
             for (DataGridColumn column : columns) {
-                XSSFCell cell = row.createCell(column.getIndex());
+                widthEstimator.observeText(column.getIndex(), column.getName());
+            }
+            writeHeaderRow();
+        }
+
+        private void writeHeaderRow() {
+            Row row = sheet.createRow(0);
+            for (DataGridColumn column : headerColumns) {
+                Cell cell = row.createCell(column.getIndex());
                 cell.setCellValue(column.getName());
-                cell.setCellStyle(cellStyleMap.get(CELLSTYLE_COLHEADER));
-                adjustMaxColIndex(column.getIndex());
+                cell.setCellStyle(headerCellStyle);
             }
+            nextRowIndex = 1;
         }
 
-        private void adjustMaxColIndex(int index) {
-            if (index > maxColIndex) {
-                maxColIndex = index;
+        /**
+         * Creates the row for the next data row, rolling over to a new sheet with repeated column headers
+         * once the current sheet is full.
+         */
+        private Row createDataRow() {
+            if (nextRowIndex > maxDataRowsPerSheet) {
+                sheet = createSheet();
+                writeHeaderRow();
             }
+            dataRowCount++;
+            return sheet.createRow(nextRowIndex++);
         }
 
         private void addValues(final DataGrid dataGrid) {
+            List<DataGridColumn> columns = dataGrid.definedColumns();
+            columns.sort(Comparator.comparingInt(DataGridColumn::getIndex));
+            DataGridColumnVector[] vectors = new DataGridColumnVector[columns.size()];
+            CellStyle[] cellStyles = resolveBodyCellStyles(columns);
+            int[][] sharedStringIndices = new int[columns.size()][];
+            boolean[] inlineStrings = new boolean[columns.size()];
+            for (int i = 0; i < columns.size(); i++) {
+                vectors[i] = dataGrid.getColumnVector(columns.get(i).getIndex());
+                inlineStrings[i] = workbook instanceof XSSFWorkbook
+                        && XlsxStringStrategy.forColumn(vectors[i]) == XlsxStringStrategy.INLINE;
+                if (vectors[i] instanceof DataGridColumnVector.DictionaryVector) {
+                    DataGridColumnVector.DictionaryVector dictionaryVector = (DataGridColumnVector.DictionaryVector) vectors[i];
+                    widthEstimator.observeDictionary(columns.get(i).getIndex(), dictionaryVector);
+                    if (workbook instanceof XSSFWorkbook && !inlineStrings[i]) {
+                        sharedStringIndices[i] = new int[dictionaryVector.getDictionarySize()];
+                        Arrays.fill(sharedStringIndices[i], -1);
+                    }
+                }
+            }
             for (int rowIndex = 0; rowIndex < dataGrid.getRowCount(); rowIndex++) {
-                XSSFRow sheetRow = sheet.createRow(rowIndex + 1);
-                DataGridRow dataGridRow = dataGrid.getRow(rowIndex);
-                copyRowValues(dataGridRow, sheetRow);
+                boolean sampled = widthEstimator.samples(dataRowCount);
+                Row sheetRow = createDataRow();
+                for (int i = 0; i < vectors.length; i++) {
+                    if (vectors[i].isNull(rowIndex)) {
+                        continue;
+                    }
+                    int colIndex = columns.get(i).getIndex();
+                    Cell cell = sheetRow.createCell(colIndex);
+                    if (sharedStringIndices[i] != null) {
+                        setSharedStringValue((XSSFCell) cell, (DataGridColumnVector.DictionaryVector) vectors[i],
+                                ((DataGridColumnVector.DictionaryVector) vectors[i]).getCode(rowIndex), sharedStringIndices[i]);
+                        cell.setCellStyle(cellStyles[i]);
+                    } else if (setPrimitiveValue(cell, vectors[i], rowIndex)) {
+                        cell.setCellStyle(cellStyles[i]);
+                        if (sampled) {
+                            widthEstimator.observe(colIndex, vectors[i].getValue(rowIndex));
+                        }
+                    } else {
+                        Object value = vectors[i].getValue(rowIndex);
+                        if (inlineStrings[i] && value instanceof String) {
+                            setInlineStringValue((XSSFCell) cell, (String) value);
+                            cell.setCellStyle(cellStyleRegistry.textStyle());
+                        } else {
+                            setValueAndStyle(cell, value, columns.get(i).getJavaClassName(), cellStyles[i]);
+                        }
+                        if (sampled && !(vectors[i] instanceof DataGridColumnVector.DictionaryVector)) {
+                            widthEstimator.observe(colIndex, value);
+                        }
+                    }
+                }
             }
         }
 
-        private void copyRowValues(final DataGridRow dataGridRow, final XSSFRow sheetRow) {
-            if (dataGridRow == null) {
-                return;
-            }
-            for (Integer colIndex : dataGridRow.getColumnIndicesOfValues()) {
-                Object value = dataGridRow.getValue(colIndex);
-                if (value != null) {
-                    XSSFCell cell = sheetRow.createCell(colIndex);
-                    // TODO: Add appropriate formatting
-                    setCellValue(cell, value);
-                    cell.setCellStyle(cellStyleMap.get(CELLSTYLE_BODY));
+        /**
+         * Sets the value of a primitive vector without boxing it.
+         *
+         * @return {@code false} if the vector does not hold primitives
+         */
+        private boolean setPrimitiveValue(Cell cell, DataGridColumnVector vector, int rowIndex) {
+            if (vector instanceof DataGridColumnVector.DoubleVector) {
+                double value = ((DataGridColumnVector.DoubleVector) vector).getDouble(rowIndex);
+                if (Double.isNaN(value) || Double.isInfinite(value)) {
+                    return false;
                 }
+                cell.setCellValue(value);
+            } else if (vector instanceof DataGridColumnVector.LongVector) {
+                cell.setCellValue(((DataGridColumnVector.LongVector) vector).getLong(rowIndex));
+            } else if (vector instanceof DataGridColumnVector.IntVector
+                    && !(vector instanceof DataGridColumnVector.DictionaryVector)) {
+                cell.setCellValue(((DataGridColumnVector.IntVector) vector).getInt(rowIndex));
+            } else {
+                return false;
             }
+            return true;
         }
 
-        private void setCellValue(XSSFCell cell, Object value) {
-            Class valueClass = value.getClass();
-            if (String.class.equals(valueClass)) {
-                cell.setCellValue((String) value);
-            } else if (Integer.class.equals(valueClass)) {
-                cell.setCellValue(((Integer) value).doubleValue());
-            } else if (Long.class.equals(valueClass)) {
-                cell.setCellValue(((Long) value).doubleValue());
-            } else if (Double.class.equals(valueClass)) {
-                cell.setCellValue((Double) value);
-            } else if (Date.class.equals(valueClass)) {
-                cell.setCellValue((Date) value);
+        /**
+         * Sets the value and picks the style matching the value's type: the column's style if the value
+         * is of the column type, the style registered for the value's type otherwise, and the text style
+         * if the value is written as a string.
+         */
+        private void setValueAndStyle(Cell cell, Object value, String columnClassName, CellStyle columnCellStyle) {
+            if (!setCellValue(cell, value)) {
+                cell.setCellStyle(cellStyleRegistry.textStyle());
+            } else if (value.getClass().getName().equals(columnClassName)) {
+                cell.setCellStyle(columnCellStyle);
             } else {
+                cell.setCellStyle(cellStyleRegistry.styleFor(value.getClass().getName()));
+            }
+        }
+
+        /**
+         * Sets the value of a dictionary-encoded cell.
+         * Each distinct value is added to the shared strings table once; further cells of the same value
+         * reference the table entry directly instead of having it looked up again, and are only counted
+         * as references of the table.
+         */
+        private void setSharedStringValue(XSSFCell cell, DataGridColumnVector.DictionaryVector vector, int code,
+                                          int[] sharedStringIndices) {
+            if (sharedStringIndices[code] < 0) {
+                cell.setCellValue(vector.getDictionaryValue(code));
+                sharedStringIndices[code] = Integer.parseInt(cell.getCTCell().getV());
+                return;
+            }
+            CTCell ctCell = cell.getCTCell();
+            ctCell.setT(STCellType.S);
+            ctCell.setV(Integer.toString(sharedStringIndices[code]));
+            ((ReferenceCountingSharedStringsTable) cell.getSheet().getWorkbook().getSharedStringSource()).addReference();
+        }
+
+        /**
+         * Sets a text value as inline string, bypassing the shared strings table.
+         */
+        private void setInlineStringValue(XSSFCell cell, String value) {
+            CTCell ctCell = cell.getCTCell();
+            ctCell.setT(STCellType.INLINE_STR);
+            ctCell.setIs(new XSSFRichTextString(value).getCTRst());
+        }
+
+        /**
+         * Sets the value as native numeric, boolean or date cell where possible.
+         * Non-finite numbers and dates before 1900, which Excel cannot represent, are written as strings.
+         *
+         * @return {@code false} if the value has been written as a string
+         */
+        private boolean setCellValue(Cell cell, Object value) {
+            if (value instanceof Boolean) {
+                cell.setCellValue((Boolean) value);
+                return true;
+            }
+            double number = value instanceof String ? Double.NaN : XlsxCellValues.toNumber(value);
+            if (Double.isNaN(number)) {
                 cell.setCellValue(value.toString());
+                return false;
             }
+            cell.setCellValue(number);
+            return true;
+        }
+
+        /**
+         * Hands the workbook over to a deferred output, which renders it once its content is written.
+         */
+        private XlsxOutput packOutput(String continuationToken) {
+            return new XlsxOutput(workbook, continuationToken);
         }
 
-        private XlsxOutput packOutput() throws OutputGeneratorException {
-            ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
-            try {
-                workbook.write(outputStream);
-            } catch (IOException e) {
-                throw new OutputGeneratorException("Failed to write XLSX file to byte array");
+        /**
+         * Deletes the temporary file backing the flushed rows in streaming mode.
+         * Only needed if generation fails before the workbook is handed over to the output.
+         */
+        private void release() {
+            if (workbook instanceof SXSSFWorkbook) {
+                ((SXSSFWorkbook) workbook).dispose();
             }
-            return new XlsxOutput(outputStream.toByteArray());
         }
 
         private void finalizeStyling() {
-            autoSizeColumns();
-            freezeTopRow();
+            for (Sheet dataSheet : sheets) {
+                widthEstimator.applyTo(dataSheet);
+                freezeTopRow(dataSheet);
+            }
         }
 
-        private void autoSizeColumns() {
-            for (int i = 0; i <= maxColIndex; i++) {
-                sheet.autoSizeColumn(i);
+        private void freezeTopRow(Sheet dataSheet) {
+            dataSheet.createFreezePane(0, 1);
+        }
+    }
+
+    /**
+     * {@link StreamingOutputConsumer} writing the streamed rows into a workbook in streaming mode.
+     * Unless streaming is requested explicitly, the rows are buffered up to the streaming threshold first:
+     * if the streamed rows stay within the threshold, the buffered grid is generated as in-memory workbook,
+     * otherwise the consumer switches to streaming mode as soon as the buffered rows exceed the threshold.
+     * In streaming mode, each row batch is collected in a grid of its own, which is written and dropped
+     * once the batch is complete.
+     */
+    private final class XlsxStreamingConsumer implements StreamingOutputConsumer {
+        private XlsxWorkInProgress workInProgress;
+        private List<DataGridColumn> columns;
+        private DataGrid.Builder batchBuilder;
+        private String continuationToken;
+        private Output output;
+
+        private XlsxStreamingConsumer() {
+            if (outputOptions.isXlsxStreaming()) {
+                this.workInProgress = new XlsxWorkInProgress(true);
+            }
+        }
+
+        @Override
+        public void startGrid(List<DataGridColumn> columns) throws DataGridException {
+            this.columns = new ArrayList<>(columns);
+            this.columns.sort(Comparator.comparingInt(DataGridColumn::getIndex));
+            if (workInProgress != null) {
+                workInProgress.addColumnHeaders(this.columns);
+            }
+            this.batchBuilder = createBatchBuilder();
+        }
+
+        @Override
+        public DataGrid.Builder getRowBuilder() {
+            return batchBuilder;
+        }
+
+        @Override
+        public void acceptRows() throws DataGridException {
+            if (workInProgress == null) {
+                if (batchBuilder.getRowCount() <= outputOptions.getXlsxStreamingThreshold()) {
+                    return;
+                }
+                workInProgress = new XlsxWorkInProgress(true);
+                workInProgress.addColumnHeaders(columns);
+            }
+            workInProgress.addValues(batchBuilder.build());
+            batchBuilder = createBatchBuilder();
+        }
+
+        private DataGrid.Builder createBatchBuilder() throws DataGridException {
+            DataGrid.Builder builder = new DataGrid.Builder();
+            for (DataGridColumn column : columns) {
+                builder.withColumn(column);
+            }
+            return builder.andData();
+        }
+
+        @Override
+        public void acceptContinuationToken(String continuationToken) {
+            this.continuationToken = continuationToken;
+        }
+
+        @Override
+        public void endGrid() throws TablevertCoreException {
+            if (workInProgress == null) {
+                output = process(batchBuilder.withContinuationToken(continuationToken).build());
+                return;
+            }
+            workInProgress.finalizeStyling();
+            output = workInProgress.packOutput(continuationToken);
+        }
+
+        @Override
+        public Output getOutput() throws OutputGeneratorException {
+            if (output == null) {
+                throw new OutputGeneratorException("XLSX output requested before the end of the streamed rows");
             }
+            return output;
         }
 
-        private void freezeTopRow() {
-            sheet.createFreezePane(0, 1);
+        @Override
+        public void release() {
+            if (workInProgress != null) {
+                workInProgress.release();
+            }
         }
     }
 
+    private final OutputOptions outputOptions;
+    private final int maxDataRowsPerSheet;
+    private final XlsxTemplateCache templateCache;
+    private final String queryName;
+
+    XlsxOutputGenerator() {
+        this(OutputOptions.defaults());
+    }
+
+    XlsxOutputGenerator(OutputOptions outputOptions) {
+        this(outputOptions, MAX_DATA_ROWS_PER_SHEET);
+    }
+
+    /**
+     * Creates the generator for the results of a predefined query, taking the templates of the native writer
+     * from a cache.
+     *
+     * @param outputOptions the output options
+     * @param templateCache the cache of the templates
+     * @param queryName the name of the predefined query
+     */
+    XlsxOutputGenerator(OutputOptions outputOptions, XlsxTemplateCache templateCache, String queryName) {
+        this(outputOptions, MAX_DATA_ROWS_PER_SHEET, templateCache, queryName);
+    }
+
+    /**
+     * Creates the generator with a reduced number of rows per sheet.
+     *
+     * @param outputOptions the output options
+     * @param maxDataRowsPerSheet the number of data rows after which a new sheet is started
+     */
+    XlsxOutputGenerator(OutputOptions outputOptions, int maxDataRowsPerSheet) {
+        this(outputOptions, maxDataRowsPerSheet, null, null);
+    }
+
+    private XlsxOutputGenerator(OutputOptions outputOptions, int maxDataRowsPerSheet,
+                                XlsxTemplateCache templateCache, String queryName) {
+        this.outputOptions = outputOptions;
+        this.maxDataRowsPerSheet = Math.min(maxDataRowsPerSheet, MAX_DATA_ROWS_PER_SHEET);
+        this.templateCache = templateCache;
+        this.queryName = queryName;
+    }
+
     /**
      * Processes the output generation.
      *
@@ -139,11 +490,41 @@ final class XlsxOutputGenerator implements OutputGenerator {
      */
     @Override
     public Output process(final DataGrid dataGrid) throws OutputGeneratorException {
-        XlsxWorkInProgress workInProgress = new XlsxWorkInProgress();
-        workInProgress.addColumnHeaders(dataGrid.definedColumns());
-        workInProgress.addValues(dataGrid);
-        workInProgress.finalizeStyling();
-        return workInProgress.packOutput();
+        if (outputOptions.isNativeXlsxWriter()) {
+            XlsxWorkbookTemplate template = (templateCache != null && queryName != null)
+                    ? templateCache.templateFor(queryName, dataGrid.definedColumns())
+                    : new XlsxWorkbookTemplate(dataGrid.definedColumns());
+            return new XlsxOutput(new NativeXlsxWriter(dataGrid, template, outputOptions, maxDataRowsPerSheet),
+                    dataGrid.getContinuationToken());
+        }
+        boolean streaming = outputOptions.isXlsxStreaming()
+                || dataGrid.getRowCount() > outputOptions.getXlsxStreamingThreshold();
+        XlsxWorkInProgress workInProgress = new XlsxWorkInProgress(streaming);
+        try {
+            workInProgress.addColumnHeaders(dataGrid.definedColumns());
+            workInProgress.addValues(dataGrid);
+            workInProgress.finalizeStyling();
+        } catch (RuntimeException e) {
+            workInProgress.release();
+            throw e;
+        }
+        return workInProgress.packOutput(dataGrid.getContinuationToken());
+    }
+
+    /**
+     * Creates a consumer writing the streamed rows into a workbook, switching to streaming mode if requested
+     * explicitly or once the rows exceed the streaming threshold, so that at most the threshold's number of rows
+     * is held in memory at a time.
+     * Grids for the native writer are generated from the complete grid, unless streaming is requested explicitly.
+     *
+     * @return the consumer, or {@code null} if the rows are written through the native writer
+     */
+    @Override
+    public StreamingOutputConsumer createStreamingConsumer() {
+        if (outputOptions.isNativeXlsxWriter() && !outputOptions.isXlsxStreaming()) {
+            return null;
+        }
+        return new XlsxStreamingConsumer();
     }
 
 }
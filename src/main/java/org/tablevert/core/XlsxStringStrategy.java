@@ -0,0 +1,39 @@
+/*
+ * Copyright 2019 conis Informationssysteme GmbH
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.tablevert.core;
+
+/**
+ * Storage of the text cells of an XLSX column.
+ * Shared strings store each distinct value once in the workbook's shared strings table, which pays off for
+ * repeated values, but keeps the whole table in memory until the file is complete. Inline strings are written
+ * into the cells themselves, which is cheaper for columns of mostly unique text.
+ */
+enum XlsxStringStrategy {
+    SHARED,
+
+    INLINE;
+
+    /**
+     * The number of times the values of a column must occur on average to be stored as shared strings.
+     */
+    static final int MIN_AVERAGE_OCCURRENCES = 2;
+
+    /**
+     * Chooses the storage of a column from the cardinality statistics collected while the grid was built.
+     * Columns without statistics keep the shared strings table.
+     *
+     * @param vector the column's values
+     * @return the strategy
+     */
+    static XlsxStringStrategy forColumn(DataGridColumnVector vector) {
+        long distinctCount = vector.estimateDistinctCount();
+        if (distinctCount < 0 || vector.getNonNullCount() == 0) {
+            return SHARED;
+        }
+        return distinctCount * MIN_AVERAGE_OCCURRENCES > vector.getNonNullCount() ? INLINE : SHARED;
+    }
+
+}
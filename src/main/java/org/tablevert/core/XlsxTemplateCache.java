@@ -0,0 +1,65 @@
+/*
+ * Copyright 2019 conis Informationssysteme GmbH
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.tablevert.core;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Cache of the {@link XlsxWorkbookTemplate} instances, one per predefined query and column signature,
+ * so that repeated exports of a query only write their data rows.
+ * A changed query definition yields a new signature and thus a new template.
+ */
+final class XlsxTemplateCache {
+
+    static final int DEFAULT_MAX_TEMPLATES = 256;
+
+    private final Map<String, XlsxWorkbookTemplate> templateMap;
+    private final int maxTemplates;
+
+    XlsxTemplateCache() {
+        this(DEFAULT_MAX_TEMPLATES);
+    }
+
+    /**
+     * Creates the cache.
+     *
+     * @param maxTemplates the number of templates above which further templates are created without being cached
+     */
+    XlsxTemplateCache(int maxTemplates) {
+        this.templateMap = new ConcurrentHashMap<>();
+        this.maxTemplates = maxTemplates;
+    }
+
+    /**
+     * Gets the template for the columns of a query, creating it on first access.
+     *
+     * @param queryName the name of the predefined query
+     * @param columns the columns of the query result
+     * @return the template
+     */
+    XlsxWorkbookTemplate templateFor(String queryName, List<DataGridColumn> columns) {
+        String signature = XlsxWorkbookTemplate.signatureOf(queryName, columns);
+        XlsxWorkbookTemplate template = templateMap.get(signature);
+        if (template != null) {
+            return template;
+        }
+        template = new XlsxWorkbookTemplate(columns);
+        if (templateMap.size() < maxTemplates) {
+            XlsxWorkbookTemplate cachedTemplate = templateMap.putIfAbsent(signature, template);
+            if (cachedTemplate != null) {
+                return cachedTemplate;
+            }
+        }
+        return template;
+    }
+
+    int size() {
+        return templateMap.size();
+    }
+
+}
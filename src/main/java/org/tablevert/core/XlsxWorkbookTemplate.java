@@ -0,0 +1,192 @@
+/*
+ * Copyright 2019 conis Informationssysteme GmbH
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.tablevert.core;
+
+import org.apache.poi.ss.util.CellReference;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The data-independent part of the XLSX files written by the {@link NativeXlsxWriter} for a set of columns:
+ * cell references and styles of the columns, the header row, the shared strings of the column names and the
+ * rendered package parts of a single-sheet file. Templates are immutable, so that a template can be kept in
+ * an {@link XlsxTemplateCache} and used for any number of files at the same time.
+ */
+final class XlsxWorkbookTemplate {
+
+    static final int STYLE_HEADER = 1;
+
+    private final List<DataGridColumn> columns;
+    private final String[] columnLetters;
+    private final int[] columnStyles;
+    private final Map<String, Integer> styleIndexByFormat;
+    private final Map<String, Integer> styleIndexByColumnType;
+    private final List<String> headerStrings;
+    private final byte[] headerRow;
+    private final byte[] packageRelationships;
+    private final byte[] singleSheetContentTypes;
+    private final byte[] singleSheetWorkbook;
+    private final byte[] singleSheetWorkbookRelationships;
+    private final byte[] styles;
+
+    /**
+     * Prepares the template.
+     *
+     * @param columns the columns of the grids to write, in any order
+     */
+    XlsxWorkbookTemplate(List<DataGridColumn> columns) {
+        List<DataGridColumn> sortedColumns = new ArrayList<>(columns);
+        sortedColumns.sort(Comparator.comparingInt(DataGridColumn::getIndex));
+        this.columns = Collections.unmodifiableList(sortedColumns);
+        this.columnLetters = new String[sortedColumns.size()];
+        this.columnStyles = new int[sortedColumns.size()];
+        Map<String, Integer> formatStyles = new LinkedHashMap<>();
+        Map<String, Integer> columnTypeStyles = new HashMap<>();
+        for (int i = 0; i < sortedColumns.size(); i++) {
+            columnLetters[i] = CellReference.convertNumToColString(sortedColumns.get(i).getIndex());
+            columnStyles[i] = styleIndexFor(sortedColumns.get(i).getJavaClassName(), formatStyles, columnTypeStyles);
+        }
+        this.styleIndexByFormat = Collections.unmodifiableMap(formatStyles);
+        this.styleIndexByColumnType = Collections.unmodifiableMap(columnTypeStyles);
+
+        List<String> strings = new ArrayList<>();
+        int[] headerStringIndices = new int[sortedColumns.size()];
+        for (int i = 0; i < sortedColumns.size(); i++) {
+            String name = sortedColumns.get(i).getName();
+            int index = strings.indexOf(name);
+            if (index < 0) {
+                index = strings.size();
+                strings.add(name);
+            }
+            headerStringIndices[i] = index;
+        }
+        this.headerStrings = Collections.unmodifiableList(strings);
+
+        try {
+            this.headerRow = render(buffer -> NativeXlsxWriter.writeHeaderRow(buffer, columnLetters, headerStringIndices));
+            this.packageRelationships = render(NativeXlsxWriter::writePackageRelationships);
+            this.singleSheetContentTypes = render(buffer -> NativeXlsxWriter.writeContentTypes(buffer, 1));
+            this.singleSheetWorkbook = render(buffer -> NativeXlsxWriter.writeWorkbook(buffer, 1));
+            this.singleSheetWorkbookRelationships = render(buffer -> NativeXlsxWriter.writeWorkbookRelationships(buffer, 1));
+            this.styles = render(buffer -> NativeXlsxWriter.writeStyles(buffer, styleIndexByFormat));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to render XLSX template in memory", e);
+        }
+    }
+
+    /**
+     * Gets the index of the cell style for the number format of a Java class, registering the style if needed.
+     *
+     * @param javaClassName the Java class name of the values
+     * @param styleIndexByFormat the style indices by number format, in order of registration
+     * @param styleIndexByColumnType the style indices by Java class name and number format
+     * @return the style index
+     */
+    static int styleIndexFor(String javaClassName, Map<String, Integer> styleIndexByFormat,
+                             Map<String, Integer> styleIndexByColumnType) {
+        String format = XlsxCellValues.numberFormatFor(javaClassName);
+        return styleIndexByColumnType.computeIfAbsent(javaClassName + "|" + format,
+                key -> styleIndexByFormat.computeIfAbsent(format, f -> STYLE_HEADER + 1 + styleIndexByFormat.size()));
+    }
+
+    /**
+     * Builds the cache key of the template for a query's columns.
+     *
+     * @param queryName the name of the query
+     * @param columns the columns of the query result
+     * @return the key, covering the position, name and Java class of each column
+     */
+    static String signatureOf(String queryName, List<DataGridColumn> columns) {
+        List<DataGridColumn> sortedColumns = new ArrayList<>(columns);
+        sortedColumns.sort(Comparator.comparingInt(DataGridColumn::getIndex));
+        StringBuilder signature = new StringBuilder(queryName);
+        for (DataGridColumn column : sortedColumns) {
+            signature.append('|').append(column.getIndex())
+                    .append(':').append(column.getName())
+                    .append(':').append(column.getJavaClassName());
+        }
+        return signature.toString();
+    }
+
+    private interface PartRenderer {
+        void render(Utf8OutputBuffer buffer) throws IOException;
+    }
+
+    private static byte[] render(PartRenderer partRenderer) throws IOException {
+        ByteArrayOutputStream part = new ByteArrayOutputStream();
+        Utf8OutputBuffer buffer = new Utf8OutputBuffer().writingTo(part);
+        partRenderer.render(buffer);
+        buffer.flush();
+        return part.toByteArray();
+    }
+
+    /**
+     * @return the columns sorted by index
+     */
+    List<DataGridColumn> getColumns() {
+        return columns;
+    }
+
+    String getColumnLetters(int columnPosition) {
+        return columnLetters[columnPosition];
+    }
+
+    int getColumnStyle(int columnPosition) {
+        return columnStyles[columnPosition];
+    }
+
+    Map<String, Integer> getStyleIndexByFormat() {
+        return styleIndexByFormat;
+    }
+
+    Map<String, Integer> getStyleIndexByColumnType() {
+        return styleIndexByColumnType;
+    }
+
+    /**
+     * @return the distinct column names, which come first in the shared strings table
+     */
+    List<String> getHeaderStrings() {
+        return headerStrings;
+    }
+
+    byte[] getHeaderRow() {
+        return headerRow;
+    }
+
+    byte[] getPackageRelationships() {
+        return packageRelationships;
+    }
+
+    byte[] getSingleSheetContentTypes() {
+        return singleSheetContentTypes;
+    }
+
+    byte[] getSingleSheetWorkbook() {
+        return singleSheetWorkbook;
+    }
+
+    byte[] getSingleSheetWorkbookRelationships() {
+        return singleSheetWorkbookRelationships;
+    }
+
+    /**
+     * @return the styles part, valid as long as no styles are registered beyond those of the columns
+     */
+    byte[] getStyles() {
+        return styles;
+    }
+
+}
@@ -18,15 +18,24 @@ public class Database implements DataSource, Cloneable {
 
     public static class Builder {
         private static final int DEFAULT_PORT_POSTGRESQL = 5432;
+        private static final int DEFAULT_POOL_MIN_SIZE = 1;
+        private static final int DEFAULT_POOL_MAX_SIZE = 10;
+        private static final int DEFAULT_POOL_MAX_IDLE_SECONDS = 300;
 
         private DatabaseType dbType;
         private String name;
         private String host;
         private Integer port;
         private Map<String, BackendUser> userMap;
+        private int poolMinSize;
+        private int poolMaxSize;
+        private int poolMaxIdleSeconds;
 
         public Builder() {
             this.userMap = new Hashtable<>();
+            this.poolMinSize = DEFAULT_POOL_MIN_SIZE;
+            this.poolMaxSize = DEFAULT_POOL_MAX_SIZE;
+            this.poolMaxIdleSeconds = DEFAULT_POOL_MAX_IDLE_SECONDS;
         }
 
         public Builder forDatabase(String name) {
@@ -68,6 +77,29 @@ public class Database implements DataSource, Cloneable {
             return this;
         }
 
+        /**
+         * Defines the size limits of the connection pool kept for the database.
+         * @param minSize the number of connections to open in advance and keep while idle
+         * @param maxSize the maximum number of connections borrowed at the same time
+         * @return the builder
+         */
+        public Builder withConnectionPoolSize(int minSize, int maxSize) {
+            this.poolMinSize = minSize;
+            this.poolMaxSize = maxSize;
+            return this;
+        }
+
+        /**
+         * Defines after which idle time pooled connections beyond the minimum pool size are closed.
+         * A value of 0 closes connections as soon as they are returned to the pool.
+         * @param maxIdleSeconds the maximum idle time in seconds
+         * @return the builder
+         */
+        public Builder withConnectionMaxIdleSeconds(int maxIdleSeconds) {
+            this.poolMaxIdleSeconds = maxIdleSeconds;
+            return this;
+        }
+
         public Database build() throws BuilderFailedException {
             checkInitPort();
             validate();
@@ -77,6 +109,9 @@ public class Database implements DataSource, Cloneable {
             database.host = this.host;
             database.port = this.port;
             database.userMap = this.userMap;
+            database.poolMinSize = this.poolMinSize;
+            database.poolMaxSize = this.poolMaxSize;
+            database.poolMaxIdleSeconds = this.poolMaxIdleSeconds;
             return database;
         }
 
@@ -111,6 +146,12 @@ public class Database implements DataSource, Cloneable {
             if (userMap == null || userMap.isEmpty()) {
                 errors += "- no users specified";
             }
+            if (poolMinSize < 0 || poolMaxSize < 1 || poolMinSize > poolMaxSize) {
+                errors += "- invalid connection pool size [" + poolMinSize + ", " + poolMaxSize + "]";
+            }
+            if (poolMaxIdleSeconds < 0) {
+                errors += "- negative connection max idle time";
+            }
             if (!errors.isEmpty()) {
                 throw new BuilderFailedException("Builder validation failed with errors: " + errors);
             }
@@ -123,6 +164,9 @@ public class Database implements DataSource, Cloneable {
     private String host;
     private Integer port;
     private Map<String, BackendUser> userMap;
+    private int poolMinSize;
+    private int poolMaxSize;
+    private int poolMaxIdleSeconds;
 
     private Database() {
     }
@@ -145,6 +189,27 @@ public class Database implements DataSource, Cloneable {
 
     public Integer getPort() { return port; }
 
+    /**
+     * @return the number of connections kept open in the connection pool
+     */
+    public int getConnectionPoolMinSize() {
+        return poolMinSize;
+    }
+
+    /**
+     * @return the maximum number of pooled connections in use at the same time
+     */
+    public int getConnectionPoolMaxSize() {
+        return poolMaxSize;
+    }
+
+    /**
+     * @return the idle time in seconds after which surplus pooled connections are closed
+     */
+    public int getConnectionMaxIdleSeconds() {
+        return poolMaxIdleSeconds;
+    }
+
     public String getDefaultUserName() {
         // TODO: Add default user property or enhanced user selection logic!
         if (userMap.isEmpty()) {
@@ -167,7 +232,9 @@ public class Database implements DataSource, Cloneable {
                     .forDatabase(name)
                     .ofType(dbType)
                     .onHost(host)
-                    .withPort(port);
+                    .withPort(port)
+                    .withConnectionPoolSize(poolMinSize, poolMaxSize)
+                    .withConnectionMaxIdleSeconds(poolMaxIdleSeconds);
             this.userMap.entrySet().forEach(user -> cloneBuilder.withUser(user.getValue().clone()));
             return cloneBuilder.build();
         } catch (BuilderFailedException e) {
@@ -24,4 +24,38 @@ public enum DatabaseType {
                 return "SELECT %s FROM %s %s %s;";
         }
     }
+
+    /**
+     * @return the keyword preceding the bound maximum number of rows to select
+     */
+    public String getLimitKeyword() {
+        switch (this) {
+            default:
+                return "LIMIT";
+        }
+    }
+
+    /**
+     * @return the keyword preceding the bound number of rows to skip
+     */
+    public String getOffsetKeyword() {
+        switch (this) {
+            default:
+                return "OFFSET";
+        }
+    }
+
+    /**
+     * Gets the template wrapping a select statement into a bulk export to the client in CSV format.
+     *
+     * @return the template, or {@code null} if the database type does not support bulk export
+     */
+    public String getBulkCopyStatementTemplate() {
+        switch (this) {
+            case POSTGRESQL:
+                return "COPY (%s) TO STDOUT WITH (FORMAT csv)";
+            default:
+                return null;
+        }
+    }
 }
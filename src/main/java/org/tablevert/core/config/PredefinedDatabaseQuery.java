@@ -22,6 +22,9 @@ public class PredefinedDatabaseQuery implements PredefinedQuery, Cloneable {
         private String fromClause;
         private String whereClause;
         private List<String> sorting;
+        private String partitionColumn;
+        private int partitionCount;
+        private String rowIdColumn;
 
         /**
          * Assigns the name by which the query is referenced.
@@ -84,6 +87,31 @@ public class PredefinedDatabaseQuery implements PredefinedQuery, Cloneable {
             return this;
         }
 
+        /**
+         * Enables partitioned reading, where the query is split into ranges of the partition column
+         * which are read concurrently on separate connections.
+         * The partition column must be one of the select columns and have an integral type.
+         * @param partitionColumn the name of the column to split the ranges by
+         * @param partitionCount the number of ranges to read concurrently
+         * @return the builder
+         */
+        public Builder partitionedBy(String partitionColumn, int partitionCount) {
+            this.partitionColumn = partitionColumn;
+            this.partitionCount = partitionCount;
+            return this;
+        }
+
+        /**
+         * Derives the row ids from the values of a primary key column instead of numbering the rows.
+         * The column must be one of the select columns; its values must be unique and not {@code NULL}.
+         * @param rowIdColumn the name of the primary key column
+         * @return the builder
+         */
+        public Builder identifyingRowsBy(String rowIdColumn) {
+            this.rowIdColumn = rowIdColumn;
+            return this;
+        }
+
         /**
          * Builds a {@link PredefinedDatabaseQuery} object from the parameters passed to the builder.
          * @return the query object
@@ -98,6 +126,9 @@ public class PredefinedDatabaseQuery implements PredefinedQuery, Cloneable {
             query.fromClause = this.fromClause;
             query.whereClause = this.whereClause;
             query.sorting = this.sorting;
+            query.partitionColumn = this.partitionColumn;
+            query.partitionCount = this.partitionColumn == null ? 0 : this.partitionCount;
+            query.rowIdColumn = this.rowIdColumn;
             return query;
         }
 
@@ -113,6 +144,10 @@ public class PredefinedDatabaseQuery implements PredefinedQuery, Cloneable {
             if (fromClause == null || fromClause.isEmpty()) {
                 errors += " - from clause not specified";
             }
+            errors += detectPartitionErrors();
+            if (rowIdColumn != null && !isSelectColumn(rowIdColumn)) {
+                errors += " - row id column is not a select column";
+            }
             if (!errors.isEmpty()) {
                 throw new BuilderFailedException("Builder validation failed with errors: " + errors);
             }
@@ -132,6 +167,25 @@ public class PredefinedDatabaseQuery implements PredefinedQuery, Cloneable {
             return errors;
         }
 
+        private String detectPartitionErrors() {
+            if (partitionColumn == null) {
+                return "";
+            }
+            String errors = "";
+            if (!isSelectColumn(partitionColumn)) {
+                errors += " - partition column is not a select column";
+            }
+            if (partitionCount < 1) {
+                errors += " - partition count must be positive";
+            }
+            return errors;
+        }
+
+        private boolean isSelectColumn(String columnName) {
+            return columnsToSelect != null
+                    && columnsToSelect.stream().anyMatch(column -> column != null && columnName.equals(column.getName()));
+        }
+
         private String detectSingleColumnErrors(DatabaseQueryColumn queryColumn) {
             if (queryColumn == null) {
                 return "column is null";
@@ -154,6 +208,9 @@ public class PredefinedDatabaseQuery implements PredefinedQuery, Cloneable {
     private String fromClause;
     private String whereClause;
     private List<String> sorting;
+    private String partitionColumn;
+    private int partitionCount;
+    private String rowIdColumn;
 
     private PredefinedDatabaseQuery() {
     }
@@ -218,6 +275,29 @@ public class PredefinedDatabaseQuery implements PredefinedQuery, Cloneable {
         return new ArrayList<>(sorting);
     }
 
+    /**
+     * Gets the name of the column by which the query is split into concurrently read ranges.
+     * @return the partition column, or {@code null} if the query is not read partitioned
+     */
+    public String getPartitionColumn() {
+        return partitionColumn;
+    }
+
+    /**
+     * @return the number of concurrently read ranges, or 0 if the query is not read partitioned
+     */
+    public int getPartitionCount() {
+        return partitionCount;
+    }
+
+    /**
+     * Gets the name of the primary key column whose values identify the rows.
+     * @return the row id column, or {@code null} if the rows are numbered
+     */
+    public String getRowIdColumn() {
+        return rowIdColumn;
+    }
+
     /**
      * Creates a deep clone of the object.
      * @return the clone
@@ -232,6 +312,8 @@ public class PredefinedDatabaseQuery implements PredefinedQuery, Cloneable {
                     .selectingFrom(this.fromClause)
                     .applyingFilter(this.whereClause)
                     .withSorting(this.sorting)
+                    .partitionedBy(this.partitionColumn, this.partitionCount)
+                    .identifyingRowsBy(this.rowIdColumn)
                     .build();
         } catch (BuilderFailedException e) {
             throw new IllegalStateException("Builder should never fail in clone()");
@@ -7,6 +7,7 @@ package org.tablevert.core.config;
 
 import org.tablevert.core.BuilderFailedException;
 
+import java.util.ArrayList;
 import java.util.Hashtable;
 import java.util.List;
 import java.util.Map;
@@ -163,6 +164,16 @@ public class SimpleTablevertConfig implements TablevertConfig, Cloneable {
                 ? null : dataSourceMap.get(predefinedDatabaseQuery.getDataSourceName()).clone();
     }
 
+    /**
+     * Gets clones of all configured data sources.
+     * @return the data sources
+     */
+    public List<DataSource> getDataSources() {
+        List<DataSource> dataSources = new ArrayList<>();
+        dataSourceMap.values().forEach(dataSource -> dataSources.add(dataSource.clone()));
+        return dataSources;
+    }
+
     /**
      * Creates a deep clone of this object.
      * @return the clone
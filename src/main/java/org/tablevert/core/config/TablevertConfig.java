@@ -5,6 +5,9 @@
 
 package org.tablevert.core.config;
 
+import java.util.Collections;
+import java.util.List;
+
 /**
  * Tablevert configuration to be passed to the Tableverter instance.
   */
@@ -14,6 +17,16 @@ public interface TablevertConfig {
 
     DataSource getDataSourceForQuery(String queryName);
 
+    /**
+     * Gets all configured data sources, e.g. to open their connections up front.
+     * Configurations not listing their data sources return an empty list, so that connections are opened on first use.
+     *
+     * @return the data sources
+     */
+    default List<DataSource> getDataSources() {
+        return Collections.emptyList();
+    }
+
     TablevertConfig clone();
 
 }
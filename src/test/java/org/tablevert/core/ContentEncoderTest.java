@@ -0,0 +1,152 @@
+/*
+ * Copyright 2019 conis Informationssysteme GmbH
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.tablevert.core;
+
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.InflaterInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ContentEncoderTest {
+
+    private static final int ROW_COUNT = 2000;
+
+    @Test
+    void writesGzipEncodedHtml() throws Exception {
+        Output output = new HtmlOutputGenerator().process(createDataGrid());
+        ClosingAwareOutputStream encoded = new ClosingAwareOutputStream();
+
+        ContentEncoding encoding = output.writeContent(encoded, ContentEncoding.GZIP, 6);
+
+        assertEquals(ContentEncoding.GZIP, encoding);
+        assertFalse(encoded.closed);
+        assertEquals(output.toString(), decode(new GZIPInputStream(new ByteArrayInputStream(encoded.toByteArray()))));
+    }
+
+    @Test
+    void writesDeflateEncodedHtmlWithReusedDeflaters() throws Exception {
+        Output output = new HtmlOutputGenerator().process(createDataGrid());
+
+        for (int round = 0; round < ContentEncoder.MAX_POOLED_DEFLATERS + 2; round++) {
+            ByteArrayOutputStream encoded = new ByteArrayOutputStream();
+            assertEquals(ContentEncoding.DEFLATE, output.writeContent(encoded, ContentEncoding.DEFLATE));
+            assertEquals(output.toString(),
+                    decode(new InflaterInputStream(new ByteArrayInputStream(encoded.toByteArray()))));
+        }
+    }
+
+    @Test
+    void leavesGzipContentIncompleteOnFailure() throws Exception {
+        Output failingOutput = new Output() {
+            @Override
+            public OutputFormat getFormat() {
+                return OutputFormat.HTML;
+            }
+
+            @Override
+            public void writeContent(OutputStream outputStream) throws OutputGeneratorException {
+                try {
+                    outputStream.write("partial content".getBytes(StandardCharsets.UTF_8));
+                } catch (IOException e) {
+                    throw new OutputGeneratorException("Unexpected failure", e);
+                }
+                throw new OutputGeneratorException("Failed after partial content");
+            }
+        };
+        ByteArrayOutputStream encoded = new ByteArrayOutputStream();
+
+        assertThrows(OutputGeneratorException.class, () -> failingOutput.writeContent(encoded, ContentEncoding.GZIP));
+        assertThrows(IOException.class,
+                () -> decode(new GZIPInputStream(new ByteArrayInputStream(encoded.toByteArray()))));
+    }
+
+    @Test
+    void writesGzipTrailerOnce() throws Exception {
+        byte[] content = "content".getBytes(StandardCharsets.UTF_8);
+        ByteArrayOutputStream closedOnly = new ByteArrayOutputStream();
+        ByteArrayOutputStream finishedAndClosed = new ByteArrayOutputStream();
+
+        try (OutputStream encodingStream = ContentEncoder.open(closedOnly, ContentEncoding.GZIP, 6)) {
+            encodingStream.write(content);
+        }
+        try (ContentEncoder.EncodingOutputStream encodingStream =
+                     ContentEncoder.open(finishedAndClosed, ContentEncoding.GZIP, 6)) {
+            encodingStream.write(content);
+            encodingStream.finish();
+            encodingStream.finish();
+        }
+
+        assertArrayEquals(closedOnly.toByteArray(), finishedAndClosed.toByteArray());
+    }
+
+    @Test
+    void writesIdentityUnencoded() throws Exception {
+        Output output = new HtmlOutputGenerator().process(createDataGrid());
+        ByteArrayOutputStream content = new ByteArrayOutputStream();
+
+        assertEquals(ContentEncoding.IDENTITY, output.writeContent(content, ContentEncoding.IDENTITY));
+        assertEquals(output.toString(), new String(content.toByteArray(), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void keepsXlsxUnencoded() {
+        Output output = new XlsxOutput(new XSSFWorkbook());
+
+        assertEquals(ContentEncoding.IDENTITY, output.getContentEncodingFor(ContentEncoding.GZIP));
+    }
+
+    @Test
+    void rejectsInvalidLevel() throws Exception {
+        Output output = new HtmlOutputGenerator().process(createDataGrid());
+
+        assertThrows(IllegalArgumentException.class,
+                () -> output.writeContent(new ByteArrayOutputStream(), ContentEncoding.GZIP, 10));
+    }
+
+    private String decode(InputStream decodingStream) throws IOException {
+        ByteArrayOutputStream decoded = new ByteArrayOutputStream();
+        byte[] chunk = new byte[8192];
+        int length;
+        while ((length = decodingStream.read(chunk)) > 0) {
+            decoded.write(chunk, 0, length);
+        }
+        return new String(decoded.toByteArray(), StandardCharsets.UTF_8);
+    }
+
+    private DataGrid createDataGrid() throws DataGridException {
+        DataGrid.Builder builder = new DataGrid.Builder()
+                .withColumn(new DataGridColumn(0, "id", "java.lang.Integer"))
+                .withColumn(new DataGridColumn(1, "name", "java.lang.String"))
+                .andData();
+        for (int i = 0; i < ROW_COUNT; i++) {
+            DataGridRow row = new DataGridRow(String.valueOf(i), 2);
+            row.addReplaceValue(0, i);
+            row.addReplaceValue(1, "name " + (i % 37) + " & more");
+            builder.withRow(row);
+        }
+        return builder.build();
+    }
+
+    private static final class ClosingAwareOutputStream extends ByteArrayOutputStream {
+        private boolean closed;
+
+        @Override
+        public void close() throws IOException {
+            closed = true;
+            super.close();
+        }
+    }
+
+}
@@ -0,0 +1,202 @@
+/*
+ * Copyright 2019 conis Informationssysteme GmbH
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.tablevert.core;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Locale;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CsvOutputGeneratorTest {
+
+    @Test
+    void writesRfc4180RecordsByDefault() throws Exception {
+        DataGrid dataGrid = new DataGrid.Builder()
+                .withColumn(new DataGridColumn(0, "name", "java.lang.String"))
+                .withColumn(new DataGridColumn(1, "remark", "java.lang.String"))
+                .andData()
+                .withRow(createTextRow("0", "plain", "with, comma"))
+                .withRow(createTextRow("1", "say \"hi\"", "two\nlines"))
+                .withRow(createTextRow("2", null, "Grüße"))
+                .build();
+
+        Output output = new CsvOutputGenerator().process(dataGrid);
+
+        assertEquals(OutputFormat.CSV, output.getFormat());
+        assertEquals("name,remark\r\n"
+                + "plain,\"with, comma\"\r\n"
+                + "\"say \"\"hi\"\"\",\"two\nlines\"\r\n"
+                + ",Grüße\r\n", output.toString());
+    }
+
+    @Test
+    void writesNumbersAndDatesIndependentOfLocale() throws Exception {
+        Locale defaultLocale = Locale.getDefault();
+        Locale.setDefault(Locale.GERMANY);
+        try {
+            DataGrid.Builder dataGridBuilder = new DataGrid.Builder();
+            addTypedColumnsTo(dataGridBuilder);
+            dataGridBuilder.andData()
+                    .withRow(createTypedRow("0", -1234567, 0.25, new BigDecimal("1E+3"), LocalDate.of(2019, 3, 1),
+                            Timestamp.valueOf("2019-03-01 12:00:00")))
+                    .withRow(createTypedRow("1", null, 3.0, null, null, null));
+
+            String csv = new CsvOutputGenerator().process(dataGridBuilder.build()).toString();
+
+            assertEquals("count,ratio,amount,day,created\r\n"
+                    + "-1234567,0.25,1000,2019-03-01,2019-03-01T12:00:00\r\n"
+                    + ",3,,,\r\n", csv);
+        } finally {
+            Locale.setDefault(defaultLocale);
+        }
+    }
+
+    @Test
+    void writesDoublesInPlainNotation() throws Exception {
+        DataGrid.Builder dataGridBuilder = new DataGrid.Builder();
+        addTypedColumnsTo(dataGridBuilder);
+        dataGridBuilder.andData();
+        double[] ratios = {1.0E7, 1.0E15, 1.5E20, 0.00025, -1.25E-10, Double.NaN};
+        for (int i = 0; i < ratios.length; i++) {
+            dataGridBuilder.withRow(createTypedRow(String.valueOf(i), null, ratios[i], null, null, null));
+        }
+
+        String csv = new CsvOutputGenerator().process(dataGridBuilder.build()).toString();
+
+        assertEquals("count,ratio,amount,day,created\r\n"
+                + ",10000000,,,\r\n"
+                + ",1000000000000000,,,\r\n"
+                + ",150000000000000000000,,,\r\n"
+                + ",0.00025,,,\r\n"
+                + ",-0.000000000125,,,\r\n"
+                + ",NaN,,,\r\n", csv);
+    }
+
+    @Test
+    void writesFloatsWithTheirOwnDigits() throws Exception {
+        DataGrid dataGrid = new DataGrid.Builder()
+                .withColumn(new DataGridColumn(0, "id", "java.lang.Long"))
+                .withColumn(new DataGridColumn(1, "weight", "java.lang.Float"))
+                .andData()
+                .withRow(createWeightedRow("0", 1L, 0.1f))
+                .withRow(createWeightedRow("1", 2L, 1.0E10f))
+                .withRow(createWeightedRow("2", 3L, -2.5E-7f))
+                .withRow(createWeightedRow("3", 4L, Float.NaN))
+                .build();
+
+        String csv = new CsvOutputGenerator().process(dataGrid).toString();
+
+        assertEquals("id,weight\r\n"
+                + "1,0.1\r\n"
+                + "2,10000000000\r\n"
+                + "3,-0.00000025\r\n"
+                + "4,NaN\r\n", csv);
+    }
+
+    @Test
+    void writesConfiguredDialect() throws Exception {
+        DataGrid dataGrid = new DataGrid.Builder()
+                .withColumn(new DataGridColumn(0, "id", "java.lang.Long"))
+                .withColumn(new DataGridColumn(1, "name", "java.lang.String"))
+                .andData()
+                .withRow(createNamedRow("0", 7L, "it's"))
+                .withRow(createNamedRow("1", 8L, null))
+                .build();
+        OutputOptions outputOptions = new OutputOptions.Builder()
+                .withCsvDialect(new CsvDialect.Builder()
+                        .withDelimiter(';')
+                        .withQuoteCharacter('\'')
+                        .withQuoting(CsvDialect.Quoting.NON_NUMERIC)
+                        .withLineEnding("\n")
+                        .withByteOrderMark()
+                        .withoutHeader()
+                        .build())
+                .build();
+        ByteArrayOutputStream content = new ByteArrayOutputStream();
+
+        new CsvOutputGenerator(outputOptions).process(dataGrid).writeContent(content);
+
+        byte[] bytes = content.toByteArray();
+        assertArrayEquals(new byte[]{(byte) 0xef, (byte) 0xbb, (byte) 0xbf}, Arrays.copyOf(bytes, 3));
+        assertEquals("7;'it''s'\n8;\n", new String(bytes, 3, bytes.length - 3, StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void quotesAllFieldsIfConfigured() throws Exception {
+        DataGrid dataGrid = new DataGrid.Builder()
+                .withColumn(new DataGridColumn(0, "id", "java.lang.Long"))
+                .withColumn(new DataGridColumn(1, "name", "java.lang.String"))
+                .andData()
+                .withRow(createNamedRow("0", 1L, "a"))
+                .build();
+        OutputOptions outputOptions = new OutputOptions.Builder()
+                .withCsvDialect(new CsvDialect.Builder().withQuoting(CsvDialect.Quoting.ALL).build())
+                .build();
+
+        String csv = new CsvOutputGenerator(outputOptions).process(dataGrid).toString();
+
+        assertEquals("\"id\",\"name\"\r\n\"1\",\"a\"\r\n", csv);
+    }
+
+    @Test
+    void rejectsInvalidDialect() {
+        CsvDialect.Builder builder = new CsvDialect.Builder()
+                .withDelimiter('"')
+                .withLineEnding(";");
+
+        BuilderFailedException e = assertThrows(BuilderFailedException.class, builder::build);
+        assertTrue(e.getMessage().contains("delimiter and quote character must differ"));
+        assertTrue(e.getMessage().contains("invalid line ending"));
+    }
+
+    private void addTypedColumnsTo(DataGrid.Builder dataGridBuilder) throws DataGridException {
+        dataGridBuilder.withColumn(new DataGridColumn(0, "count", "java.lang.Integer"));
+        dataGridBuilder.withColumn(new DataGridColumn(1, "ratio", "java.lang.Double"));
+        dataGridBuilder.withColumn(new DataGridColumn(2, "amount", "java.math.BigDecimal"));
+        dataGridBuilder.withColumn(new DataGridColumn(3, "day", "java.time.LocalDate"));
+        dataGridBuilder.withColumn(new DataGridColumn(4, "created", "java.sql.Timestamp"));
+    }
+
+    private DataGridRow createTypedRow(String id, Integer count, Double ratio, BigDecimal amount, LocalDate day,
+                                       Timestamp created) {
+        DataGridRow row = new DataGridRow(id, 5);
+        row.addReplaceValue(0, count);
+        row.addReplaceValue(1, ratio);
+        row.addReplaceValue(2, amount);
+        row.addReplaceValue(3, day);
+        row.addReplaceValue(4, created);
+        return row;
+    }
+
+    private DataGridRow createTextRow(String id, String name, String remark) {
+        DataGridRow row = new DataGridRow(id, 2);
+        row.addReplaceValue(0, name);
+        row.addReplaceValue(1, remark);
+        return row;
+    }
+
+    private DataGridRow createWeightedRow(String id, Long number, Float weight) {
+        DataGridRow row = new DataGridRow(id, 2);
+        row.addReplaceValue(0, number);
+        row.addReplaceValue(1, weight);
+        return row;
+    }
+
+    private DataGridRow createNamedRow(String id, Long number, String name) {
+        DataGridRow row = new DataGridRow(id, 2);
+        row.addReplaceValue(0, number);
+        row.addReplaceValue(1, name);
+        return row;
+    }
+
+}
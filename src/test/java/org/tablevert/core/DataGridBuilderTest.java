@@ -33,6 +33,8 @@ class DataGridBuilderTest {
     private static final String MESSAGE_NO_COLUMNS = "Data section must not be started with without columns defined";
     private static final String MESSAGE_DUPLICATE_ID = "Duplicate Id";
 
+    private static final int LARGE_ROW_COUNT = 200000;
+
     @Test
     void createsDataGridWithValuesFilled() throws Exception {
         DataGrid.Builder builder = new DataGrid.Builder();
@@ -83,6 +85,42 @@ class DataGridBuilderTest {
         assertTrue(e.getMessage().contains(ROW_ID_00));
     }
 
+    @Test
+    void keepsConsecutiveRowNumbersImplicit() throws Exception {
+        DataGrid.Builder builder = new DataGrid.Builder();
+        addColumnsTo(builder);
+        builder.andData();
+        for (int i = 0; i < LARGE_ROW_COUNT; i++) {
+            DataGridRow row = new DataGridRow(100L + i, 2);
+            row.addReplaceValue(0, CELLVALUE_00_00);
+            builder.withRow(row);
+        }
+        DataGrid dataGrid = builder.build();
+        Assertions.assertEquals(LARGE_ROW_COUNT, dataGrid.getRowCount());
+        Assertions.assertEquals("100", dataGrid.getRow(0).getId());
+        Assertions.assertEquals(String.valueOf(99 + LARGE_ROW_COUNT), dataGrid.getRow(LARGE_ROW_COUNT - 1).getId());
+        Assertions.assertEquals(LARGE_ROW_COUNT - 1, dataGrid.findRowIndex(String.valueOf(99 + LARGE_ROW_COUNT)));
+        Assertions.assertEquals(-1, dataGrid.findRowIndex("99"));
+    }
+
+    @Test
+    void indexesExplicitRowIds() throws Exception {
+        DataGrid.Builder builder = new DataGrid.Builder();
+        addColumnsTo(builder);
+        builder.andData();
+        builder.withRow(new DataGridRow(0L, 2));
+        builder.withRow(new DataGridRow(1L, 2));
+        for (int i = 0; i < LARGE_ROW_COUNT; i++) {
+            builder.withRow(new DataGridRow("key-" + i, 2));
+        }
+        Exception e = Assertions.assertThrows(DataGridException.class,
+                () -> builder.withRow(new DataGridRow("1", 2)));
+        assertTrue(e.getMessage().contains(MESSAGE_DUPLICATE_ID));
+        DataGrid dataGrid = builder.build();
+        Assertions.assertEquals("1", dataGrid.getRow(1).getId());
+        Assertions.assertEquals(LARGE_ROW_COUNT + 1, dataGrid.findRowIndex("key-" + (LARGE_ROW_COUNT - 1)));
+    }
+
     private void addColumnsTo(DataGrid.Builder dataGridBuilder) throws DataGridException {
         dataGridBuilder.withColumn(
                 new DataGridColumn(0, COLHEADER_TITLE_00, CLASSNAME_STRING)
@@ -0,0 +1,156 @@
+/*
+ * Copyright 2019 conis Informationssysteme GmbH
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.tablevert.core;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+class DataGridColumnVectorTest {
+
+    private static final int ROW_COUNT = 3 * DataGridColumnVector.CHUNK_SIZE + 17;
+
+    @Test
+    void storesPrimitivesAndNullsAcrossChunks() {
+        DataGridColumnVector vector = DataGridColumnVector.forJavaClass("java.lang.Long");
+        Assertions.assertTrue(vector instanceof DataGridColumnVector.LongVector);
+        for (int i = 0; i < ROW_COUNT; i++) {
+            Assertions.assertTrue(vector.appendValue(i % 7 == 0 ? null : (long) i * 1000));
+        }
+        Assertions.assertEquals(ROW_COUNT, vector.size());
+        for (int i = 0; i < ROW_COUNT; i++) {
+            if (i % 7 == 0) {
+                Assertions.assertTrue(vector.isNull(i));
+                Assertions.assertNull(vector.getValue(i));
+            } else {
+                Assertions.assertFalse(vector.isNull(i));
+                Assertions.assertEquals((long) i * 1000, ((DataGridColumnVector.LongVector) vector).getLong(i));
+            }
+        }
+        Assertions.assertNull(vector.getValue(ROW_COUNT));
+    }
+
+    @Test
+    void rejectsValuesOfOtherTypeUntilConvertedToObjects() {
+        DataGridColumnVector vector = DataGridColumnVector.forJavaClass("java.lang.Integer");
+        vector.appendValue(42);
+        vector.appendValue(null);
+        Assertions.assertFalse(vector.appendValue("infinity"));
+        Assertions.assertEquals(2, vector.size());
+
+        DataGridColumnVector objectVector = vector.toObjectVector();
+        Assertions.assertTrue(objectVector.appendValue("infinity"));
+        Assertions.assertEquals(42, objectVector.getValue(0));
+        Assertions.assertTrue(objectVector.isNull(1));
+        Assertions.assertEquals("infinity", objectVector.getValue(2));
+    }
+
+    @Test
+    void appendsTypedValuesColumnByColumn() throws Exception {
+        DataGrid.Builder builder = new DataGrid.Builder()
+                .withColumn(new DataGridColumn(0, "count", "java.lang.Integer"))
+                .withColumn(new DataGridColumn(1, "total", "java.lang.Long"))
+                .withColumn(new DataGridColumn(2, "ratio", "java.lang.Double"))
+                .withColumn(new DataGridColumn(3, "name", "java.lang.String"))
+                .andData();
+        for (int i = 0; i < ROW_COUNT; i++) {
+            builder.appendInt(0, i)
+                    .appendLong(1, i * 1000L)
+                    .appendDouble(2, i * 0.5)
+                    .appendValue(3, i % 2 == 0 ? "even" : null)
+                    .endRow(i);
+        }
+        builder.appendNull(0).appendNull(1).appendNull(2).appendInt(3, 7).endRow(ROW_COUNT);
+        DataGrid dataGrid = builder.build();
+
+        Assertions.assertEquals(ROW_COUNT + 1, dataGrid.getRowCount());
+        Assertions.assertTrue(dataGrid.hasNumberedRows());
+        Assertions.assertEquals(ROW_COUNT - 1,
+                ((DataGridColumnVector.IntVector) dataGrid.getColumnVector(0)).getInt(ROW_COUNT - 1));
+        Assertions.assertEquals((ROW_COUNT - 1) * 1000L, dataGrid.getValue(ROW_COUNT - 1, 1));
+        Assertions.assertEquals((ROW_COUNT - 1) * 0.5, dataGrid.getValue(ROW_COUNT - 1, 2));
+        Assertions.assertEquals(ROW_COUNT, dataGrid.getColumnVector(0).getNonNullCount());
+        Assertions.assertTrue(dataGrid.getColumnVector(1).isNull(ROW_COUNT));
+        Assertions.assertTrue(dataGrid.getColumnVector(3) instanceof DataGridColumnVector.ObjectVector);
+        Assertions.assertEquals("even", dataGrid.getValue(0, 3));
+        Assertions.assertEquals(7, dataGrid.getValue(ROW_COUNT, 3));
+    }
+
+    @Test
+    void encodesStringsUntilDictionaryLimitIsReached() throws Exception {
+        DataGrid.Builder builder = new DataGrid.Builder()
+                .withColumn(new DataGridColumn(0, "status", "java.lang.String"))
+                .withColumn(new DataGridColumn(1, "comment", "java.lang.String"))
+                .withDictionaryLimit(3)
+                .andData();
+        for (int i = 0; i < 100; i++) {
+            DataGridRow row = new DataGridRow(String.valueOf(i), 2);
+            row.addReplaceValue(0, i % 3 == 0 ? null : "status " + (i % 3));
+            row.addReplaceValue(1, "comment " + i);
+            builder.withRow(row);
+        }
+        DataGrid dataGrid = builder.build();
+
+        Assertions.assertTrue(dataGrid.getColumnVector(0) instanceof DataGridColumnVector.DictionaryVector);
+        DataGridColumnVector.DictionaryVector statusVector = (DataGridColumnVector.DictionaryVector) dataGrid.getColumnVector(0);
+        Assertions.assertEquals(2, statusVector.getDictionarySize());
+        Assertions.assertTrue(statusVector.isNull(99));
+        Assertions.assertEquals("status 2", statusVector.getDictionaryValue(statusVector.getCode(98)));
+        Assertions.assertSame(dataGrid.getValue(2, 0), dataGrid.getValue(98, 0));
+
+        Assertions.assertTrue(dataGrid.getColumnVector(1) instanceof DataGridColumnVector.ObjectVector);
+        Assertions.assertEquals("comment 0", dataGrid.getValue(0, 1));
+        Assertions.assertEquals("comment 99", dataGrid.getValue(99, 1));
+    }
+
+    @Test
+    void estimatesDistinctCountsOfStringColumns() throws Exception {
+        DataGrid.Builder builder = new DataGrid.Builder()
+                .withColumn(new DataGridColumn(0, "status", "java.lang.String"))
+                .withColumn(new DataGridColumn(1, "comment", "java.lang.String"))
+                .withColumn(new DataGridColumn(2, "amount", "java.lang.Double"))
+                .withDictionaryLimit(50)
+                .andData();
+        for (int i = 0; i < 1000; i++) {
+            DataGridRow row = new DataGridRow(String.valueOf(i), 3);
+            row.addReplaceValue(0, i % 4 == 0 ? null : "status " + (i % 3));
+            row.addReplaceValue(1, "comment " + i);
+            row.addReplaceValue(2, i * 0.5);
+            builder.withRow(row);
+        }
+        DataGrid dataGrid = builder.build();
+
+        Assertions.assertEquals(750, dataGrid.getColumnVector(0).getNonNullCount());
+        Assertions.assertEquals(3, dataGrid.getColumnVector(0).estimateDistinctCount());
+        Assertions.assertEquals(XlsxStringStrategy.SHARED, XlsxStringStrategy.forColumn(dataGrid.getColumnVector(0)));
+        Assertions.assertEquals(1000, dataGrid.getColumnVector(1).estimateDistinctCount());
+        Assertions.assertEquals(XlsxStringStrategy.INLINE, XlsxStringStrategy.forColumn(dataGrid.getColumnVector(1)));
+        Assertions.assertEquals(-1, dataGrid.getColumnVector(2).estimateDistinctCount());
+        Assertions.assertEquals(XlsxStringStrategy.SHARED, XlsxStringStrategy.forColumn(dataGrid.getColumnVector(2)));
+    }
+
+    @Test
+    void providesReadOnlyRowViewsOfDataGrid() throws Exception {
+        DataGrid.Builder builder = new DataGrid.Builder()
+                .withColumn(new DataGridColumn(0, "amount", "java.lang.Double"))
+                .withColumn(new DataGridColumn(1, "name", "java.lang.String"))
+                .andData();
+        for (int i = 0; i < ROW_COUNT; i++) {
+            DataGridRow row = new DataGridRow(String.valueOf(i), 2);
+            row.addReplaceValue(0, i * 0.5);
+            row.addReplaceValue(1, i % 2 == 0 ? "even" : null);
+            builder.withRow(row);
+        }
+        DataGrid dataGrid = builder.build();
+        DataGridRow view = dataGrid.getRow(ROW_COUNT - 2);
+        Assertions.assertEquals(String.valueOf(ROW_COUNT - 2), view.getId());
+        Assertions.assertEquals((ROW_COUNT - 2) * 0.5, view.getValue(0));
+        Assertions.assertNull(view.getValue(1));
+        Assertions.assertEquals(1, view.getColumnIndicesOfValues().size());
+        Assertions.assertEquals("even", dataGrid.getValue(0, 1));
+        Assertions.assertThrows(UnsupportedOperationException.class, () -> view.addReplaceValue(1, "odd"));
+    }
+
+}
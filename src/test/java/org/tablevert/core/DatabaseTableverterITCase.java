@@ -56,6 +56,39 @@ class DatabaseTableverterITCase {
 
     }
 
+    @Test
+    void tablevertsPostgresToStreamedXlsx() throws Exception {
+        TableverterFactory factory = new TableverterFactory();
+        Tableverter tableverter = factory.createDatabaseTableverterFor(getConfigForPostgresTest());
+        AppliedDatabaseQuery appliedQuery = new AppliedDatabaseQuery.Builder()
+                .forDatabaseQuery(TESTQUERY_NAME)
+                .streamingWithFetchSize(2)
+                .build();
+        OutputOptions outputOptions = new OutputOptions.Builder()
+                .streamingXlsx()
+                .build();
+        Output output = tableverter.tablevert(appliedQuery, OutputFormat.XLSX, outputOptions);
+        Assertions.assertNotNull(output);
+        Assertions.assertEquals(OutputFormat.XLSX, output.getFormat());
+    }
+
+    @Test
+    void reusesPooledConnections() throws Exception {
+        TableverterFactory factory = new TableverterFactory();
+        try (DatabaseTableverter tableverter =
+                     (DatabaseTableverter) factory.createDatabaseTableverterFor(getConfigForPostgresTest())) {
+            AppliedDatabaseQuery appliedQuery = new AppliedDatabaseQuery.Builder()
+                    .forDatabaseQuery(TESTQUERY_NAME)
+                    .build();
+            tableverter.tablevert(appliedQuery, OutputFormat.HTML);
+            tableverter.tablevert(appliedQuery, OutputFormat.HTML);
+            ConnectionPoolMetrics metrics = tableverter.getConnectionPoolMetrics().get(0);
+            Assertions.assertEquals(1, metrics.getCreatedCount());
+            Assertions.assertEquals(2, metrics.getBorrowCount());
+            Assertions.assertEquals(0, metrics.getActiveCount());
+        }
+    }
+
     private TablevertConfig getConfigForPostgresTest() throws Exception {
         return new SimpleTablevertConfig.Builder()
                 .withDataSource(new Database.Builder()
@@ -0,0 +1,38 @@
+/*
+ * Copyright 2019 conis Informationssysteme GmbH
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.tablevert.core;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+class HtmlEscaperTest {
+
+    @Test
+    void escapesMarkupCharacters() throws Exception {
+        Assertions.assertEquals("&lt;a href=&quot;x&quot; title=&#39;y&#39;&gt;Tom &amp; Jerry&lt;/a&gt;",
+                escape("<a href=\"x\" title='y'>Tom & Jerry</a>"));
+    }
+
+    @Test
+    void keepsOtherCharactersAsTheyAre() throws Exception {
+        Assertions.assertEquals("", escape(""));
+        Assertions.assertEquals("plain text\nwith Grüße, € and 😀",
+                escape("plain text\nwith Grüße, € and 😀"));
+    }
+
+    private String escape(String text) throws IOException {
+        ByteArrayOutputStream content = new ByteArrayOutputStream();
+        Utf8OutputBuffer buffer = new Utf8OutputBuffer().writingTo(content);
+        HtmlEscaper.appendEscaped(buffer, text);
+        buffer.flush();
+        return new String(content.toByteArray(), StandardCharsets.UTF_8);
+    }
+
+}
@@ -7,6 +7,11 @@ package org.tablevert.core;
 
 import org.junit.jupiter.api.Test;
 
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 class HtmlOutputGeneratorTest {
@@ -60,6 +65,123 @@ class HtmlOutputGeneratorTest {
         assertEquals(expectedResultWithoutData(), output.toString());
     }
 
+    @Test
+    void writesTypedValuesAndRowIds() throws Exception {
+        DataGrid dataGrid = new DataGrid.Builder()
+                .withColumn(new DataGridColumn(0, "count", "java.lang.Integer"))
+                .withColumn(new DataGridColumn(1, "total", "java.lang.Long"))
+                .withColumn(new DataGridColumn(2, "ratio", "java.lang.Double"))
+                .withColumn(new DataGridColumn(3, "name", CLASSNAME_STRING))
+                .andData()
+                .withRow(createTypedRow("a-1", -42, 1234567890123L, 0.25, "Grüße"))
+                .withRow(createTypedRow("b-2", null, null, null, null))
+                .build();
+
+        String html = new HtmlOutputGenerator().process(dataGrid).toString();
+
+        assertTrue(html.contains("<tr><td>a-1</td><td>-42</td><td>1234567890123</td><td>0.25</td><td>Grüße</td></tr>"));
+        assertTrue(html.contains("<tr><td>b-2</td><td></td><td></td><td></td><td></td></tr>"));
+    }
+
+    @Test
+    void streamsLargeTablesInBufferSizedWrites() throws Exception {
+        DataGrid.Builder dataGridBuilder = new DataGrid.Builder();
+        addColumnsTo(dataGridBuilder);
+        dataGridBuilder.andData();
+        for (int i = 0; i < 20000; i++) {
+            DataGridRow row = new DataGridRow(i, 2);
+            row.addReplaceValue(0, "value " + i);
+            row.addReplaceValue(1, "ä");
+            dataGridBuilder.withRow(row);
+        }
+        Output output = new HtmlOutputGenerator().process(dataGridBuilder.build());
+
+        List<Integer> writeSizes = new ArrayList<>();
+        ByteArrayOutputStream content = new ByteArrayOutputStream() {
+            @Override
+            public synchronized void write(byte[] b, int off, int len) {
+                writeSizes.add(len);
+                super.write(b, off, len);
+            }
+        };
+        output.writeContent(content);
+
+        assertTrue(writeSizes.size() > 1);
+        assertTrue(writeSizes.stream().allMatch(size -> size <= Utf8OutputBuffer.DEFAULT_CAPACITY));
+        String html = new String(content.toByteArray(), StandardCharsets.UTF_8);
+        assertEquals(output.toString(), html);
+        assertTrue(html.endsWith("<tr><td>19999</td><td>value 19999</td><td>ä</td></tr></tbody></table>"));
+    }
+
+    @Test
+    void escapesHeadersIdsAndValues() throws Exception {
+        DataGrid dataGrid = new DataGrid.Builder()
+                .withColumn(new DataGridColumn(0, "a<b", CLASSNAME_STRING))
+                .withColumn(new DataGridColumn(1, "notes", "java.lang.Object"))
+                .andData()
+                .withRow(createEscapedRow("id&1", "<script>alert('x')</script>", "\"quoted\" & more"))
+                .withRow(createEscapedRow("id2", "plain", "Grüße > 😀"))
+                .build();
+
+        String html = new HtmlOutputGenerator().process(dataGrid).toString();
+
+        assertTrue(html.contains("<th>a&lt;b</th>"));
+        assertTrue(html.contains("<tr><td>id&amp;1</td><td>&lt;script&gt;alert(&#39;x&#39;)&lt;/script&gt;</td>"
+                + "<td>&quot;quoted&quot; &amp; more</td></tr>"));
+        assertTrue(html.contains("<tr><td>id2</td><td>plain</td><td>Grüße &gt; 😀</td></tr>"));
+    }
+
+    @Test
+    void writesSkeletonAndNumberedBodyChunks() throws Exception {
+        DataGrid.Builder dataGridBuilder = new DataGrid.Builder();
+        addColumnsTo(dataGridBuilder);
+        dataGridBuilder.andData();
+        for (int i = 0; i < 7; i++) {
+            DataGridRow row = new DataGridRow(i, 2);
+            row.addReplaceValue(0, "a" + i);
+            row.addReplaceValue(1, "b" + i);
+            dataGridBuilder.withRow(row);
+        }
+        OutputOptions outputOptions = new OutputOptions.Builder().chunkingHtml(3).build();
+        HtmlOutput output = (HtmlOutput) new HtmlOutputGenerator(outputOptions).process(dataGridBuilder.build());
+
+        assertEquals(3, output.getChunkCount());
+        ByteArrayOutputStream skeleton = new ByteArrayOutputStream();
+        output.writeSkeleton(skeleton);
+        assertEquals("<table>" + composeColsAndHead() + "</table>", skeleton.toString("UTF-8"));
+        ByteArrayOutputStream lastChunk = new ByteArrayOutputStream();
+        output.writeChunk(2, lastChunk);
+        assertEquals("<tbody data-tv-chunk=\"2\"><tr><td>6</td><td>a6</td><td>b6</td></tr></tbody>",
+                lastChunk.toString("UTF-8"));
+        assertThrows(OutputGeneratorException.class, () -> output.writeChunk(3, new ByteArrayOutputStream()));
+
+        StringBuilder chunks = new StringBuilder();
+        for (int chunkIndex = 0; chunkIndex < output.getChunkCount(); chunkIndex++) {
+            ByteArrayOutputStream chunk = new ByteArrayOutputStream();
+            output.writeChunk(chunkIndex, chunk);
+            chunks.append(chunk.toString("UTF-8"));
+        }
+        assertEquals("<table>" + composeColsAndHead() + chunks + "</table>", output.toString());
+        assertTrue(chunks.toString().startsWith("<tbody data-tv-chunk=\"0\"><tr><td>0</td>"));
+        assertTrue(chunks.toString().contains("</tr></tbody><tbody data-tv-chunk=\"1\"><tr><td>3</td>"));
+    }
+
+    private DataGridRow createEscapedRow(String id, String text, String notes) {
+        DataGridRow row = new DataGridRow(id, 2);
+        row.addReplaceValue(0, text);
+        row.addReplaceValue(1, notes);
+        return row;
+    }
+
+    private DataGridRow createTypedRow(String id, Integer count, Long total, Double ratio, String name) {
+        DataGridRow row = new DataGridRow(id, 4);
+        row.addReplaceValue(0, count);
+        row.addReplaceValue(1, total);
+        row.addReplaceValue(2, ratio);
+        row.addReplaceValue(3, name);
+        return row;
+    }
+
     private DataGrid createSimpleDataGrid() throws DataGridException {
         DataGrid.Builder dataGridBuilder = new DataGrid.Builder();
         addColumnsTo(dataGridBuilder);
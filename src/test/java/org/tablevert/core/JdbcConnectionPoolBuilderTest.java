@@ -0,0 +1,76 @@
+/*
+ * Copyright 2019 conis Informationssysteme GmbH
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.tablevert.core;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.tablevert.core.config.BackendUser;
+import org.tablevert.core.config.Database;
+import org.tablevert.core.config.DatabaseType;
+
+class JdbcConnectionPoolBuilderTest {
+
+    private static final String TESTDB_NAME = "dummyDb";
+    private static final String TESTDB_USER_NAME = "tester";
+
+    private static final String BUILDER_FAILED_MESSAGE = "Builder validation failed";
+
+    @Test
+    void succeedsWithValidData() throws Exception {
+        JdbcConnectionPool pool = new JdbcConnectionPool.Builder()
+                .forDatabase(createTestDatabase())
+                .build();
+        ConnectionPoolMetrics metrics = pool.metrics();
+        Assertions.assertEquals(TESTDB_NAME, metrics.getDatabaseName());
+        Assertions.assertEquals(0, metrics.getActiveCount());
+        Assertions.assertEquals(0, metrics.getIdleCount());
+    }
+
+    @Test
+    void failsWithoutDatabase() {
+        JdbcConnectionPool.Builder builder = new JdbcConnectionPool.Builder();
+        Exception e = Assertions.assertThrows(BuilderFailedException.class,
+                () -> builder.build());
+        Assertions.assertTrue(e.getMessage().contains(BUILDER_FAILED_MESSAGE));
+        Assertions.assertTrue(e.getMessage().contains("database not specified"));
+    }
+
+    @Test
+    void failsForInvalidSize() {
+        JdbcConnectionPool.Builder builder = new JdbcConnectionPool.Builder()
+                .forDatabase(createTestDatabase())
+                .withSize(2, 0);
+        Exception e = Assertions.assertThrows(BuilderFailedException.class,
+                () -> builder.build());
+        Assertions.assertTrue(e.getMessage().contains(BUILDER_FAILED_MESSAGE));
+        Assertions.assertTrue(e.getMessage().contains("invalid pool size"));
+    }
+
+    @Test
+    void failsToBorrowFromClosedPool() throws Exception {
+        JdbcConnectionPool pool = new JdbcConnectionPool.Builder()
+                .forDatabase(createTestDatabase())
+                .build();
+        pool.close();
+        Exception e = Assertions.assertThrows(DatabaseReaderException.class,
+                () -> pool.borrowConnection());
+        Assertions.assertTrue(e.getMessage().contains("is closed"));
+    }
+
+    private Database createTestDatabase() {
+        try {
+            return new Database.Builder()
+                    .forDatabase(TESTDB_NAME)
+                    .onHost("localhost")
+                    .ofType(DatabaseType.POSTGRESQL)
+                    .withUser(new BackendUser(TESTDB_USER_NAME, "y"))
+                    .build();
+        } catch (BuilderFailedException e) {
+            throw new IllegalStateException("Builder should not fail in test");
+        }
+    }
+
+}
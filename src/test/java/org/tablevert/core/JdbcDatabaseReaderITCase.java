@@ -14,6 +14,7 @@ import org.testcontainers.junit.jupiter.Container;
 import org.testcontainers.junit.jupiter.Testcontainers;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 @Testcontainers
@@ -27,6 +28,7 @@ class JdbcDatabaseReaderITCase {
 
     private static final String TESTQUERY_NAME = "TestQuery";
     private static final String TESTQUERY_COLNAME_A = "id";
+    private static final String TESTQUERY_COLNAME_NULLABLE = "bigno";
     private static final String TESTQUERY_FROM = "mydummy";
 
 
@@ -43,6 +45,237 @@ class JdbcDatabaseReaderITCase {
         Assertions.assertDoesNotThrow(() -> fetchPostgresData());
     }
 
+    @Test
+    void streamsPostgresDataInFetchSizeBatches() throws Exception {
+        DatabaseReader dbReader = new JdbcDatabaseReader.Builder()
+                .usingConfig(createTestConfig())
+                .forAppliedQuery(new AppliedDatabaseQuery.Builder()
+                        .forDatabaseQuery(TESTQUERY_NAME)
+                        .streamingWithFetchSize(2)
+                        .build())
+                .build();
+        List<Integer> batchSizes = new ArrayList<>();
+        dbReader.stream(new DataGridRowConsumer() {
+            private final DataGrid.Builder rowBuilder = new DataGrid.Builder();
+            private int acceptedRowCount;
+
+            @Override
+            public void startGrid(List<DataGridColumn> columns) throws TablevertCoreException {
+                Assertions.assertEquals(1, columns.size());
+                rowBuilder.withColumn(columns.get(0)).andData();
+            }
+
+            @Override
+            public DataGrid.Builder getRowBuilder() {
+                return rowBuilder;
+            }
+
+            @Override
+            public void acceptRows() {
+                batchSizes.add(rowBuilder.getRowCount() - acceptedRowCount);
+                acceptedRowCount = rowBuilder.getRowCount();
+            }
+
+            @Override
+            public void endGrid() {
+            }
+        });
+        Assertions.assertEquals(2, batchSizes.size());
+        Assertions.assertEquals(2, (int) batchSizes.get(0));
+        Assertions.assertEquals(1, (int) batchSizes.get(1));
+    }
+
+    @Test
+    void retrievesFilteredAndPagedPostgresData() throws Exception {
+        DatabaseReader dbReader = new JdbcDatabaseReader.Builder()
+                .usingConfig(createTestConfig())
+                .forAppliedQuery(new AppliedDatabaseQuery.Builder()
+                        .forDatabaseQuery(TESTQUERY_NAME)
+                        .withFilter(new AppliedFilter(TESTQUERY_COLNAME_A, FilterOperator.GREATER, 1))
+                        .withSorting(Arrays.asList("-" + TESTQUERY_COLNAME_A))
+                        .withLimit(1)
+                        .withOffset(1)
+                        .build())
+                .build();
+        DataGrid dataGrid = dbReader.read();
+        Assertions.assertEquals(1, dataGrid.getRowCount());
+        Assertions.assertEquals(2, dataGrid.getRow(0).getValue(0));
+    }
+
+    @Test
+    void extractsTypedPostgresValues() throws Exception {
+        TablevertConfig config = new SimpleTablevertConfig.Builder()
+                .withDataSource(createTestDatabase())
+                .withQuery(new PredefinedDatabaseQuery.Builder()
+                        .withName(TESTQUERY_NAME)
+                        .accessingDatabase(TESTDB_NAME)
+                        .selectingColumns(Arrays.asList(new DatabaseQueryColumn("bigno"),
+                                new DatabaseQueryColumn("mydouble"), new DatabaseQueryColumn("myint"),
+                                new DatabaseQueryColumn("myjson"), new DatabaseQueryColumn("mydate")))
+                        .selectingFrom(TESTQUERY_FROM)
+                        .withSorting(Arrays.asList(TESTQUERY_COLNAME_A))
+                        .build())
+                .build();
+        DataGrid dataGrid = new JdbcDatabaseReader.Builder()
+                .usingConfig(config)
+                .forAppliedQuery(createAppliedQuery())
+                .build()
+                .read();
+        Assertions.assertEquals(9009095643568L, dataGrid.getRow(0).getValue(0));
+        Assertions.assertNull(dataGrid.getRow(0).getValue(1));
+        Assertions.assertNull(dataGrid.getRow(0).getValue(2));
+        Assertions.assertEquals(397.97, dataGrid.getRow(1).getValue(1));
+        Assertions.assertEquals(197, dataGrid.getRow(1).getValue(2));
+        Assertions.assertEquals("{\"affe\":\"hirsch\"}", dataGrid.getRow(1).getValue(3));
+        Assertions.assertEquals(java.sql.Date.valueOf("1999-01-08"), dataGrid.getRow(1).getValue(4));
+    }
+
+    @Test
+    void retrievesPostgresDataThroughBulkCopy() throws Exception {
+        DatabaseReader dbReader = new JdbcDatabaseReader.Builder()
+                .usingConfig(createTestConfig())
+                .forAppliedQuery(new AppliedDatabaseQuery.Builder()
+                        .forDatabaseQuery(TESTQUERY_NAME)
+                        .usingBulkCopy()
+                        .withFilter(new AppliedFilter(TESTQUERY_COLNAME_A, FilterOperator.GREATER, 1))
+                        .withSorting(Arrays.asList("-" + TESTQUERY_COLNAME_A))
+                        .build())
+                .build();
+        DataGrid dataGrid = dbReader.read();
+        Assertions.assertEquals(2, dataGrid.getRowCount());
+        Assertions.assertEquals(3, dataGrid.getRow(0).getValue(0));
+        Assertions.assertEquals(2, dataGrid.getRow(1).getValue(0));
+    }
+
+    @Test
+    void retrievesKeysetPagesOfPostgresData() throws Exception {
+        DataGrid firstPage = new JdbcDatabaseReader.Builder()
+                .usingConfig(createTestConfig())
+                .forAppliedQuery(new AppliedDatabaseQuery.Builder()
+                        .forDatabaseQuery(TESTQUERY_NAME)
+                        .withSorting(Arrays.asList(TESTQUERY_COLNAME_A))
+                        .withKeysetPaging(2)
+                        .build())
+                .build()
+                .read();
+        Assertions.assertEquals(2, firstPage.getRowCount());
+        Assertions.assertNotNull(firstPage.getContinuationToken());
+
+        DataGrid secondPage = new JdbcDatabaseReader.Builder()
+                .usingConfig(createTestConfig())
+                .forAppliedQuery(new AppliedDatabaseQuery.Builder()
+                        .forDatabaseQuery(TESTQUERY_NAME)
+                        .withSorting(Arrays.asList(TESTQUERY_COLNAME_A))
+                        .withKeysetPaging(2)
+                        .continuingAfter(firstPage.getContinuationToken())
+                        .build())
+                .build()
+                .read();
+        Assertions.assertEquals(1, secondPage.getRowCount());
+        Assertions.assertEquals(3, secondPage.getRow(0).getValue(0));
+        Assertions.assertNull(secondPage.getContinuationToken());
+    }
+
+    @Test
+    void retrievesKeysetPagesAcrossNullSortKeys() throws Exception {
+        List<DatabaseQueryColumn> columns = createQueryColumns();
+        columns.add(new DatabaseQueryColumn(TESTQUERY_COLNAME_NULLABLE));
+        TablevertConfig config = new SimpleTablevertConfig.Builder()
+                .withDataSource(createTestDatabase())
+                .withQuery(new PredefinedDatabaseQuery.Builder()
+                        .withName(TESTQUERY_NAME)
+                        .accessingDatabase(TESTDB_NAME)
+                        .selectingColumns(columns)
+                        .selectingFrom(TESTQUERY_FROM)
+                        .build())
+                .build();
+
+        Assertions.assertEquals(Arrays.asList(1, 2, 3),
+                readAllKeysetPages(config, Arrays.asList(TESTQUERY_COLNAME_NULLABLE, TESTQUERY_COLNAME_A)));
+        Assertions.assertEquals(Arrays.asList(3, 2, 1),
+                readAllKeysetPages(config, Arrays.asList("-" + TESTQUERY_COLNAME_NULLABLE, TESTQUERY_COLNAME_A)));
+    }
+
+    @Test
+    void retrievesPartitionedPostgresDataInSortOrder() throws Exception {
+        TablevertConfig config = new SimpleTablevertConfig.Builder()
+                .withDataSource(createTestDatabase())
+                .withQuery(new PredefinedDatabaseQuery.Builder()
+                        .withName(TESTQUERY_NAME)
+                        .accessingDatabase(TESTDB_NAME)
+                        .selectingColumns(createQueryColumns())
+                        .selectingFrom(TESTQUERY_FROM)
+                        .withSorting(Arrays.asList("-" + TESTQUERY_COLNAME_A))
+                        .partitionedBy(TESTQUERY_COLNAME_A, 3)
+                        .build())
+                .build();
+        DataGrid dataGrid = new JdbcDatabaseReader.Builder()
+                .usingConfig(config)
+                .forAppliedQuery(createAppliedQuery())
+                .build()
+                .read();
+        Assertions.assertEquals(3, dataGrid.getRowCount());
+        Assertions.assertEquals(3, dataGrid.getRow(0).getValue(0));
+        Assertions.assertEquals(2, dataGrid.getRow(1).getValue(0));
+        Assertions.assertEquals(1, dataGrid.getRow(2).getValue(0));
+    }
+
+    @Test
+    void retrievesMorePartitionsThanPooledConnections() throws Exception {
+        TablevertConfig config = new SimpleTablevertConfig.Builder()
+                .withDataSource(new Database.Builder()
+                        .forDatabase(TESTDB_NAME)
+                        .ofType(DatabaseType.POSTGRESQL)
+                        .onHost(TESTDB_HOST)
+                        .withPort(POSTGRE_SQL_CONTAINER.getFirstMappedPort())
+                        .withUser(new BackendUser(TESTDB_USER_NAME, TESTDB_USER_PW))
+                        .withConnectionPoolSize(0, 2)
+                        .build())
+                .withQuery(new PredefinedDatabaseQuery.Builder()
+                        .withName(TESTQUERY_NAME)
+                        .accessingDatabase(TESTDB_NAME)
+                        .selectingColumns(createQueryColumns())
+                        .selectingFrom(TESTQUERY_FROM)
+                        .withSorting(Arrays.asList(TESTQUERY_COLNAME_A))
+                        .partitionedBy(TESTQUERY_COLNAME_A, 3)
+                        .build())
+                .build();
+        DataGrid dataGrid = new JdbcDatabaseReader.Builder()
+                .usingConfig(config)
+                .forAppliedQuery(createAppliedQuery())
+                .build()
+                .read();
+        Assertions.assertEquals(3, dataGrid.getRowCount());
+        for (int rowIndex = 0; rowIndex < 3; rowIndex++) {
+            Assertions.assertEquals(rowIndex + 1, dataGrid.getRow(rowIndex).getValue(0));
+        }
+    }
+
+    /**
+     * Reads pages of a single row, so that rows with a NULL sort key end a page, until no token is returned.
+     */
+    private List<Object> readAllKeysetPages(TablevertConfig config, List<String> sorting) throws Exception {
+        List<Object> ids = new ArrayList<>();
+        String continuationToken = null;
+        do {
+            DataGrid page = new JdbcDatabaseReader.Builder()
+                    .usingConfig(config)
+                    .forAppliedQuery(new AppliedDatabaseQuery.Builder()
+                            .forDatabaseQuery(TESTQUERY_NAME)
+                            .withSorting(sorting)
+                            .withKeysetPaging(1)
+                            .continuingAfter(continuationToken)
+                            .build())
+                    .build()
+                    .read();
+            for (int rowIndex = 0; rowIndex < page.getRowCount(); rowIndex++) {
+                ids.add(page.getRow(rowIndex).getValue(0));
+            }
+            continuationToken = page.getContinuationToken();
+        } while (continuationToken != null);
+        return ids;
+    }
+
     private DataGrid fetchPostgresData() throws Exception {
         DatabaseReader dbReader = new JdbcDatabaseReader.Builder()
                 .usingConfig(createTestConfig())
@@ -0,0 +1,324 @@
+/*
+ * Copyright 2019 conis Informationssysteme GmbH
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.tablevert.core;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.tablevert.core.config.DatabaseQueryColumn;
+import org.tablevert.core.config.DatabaseType;
+import org.tablevert.core.config.PredefinedDatabaseQuery;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+class JdbcQueryStatementBuilderTest {
+
+    private static final String TESTDB_NAME = "dummyDb";
+    private static final String TESTQUERY_NAME = "TestQuery";
+    private static final String TESTQUERY_COLUMN_A_FORMULA = "LEFT(description, 4)";
+    private static final String TESTQUERY_COLUMN_A_NAME = "description";
+    private static final String TESTQUERY_COLUMN_B_NAME = "id";
+    private static final String TESTQUERY_FROM = "mydummy";
+    private static final String TESTQUERY_WHERE = "id < 100";
+
+    private static final String BUILDER_FAILED_MESSAGE = "Builder validation failed";
+
+    @Test
+    void composesPredefinedQueryOnly() throws Exception {
+        JdbcQueryStatement statement = new JdbcQueryStatement.Builder()
+                .ofDatabaseType(DatabaseType.POSTGRESQL)
+                .forPredefinedQuery(createTestDatabaseQuery())
+                .build();
+        Assertions.assertEquals("SELECT LEFT(description, 4) AS description,id FROM mydummy  WHERE id < 100 "
+                + " ORDER BY description DESC;", statement.getSql());
+        Assertions.assertTrue(statement.getParameters().isEmpty());
+    }
+
+    @Test
+    void composesAppliedFilteringSortingAndPaging() throws Exception {
+        AppliedDatabaseQuery appliedQuery = new AppliedDatabaseQuery.Builder()
+                .forDatabaseQuery(TESTQUERY_NAME)
+                .withFilter(new AppliedFilter(TESTQUERY_COLUMN_A_NAME, FilterOperator.LIKE, "ab%"))
+                .withFilter(new AppliedFilter(TESTQUERY_COLUMN_B_NAME, FilterOperator.IN, 1, 2, 3))
+                .withFilter(new AppliedFilter(TESTQUERY_COLUMN_B_NAME, FilterOperator.IS_NOT_NULL))
+                .withSorting(Arrays.asList(TESTQUERY_COLUMN_B_NAME))
+                .withLimit(50)
+                .withOffset(100)
+                .build();
+        JdbcQueryStatement statement = new JdbcQueryStatement.Builder()
+                .ofDatabaseType(DatabaseType.POSTGRESQL)
+                .forPredefinedQuery(createTestDatabaseQuery())
+                .applying(appliedQuery)
+                .build();
+        Assertions.assertEquals("SELECT LEFT(description, 4) AS description,id FROM mydummy "
+                + " WHERE (id < 100) AND (LEFT(description, 4)) LIKE ? AND id IN (?,?,?) AND id IS NOT NULL "
+                + " ORDER BY id LIMIT ? OFFSET ?;", statement.getSql());
+        Assertions.assertEquals(Arrays.asList("ab%", 1, 2, 3, 50, 100L), statement.getParameters());
+    }
+
+    @Test
+    void composesKeysetSeekPredicate() throws Exception {
+        String token = new KeysetContinuationToken(Arrays.asList(TESTQUERY_COLUMN_B_NAME, "-" + TESTQUERY_COLUMN_A_NAME),
+                Arrays.asList(7, "abcd")).encode();
+        AppliedDatabaseQuery appliedQuery = new AppliedDatabaseQuery.Builder()
+                .forDatabaseQuery(TESTQUERY_NAME)
+                .withSorting(Arrays.asList(TESTQUERY_COLUMN_B_NAME, "-" + TESTQUERY_COLUMN_A_NAME))
+                .withKeysetPaging(20)
+                .continuingAfter(token)
+                .build();
+        JdbcQueryStatement statement = new JdbcQueryStatement.Builder()
+                .ofDatabaseType(DatabaseType.POSTGRESQL)
+                .forPredefinedQuery(createTestDatabaseQuery())
+                .applying(appliedQuery)
+                .build();
+        Assertions.assertEquals("SELECT LEFT(description, 4) AS description,id FROM mydummy "
+                + " WHERE (id < 100) AND ((id > ? OR id IS NULL) OR (id = ? AND (LEFT(description, 4)) < ?)) "
+                + " ORDER BY id,description DESC LIMIT ?;", statement.getSql());
+        Assertions.assertEquals(Arrays.asList(7, 7, "abcd", 20), statement.getParameters());
+    }
+
+    @Test
+    void composesKeysetRowValueComparisonForUniformDirection() throws Exception {
+        AppliedDatabaseQuery appliedQuery = new AppliedDatabaseQuery.Builder()
+                .forDatabaseQuery(TESTQUERY_NAME)
+                .withSorting(Arrays.asList("-" + TESTQUERY_COLUMN_A_NAME, "-" + TESTQUERY_COLUMN_B_NAME))
+                .withKeysetPaging(20)
+                .seekingAfter(Arrays.asList("abcd", 7))
+                .build();
+        JdbcQueryStatement statement = new JdbcQueryStatement.Builder()
+                .ofDatabaseType(DatabaseType.POSTGRESQL)
+                .forPredefinedQuery(createTestDatabaseQuery())
+                .applying(appliedQuery)
+                .build();
+        Assertions.assertTrue(statement.getSql().contains(" AND ((LEFT(description, 4)),id) < (?,?) "));
+        Assertions.assertEquals(Arrays.asList("abcd", 7, 20), statement.getParameters());
+    }
+
+    @Test
+    void composesKeysetRowValueComparisonIncludingNullsLast() throws Exception {
+        AppliedDatabaseQuery appliedQuery = new AppliedDatabaseQuery.Builder()
+                .forDatabaseQuery(TESTQUERY_NAME)
+                .withSorting(Arrays.asList(TESTQUERY_COLUMN_A_NAME, TESTQUERY_COLUMN_B_NAME))
+                .withKeysetPaging(20)
+                .seekingAfter(Arrays.asList("abcd", 7))
+                .build();
+        JdbcQueryStatement statement = new JdbcQueryStatement.Builder()
+                .ofDatabaseType(DatabaseType.POSTGRESQL)
+                .forPredefinedQuery(createTestDatabaseQuery())
+                .applying(appliedQuery)
+                .build();
+        Assertions.assertTrue(statement.getSql().contains(" AND (((LEFT(description, 4)),id) > (?,?)"
+                + " OR (LEFT(description, 4)) IS NULL OR ((LEFT(description, 4)) = ? AND id IS NULL)) "));
+        Assertions.assertEquals(Arrays.asList("abcd", 7, "abcd", 20), statement.getParameters());
+    }
+
+    @Test
+    void composesKeysetSeekPredicateForNullSortKeys() throws Exception {
+        String ascendingToken = new KeysetContinuationToken(
+                Arrays.asList(TESTQUERY_COLUMN_A_NAME, TESTQUERY_COLUMN_B_NAME), Arrays.asList(null, 7)).encode();
+        JdbcQueryStatement ascendingStatement = new JdbcQueryStatement.Builder()
+                .ofDatabaseType(DatabaseType.POSTGRESQL)
+                .forPredefinedQuery(createTestDatabaseQuery())
+                .applying(new AppliedDatabaseQuery.Builder()
+                        .forDatabaseQuery(TESTQUERY_NAME)
+                        .withSorting(Arrays.asList(TESTQUERY_COLUMN_A_NAME, TESTQUERY_COLUMN_B_NAME))
+                        .withKeysetPaging(20)
+                        .continuingAfter(ascendingToken)
+                        .build())
+                .build();
+        Assertions.assertTrue(ascendingStatement.getSql().contains(
+                " AND ((LEFT(description, 4)) IS NULL AND (id > ? OR id IS NULL)) "));
+        Assertions.assertEquals(Arrays.asList(7, 20), ascendingStatement.getParameters());
+
+        JdbcQueryStatement descendingStatement = new JdbcQueryStatement.Builder()
+                .ofDatabaseType(DatabaseType.POSTGRESQL)
+                .forPredefinedQuery(createTestDatabaseQuery())
+                .applying(new AppliedDatabaseQuery.Builder()
+                        .forDatabaseQuery(TESTQUERY_NAME)
+                        .withSorting(Arrays.asList("-" + TESTQUERY_COLUMN_A_NAME, "-" + TESTQUERY_COLUMN_B_NAME))
+                        .withKeysetPaging(20)
+                        .seekingAfter(Arrays.asList(null, 7))
+                        .build())
+                .build();
+        Assertions.assertTrue(descendingStatement.getSql().contains(" AND ((LEFT(description, 4)) IS NOT NULL"
+                + " OR ((LEFT(description, 4)) IS NULL AND id < ?)) "));
+        Assertions.assertEquals(Arrays.asList(7, 20), descendingStatement.getParameters());
+
+        JdbcQueryStatement lastStatement = new JdbcQueryStatement.Builder()
+                .ofDatabaseType(DatabaseType.POSTGRESQL)
+                .forPredefinedQuery(createTestDatabaseQuery())
+                .applying(new AppliedDatabaseQuery.Builder()
+                        .forDatabaseQuery(TESTQUERY_NAME)
+                        .withSorting(Arrays.asList(TESTQUERY_COLUMN_A_NAME))
+                        .withKeysetPaging(20)
+                        .seekingAfter(Arrays.asList((Object) null))
+                        .build())
+                .build();
+        Assertions.assertTrue(lastStatement.getSql().contains(" AND FALSE "));
+    }
+
+    @Test
+    void failsForContinuationTokenOfDifferentSorting() {
+        String token = new KeysetContinuationToken(Arrays.asList(TESTQUERY_COLUMN_A_NAME),
+                Arrays.asList("abcd")).encode();
+        AppliedDatabaseQuery appliedQuery = new AppliedDatabaseQuery.Builder()
+                .forDatabaseQuery(TESTQUERY_NAME)
+                .withKeysetPaging(20)
+                .continuingAfter(token)
+                .build();
+        JdbcQueryStatement.Builder builder = new JdbcQueryStatement.Builder()
+                .ofDatabaseType(DatabaseType.POSTGRESQL)
+                .forPredefinedQuery(createTestDatabaseQuery())
+                .applying(appliedQuery);
+        Exception e = Assertions.assertThrows(BuilderFailedException.class,
+                () -> builder.build());
+        Assertions.assertTrue(e.getMessage().contains("continuation token does not match the query sorting"));
+    }
+
+    @Test
+    void composesPartitionBoundsAndRanges() throws Exception {
+        PredefinedDatabaseQuery query = createPartitionedTestDatabaseQuery();
+        JdbcQueryStatement boundsStatement = new JdbcQueryStatement.Builder()
+                .ofDatabaseType(DatabaseType.POSTGRESQL)
+                .forPredefinedQuery(query)
+                .selectingPartitionBounds()
+                .build();
+        Assertions.assertEquals("SELECT MIN(id),MAX(id) FROM mydummy  WHERE id < 100 ;", boundsStatement.getSql());
+
+        JdbcQueryStatement rangeStatement = new JdbcQueryStatement.Builder()
+                .ofDatabaseType(DatabaseType.POSTGRESQL)
+                .forPredefinedQuery(query)
+                .withinPartition(new JdbcQueryStatement.PartitionRange(10L, null, true))
+                .build();
+        Assertions.assertEquals("SELECT LEFT(description, 4) AS description,id FROM mydummy "
+                + " WHERE (id < 100) AND (id >= ? OR id IS NULL)  ORDER BY description DESC;", rangeStatement.getSql());
+        Assertions.assertEquals(Arrays.asList(10L), rangeStatement.getParameters());
+    }
+
+    @Test
+    void composesBulkCopyStatementWithInlinedLiterals() throws Exception {
+        AppliedDatabaseQuery appliedQuery = new AppliedDatabaseQuery.Builder()
+                .forDatabaseQuery(TESTQUERY_NAME)
+                .usingBulkCopy()
+                .withFilter(new AppliedFilter(TESTQUERY_COLUMN_A_NAME, FilterOperator.EQUAL, "it's a \\ test"))
+                .withFilter(new AppliedFilter(TESTQUERY_COLUMN_B_NAME, FilterOperator.IN, -1, 2))
+                .withLimit(50)
+                .build();
+        JdbcQueryStatement statement = new JdbcQueryStatement.Builder()
+                .ofDatabaseType(DatabaseType.POSTGRESQL)
+                .forPredefinedQuery(createTestDatabaseQuery())
+                .applying(appliedQuery)
+                .forBulkCopy()
+                .build();
+        Assertions.assertEquals("COPY (SELECT LEFT(description, 4) AS description,id FROM mydummy "
+                + " WHERE (id < 100) AND (LEFT(description, 4)) = E'it''s a \\\\ test' AND id IN ((-1),2) "
+                + " ORDER BY description DESC LIMIT 50) TO STDOUT WITH (FORMAT csv)", statement.getBulkCopySql());
+        Assertions.assertEquals(Arrays.asList("it's a \\ test", -1, 2, 50), statement.getParameters());
+    }
+
+    @Test
+    void failsForBulkCopyWithKeysetPaging() {
+        AppliedDatabaseQuery appliedQuery = new AppliedDatabaseQuery.Builder()
+                .forDatabaseQuery(TESTQUERY_NAME)
+                .usingBulkCopy()
+                .withKeysetPaging(20)
+                .build();
+        JdbcQueryStatement.Builder builder = new JdbcQueryStatement.Builder()
+                .ofDatabaseType(DatabaseType.POSTGRESQL)
+                .forPredefinedQuery(createTestDatabaseQuery())
+                .applying(appliedQuery)
+                .forBulkCopy();
+        Exception e = Assertions.assertThrows(BuilderFailedException.class,
+                () -> builder.build());
+        Assertions.assertTrue(e.getMessage().contains("bulk copy cannot be combined with keyset paging"));
+    }
+
+    @Test
+    void failsForUnknownFilterColumn() {
+        AppliedDatabaseQuery appliedQuery = new AppliedDatabaseQuery.Builder()
+                .forDatabaseQuery(TESTQUERY_NAME)
+                .withFilter(new AppliedFilter("1=1; DROP TABLE mydummy; --", FilterOperator.EQUAL, 1))
+                .build();
+        JdbcQueryStatement.Builder builder = new JdbcQueryStatement.Builder()
+                .ofDatabaseType(DatabaseType.POSTGRESQL)
+                .forPredefinedQuery(createTestDatabaseQuery())
+                .applying(appliedQuery);
+        Exception e = Assertions.assertThrows(BuilderFailedException.class,
+                () -> builder.build());
+        Assertions.assertTrue(e.getMessage().contains(BUILDER_FAILED_MESSAGE));
+        Assertions.assertTrue(e.getMessage().contains("unknown filter column"));
+    }
+
+    @Test
+    void failsForInvalidFilterValueCount() {
+        AppliedDatabaseQuery appliedQuery = new AppliedDatabaseQuery.Builder()
+                .forDatabaseQuery(TESTQUERY_NAME)
+                .withFilter(new AppliedFilter(TESTQUERY_COLUMN_B_NAME, FilterOperator.EQUAL))
+                .build();
+        JdbcQueryStatement.Builder builder = new JdbcQueryStatement.Builder()
+                .ofDatabaseType(DatabaseType.POSTGRESQL)
+                .forPredefinedQuery(createTestDatabaseQuery())
+                .applying(appliedQuery);
+        Exception e = Assertions.assertThrows(BuilderFailedException.class,
+                () -> builder.build());
+        Assertions.assertTrue(e.getMessage().contains("invalid number of values"));
+    }
+
+    @Test
+    void failsForUnknownSortColumn() {
+        AppliedDatabaseQuery appliedQuery = new AppliedDatabaseQuery.Builder()
+                .forDatabaseQuery(TESTQUERY_NAME)
+                .withSorting(Arrays.asList("-unknown"))
+                .build();
+        JdbcQueryStatement.Builder builder = new JdbcQueryStatement.Builder()
+                .ofDatabaseType(DatabaseType.POSTGRESQL)
+                .forPredefinedQuery(createTestDatabaseQuery())
+                .applying(appliedQuery);
+        Exception e = Assertions.assertThrows(BuilderFailedException.class,
+                () -> builder.build());
+        Assertions.assertTrue(e.getMessage().contains("unknown sort column [unknown]"));
+    }
+
+    private PredefinedDatabaseQuery createTestDatabaseQuery() {
+        try {
+            return new PredefinedDatabaseQuery.Builder()
+                    .withName(TESTQUERY_NAME)
+                    .accessingDatabase(TESTDB_NAME)
+                    .selectingColumns(createQueryColumns())
+                    .selectingFrom(TESTQUERY_FROM)
+                    .applyingFilter(TESTQUERY_WHERE)
+                    .withSorting(Arrays.asList("-" + TESTQUERY_COLUMN_A_NAME))
+                    .build();
+        } catch (BuilderFailedException e) {
+            throw new IllegalStateException("Builder should not fail in test");
+        }
+    }
+
+    private PredefinedDatabaseQuery createPartitionedTestDatabaseQuery() {
+        try {
+            return new PredefinedDatabaseQuery.Builder()
+                    .withName(TESTQUERY_NAME)
+                    .accessingDatabase(TESTDB_NAME)
+                    .selectingColumns(createQueryColumns())
+                    .selectingFrom(TESTQUERY_FROM)
+                    .applyingFilter(TESTQUERY_WHERE)
+                    .withSorting(Arrays.asList("-" + TESTQUERY_COLUMN_A_NAME))
+                    .partitionedBy(TESTQUERY_COLUMN_B_NAME, 4)
+                    .build();
+        } catch (BuilderFailedException e) {
+            throw new IllegalStateException("Builder should not fail in test");
+        }
+    }
+
+    private List<DatabaseQueryColumn> createQueryColumns() {
+        List<DatabaseQueryColumn> columns = new ArrayList<>();
+        columns.add(new DatabaseQueryColumn(TESTQUERY_COLUMN_A_FORMULA, TESTQUERY_COLUMN_A_NAME));
+        columns.add(new DatabaseQueryColumn(TESTQUERY_COLUMN_B_NAME));
+        return columns;
+    }
+
+}
@@ -0,0 +1,133 @@
+/*
+ * Copyright 2019 conis Informationssysteme GmbH
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.tablevert.core;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JsonOutputGeneratorTest {
+
+    @Test
+    void writesArrayOfRowObjectsWithNativeTypes() throws Exception {
+        Output output = new JsonOutputGenerator(OutputFormat.JSON).process(createDataGrid());
+
+        assertEquals(OutputFormat.JSON, output.getFormat());
+        assertEquals("["
+                + "{\"id\":1,\"name\":\"a \\\"quoted\\\"\\nline\",\"ratio\":0.5,\"active\":true,"
+                + "\"amount\":12.50,\"day\":\"2019-03-01\"},"
+                + "{\"id\":2,\"name\":null,\"ratio\":\"NaN\",\"active\":false,\"amount\":null,\"day\":null}"
+                + "]", output.toString());
+    }
+
+    @Test
+    void writesColumnarLayout() throws Exception {
+        OutputOptions outputOptions = new OutputOptions.Builder()
+                .withJsonLayout(JsonLayout.COLUMNAR)
+                .build();
+
+        Output output = new JsonOutputGenerator(OutputFormat.JSON, outputOptions).process(createDataGrid());
+
+        assertEquals("{\"columns\":[\"id\",\"name\",\"ratio\",\"active\",\"amount\",\"day\"],\"data\":["
+                + "[1,\"a \\\"quoted\\\"\\nline\",0.5,true,12.50,\"2019-03-01\"],"
+                + "[2,null,\"NaN\",false,null,null]"
+                + "]}", output.toString());
+    }
+
+    @Test
+    void writesNdjsonLines() throws Exception {
+        ByteArrayOutputStream content = new ByteArrayOutputStream();
+
+        Output output = new JsonOutputGenerator(OutputFormat.NDJSON).process(createDataGrid());
+        output.writeContent(content);
+
+        assertEquals(OutputFormat.NDJSON, output.getFormat());
+        String[] lines = new String(content.toByteArray(), StandardCharsets.UTF_8).split("\n", -1);
+        assertEquals(3, lines.length);
+        assertTrue(lines[0].startsWith("{\"id\":1,"));
+        assertTrue(lines[1].startsWith("{\"id\":2,"));
+        assertEquals("", lines[2]);
+    }
+
+    @Test
+    void writesFloatsWithTheirOwnDigits() throws Exception {
+        DataGrid dataGrid = new DataGrid.Builder()
+                .withColumn(new DataGridColumn(0, "id", "java.lang.Long"))
+                .withColumn(new DataGridColumn(1, "weight", "java.lang.Float"))
+                .andData()
+                .withRow(createWeightedRow("0", 1L, 0.1f))
+                .withRow(createWeightedRow("1", 2L, -2.5E-7f))
+                .withRow(createWeightedRow("2", 3L, Float.POSITIVE_INFINITY))
+                .build();
+
+        assertEquals("[{\"id\":1,\"weight\":0.1},{\"id\":2,\"weight\":-0.00000025},"
+                        + "{\"id\":3,\"weight\":\"Infinity\"}]",
+                new JsonOutputGenerator(OutputFormat.JSON).process(dataGrid).toString());
+    }
+
+    @Test
+    void writesEmptyGrid() throws Exception {
+        DataGrid dataGrid = new DataGrid.Builder()
+                .withColumn(new DataGridColumn(0, "id", "java.lang.Integer"))
+                .build();
+        OutputOptions outputOptions = new OutputOptions.Builder()
+                .withJsonLayout(JsonLayout.COLUMNAR)
+                .build();
+
+        assertEquals("[]", new JsonOutputGenerator(OutputFormat.JSON).process(dataGrid).toString());
+        assertEquals("{\"columns\":[\"id\"],\"data\":[]}",
+                new JsonOutputGenerator(OutputFormat.JSON, outputOptions).process(dataGrid).toString());
+        assertEquals("", new JsonOutputGenerator(OutputFormat.NDJSON).process(dataGrid).toString());
+    }
+
+    private DataGrid createDataGrid() throws DataGridException {
+        DataGrid.Builder dataGridBuilder = new DataGrid.Builder();
+        addColumnsTo(dataGridBuilder);
+        addRowsTo(dataGridBuilder);
+        return dataGridBuilder.build();
+    }
+
+    private void addColumnsTo(DataGrid.Builder dataGridBuilder) throws DataGridException {
+        dataGridBuilder.withColumn(new DataGridColumn(0, "id", "java.lang.Long"));
+        dataGridBuilder.withColumn(new DataGridColumn(1, "name", "java.lang.String"));
+        dataGridBuilder.withColumn(new DataGridColumn(2, "ratio", "java.lang.Double"));
+        dataGridBuilder.withColumn(new DataGridColumn(3, "active", "java.lang.Boolean"));
+        dataGridBuilder.withColumn(new DataGridColumn(4, "amount", "java.math.BigDecimal"));
+        dataGridBuilder.withColumn(new DataGridColumn(5, "day", "java.time.LocalDate"));
+    }
+
+    private void addRowsTo(DataGrid.Builder dataGridBuilder) throws DataGridException {
+        dataGridBuilder.andData();
+        dataGridBuilder.withRow(createTypedRow("0", 1L, "a \"quoted\"\nline", 0.5, true, new BigDecimal("12.50"),
+                LocalDate.of(2019, 3, 1)));
+        dataGridBuilder.withRow(createTypedRow("1", 2L, null, Double.NaN, false, null, null));
+    }
+
+    private DataGridRow createTypedRow(String id, Long number, String name, Double ratio, Boolean active,
+                                       BigDecimal amount, LocalDate day) {
+        DataGridRow row = new DataGridRow(id, 6);
+        row.addReplaceValue(0, number);
+        row.addReplaceValue(1, name);
+        row.addReplaceValue(2, ratio);
+        row.addReplaceValue(3, active);
+        row.addReplaceValue(4, amount);
+        row.addReplaceValue(5, day);
+        return row;
+    }
+
+    private DataGridRow createWeightedRow(String id, Long number, Float weight) {
+        DataGridRow row = new DataGridRow(id, 2);
+        row.addReplaceValue(0, number);
+        row.addReplaceValue(1, weight);
+        return row;
+    }
+
+}
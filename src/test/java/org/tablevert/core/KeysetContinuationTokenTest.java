@@ -0,0 +1,46 @@
+/*
+ * Copyright 2019 conis Informationssysteme GmbH
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.tablevert.core;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.util.Arrays;
+import java.util.List;
+
+class KeysetContinuationTokenTest {
+
+    private static final List<String> SORTING = Arrays.asList("-name", "amount", "created", "day", "id");
+
+    @Test
+    void restoresEncodedValues() {
+        List<Object> values = Arrays.asList("Zoë", new BigDecimal("12.50"),
+                Timestamp.valueOf("2019-04-01 12:34:56.789"), Date.valueOf("2019-04-01"), 4711L);
+        String token = new KeysetContinuationToken(SORTING, values).encode();
+
+        KeysetContinuationToken decoded = KeysetContinuationToken.decode(token);
+
+        Assertions.assertEquals(SORTING, decoded.getSorting());
+        Assertions.assertEquals(values, decoded.getValues());
+    }
+
+    @Test
+    void restoresNullValues() {
+        List<Object> values = Arrays.asList(null, new BigDecimal("12.50"), null, null, 4711L);
+        String token = new KeysetContinuationToken(SORTING, values).encode();
+
+        Assertions.assertEquals(values, KeysetContinuationToken.decode(token).getValues());
+    }
+
+    @Test
+    void failsForMalformedToken() {
+        Assertions.assertThrows(IllegalArgumentException.class, () -> KeysetContinuationToken.decode("bm9uc2Vuc2U"));
+    }
+
+}
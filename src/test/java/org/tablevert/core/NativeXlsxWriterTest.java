@@ -0,0 +1,229 @@
+/*
+ * Copyright 2019 conis Informationssysteme GmbH
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.tablevert.core;
+
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellType;
+import org.apache.poi.ss.util.PaneInformation;
+import org.apache.poi.xssf.usermodel.XSSFRow;
+import org.apache.poi.xssf.usermodel.XSSFSheet;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Compares the files of the native XLSX writer with the files generated through POI.
+ */
+class NativeXlsxWriterTest {
+
+    @Test
+    void matchesPoiForTypedValues() throws Exception {
+        DataGrid.Builder builder = new DataGrid.Builder()
+                .withColumn(new DataGridColumn(0, "count", "java.lang.Integer"))
+                .withColumn(new DataGridColumn(1, "total", "java.lang.Long"))
+                .withColumn(new DataGridColumn(2, "amount", "java.math.BigDecimal"))
+                .withColumn(new DataGridColumn(3, "ratio", "java.lang.Double"))
+                .withColumn(new DataGridColumn(4, "changed", "java.sql.Timestamp"))
+                .withColumn(new DataGridColumn(5, "day", "java.time.LocalDate"))
+                .withColumn(new DataGridColumn(6, "time", "java.time.LocalTime"))
+                .withColumn(new DataGridColumn(7, "active", "java.lang.Boolean"))
+                .andData();
+        for (int i = 0; i < 50; i++) {
+            DataGridRow row = new DataGridRow(String.valueOf(i), 8);
+            row.addReplaceValue(0, i % 7 == 0 ? null : i * 1000);
+            row.addReplaceValue(1, (long) i * Integer.MAX_VALUE);
+            row.addReplaceValue(2, new BigDecimal("1234.5678").multiply(BigDecimal.valueOf(i)));
+            row.addReplaceValue(3, i == 3 ? Double.NaN : i / 3.0);
+            row.addReplaceValue(4, Timestamp.valueOf(LocalDateTime.of(2019, 3, 28, 10, 15).plusHours(i)));
+            row.addReplaceValue(5, i == 5 ? "infinity" : LocalDate.of(1899 + i, 1, 1));
+            row.addReplaceValue(6, LocalTime.of(i % 24, 30));
+            row.addReplaceValue(7, i % 2 == 0);
+            builder.withRow(row);
+        }
+
+        assertEquivalentToPoi(builder.build(), XlsxOutputGenerator.MAX_DATA_ROWS_PER_SHEET);
+    }
+
+    @Test
+    void matchesPoiForStrings() throws Exception {
+        String[] texts = {"plain", " leading space", "trailing space ", "a & b < c > d \"quoted\"",
+                "Umlaute äöü", "multi\nline", "emoji 😀", ""};
+        DataGrid.Builder builder = new DataGrid.Builder()
+                .withColumn(new DataGridColumn(0, "dictionary", "java.lang.String"))
+                .withColumn(new DataGridColumn(2, "unique", "java.lang.String"))
+                .withDictionaryLimit(4)
+                .andData();
+        for (int i = 0; i < 40; i++) {
+            DataGridRow row = new DataGridRow(String.valueOf(i), 3);
+            row.addReplaceValue(0, texts[i % 3]);
+            row.addReplaceValue(2, texts[i % texts.length] + (i >= texts.length ? " " + i : ""));
+            builder.withRow(row);
+        }
+
+        assertEquivalentToPoi(builder.build(), XlsxOutputGenerator.MAX_DATA_ROWS_PER_SHEET);
+    }
+
+    @Test
+    void matchesPoiForSheetRollover() throws Exception {
+        DataGrid.Builder builder = new DataGrid.Builder()
+                .withColumn(new DataGridColumn(0, "id", "java.lang.Integer"))
+                .withColumn(new DataGridColumn(1, "name", "java.lang.String"))
+                .andData();
+        for (int i = 0; i < 10; i++) {
+            DataGridRow row = new DataGridRow(i, 2);
+            row.addReplaceValue(0, i);
+            row.addReplaceValue(1, "name " + i);
+            builder.withRow(row);
+        }
+
+        assertEquivalentToPoi(builder.build(), 4);
+    }
+
+    @Test
+    void matchesPoiForEmptyGrid() throws Exception {
+        DataGrid dataGrid = new DataGrid.Builder()
+                .withColumn(new DataGridColumn(0, "id", "java.lang.Integer"))
+                .andData()
+                .build();
+
+        assertEquivalentToPoi(dataGrid, XlsxOutputGenerator.MAX_DATA_ROWS_PER_SHEET);
+    }
+
+    @Test
+    void encodesControlCharacters() throws Exception {
+        DataGrid dataGrid = new DataGrid.Builder()
+                .withColumn(new DataGridColumn(0, "text", "java.lang.String"))
+                .andData()
+                .withRow(createRow("bell\u0007tab\t"))
+                .build();
+
+        try (XSSFWorkbook workbook = generate(dataGrid, true, XlsxOutputGenerator.MAX_DATA_ROWS_PER_SHEET)) {
+            Assertions.assertEquals("bell\u0007tab\t", workbook.getSheetAt(0).getRow(1).getCell(0).getStringCellValue());
+        }
+    }
+
+    @Test
+    void reusesCachedTemplatePerQueryAndColumns() throws Exception {
+        XlsxTemplateCache templateCache = new XlsxTemplateCache();
+        List<DataGridColumn> columns = Arrays.asList(new DataGridColumn(1, "name", "java.lang.String"),
+                new DataGridColumn(0, "amount", "java.math.BigDecimal"));
+        XlsxWorkbookTemplate template = templateCache.templateFor("orders", columns);
+
+        Assertions.assertSame(template, templateCache.templateFor("orders", Arrays.asList(columns.get(1), columns.get(0))));
+        Assertions.assertNotSame(template, templateCache.templateFor("invoices", columns));
+        Assertions.assertNotSame(template, templateCache.templateFor("orders",
+                Arrays.asList(columns.get(0), new DataGridColumn(0, "amount", "java.lang.Double"))));
+        Assertions.assertEquals(3, templateCache.size());
+        Assertions.assertEquals("amount", template.getColumns().get(0).getName());
+    }
+
+    @Test
+    void writesSameFileFromCachedTemplate() throws Exception {
+        XlsxTemplateCache templateCache = new XlsxTemplateCache();
+        OutputOptions outputOptions = new OutputOptions.Builder().usingNativeXlsxWriter().build();
+        for (int rowCount : new int[]{3, 10}) {
+            DataGrid.Builder builder = new DataGrid.Builder()
+                    .withColumn(new DataGridColumn(0, "day", "java.time.LocalDate"))
+                    .withColumn(new DataGridColumn(1, "name", "java.lang.String"))
+                    .andData();
+            for (int i = 0; i < rowCount; i++) {
+                DataGridRow row = new DataGridRow(i, 2);
+                row.addReplaceValue(0, i == 2 ? "infinity" : LocalDate.of(2019, 1, 1 + i));
+                row.addReplaceValue(1, "name " + (i % 2));
+                builder.withRow(row);
+            }
+            DataGrid dataGrid = builder.build();
+            Output output = new XlsxOutputGenerator(outputOptions, templateCache, "people").process(dataGrid);
+            ByteArrayOutputStream content = new ByteArrayOutputStream();
+            output.writeContent(content);
+
+            try (XSSFWorkbook expected = generate(dataGrid, false, XlsxOutputGenerator.MAX_DATA_ROWS_PER_SHEET);
+                 XSSFWorkbook actual = new XSSFWorkbook(new ByteArrayInputStream(content.toByteArray()))) {
+                assertEquivalentSheets(expected.getSheetAt(0), actual.getSheetAt(0));
+            }
+        }
+        Assertions.assertEquals(1, templateCache.size());
+    }
+
+    private DataGridRow createRow(String value) {
+        DataGridRow row = new DataGridRow("0");
+        row.addReplaceValue(0, value);
+        return row;
+    }
+
+    private void assertEquivalentToPoi(DataGrid dataGrid, int maxDataRowsPerSheet) throws Exception {
+        try (XSSFWorkbook expected = generate(dataGrid, false, maxDataRowsPerSheet);
+             XSSFWorkbook actual = generate(dataGrid, true, maxDataRowsPerSheet)) {
+            Assertions.assertEquals(expected.getNumberOfSheets(), actual.getNumberOfSheets());
+            for (int sheetIndex = 0; sheetIndex < expected.getNumberOfSheets(); sheetIndex++) {
+                assertEquivalentSheets(expected.getSheetAt(sheetIndex), actual.getSheetAt(sheetIndex));
+            }
+        }
+    }
+
+    private void assertEquivalentSheets(XSSFSheet expected, XSSFSheet actual) {
+        Assertions.assertEquals(expected.getSheetName(), actual.getSheetName());
+        Assertions.assertEquals(expected.getLastRowNum(), actual.getLastRowNum());
+        PaneInformation expectedPane = expected.getPaneInformation();
+        PaneInformation actualPane = actual.getPaneInformation();
+        Assertions.assertEquals(expectedPane.getHorizontalSplitTopRow(), actualPane.getHorizontalSplitTopRow());
+        Assertions.assertEquals(expectedPane.isFreezePane(), actualPane.isFreezePane());
+        for (int rowIndex = 0; rowIndex <= expected.getLastRowNum(); rowIndex++) {
+            XSSFRow expectedRow = expected.getRow(rowIndex);
+            XSSFRow actualRow = actual.getRow(rowIndex);
+            Assertions.assertEquals(expectedRow.getLastCellNum(), actualRow.getLastCellNum());
+            for (int colIndex = 0; colIndex < expectedRow.getLastCellNum(); colIndex++) {
+                assertEquivalentCells(expectedRow.getCell(colIndex), actualRow.getCell(colIndex));
+            }
+        }
+        for (int colIndex = 0; colIndex < 8; colIndex++) {
+            Assertions.assertEquals(expected.getColumnWidth(colIndex), actual.getColumnWidth(colIndex),
+                    "width of column " + colIndex);
+        }
+    }
+
+    private void assertEquivalentCells(Cell expected, Cell actual) {
+        if (expected == null) {
+            Assertions.assertNull(actual);
+            return;
+        }
+        String position = "cell " + expected.getAddress();
+        Assertions.assertEquals(expected.getCellType(), actual.getCellType(), position);
+        if (expected.getCellType() == CellType.STRING) {
+            Assertions.assertEquals(expected.getStringCellValue(), actual.getStringCellValue(), position);
+        } else if (expected.getCellType() == CellType.NUMERIC) {
+            Assertions.assertEquals(expected.getNumericCellValue(), actual.getNumericCellValue(), 1e-9, position);
+        } else if (expected.getCellType() == CellType.BOOLEAN) {
+            Assertions.assertEquals(expected.getBooleanCellValue(), actual.getBooleanCellValue(), position);
+        }
+        Assertions.assertEquals(expected.getCellStyle().getDataFormatString(), actual.getCellStyle().getDataFormatString(),
+                position);
+        Assertions.assertEquals(expected.getSheet().getWorkbook().getFontAt(expected.getCellStyle().getFontIndexAsInt()).getBold(),
+                actual.getSheet().getWorkbook().getFontAt(actual.getCellStyle().getFontIndexAsInt()).getBold(), position);
+    }
+
+    private XSSFWorkbook generate(DataGrid dataGrid, boolean nativeWriter, int maxDataRowsPerSheet) throws Exception {
+        OutputOptions.Builder optionsBuilder = new OutputOptions.Builder();
+        if (nativeWriter) {
+            optionsBuilder.usingNativeXlsxWriter();
+        }
+        Output output = new XlsxOutputGenerator(optionsBuilder.build(), maxDataRowsPerSheet).process(dataGrid);
+        ByteArrayOutputStream content = new ByteArrayOutputStream();
+        output.writeContent(content);
+        return new XSSFWorkbook(new ByteArrayInputStream(content.toByteArray()));
+    }
+
+}
@@ -0,0 +1,161 @@
+/*
+ * Copyright 2019 conis Informationssysteme GmbH
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.tablevert.core;
+
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import java.util.zip.ZipInputStream;
+
+class ParallelZipWriterTest {
+
+    private static final int ENTRY_SIZE = 5 * ParallelZipWriter.BLOCK_SIZE + 1234;
+
+    @Test
+    void writesEntriesReadableByZipStreams() throws Exception {
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            for (int level : new int[]{-1, 0, 1, 9}) {
+                assertRoundTrip(pool, level);
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    void deflatesOnCallingThreadWithoutParallelism() throws Exception {
+        ForkJoinPool pool = new ForkJoinPool(1);
+        try {
+            assertRoundTrip(pool, 6);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    void storesBlocksAtLevelZero() throws Exception {
+        byte[] data = createData();
+        int storedSize = zip(ParallelZipWriter.defaultPool(), 0, data).length;
+        int deflatedSize = zip(ParallelZipWriter.defaultPool(), 9, data).length;
+        Assertions.assertTrue(storedSize > data.length);
+        Assertions.assertTrue(deflatedSize < data.length / 2);
+    }
+
+    @Test
+    void writesStoredXlsxReadableByPoi() throws Exception {
+        DataGrid.Builder builder = new DataGrid.Builder()
+                .withColumn(new DataGridColumn(0, "id", "java.lang.Integer"))
+                .withColumn(new DataGridColumn(1, "name", "java.lang.String"))
+                .andData();
+        for (int i = 0; i < 20000; i++) {
+            DataGridRow row = new DataGridRow(i, 2);
+            row.addReplaceValue(0, i);
+            row.addReplaceValue(1, "name " + i);
+            builder.withRow(row);
+        }
+        OutputOptions outputOptions = new OutputOptions.Builder()
+                .usingNativeXlsxWriter()
+                .withXlsxCompressionLevel(0)
+                .build();
+        Output output = new XlsxOutputGenerator(outputOptions).process(builder.build());
+        ByteArrayOutputStream content = new ByteArrayOutputStream();
+        output.writeContent(content);
+
+        try (XSSFWorkbook workbook = new XSSFWorkbook(new ByteArrayInputStream(content.toByteArray()))) {
+            Assertions.assertEquals(20000, workbook.getSheetAt(0).getLastRowNum());
+            Assertions.assertEquals("name 19999", workbook.getSheetAt(0).getRow(20000).getCell(1).getStringCellValue());
+        }
+    }
+
+    @Test
+    void rejectsInvalidCompressionLevel() {
+        Assertions.assertThrows(BuilderFailedException.class,
+                () -> new OutputOptions.Builder().withXlsxCompressionLevel(10).build());
+    }
+
+    private void assertRoundTrip(ForkJoinPool pool, int level) throws Exception {
+        byte[] data = createData();
+        byte[] archive = zip(pool, level, data);
+
+        try (ZipInputStream zipInputStream = new ZipInputStream(new ByteArrayInputStream(archive))) {
+            ZipEntry entry = zipInputStream.getNextEntry();
+            Assertions.assertEquals("data.xml", entry.getName());
+            Assertions.assertArrayEquals(data, readFully(zipInputStream), "level " + level);
+            entry = zipInputStream.getNextEntry();
+            Assertions.assertEquals("empty.xml", entry.getName());
+            Assertions.assertEquals(0, readFully(zipInputStream).length);
+            entry = zipInputStream.getNextEntry();
+            Assertions.assertEquals("small.xml", entry.getName());
+            Assertions.assertEquals("<small/>", new String(readFully(zipInputStream), StandardCharsets.UTF_8));
+            Assertions.assertNull(zipInputStream.getNextEntry());
+        }
+
+        Path file = Files.createTempFile("tablevert", ".zip");
+        try {
+            Files.write(file, archive);
+            try (ZipFile zipFile = new ZipFile(file.toFile())) {
+                Assertions.assertEquals(3, zipFile.size());
+                ZipEntry entry = zipFile.getEntry("data.xml");
+                Assertions.assertEquals(data.length, entry.getSize());
+                CRC32 crc = new CRC32();
+                crc.update(data);
+                Assertions.assertEquals(crc.getValue(), entry.getCrc());
+            }
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    private byte[] zip(ForkJoinPool pool, int level, byte[] data) throws Exception {
+        ByteArrayOutputStream archive = new ByteArrayOutputStream();
+        ParallelZipWriter zip = new ParallelZipWriter(archive, level, pool);
+        OutputStream entry = zip.startEntry("data.xml");
+        entry.write(data, 0, 1000);
+        for (int i = 1000; i < 3000; i++) {
+            entry.write(data[i]);
+        }
+        entry.write(data, 3000, data.length - 3000);
+        zip.startEntry("empty.xml");
+        zip.startEntry("small.xml").write("<small/>".getBytes(StandardCharsets.UTF_8));
+        zip.finish();
+        return archive.toByteArray();
+    }
+
+    private byte[] createData() {
+        Random random = new Random(42);
+        StringBuilder data = new StringBuilder(ENTRY_SIZE + 100);
+        while (data.length() < ENTRY_SIZE) {
+            data.append("<row r=\"").append(random.nextInt(100000)).append("\"><c t=\"n\"><v>")
+                    .append(random.nextDouble()).append("</v></c></row>");
+        }
+        data.setLength(ENTRY_SIZE);
+        return data.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private byte[] readFully(ZipInputStream zipInputStream) throws Exception {
+        ByteArrayOutputStream content = new ByteArrayOutputStream();
+        byte[] buffer = new byte[8192];
+        int count;
+        while ((count = zipInputStream.read(buffer)) > 0) {
+            content.write(buffer, 0, count);
+        }
+        return content.toByteArray();
+    }
+
+}
@@ -0,0 +1,113 @@
+/*
+ * Copyright 2019 conis Informationssysteme GmbH
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.tablevert.core;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.postgresql.PGStatement;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
+
+class PgCopyReaderTest {
+
+    private static final List<DataGridColumn> TEST_COLUMNS = Arrays.asList(
+            new DataGridColumn(0, "id", "java.lang.Integer"),
+            new DataGridColumn(1, "name", "java.lang.String"),
+            new DataGridColumn(2, "amount", "java.math.BigDecimal"),
+            new DataGridColumn(3, "active", "java.lang.Boolean"),
+            new DataGridColumn(4, "day", "java.sql.Date"),
+            new DataGridColumn(5, "changed", "java.sql.Timestamp"));
+
+    @Test
+    void parsesTypedValuesAndNulls() throws Exception {
+        String copyData = "1,plain,12.50,t,2019-03-28,2018-09-17 19:07:34+02\n"
+                + "2,\"\",,f,infinity,2012-09-28 00:00:00.5\n";
+        DataGrid dataGrid = readAll(copyData);
+
+        Assertions.assertEquals(2, dataGrid.getRowCount());
+        Assertions.assertEquals(1, dataGrid.getValue(0, 0));
+        Assertions.assertEquals("plain", dataGrid.getValue(0, 1));
+        Assertions.assertEquals(new BigDecimal("12.50"), dataGrid.getValue(0, 2));
+        Assertions.assertEquals(Boolean.TRUE, dataGrid.getValue(0, 3));
+        Assertions.assertEquals(Date.valueOf("2019-03-28"), dataGrid.getValue(0, 4));
+        Assertions.assertEquals(Timestamp.from(Instant.parse("2018-09-17T17:07:34Z")), dataGrid.getValue(0, 5));
+
+        Assertions.assertEquals("1", dataGrid.getRowId(1));
+        Assertions.assertEquals("", dataGrid.getValue(1, 1));
+        Assertions.assertNull(dataGrid.getValue(1, 2));
+        Assertions.assertEquals(new Date(PGStatement.DATE_POSITIVE_INFINITY), dataGrid.getValue(1, 4));
+        Assertions.assertEquals(Timestamp.valueOf("2012-09-28 00:00:00.5"), dataGrid.getValue(1, 5));
+    }
+
+    @Test
+    void parsesQuotedDelimitersQuotesAndLineBreaks() throws Exception {
+        String copyData = "3,\"say \"\"hi\"\", then\nleave\",,,,\n";
+        DataGrid dataGrid = readAll(copyData);
+
+        Assertions.assertEquals(1, dataGrid.getRowCount());
+        Assertions.assertEquals("say \"hi\", then\nleave", dataGrid.getValue(0, 1));
+        Assertions.assertNull(dataGrid.getValue(0, 5));
+    }
+
+    @Test
+    void mapsSpecialValuesOfNumbers() throws Exception {
+        List<DataGridColumn> columns = Arrays.asList(
+                new DataGridColumn(0, "total", "java.lang.Long"),
+                new DataGridColumn(1, "ratio", "java.lang.Double"),
+                new DataGridColumn(2, "amount", "java.math.BigDecimal"));
+        DataGrid dataGrid = readAll("-9223372036854775808,-Infinity,NaN\n", columns);
+
+        Assertions.assertEquals(Long.MIN_VALUE, dataGrid.getValue(0, 0));
+        Assertions.assertEquals(Double.NEGATIVE_INFINITY, dataGrid.getValue(0, 1));
+        Assertions.assertEquals(Double.NaN, dataGrid.getValue(0, 2));
+    }
+
+    @Test
+    void failsOnUnparsableValue() throws Exception {
+        PgCopyReader reader = new PgCopyReader(new StringReader("2147483648,x,,,,\n"), TEST_COLUMNS);
+        DataGrid.Builder builder = createBuilder(TEST_COLUMNS);
+        Exception e = Assertions.assertThrows(DatabaseReaderException.class, () -> reader.nextRow(7, builder));
+        Assertions.assertTrue(e.getMessage().contains("[2147483648] in column [id] of copied row no. 7"));
+    }
+
+    @Test
+    void failsOnMismatchingValueCount() throws Exception {
+        PgCopyReader reader = new PgCopyReader(new StringReader("1,two\n"), TEST_COLUMNS);
+        DataGrid.Builder builder = createBuilder(TEST_COLUMNS);
+        Exception e = Assertions.assertThrows(IOException.class, () -> reader.nextRow(0, builder));
+        Assertions.assertTrue(e.getMessage().contains("fewer values than columns"));
+    }
+
+    private DataGrid readAll(String copyData) throws Exception {
+        return readAll(copyData, TEST_COLUMNS);
+    }
+
+    private DataGrid readAll(String copyData, List<DataGridColumn> columns) throws Exception {
+        DataGrid.Builder builder = createBuilder(columns);
+        try (PgCopyReader reader = new PgCopyReader(new StringReader(copyData), columns)) {
+            for (long rowNumber = 0; reader.nextRow(rowNumber, builder); rowNumber++) {
+                builder.endRow(rowNumber);
+            }
+        }
+        return builder.build();
+    }
+
+    private DataGrid.Builder createBuilder(List<DataGridColumn> columns) throws DataGridException {
+        DataGrid.Builder builder = new DataGrid.Builder();
+        for (DataGridColumn column : columns) {
+            builder.withColumn(column);
+        }
+        return builder.andData();
+    }
+
+}
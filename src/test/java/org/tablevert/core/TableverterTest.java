@@ -0,0 +1,40 @@
+/*
+ * Copyright 2019 conis Informationssysteme GmbH
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.tablevert.core;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+class TableverterTest {
+
+    @Test
+    void delegatesDefaultOptionsToConversionWithoutOptions() throws Exception {
+        int[] conversionCount = {0};
+        Tableverter tableverter = (appliedQuery, outputFormat) -> {
+            conversionCount[0]++;
+            return null;
+        };
+        AppliedQuery appliedQuery = new AppliedDatabaseQuery.Builder().forDatabaseQuery("TestQuery").build();
+
+        tableverter.tablevert(appliedQuery, OutputFormat.CSV, OutputOptions.defaults());
+        tableverter.tablevert(appliedQuery, OutputFormat.CSV, new OutputOptions.Builder().build());
+
+        Assertions.assertEquals(2, conversionCount[0]);
+    }
+
+    @Test
+    void rejectsOptionsNotSupportedByImplementation() throws Exception {
+        Tableverter tableverter = (appliedQuery, outputFormat) -> null;
+        AppliedQuery appliedQuery = new AppliedDatabaseQuery.Builder().forDatabaseQuery("TestQuery").build();
+        OutputOptions outputOptions = new OutputOptions.Builder()
+                .withCsvDialect(new CsvDialect.Builder().withDelimiter(';').build())
+                .build();
+
+        Assertions.assertThrows(UnsupportedOperationException.class,
+                () -> tableverter.tablevert(appliedQuery, OutputFormat.CSV, outputOptions));
+    }
+
+}
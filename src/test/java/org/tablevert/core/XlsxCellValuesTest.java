@@ -0,0 +1,35 @@
+/*
+ * Copyright 2019 conis Informationssysteme GmbH
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.tablevert.core;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.sql.Timestamp;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+
+class XlsxCellValuesTest {
+
+    @Test
+    void convertsOffsetDateTimeAtItsInstant() {
+        OffsetDateTime value = OffsetDateTime.of(2019, 3, 28, 10, 15, 0, 0, ZoneOffset.ofHours(14));
+
+        Assertions.assertEquals(XlsxCellValues.toNumber(Timestamp.from(value.toInstant())),
+                XlsxCellValues.toNumber(value));
+    }
+
+    @Test
+    void keepsBigNumbersExceedingDoublePrecisionAsText() {
+        Assertions.assertEquals(1234.5678, XlsxCellValues.toNumber(new BigDecimal("1234.5678")));
+        Assertions.assertEquals(1e20, XlsxCellValues.toNumber(new BigDecimal("100000000000000000000.00")));
+        Assertions.assertTrue(Double.isNaN(XlsxCellValues.toNumber(new BigDecimal("12345678901234567.89"))));
+        Assertions.assertTrue(Double.isNaN(XlsxCellValues.toNumber(new BigInteger("1234567890123456789"))));
+    }
+
+}
@@ -5,10 +5,22 @@
 
 package org.tablevert.core;
 
+import org.apache.poi.ss.usermodel.CellType;
+import org.apache.poi.ss.usermodel.DateUtil;
+import org.apache.poi.xssf.usermodel.XSSFRow;
+import org.apache.poi.xssf.usermodel.XSSFSheet;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
 import org.junit.jupiter.api.Test;
+import org.openxmlformats.schemas.spreadsheetml.x2006.main.STCellType;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.FileOutputStream;
 import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.Arrays;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -40,6 +52,318 @@ public class XlsxOutputGeneratorTest {
         assertNotNull(output);
     }
 
+    @Test
+    public void writesDictionaryEncodedValuesAsSharedStrings() throws Exception {
+        String[] statusValues = {"open", "closed", "pending"};
+        DataGrid.Builder dataGridBuilder = new DataGrid.Builder();
+        dataGridBuilder.withColumn(new DataGridColumn(0, COLHEADER_TITLE_00, CLASSNAME_STRING));
+        dataGridBuilder.andData();
+        for (int i = 0; i < 1000; i++) {
+            DataGridRow row = new DataGridRow(String.valueOf(i));
+            row.addReplaceValue(0, statusValues[i % statusValues.length]);
+            dataGridBuilder.withRow(row);
+        }
+
+        Output output = new XlsxOutputGenerator().process(dataGridBuilder.build());
+
+        ByteArrayOutputStream content = new ByteArrayOutputStream();
+        output.writeContent(content);
+        try (XSSFWorkbook workbook = new XSSFWorkbook(new ByteArrayInputStream(content.toByteArray()))) {
+            assertEquals(1 + statusValues.length, workbook.getSharedStringSource().getUniqueCount());
+            assertEquals(1 + 1000, workbook.getSharedStringSource().getCount());
+            XSSFSheet sheet = workbook.getSheetAt(0);
+            for (int i = 0; i < 1000; i++) {
+                assertEquals(statusValues[i % statusValues.length], sheet.getRow(i + 1).getCell(0).getStringCellValue());
+            }
+        }
+    }
+
+    @Test
+    public void writesHighCardinalityTextAsInlineStrings() throws Exception {
+        String[] statusValues = {"open", "closed", "pending"};
+        DataGrid.Builder dataGridBuilder = new DataGrid.Builder()
+                .withColumn(new DataGridColumn(0, COLHEADER_TITLE_00, CLASSNAME_STRING))
+                .withColumn(new DataGridColumn(1, COLHEADER_TITLE_01, CLASSNAME_STRING))
+                .withDictionaryLimit(100)
+                .andData();
+        for (int i = 0; i < 1000; i++) {
+            DataGridRow row = new DataGridRow(String.valueOf(i));
+            row.addReplaceValue(0, statusValues[i % statusValues.length]);
+            row.addReplaceValue(1, " comment " + i);
+            dataGridBuilder.withRow(row);
+        }
+        DataGrid dataGrid = dataGridBuilder.build();
+
+        OutputOptions nativeOptions = new OutputOptions.Builder().usingNativeXlsxWriter().build();
+        for (Output output : Arrays.asList(new XlsxOutputGenerator().process(dataGrid),
+                new XlsxOutputGenerator(nativeOptions).process(dataGrid))) {
+            try (XSSFWorkbook workbook = readWorkbook(output)) {
+                assertEquals(2 + statusValues.length, workbook.getSharedStringSource().getUniqueCount());
+                XSSFSheet sheet = workbook.getSheetAt(0);
+                for (int i = 0; i < 1000; i++) {
+                    assertEquals(statusValues[i % statusValues.length], sheet.getRow(i + 1).getCell(0).getStringCellValue());
+                    assertEquals(STCellType.INLINE_STR, sheet.getRow(i + 1).getCell(1).getCTCell().getT());
+                    assertEquals(" comment " + i, sheet.getRow(i + 1).getCell(1).getStringCellValue());
+                }
+            }
+        }
+    }
+
+    @Test
+    public void switchesToStreamingModeAboveThreshold() throws Exception {
+        OutputOptions outputOptions = new OutputOptions.Builder()
+                .withXlsxStreamingThreshold(1)
+                .build();
+
+        Output output = new XlsxOutputGenerator(outputOptions).process(createSimpleDataGrid());
+
+        try (XSSFWorkbook workbook = readWorkbook(output)) {
+            XSSFSheet sheet = workbook.getSheetAt(0);
+            assertEquals(COLHEADER_TITLE_01, sheet.getRow(0).getCell(1).getStringCellValue());
+            assertEquals(CELLVALUE_00_00, sheet.getRow(1).getCell(0).getStringCellValue());
+            assertEquals(CELLVALUE_01_01, sheet.getRow(2).getCell(1).getStringCellValue());
+        }
+    }
+
+    @Test
+    public void writesStreamedRowsBeyondRowWindow() throws Exception {
+        int rowCount = 3 * XlsxOutputGenerator.STREAMING_ROW_WINDOW + 5;
+        OutputGenerator outputGenerator = new XlsxOutputGenerator(new OutputOptions.Builder().streamingXlsx().build());
+        StreamingOutputConsumer consumer = outputGenerator.createStreamingConsumer();
+        assertNotNull(consumer);
+
+        Output output;
+        try {
+            consumer.startGrid(Arrays.asList(
+                    new DataGridColumn(0, COLHEADER_TITLE_00, CLASSNAME_STRING),
+                    new DataGridColumn(1, COLHEADER_TITLE_01, "java.lang.Integer")));
+            for (int i = 0; i < rowCount; i++) {
+                consumer.getRowBuilder()
+                        .appendValue(0, "row " + i)
+                        .appendInt(1, i)
+                        .endRow(i);
+                if ((i + 1) % 250 == 0) {
+                    consumer.acceptRows();
+                }
+            }
+            consumer.acceptRows();
+            consumer.acceptContinuationToken("next");
+            consumer.endGrid();
+            output = consumer.getOutput();
+        } catch (Exception e) {
+            consumer.release();
+            throw e;
+        }
+
+        assertEquals("next", output.getContinuationToken());
+        try (XSSFWorkbook workbook = readWorkbook(output)) {
+            XSSFSheet sheet = workbook.getSheetAt(0);
+            assertEquals(rowCount, sheet.getLastRowNum());
+            assertEquals("row 0", sheet.getRow(1).getCell(0).getStringCellValue());
+            assertEquals(rowCount - 1, sheet.getRow(rowCount).getCell(1).getNumericCellValue());
+        }
+    }
+
+    @Test
+    public void createsNoStreamingConsumerForNativeWriter() throws Exception {
+        OutputOptions outputOptions = new OutputOptions.Builder()
+                .usingNativeXlsxWriter()
+                .build();
+
+        assertNull(new XlsxOutputGenerator(outputOptions).createStreamingConsumer());
+    }
+
+    @Test
+    public void switchesStreamedRowsToStreamingModeAboveThreshold() throws Exception {
+        OutputOptions outputOptions = new OutputOptions.Builder()
+                .withXlsxStreamingThreshold(10)
+                .build();
+
+        try (XSSFWorkbook workbook = readWorkbook(streamStatusRows(outputOptions, 10))) {
+            assertEquals(10, workbook.getSheetAt(0).getLastRowNum());
+            assertTrue(workbook.getSharedStringSource().getUniqueCount() > 0);
+        }
+        try (XSSFWorkbook workbook = readWorkbook(streamStatusRows(outputOptions, 25))) {
+            XSSFSheet sheet = workbook.getSheetAt(0);
+            assertEquals(25, sheet.getLastRowNum());
+            assertEquals("open", sheet.getRow(25).getCell(0).getStringCellValue());
+            assertEquals(0, workbook.getSharedStringSource().getUniqueCount());
+        }
+    }
+
+    @Test
+    public void rendersWorkbookOnceIntoCallerStream() throws Exception {
+        Output output = new XlsxOutputGenerator().process(createSimpleDataGrid());
+        boolean[] closed = {false};
+        ByteArrayOutputStream content = new ByteArrayOutputStream() {
+            @Override
+            public void close() {
+                closed[0] = true;
+            }
+        };
+
+        output.writeContent(content);
+
+        assertFalse(closed[0]);
+        assertTrue(content.size() > 0);
+        assertThrows(OutputGeneratorException.class, () -> output.writeContent(new ByteArrayOutputStream()));
+    }
+
+    @Test
+    public void estimatesColumnWidthsUpToCap() throws Exception {
+        DataGrid.Builder dataGridBuilder = new DataGrid.Builder();
+        dataGridBuilder.withColumn(new DataGridColumn(0, COLHEADER_TITLE_00, CLASSNAME_STRING));
+        dataGridBuilder.withColumn(new DataGridColumn(1, COLHEADER_TITLE_01, "java.lang.Long"));
+        dataGridBuilder.withColumn(new DataGridColumn(2, "long text", CLASSNAME_STRING));
+        dataGridBuilder.andData();
+        DataGridRow row = new DataGridRow(ROW_ID_00);
+        row.addReplaceValue(0, "abc");
+        row.addReplaceValue(1, -1234567L);
+        row.addReplaceValue(2, new String(new char[300]).replace('\0', 'x'));
+        dataGridBuilder.withRow(row);
+        OutputOptions outputOptions = new OutputOptions.Builder()
+                .withXlsxMaxColumnWidth(50)
+                .build();
+
+        Output output = new XlsxOutputGenerator(outputOptions).process(dataGridBuilder.build());
+
+        try (XSSFWorkbook workbook = readWorkbook(output)) {
+            XSSFSheet sheet = workbook.getSheetAt(0);
+            assertEquals((3 + 2) * 256, sheet.getColumnWidth(0));
+            assertEquals((8 + 2) * 256, sheet.getColumnWidth(1));
+            assertEquals(50 * 256, sheet.getColumnWidth(2));
+        }
+    }
+
+    @Test
+    public void samplesColumnWidthsOfStreamedRows() {
+        XlsxColumnWidthEstimator estimator = new XlsxColumnWidthEstimator(10, 80);
+        for (int i = 0; i < 100; i++) {
+            if (estimator.samples(i)) {
+                estimator.observe(3, i == 95 ? "never sampled" : "sampled");
+            }
+        }
+        estimator.observe(1, java.sql.Timestamp.valueOf("2019-01-01 00:00:00"));
+        assertEquals(7, estimator.getWidth(3));
+        assertEquals(19, estimator.getWidth(1));
+        assertEquals(0, estimator.getWidth(2));
+    }
+
+    @Test
+    public void writesNativeCellsWithSharedTypeStyles() throws Exception {
+        DataGrid.Builder dataGridBuilder = new DataGrid.Builder();
+        dataGridBuilder.withColumn(new DataGridColumn(0, "count", "java.lang.Integer"));
+        dataGridBuilder.withColumn(new DataGridColumn(1, "amount", "java.math.BigDecimal"));
+        dataGridBuilder.withColumn(new DataGridColumn(2, "changed", "java.sql.Timestamp"));
+        dataGridBuilder.withColumn(new DataGridColumn(3, "day", "java.time.LocalDate"));
+        dataGridBuilder.withColumn(new DataGridColumn(4, "active", "java.lang.Boolean"));
+        dataGridBuilder.andData();
+        for (int i = 0; i < 10; i++) {
+            DataGridRow row = new DataGridRow(String.valueOf(i));
+            row.addReplaceValue(0, i);
+            row.addReplaceValue(1, new BigDecimal("12.5").add(BigDecimal.valueOf(i)));
+            row.addReplaceValue(2, Timestamp.valueOf("2019-03-28 10:15:00"));
+            row.addReplaceValue(3, i == 9 ? "infinity" : LocalDate.of(2019, 3, 1 + i));
+            row.addReplaceValue(4, i % 2 == 0);
+            dataGridBuilder.withRow(row);
+        }
+
+        Output output = new XlsxOutputGenerator().process(dataGridBuilder.build());
+
+        try (XSSFWorkbook workbook = readWorkbook(output)) {
+            XSSFSheet sheet = workbook.getSheetAt(0);
+            XSSFRow first = sheet.getRow(1);
+            assertEquals(CellType.NUMERIC, first.getCell(0).getCellType());
+            assertEquals(0, first.getCell(0).getNumericCellValue());
+            assertEquals(12.5, first.getCell(1).getNumericCellValue());
+            assertTrue(DateUtil.isCellDateFormatted(first.getCell(2)));
+            assertEquals(Timestamp.valueOf("2019-03-28 10:15:00").getTime(), first.getCell(2).getDateCellValue().getTime());
+            assertTrue(DateUtil.isCellDateFormatted(first.getCell(3)));
+            assertEquals(CellType.BOOLEAN, first.getCell(4).getCellType());
+            assertEquals(CellType.STRING, sheet.getRow(10).getCell(3).getCellType());
+            for (int col = 0; col < 5; col++) {
+                assertEquals(first.getCell(col).getCellStyle().getIndex(),
+                        sheet.getRow(8).getCell(col).getCellStyle().getIndex());
+            }
+            assertTrue(workbook.getNumCellStyles() <= 7);
+        }
+    }
+
+    @Test
+    public void rollsOverToFurtherSheetsInMemory() throws Exception {
+        DataGrid.Builder dataGridBuilder = new DataGrid.Builder();
+        dataGridBuilder.withColumn(new DataGridColumn(0, COLHEADER_TITLE_00, "java.lang.Integer"));
+        dataGridBuilder.andData();
+        for (int i = 0; i < 8; i++) {
+            DataGridRow row = new DataGridRow(String.valueOf(i));
+            row.addReplaceValue(0, i);
+            dataGridBuilder.withRow(row);
+        }
+
+        Output output = new XlsxOutputGenerator(OutputOptions.defaults(), 3).process(dataGridBuilder.build());
+
+        assertRolledOverSheets(output);
+    }
+
+    @Test
+    public void rollsOverToFurtherSheetsInStreamingMode() throws Exception {
+        OutputOptions outputOptions = new OutputOptions.Builder().streamingXlsx().build();
+        StreamingOutputConsumer consumer = new XlsxOutputGenerator(outputOptions, 3).createStreamingConsumer();
+        consumer.startGrid(Arrays.asList(new DataGridColumn(0, COLHEADER_TITLE_00, "java.lang.Integer")));
+        for (int i = 0; i < 8; i++) {
+            consumer.getRowBuilder().appendInt(0, i).endRow(i);
+        }
+        consumer.acceptRows();
+        consumer.endGrid();
+
+        assertRolledOverSheets(consumer.getOutput());
+    }
+
+    private void assertRolledOverSheets(Output output) throws Exception {
+        try (XSSFWorkbook workbook = readWorkbook(output)) {
+            assertEquals(3, workbook.getNumberOfSheets());
+            assertEquals("Data", workbook.getSheetName(0));
+            assertEquals("Data (2)", workbook.getSheetName(1));
+            assertEquals("Data (3)", workbook.getSheetName(2));
+            int value = 0;
+            for (int sheetIndex = 0; sheetIndex < 3; sheetIndex++) {
+                XSSFSheet sheet = workbook.getSheetAt(sheetIndex);
+                assertEquals(COLHEADER_TITLE_00, sheet.getRow(0).getCell(0).getStringCellValue());
+                assertEquals(1, sheet.getPaneInformation().getHorizontalSplitTopRow());
+                for (int rowIndex = 1; rowIndex <= sheet.getLastRowNum(); rowIndex++) {
+                    assertEquals(value++, sheet.getRow(rowIndex).getCell(0).getNumericCellValue());
+                }
+            }
+            assertEquals(8, value);
+        }
+    }
+
+    /**
+     * Streams rows of a dictionary-encoded status column in batches of four rows.
+     * In-memory workbooks write the values as shared strings, streaming workbooks as inline strings.
+     */
+    private Output streamStatusRows(OutputOptions outputOptions, int rowCount) throws Exception {
+        StreamingOutputConsumer consumer = new XlsxOutputGenerator(outputOptions).createStreamingConsumer();
+        consumer.startGrid(Arrays.asList(new DataGridColumn(0, COLHEADER_TITLE_00, CLASSNAME_STRING)));
+        for (int i = 0; i < rowCount; i++) {
+            consumer.getRowBuilder()
+                    .appendValue(0, i % 2 == 0 ? "open" : "closed")
+                    .endRow(i);
+            if ((i + 1) % 4 == 0) {
+                consumer.acceptRows();
+            }
+        }
+        consumer.acceptRows();
+        consumer.endGrid();
+        return consumer.getOutput();
+    }
+
+    private XSSFWorkbook readWorkbook(Output output) throws Exception {
+        ByteArrayOutputStream content = new ByteArrayOutputStream();
+        output.writeContent(content);
+        return new XSSFWorkbook(new ByteArrayInputStream(content.toByteArray()));
+    }
+
     private DataGrid createSimpleDataGrid() throws DataGridException {
         DataGrid.Builder dataGridBuilder = new DataGrid.Builder();
         dataGridBuilder.withColumn(
@@ -92,4 +92,19 @@ class DatabaseBuilderTest {
         Assertions.assertTrue(e.getMessage().contains("no users specified"));
     }
 
+    @Test
+    void failsOnInvalidConnectionPoolSize() {
+        Database.Builder builder = new Database.Builder()
+                .forDatabase(TESTDB_NAME)
+                .ofType(DatabaseType.POSTGRESQL)
+                .onHost(TESTDB_HOST)
+                .withPort(TESTDB_PORT)
+                .withUser(new BackendUser(TESTDB_USER_NAME, TESTDB_USER_SECRET))
+                .withConnectionPoolSize(5, 2);
+        Exception e = Assertions.assertThrows(BuilderFailedException.class,
+                () -> builder.build());
+        Assertions.assertTrue(e.getMessage().contains(BUILDER_FAILED_MESSAGE));
+        Assertions.assertTrue(e.getMessage().contains("invalid connection pool size"));
+    }
+
 }
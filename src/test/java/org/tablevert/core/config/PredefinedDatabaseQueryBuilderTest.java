@@ -92,6 +92,33 @@ class PredefinedDatabaseQueryBuilderTest {
         Assertions.assertTrue(e.getMessage().contains("columns not specified"));
     }
 
+    @Test
+    void failsOnPartitionColumnNotSelected() {
+        PredefinedDatabaseQuery.Builder builder = new PredefinedDatabaseQuery.Builder()
+                .withName(QUERY_NAME)
+                .accessingDatabase(TESTDB_NAME)
+                .selectingColumns(createValidColumns())
+                .selectingFrom(QUERY_FROM)
+                .partitionedBy("unknown_col", 4);
+        Exception e = Assertions.assertThrows(BuilderFailedException.class,
+                () -> builder.build());
+        Assertions.assertTrue(e.getMessage().contains(BUILDER_FAILED_MESSAGE));
+        Assertions.assertTrue(e.getMessage().contains("partition column is not a select column"));
+    }
+
+    @Test
+    void failsOnRowIdColumnNotSelected() {
+        PredefinedDatabaseQuery.Builder builder = new PredefinedDatabaseQuery.Builder()
+                .withName(QUERY_NAME)
+                .accessingDatabase(TESTDB_NAME)
+                .selectingColumns(createValidColumns())
+                .selectingFrom(QUERY_FROM)
+                .identifyingRowsBy("unknown_col");
+        Exception e = Assertions.assertThrows(BuilderFailedException.class,
+                () -> builder.build());
+        Assertions.assertTrue(e.getMessage().contains("row id column is not a select column"));
+    }
+
     private List<DatabaseQueryColumn> createValidColumns() {
         List<DatabaseQueryColumn> columns = new ArrayList<>();
         columns.add(new DatabaseQueryColumn(QUERY_COLUMN_A_FORMULA, QUERY_COLUMN_A_NAME_VALID));